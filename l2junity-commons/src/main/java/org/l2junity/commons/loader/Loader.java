@@ -60,6 +60,7 @@ public final class Loader
 {
 	private final Map<Class<? extends ILoadGroup>, List<TreeNode<LoadHolder>>> _loadTreesGroups = new HashMap<>();
 	private final Map<String, LoadHolder> _reloads = new HashMap<>();
+	private final Map<LoadHolder, List<LoadHolder>> _externalDependencies = new HashMap<>();
 	private final Map<LoadHolder, Long> _executionTimes = new ConcurrentHashMap<>();
 	
 	public Loader(String prefix)
@@ -85,7 +86,18 @@ public final class Loader
 							
 							if (loadAnnotation.group() != dependencyLoadAnnotation.group())
 							{
-								throw new RuntimeException("Dependency " + dependencyLoadHolder + " of " + loadTreeNode.getValue() + " can not be in different Load group");
+								if (loadAnnotation.waitPreviousGroups())
+								{
+									throw new RuntimeException("Dependency " + dependencyLoadHolder + " of " + loadTreeNode.getValue() + " can not be in different Load group");
+								}
+								
+								final List<LoadHolder> externalDependencies = _externalDependencies.computeIfAbsent(loadTreeNode.getValue(), k -> new LinkedList<>());
+								if (externalDependencies.contains(dependencyLoadHolder))
+								{
+									throw new RuntimeException("Duplicated Dependency " + dependencyLoadHolder + " on " + loadTreeNode.getValue());
+								}
+								externalDependencies.add(dependencyLoadHolder);
+								continue;
 							}
 							
 							loadTreeNode.addChild(dependencyLoadHolder);
@@ -188,10 +200,10 @@ public final class Loader
 	public final CompletableFuture<Void> runAsync(Class<? extends ILoadGroup> loadGroup, Class<? extends ILoadGroup>... loadGroups)
 	{
 		final Deque<CompletableFuture<Void>> loadGroupCompletableFutures = new LinkedList<>();
+		final Map<LoadHolder, CompletableFuture<Void>> completableFutures = new HashMap<>();
 		CommonUtil.forEachArgAndVarArgs(loadGroup2 ->
 		{
 			final CompletableFuture<Void> previousLoadGroupCompletableFuture = loadGroupCompletableFutures.peekLast();
-			final Map<LoadHolder, CompletableFuture<Void>> completableFutures = new HashMap<>();
 			final List<CompletableFuture<Void>> rootCompletableFutures = new LinkedList<>();
 			for (TreeNode<LoadHolder> loadTreeNode : _loadTreesGroups.getOrDefault(loadGroup2, Collections.emptyList()))
 			{
@@ -201,11 +213,13 @@ public final class Loader
 					lastCompletableFuture = completableFutures.computeIfAbsent(treeNode.getValue(), k ->
 					{
 						//@formatter:off
-						Stream<CompletableFuture<Void>> dependencyCompletableFutureStream = treeNode.getChildren()
+						Stream<CompletableFuture<Void>> dependencyCompletableFutureStream = Stream.concat(treeNode.getChildren()
 								.stream()
 								.map(TreeNode::getValue)
-								.map(completableFutures::get);
-						if (previousLoadGroupCompletableFuture != null)
+								.map(completableFutures::get), getExternalDependencies(k)
+								.stream()
+								.map(dependency -> getScheduledCompletableFuture(completableFutures, dependency, k)));
+						if ((previousLoadGroupCompletableFuture != null) && waitsPreviousGroups(k))
 						{
 							dependencyCompletableFutureStream = Stream.concat(Stream.of(previousLoadGroupCompletableFuture), dependencyCompletableFutureStream);
 						}
@@ -216,11 +230,37 @@ public final class Loader
 				}
 				rootCompletableFutures.add(lastCompletableFuture);
 			}
+			
+			// A group is complete only when all previous groups are, even if some of its loads did not wait for them.
+			if (previousLoadGroupCompletableFuture != null)
+			{
+				rootCompletableFutures.add(previousLoadGroupCompletableFuture);
+			}
 			loadGroupCompletableFutures.add(CompletableFuture.allOf(rootCompletableFutures.stream().toArray(CompletableFuture[]::new)));
 		}, loadGroup, loadGroups);
 		return CompletableFuture.allOf(loadGroupCompletableFutures.stream().toArray(CompletableFuture[]::new));
 	}
 	
+	private List<LoadHolder> getExternalDependencies(LoadHolder loadHolder)
+	{
+		return _externalDependencies.getOrDefault(loadHolder, Collections.emptyList());
+	}
+	
+	private static boolean waitsPreviousGroups(LoadHolder loadHolder)
+	{
+		return loadHolder.getLoadMethod().getAnnotation(Load.class).waitPreviousGroups();
+	}
+	
+	private static CompletableFuture<Void> getScheduledCompletableFuture(Map<LoadHolder, CompletableFuture<Void>> completableFutures, LoadHolder dependency, LoadHolder loadHolder)
+	{
+		final CompletableFuture<Void> completableFuture = completableFutures.get(dependency);
+		if (completableFuture == null)
+		{
+			throw new RuntimeException("Dependency " + dependency + " of " + loadHolder + " is not in a Load group that runs before it");
+		}
+		return completableFuture;
+	}
+	
 	@SafeVarargs
 	public final void run(Class<? extends ILoadGroup> loadGroup, Class<? extends ILoadGroup>... loadGroups)
 	{
@@ -278,6 +318,84 @@ public final class Loader
 		}
 	}
 	
+	/**
+	 * Reports the chain of loads that determined the total loading time of the given groups, assuming they were run by one {@link #runAsync(Class, Class...)} call.<br>
+	 * The own time of a load is its recorded execution time minus the longest time of its in-group dependencies, loads that wait for previous groups continue the path of the slowest load of those groups.
+	 * @param loadGroup the first load group
+	 * @param loadGroups the following load groups, in their run order
+	 * @return the critical path, one load per line
+	 */
+	@SafeVarargs
+	public final String getCriticalPathString(Class<? extends ILoadGroup> loadGroup, Class<? extends ILoadGroup>... loadGroups)
+	{
+		final Map<LoadHolder, Long> selfTimes = new HashMap<>();
+		final Map<LoadHolder, Long> pathTimes = new HashMap<>();
+		final Map<LoadHolder, LoadHolder> predecessors = new HashMap<>();
+		final Deque<LoadHolder> previousGroupsEnd = new LinkedList<>();
+		CommonUtil.forEachArgAndVarArgs(loadGroup2 ->
+		{
+			LoadHolder groupEnd = previousGroupsEnd.peekLast();
+			for (TreeNode<LoadHolder> loadTreeNode : _loadTreesGroups.getOrDefault(loadGroup2, Collections.emptyList()))
+			{
+				for (TreeNode<LoadHolder> treeNode : loadTreeNode.postOrderTraversal())
+				{
+					final LoadHolder loadHolder = treeNode.getValue();
+					if (pathTimes.containsKey(loadHolder))
+					{
+						continue;
+					}
+					
+					final long childrenTime = treeNode.getChildren().stream().map(TreeNode::getValue).mapToLong(lh -> _executionTimes.getOrDefault(lh, 0L)).max().orElse(0);
+					final long selfTime = Math.max(0, _executionTimes.getOrDefault(loadHolder, 0L) - childrenTime);
+					
+					Stream<LoadHolder> predecessorStream = Stream.concat(treeNode.getChildren().stream().map(TreeNode::getValue), getExternalDependencies(loadHolder).stream());
+					if (!previousGroupsEnd.isEmpty() && waitsPreviousGroups(loadHolder))
+					{
+						predecessorStream = Stream.concat(predecessorStream, Stream.of(previousGroupsEnd.peekLast()));
+					}
+					final LoadHolder predecessor = predecessorStream.filter(pathTimes::containsKey).max(Comparator.comparingLong(pathTimes::get)).orElse(null);
+					
+					selfTimes.put(loadHolder, selfTime);
+					pathTimes.put(loadHolder, selfTime + (predecessor != null ? pathTimes.get(predecessor) : 0));
+					if (predecessor != null)
+					{
+						predecessors.put(loadHolder, predecessor);
+					}
+					
+					if ((groupEnd == null) || (pathTimes.get(loadHolder) > pathTimes.get(groupEnd)))
+					{
+						groupEnd = loadHolder;
+					}
+				}
+			}
+			
+			if (groupEnd != null)
+			{
+				previousGroupsEnd.add(groupEnd);
+			}
+		}, loadGroup, loadGroups);
+		
+		final LoadHolder end = previousGroupsEnd.peekLast();
+		if (end == null)
+		{
+			return "";
+		}
+		
+		final Deque<LoadHolder> criticalPath = new LinkedList<>();
+		for (LoadHolder loadHolder = end; loadHolder != null; loadHolder = predecessors.get(loadHolder))
+		{
+			criticalPath.addFirst(loadHolder);
+		}
+		
+		final StringJoiner sj = new StringJoiner(System.lineSeparator());
+		sj.add("Critical path: " + TimeUnit.NANOSECONDS.toMillis(pathTimes.get(end)) + " ms over " + criticalPath.size() + " load(s)");
+		for (LoadHolder loadHolder : criticalPath)
+		{
+			sj.add("+--- " + loadHolder + " " + TimeUnit.NANOSECONDS.toMillis(selfTimes.get(loadHolder)) + " ms (at " + TimeUnit.NANOSECONDS.toMillis(pathTimes.get(loadHolder)) + " ms)");
+		}
+		return sj.toString();
+	}
+	
 	@SafeVarargs
 	public final void writeDependencyTreeToFile(Path path, Class<? extends ILoadGroup> loadGroup, Class<? extends ILoadGroup>... loadGroups) throws IOException
 	{
@@ -17,4 +17,11 @@ public @interface Load
 	Class<? extends ILoadGroup> group();
 	
 	Dependency[] dependencies() default {};
+	
+	/**
+	 * When {@code false}, this load does not wait for all previous load groups, only for its dependencies.<br>
+	 * Such loads may also depend on loads of previous groups.
+	 * @return {@code true} if this load waits for all previous load groups to complete
+	 */
+	boolean waitPreviousGroups() default true;
 }
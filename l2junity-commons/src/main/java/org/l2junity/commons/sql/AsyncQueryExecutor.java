@@ -0,0 +1,772 @@
+/*
+ * Copyright (C) 2004-2017 L2J Unity
+ * 
+ * This file is part of L2J Unity.
+ * 
+ * L2J Unity is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Unity is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2junity.commons.sql;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import org.l2junity.commons.util.concurrent.ThreadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs queries on dedicated database threads, so game threads do not wait for the database.<br>
+ * Every thread owns a lane with a bounded queue, queries submitted with the same key always go to the same lane and run in the order they were submitted. When a lane is full the submitting thread waits for it.<br>
+ * A lane takes everything queued at once and runs it in one transaction on a connection it keeps along with its prepared statements, consecutive writes of the same statement are sent as one JDBC batch. When a query fails, the others run again without it.<br>
+ * Reads run on the lane of their key after the queries submitted before them, the result is handed to the callback on the thread pool.<br>
+ * Before {@link #start(IDatabaseConfig)} queries run on the submitting thread, so do queries submitted once {@link #shutdown()} started, after the database threads ran everything queued.
+ */
+public final class AsyncQueryExecutor
+{
+	private static final Logger LOGGER = LoggerFactory.getLogger(AsyncQueryExecutor.class);
+	
+	/** Upper bounds of the latency histogram buckets in milliseconds, the last bucket takes everything slower */
+	private static final long[] LATENCY_BUCKETS =
+	{
+		1,
+		5,
+		20,
+		100,
+		500
+	};
+	/** Amount of statements listed by {@link #getStats()} */
+	private static final int STATS_STATEMENTS = 10;
+	/** Longest statement text listed by {@link #getStats()} */
+	private static final int STATS_SQL_LENGTH = 60;
+	private static final long SHUTDOWN_TIMEOUT = TimeUnit.MINUTES.toMillis(1);
+	/** Seconds to wait for a kept connection to be validated before a transaction */
+	private static final int CONNECTION_VALIDATION_TIMEOUT = 5;
+	
+	private static final Query STOP = new Query(null, null, null, null);
+	
+	/** Held shared while a query is queued, and exclusively while the database threads are stopped, so no query is queued behind their stop */
+	private final ReadWriteLock _submitLock = new ReentrantReadWriteLock();
+	private volatile Lane[] _lanes;
+	private int _batchSize;
+	
+	// Statistics
+	private final Map<String, StatementStats> _statementStats = new ConcurrentHashMap<>();
+	private final LongAdder _submitted = new LongAdder();
+	private final LongAdder _executed = new LongAdder();
+	private final LongAdder _batches = new LongAdder();
+	private final LongAdder _transactions = new LongAdder();
+	private final LongAdder _failures = new LongAdder();
+	private final LongAdder _backPressureWaits = new LongAdder();
+	private final AtomicLong _longestQueueWait = new AtomicLong();
+	
+	protected AsyncQueryExecutor()
+	{
+	}
+	
+	/**
+	 * Starts the database threads.
+	 * @param config the database config
+	 */
+	public synchronized void start(IDatabaseConfig config)
+	{
+		if (_lanes != null)
+		{
+			return;
+		}
+		
+		final int threads = Math.max(1, config.getAsyncThreads());
+		final int capacity = Math.max(1, config.getAsyncQueueSize() / threads);
+		_batchSize = Math.max(1, config.getAsyncBatchSize());
+		final Lane[] lanes = new Lane[threads];
+		for (int i = 0; i < threads; i++)
+		{
+			lanes[i] = new Lane(i, capacity);
+			lanes[i].start();
+		}
+		_lanes = lanes;
+		LOGGER.info("Running queries on {} database threads.", threads);
+	}
+	
+	/**
+	 * Stops accepting queries and waits for the database threads to run everything queued.<br>
+	 * Queries submitted meanwhile wait for it and then run on the submitting thread, after the queued ones.
+	 */
+	public synchronized void shutdown()
+	{
+		final Lock lock = _submitLock.writeLock();
+		lock.lock();
+		try
+		{
+			final Lane[] lanes = _lanes;
+			if (lanes == null)
+			{
+				return;
+			}
+			
+			_lanes = null;
+			for (Lane lane : lanes)
+			{
+				try
+				{
+					lane._queue.put(STOP);
+				}
+				catch (InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+				}
+			}
+			
+			final long deadline = System.currentTimeMillis() + SHUTDOWN_TIMEOUT;
+			for (Lane lane : lanes)
+			{
+				try
+				{
+					lane.join(Math.max(1, deadline - System.currentTimeMillis()));
+				}
+				catch (InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+				}
+				
+				if (lane.isAlive())
+				{
+					LOGGER.warn("{} did not finish in time, {} queries are lost!", lane.getName(), lane._queue.size());
+				}
+			}
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+	
+	/**
+	 * Submits a write, writes of the same statement run in the order they were submitted.
+	 * @param sql the statement
+	 * @param params the parameters of the statement
+	 */
+	public void execute(String sql, Object... params)
+	{
+		submit(sql.hashCode(), new Query(sql, params, null, null));
+	}
+	
+	/**
+	 * Submits a write, queries of the same key run in the order they were submitted.
+	 * @param key the key, for example the object id of the row written
+	 * @param sql the statement
+	 * @param params the parameters of the statement
+	 */
+	public void execute(int key, String sql, Object... params)
+	{
+		submit(key, new Query(sql, params, null, null));
+	}
+	
+	/**
+	 * Submits a read, it runs after all queries submitted before with the same key.
+	 * @param <T> the type of the result
+	 * @param key the key, for example the object id of the row read
+	 * @param sql the query
+	 * @param params the parameters of the query
+	 * @param handler turns the result set into the result, on the database thread
+	 * @param callback receives the result on the thread pool, it is not called if the query failed
+	 */
+	public <T> void query(int key, String sql, Object[] params, ResultSetHandler<T> handler, Consumer<T> callback)
+	{
+		submit(key, new Query(sql, params, handler, callback));
+	}
+	
+	/**
+	 * Waits until all queries submitted before with the same key ran, for example before the rows written by them are read on another connection.
+	 * @param key the key
+	 */
+	public void await(int key)
+	{
+		final CountDownLatch barrier = new CountDownLatch(1);
+		submit(key, new Query(barrier));
+		try
+		{
+			if (!barrier.await(SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS))
+			{
+				LOGGER.warn("Queries of key {} did not run in time!", key);
+			}
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	private void submit(int key, Query query)
+	{
+		_submitted.increment();
+		if (!enqueue(key, query))
+		{
+			runQueries(Collections.singletonList(query));
+		}
+	}
+	
+	/**
+	 * @param key the key
+	 * @param query the query
+	 * @return {@code true} if the query is queued, {@code false} if the caller has to run it
+	 */
+	private boolean enqueue(int key, Query query)
+	{
+		final Lock lock = _submitLock.readLock();
+		lock.lock();
+		try
+		{
+			final Lane[] lanes = _lanes;
+			if (lanes == null)
+			{
+				return false;
+			}
+			
+			final BlockingQueue<Query> queue = lanes[(key & Integer.MAX_VALUE) % lanes.length]._queue;
+			if (!queue.offer(query))
+			{
+				_backPressureWaits.increment();
+				
+				// Running the query here would run it before the ones queued with the same key, keep waiting
+				boolean interrupted = false;
+				while (true)
+				{
+					try
+					{
+						queue.put(query);
+						break;
+					}
+					catch (InterruptedException e)
+					{
+						interrupted = true;
+					}
+				}
+				if (interrupted)
+				{
+					Thread.currentThread().interrupt();
+				}
+			}
+			return true;
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+	
+	/**
+	 * Runs queries on a connection of their own, used when there is no database thread.
+	 * @param queries the queries
+	 */
+	private void runQueries(List<Query> queries)
+	{
+		final Map<String, PreparedStatement> statements = new HashMap<>();
+		try (Connection con = DatabaseFactory.getInstance().getConnection())
+		{
+			con.setAutoCommit(false);
+			try
+			{
+				runTransaction(con, statements, queries, false);
+			}
+			finally
+			{
+				closeStatements(statements);
+				con.setAutoCommit(true);
+			}
+		}
+		catch (SQLException e)
+		{
+			_failures.add(queries.size());
+			LOGGER.warn("Failed to run {} queries!", queries.size(), e);
+			releaseBarriers(queries);
+		}
+	}
+	
+	/**
+	 * Runs queries in one transaction.<br>
+	 * When a query fails, the transaction is rolled back and the queries run again one by one in transactions of their own, so only the failing query is lost.
+	 * @param con the connection, not in auto-commit mode
+	 * @param statements the prepared statements of the connection by statement
+	 * @param queries the queries
+	 * @param async {@code true} if the callbacks run on the thread pool, {@code false} if they run on the current thread
+	 * @throws SQLException if the connection failed, nothing of the transaction is committed then
+	 */
+	protected void runTransaction(Connection con, Map<String, PreparedStatement> statements, List<Query> queries, boolean async) throws SQLException
+	{
+		final long now = System.nanoTime();
+		for (Query query : queries)
+		{
+			final long queueWait = now - query._submitTime;
+			if (queueWait > _longestQueueWait.get())
+			{
+				_longestQueueWait.accumulateAndGet(queueWait, Math::max);
+			}
+		}
+		
+		final List<Runnable> callbacks = new ArrayList<>();
+		final List<CountDownLatch> barriers = new ArrayList<>();
+		try
+		{
+			int start = 0;
+			while (start < queries.size())
+			{
+				final Query query = queries.get(start);
+				if (query.isBarrier())
+				{
+					barriers.add(query._barrier);
+					start++;
+					continue;
+				}
+				
+				int end = start + 1;
+				if (!query.isRead())
+				{
+					while ((end < queries.size()) && !queries.get(end).isRead() && !queries.get(end).isBarrier() && queries.get(end)._sql.equals(query._sql))
+					{
+						end++;
+					}
+				}
+				
+				PreparedStatement ps = statements.get(query._sql);
+				if (ps == null)
+				{
+					ps = con.prepareStatement(query._sql);
+					statements.put(query._sql, ps);
+				}
+				
+				if (query.isRead())
+				{
+					runRead(ps, query, callbacks);
+				}
+				else
+				{
+					runWrites(ps, queries.subList(start, end));
+				}
+				start = end;
+			}
+			con.commit();
+		}
+		catch (SQLException e)
+		{
+			// Throws if the connection is broken, the caller decides about the queries then
+			con.rollback();
+			if (queries.size() == 1)
+			{
+				_failures.increment();
+				LOGGER.warn("Failed to run: {}", queries.get(0)._sql, e);
+				releaseBarriers(queries);
+				return;
+			}
+			
+			LOGGER.warn("Failed to run {} queries in one transaction, running them one by one.", queries.size(), e);
+			for (Query query : queries)
+			{
+				runTransaction(con, statements, Collections.singletonList(query), async);
+			}
+			return;
+		}
+		
+		_transactions.increment();
+		_executed.add(queries.size());
+		for (Runnable callback : callbacks)
+		{
+			if (async)
+			{
+				ThreadPool.execute(callback);
+			}
+			else
+			{
+				callback.run();
+			}
+		}
+		for (CountDownLatch barrier : barriers)
+		{
+			barrier.countDown();
+		}
+	}
+	
+	/**
+	 * Lets the threads waiting for failed queries go on.
+	 * @param queries the queries
+	 */
+	private static void releaseBarriers(List<Query> queries)
+	{
+		for (Query query : queries)
+		{
+			if (query.isBarrier())
+			{
+				query._barrier.countDown();
+			}
+		}
+	}
+	
+	private void runWrites(PreparedStatement ps, List<Query> writes) throws SQLException
+	{
+		final long start = System.nanoTime();
+		try
+		{
+			if (writes.size() == 1)
+			{
+				writes.get(0).bind(ps);
+				ps.executeUpdate();
+			}
+			else
+			{
+				for (Query write : writes)
+				{
+					write.bind(ps);
+					ps.addBatch();
+				}
+				ps.executeBatch();
+				_batches.increment();
+			}
+		}
+		finally
+		{
+			ps.clearBatch();
+			getStatementStats(writes.get(0)._sql).add(writes.size(), System.nanoTime() - start);
+		}
+	}
+	
+	@SuppressWarnings(
+	{
+		"unchecked",
+		"rawtypes"
+	})
+	private void runRead(PreparedStatement ps, Query read, List<Runnable> callbacks) throws SQLException
+	{
+		final long start = System.nanoTime();
+		try
+		{
+			read.bind(ps);
+			final Object result;
+			try (ResultSet rs = ps.executeQuery())
+			{
+				result = read._handler.handle(rs);
+			}
+			
+			final Consumer callback = read._callback;
+			if (callback != null)
+			{
+				callbacks.add(() -> callback.accept(result));
+			}
+		}
+		finally
+		{
+			getStatementStats(read._sql).add(1, System.nanoTime() - start);
+		}
+	}
+	
+	private static void closeStatements(Map<String, PreparedStatement> statements)
+	{
+		for (PreparedStatement ps : statements.values())
+		{
+			try
+			{
+				ps.close();
+			}
+			catch (SQLException e)
+			{
+				// Closed along with a broken connection
+			}
+		}
+		statements.clear();
+	}
+	
+	private StatementStats getStatementStats(String sql)
+	{
+		return _statementStats.computeIfAbsent(sql, StatementStats::new);
+	}
+	
+	public List<String> getStats()
+	{
+		final Lane[] lanes = _lanes;
+		int queued = 0;
+		int capacity = 0;
+		if (lanes != null)
+		{
+			for (Lane lane : lanes)
+			{
+				queued += lane._queue.size();
+				capacity += lane._queue.size() + lane._queue.remainingCapacity();
+			}
+		}
+		
+		final List<String> list = new ArrayList<>();
+		list.add("Async Database:");
+		list.add("\tThreads: ............. " + (lanes != null ? lanes.length : 0));
+		list.add("\tQueued: .............. " + queued + " / " + capacity);
+		list.add("\tSubmitted: ........... " + _submitted.sum());
+		list.add("\tExecuted: ............ " + _executed.sum());
+		list.add("\tBatches: ............. " + _batches.sum());
+		list.add("\tTransactions: ........ " + _transactions.sum());
+		list.add("\tFailures: ............ " + _failures.sum());
+		list.add("\tBack-pressure waits: . " + _backPressureWaits.sum());
+		list.add("\tLongest queue wait: .. " + TimeUnit.NANOSECONDS.toMillis(_longestQueueWait.get()) + " ms");
+		
+		final StringBuilder buckets = new StringBuilder();
+		for (long bucket : LATENCY_BUCKETS)
+		{
+			buckets.append("<=").append(bucket).append("ms/");
+		}
+		list.add("Async Database Statements (most time, " + buckets + "slower):");
+		_statementStats.values().stream().sorted(Comparator.comparingLong(StatementStats::getTotalTime).reversed()).limit(STATS_STATEMENTS).forEach(stats -> list.add("\t" + stats));
+		return list;
+	}
+	
+	/**
+	 * Turns the result set of a read into its result.
+	 * @param <T> the type of the result
+	 */
+	@FunctionalInterface
+	public interface ResultSetHandler<T>
+	{
+		T handle(ResultSet rs) throws SQLException;
+	}
+	
+	protected static final class Query
+	{
+		protected final String _sql;
+		private final Object[] _params;
+		protected final ResultSetHandler<?> _handler;
+		protected final Consumer<?> _callback;
+		protected final CountDownLatch _barrier;
+		protected final long _submitTime = System.nanoTime();
+		
+		protected Query(String sql, Object[] params, ResultSetHandler<?> handler, Consumer<?> callback)
+		{
+			_sql = sql;
+			_params = params;
+			_handler = handler;
+			_callback = callback;
+			_barrier = null;
+		}
+		
+		/**
+		 * Creates a query running nothing, the barrier is released once the queries before it ran.
+		 * @param barrier the barrier
+		 */
+		protected Query(CountDownLatch barrier)
+		{
+			_sql = null;
+			_params = null;
+			_handler = null;
+			_callback = null;
+			_barrier = barrier;
+		}
+		
+		protected boolean isRead()
+		{
+			return _handler != null;
+		}
+		
+		protected boolean isBarrier()
+		{
+			return _barrier != null;
+		}
+		
+		protected void bind(PreparedStatement ps) throws SQLException
+		{
+			if (_params != null)
+			{
+				for (int i = 0; i < _params.length; i++)
+				{
+					ps.setObject(i + 1, _params[i]);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * A database thread, it keeps a connection along with its prepared statements.
+	 */
+	private final class Lane extends Thread
+	{
+		protected final BlockingQueue<Query> _queue;
+		private final Map<String, PreparedStatement> _statements = new HashMap<>();
+		private Connection _con;
+		
+		protected Lane(int id, int capacity)
+		{
+			super("L2JU-Database-" + id);
+			_queue = new ArrayBlockingQueue<>(capacity);
+		}
+		
+		@Override
+		public void run()
+		{
+			final List<Query> queries = new ArrayList<>(_batchSize);
+			while (true)
+			{
+				try
+				{
+					queries.add(_queue.take());
+				}
+				catch (InterruptedException e)
+				{
+					continue;
+				}
+				_queue.drainTo(queries, _batchSize - 1);
+				
+				final boolean stop = queries.remove(STOP);
+				if (!queries.isEmpty())
+				{
+					runQueries(queries);
+				}
+				queries.clear();
+				
+				if (stop)
+				{
+					closeConnection();
+					return;
+				}
+			}
+		}
+		
+		/**
+		 * Runs queries in one transaction on the connection of this thread, which is replaced when it is no longer valid.
+		 * @param queries the queries
+		 */
+		private void runQueries(List<Query> queries)
+		{
+			try
+			{
+				if ((_con != null) && !_con.isValid(CONNECTION_VALIDATION_TIMEOUT))
+				{
+					closeConnection();
+				}
+				if (_con == null)
+				{
+					_con = DatabaseFactory.getInstance().getConnection();
+					_con.setAutoCommit(false);
+				}
+				runTransaction(_con, _statements, queries, true);
+			}
+			catch (Exception e)
+			{
+				// The queries not committed are lost, the connection is not reused
+				_failures.add(queries.size());
+				LOGGER.warn("Failed to run {} queries!", queries.size(), e);
+				releaseBarriers(queries);
+				closeConnection();
+			}
+		}
+		
+		private void closeConnection()
+		{
+			closeStatements(_statements);
+			if (_con != null)
+			{
+				try
+				{
+					_con.close();
+				}
+				catch (SQLException e)
+				{
+					LOGGER.warn("Failed to close the connection of {}", getName(), e);
+				}
+				_con = null;
+			}
+		}
+	}
+	
+	/**
+	 * Counts the runs of one statement with a latency histogram, a JDBC batch is counted as that many runs taking the average time each.
+	 */
+	private static final class StatementStats
+	{
+		private final String _sql;
+		private final LongAdder _count = new LongAdder();
+		private final LongAdder _totalTime = new LongAdder();
+		private final AtomicLong _maxTime = new AtomicLong();
+		private final LongAdder[] _buckets = new LongAdder[LATENCY_BUCKETS.length + 1];
+		
+		protected StatementStats(String sql)
+		{
+			_sql = sql;
+			for (int i = 0; i < _buckets.length; i++)
+			{
+				_buckets[i] = new LongAdder();
+			}
+		}
+		
+		protected void add(int count, long time)
+		{
+			_count.add(count);
+			_totalTime.add(time);
+			
+			final long average = time / count;
+			if (average > _maxTime.get())
+			{
+				_maxTime.accumulateAndGet(average, Math::max);
+			}
+			
+			final long millis = TimeUnit.NANOSECONDS.toMillis(average);
+			int bucket = 0;
+			while ((bucket < LATENCY_BUCKETS.length) && (millis >= LATENCY_BUCKETS[bucket]))
+			{
+				bucket++;
+			}
+			_buckets[bucket].add(count);
+		}
+		
+		protected long getTotalTime()
+		{
+			return _totalTime.sum();
+		}
+		
+		@Override
+		public String toString()
+		{
+			final long count = _count.sum();
+			final StringBuilder sb = new StringBuilder();
+			sb.append(_sql.length() > STATS_SQL_LENGTH ? _sql.substring(0, STATS_SQL_LENGTH) + "..." : _sql);
+			sb.append(": ").append(count).append(" runs, avg ").append(count > 0 ? TimeUnit.NANOSECONDS.toMicros(getTotalTime() / count) : 0).append(" us, max ").append(TimeUnit.NANOSECONDS.toMicros(_maxTime.get())).append(" us, ");
+			for (int i = 0; i < _buckets.length; i++)
+			{
+				sb.append(i > 0 ? "/" : "").append(_buckets[i].sum());
+			}
+			return sb.toString();
+		}
+	}
+	
+	public static AsyncQueryExecutor getInstance()
+	{
+		return SingletonHolder.INSTANCE;
+	}
+	
+	private static final class SingletonHolder
+	{
+		protected static final AsyncQueryExecutor INSTANCE = new AsyncQueryExecutor();
+	}
+}
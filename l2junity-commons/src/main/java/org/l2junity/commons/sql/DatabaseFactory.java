@@ -111,6 +111,8 @@ public final class DatabaseFactory
 		}
 		
 		LOGGER.info("Initialized DB '{}' as user '{}'.", _databaseConfig.getJdbcURL(), _databaseConfig.getUsername());
+		
+		AsyncQueryExecutor.getInstance().start(_databaseConfig);
 	}
 	
 	private void closeSource()
@@ -136,6 +138,9 @@ public final class DatabaseFactory
 		
 		LOGGER.info("Shutting down.");
 		
+		// Run the queued queries while connections are still available
+		AsyncQueryExecutor.getInstance().shutdown();
+		
 		try
 		{
 			DatabaseFactory.getInstance().closeSource();
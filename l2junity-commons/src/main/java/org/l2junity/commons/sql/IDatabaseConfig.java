@@ -34,4 +34,28 @@ public interface IDatabaseConfig
 	int getMaxIdleTime();
 	
 	long getConnectionCloseTime();
+	
+	/**
+	 * @return the amount of threads running the queries of {@link AsyncQueryExecutor}
+	 */
+	default int getAsyncThreads()
+	{
+		return 2;
+	}
+	
+	/**
+	 * @return the amount of queries {@link AsyncQueryExecutor} queues before submitting threads wait
+	 */
+	default int getAsyncQueueSize()
+	{
+		return 10000;
+	}
+	
+	/**
+	 * @return the largest amount of queries {@link AsyncQueryExecutor} runs in one transaction
+	 */
+	default int getAsyncBatchSize()
+	{
+		return 100;
+	}
 }
@@ -18,6 +18,7 @@
  */
 package org.l2junity.commons.util;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.file.DirectoryStream.Filter;
 import java.nio.file.FileVisitOption;
@@ -26,16 +27,22 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
 import java.util.EnumSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
 import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 
 import org.slf4j.Logger;
@@ -99,25 +106,49 @@ public interface IXmlReader
 	 * @throws XmlReaderException
 	 */
 	default void parseFile(final Path path) throws IOException, XmlReaderException
+	{
+		final Document doc = readDocument(path);
+		if (doc != null)
+		{
+			parseDocument(doc, path);
+		}
+	}
+	
+	/**
+	 * Reads a single XML file into a document without calling {@link #parseDocument(Document, Path)}.<br>
+	 * When {@link XmlSnapshot} is enabled, an up to date binary snapshot of the file is used instead of parsing it again.<br>
+	 * This method does not touch the state of the reader, so it may be called from any thread.
+	 * @param path the XML file to read
+	 * @return the document, or {@code null} if the file is not accepted by {@link #getCurrentFileFilter()}
+	 * @throws IOException
+	 * @throws XmlReaderException
+	 */
+	default Document readDocument(final Path path) throws IOException, XmlReaderException
 	{
 		if (!getCurrentFileFilter().accept(path))
 		{
 			// Uncomment it, if you want README and such files appear as a warning...
 			// LOGGER.warn("Skipping path: '{}'", path);
-			return;
+			return null;
 		}
 		
-		final DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-		dbf.setNamespaceAware(true);
-		dbf.setValidating(isValidating());
-		dbf.setIgnoringComments(isIgnoringComments());
-		dbf.setIgnoringElementContentWhitespace(isIgnoringWhitespace());
 		try
 		{
-			dbf.setAttribute(JAXP_SCHEMA_LANGUAGE, W3C_XML_SCHEMA);
-			final DocumentBuilder db = dbf.newDocumentBuilder();
-			db.setErrorHandler(new XMLErrorHandler());
-			parseDocument(db.parse(path.toAbsolutePath().toFile()), path);
+			final DocumentBuilder db = XmlParserPool.getDocumentBuilder(isValidating(), isIgnoringComments(), isIgnoringWhitespace());
+			if (!XmlSnapshot.isEnabled())
+			{
+				return db.parse(path.toAbsolutePath().toFile());
+			}
+			
+			final byte[] source = Files.readAllBytes(path);
+			final long key = XmlSnapshot.computeKey(path, source, XmlSnapshot.flagsOf(isValidating(), isIgnoringComments(), isIgnoringWhitespace()));
+			Document doc = XmlSnapshot.read(path, key, db);
+			if (doc == null)
+			{
+				doc = db.parse(new ByteArrayInputStream(source), path.toAbsolutePath().toUri().toString());
+				XmlSnapshot.write(path, key, doc);
+			}
+			return doc;
 		}
 		catch (final SAXParseException e)
 		{
@@ -131,6 +162,71 @@ public interface IXmlReader
 		}
 	}
 	
+	/**
+	 * Parses the given XML files as if {@link #parseFile(Path)} was called for each one of them.<br>
+	 * When {@link XmlParserPool} has parallel parsing enabled, the files are read into documents by its threads, a bounded amount of files ahead.<br>
+	 * {@link #parseDocument(Document, Path)} is still called on the current thread in the order of {@code paths}, so readers do not have to be thread-safe and the merge order stays the same.
+	 * @param paths the XML files to parse
+	 */
+	default void parseFiles(final Collection<Path> paths)
+	{
+		final ExecutorService executor = XmlParserPool.getExecutor();
+		if ((executor == null) || (paths.size() < 2))
+		{
+			paths.forEach(path ->
+			{
+				try
+				{
+					parseFile(path);
+				}
+				catch (final IOException | XmlReaderException e)
+				{
+					LOGGER.warn("Failed to load file: '" + path + "'", e);
+				}
+			});
+			return;
+		}
+		
+		final int readAhead = XmlParserPool.getParallelism() * 2;
+		final Iterator<Path> pathsIterator = paths.iterator();
+		final Deque<Path> pendingPaths = new ArrayDeque<>(readAhead);
+		final Deque<Future<Document>> pendingDocuments = new ArrayDeque<>(readAhead);
+		try
+		{
+			while (pathsIterator.hasNext() || !pendingPaths.isEmpty())
+			{
+				while (pathsIterator.hasNext() && (pendingPaths.size() < readAhead))
+				{
+					final Path path = pathsIterator.next();
+					pendingPaths.add(path);
+					pendingDocuments.add(executor.submit(() -> readDocument(path)));
+				}
+				
+				final Path path = pendingPaths.poll();
+				try
+				{
+					final Document doc = pendingDocuments.poll().get();
+					if (doc != null)
+					{
+						parseDocument(doc, path);
+					}
+				}
+				catch (final ExecutionException e)
+				{
+					LOGGER.warn("Failed to load file: '" + path + "'", e.getCause());
+				}
+			}
+		}
+		catch (final InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		finally
+		{
+			pendingDocuments.forEach(future -> future.cancel(true));
+		}
+	}
+	
 	/**
 	 * Abstract method that when implemented will parse the current document.<br>
 	 * Is expected to be call from {@link #parseFile(Path)}.
@@ -151,7 +247,7 @@ public interface IXmlReader
 	}
 	
 	/**
-	 * Loads all XML files from {@code path} and calls {@link #parseFile(Path)} for each one of them.
+	 * Loads all XML files from {@code path} and calls {@link #parseFiles(Collection)} for them.
 	 * @param dir the directory object to scan.
 	 * @param recursive parses all sub folders if there is.
 	 * @return {@code false} if it fails to find the directory, {@code true} otherwise.
@@ -159,7 +255,7 @@ public interface IXmlReader
 	 */
 	default boolean parseDirectory(final Path dir, final boolean recursive) throws IOException
 	{
-		final List<Path> pathsToParse = new LinkedList<>();
+		final List<Path> pathsToParse = new ArrayList<>();
 		Files.walkFileTree(dir, EnumSet.noneOf(FileVisitOption.class), recursive ? Integer.MAX_VALUE : 1, new SimpleFileVisitor<Path>()
 		{
 			@Override
@@ -169,17 +265,7 @@ public interface IXmlReader
 				return FileVisitResult.CONTINUE;
 			}
 		});
-		pathsToParse.forEach(path ->
-		{
-			try
-			{
-				parseFile(path);
-			}
-			catch (final IOException | XmlReaderException e)
-			{
-				LOGGER.warn("Failed to load file: '" + path + "'", e);
-			}
-		});
+		parseFiles(pathsToParse);
 		return true;
 	}
 	
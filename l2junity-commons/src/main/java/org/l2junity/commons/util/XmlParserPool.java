@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2004-2017 L2J Unity
+ * 
+ * This file is part of L2J Unity.
+ * 
+ * L2J Unity is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Unity is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2junity.commons.util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+/**
+ * Document builders and worker threads shared by all {@link IXmlReader}s.<br>
+ * Document builders are not thread-safe, so every thread keeps its own builder per parser configuration and resets it before each use, which saves creating a new factory for every file.<br>
+ * Parallel parsing is disabled until {@link #setParallelism(int)} is called with a value greater than one.
+ */
+public final class XmlParserPool
+{
+	private static final ThreadLocal<DocumentBuilder[]> DOCUMENT_BUILDERS = ThreadLocal.withInitial(() -> new DocumentBuilder[8]);
+	
+	private static volatile ExecutorService _executor;
+	private static volatile int _parallelism = 1;
+	
+	private XmlParserPool()
+	{
+		// utility class
+	}
+	
+	/**
+	 * Sets the amount of threads used to parse the files of a directory.
+	 * @param parallelism the amount of threads, {@code 1} or less parses on the calling thread only
+	 */
+	public static synchronized void setParallelism(int parallelism)
+	{
+		if (_parallelism == parallelism)
+		{
+			return;
+		}
+		
+		final ExecutorService executor = _executor;
+		_executor = null;
+		_parallelism = parallelism;
+		if (executor != null)
+		{
+			executor.shutdown();
+		}
+	}
+	
+	/**
+	 * @return the amount of threads used to parse the files of a directory
+	 */
+	public static int getParallelism()
+	{
+		return _parallelism;
+	}
+	
+	/**
+	 * @return the executor parsing files in parallel, or {@code null} if parallel parsing is disabled
+	 */
+	static ExecutorService getExecutor()
+	{
+		ExecutorService executor = _executor;
+		if ((executor == null) && (_parallelism > 1))
+		{
+			synchronized (XmlParserPool.class)
+			{
+				executor = _executor;
+				if ((executor == null) && (_parallelism > 1))
+				{
+					final AtomicInteger threadId = new AtomicInteger();
+					executor = Executors.newFixedThreadPool(_parallelism, r ->
+					{
+						final Thread thread = new Thread(r, "L2JU-XML-" + threadId.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					});
+					_executor = executor;
+				}
+			}
+		}
+		return executor;
+	}
+	
+	/**
+	 * Gets the document builder of the current thread for the given configuration.
+	 * @param validating {@code true} if the document is validated
+	 * @param ignoringComments {@code true} if comments are ignored
+	 * @param ignoringWhitespace {@code true} if whitespace nodes are ignored
+	 * @return the document builder, reset to its initial state
+	 * @throws ParserConfigurationException
+	 */
+	static DocumentBuilder getDocumentBuilder(boolean validating, boolean ignoringComments, boolean ignoringWhitespace) throws ParserConfigurationException
+	{
+		final DocumentBuilder[] documentBuilders = DOCUMENT_BUILDERS.get();
+		final int index = XmlSnapshot.flagsOf(validating, ignoringComments, ignoringWhitespace);
+		DocumentBuilder db = documentBuilders[index];
+		if (db == null)
+		{
+			final DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+			dbf.setNamespaceAware(true);
+			dbf.setValidating(validating);
+			dbf.setIgnoringComments(ignoringComments);
+			dbf.setIgnoringElementContentWhitespace(ignoringWhitespace);
+			dbf.setAttribute(IXmlReader.JAXP_SCHEMA_LANGUAGE, IXmlReader.W3C_XML_SCHEMA);
+			db = dbf.newDocumentBuilder();
+			documentBuilders[index] = db;
+		}
+		else
+		{
+			db.reset();
+		}
+		db.setErrorHandler(new IXmlReader.XMLErrorHandler());
+		return db;
+	}
+}
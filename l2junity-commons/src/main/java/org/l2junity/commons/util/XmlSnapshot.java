@@ -0,0 +1,502 @@
+/*
+ * Copyright (C) 2004-2017 L2J Unity
+ * 
+ * This file is part of L2J Unity.
+ * 
+ * L2J Unity is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Unity is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2junity.commons.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+import javax.xml.parsers.DocumentBuilder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.ProcessingInstruction;
+
+/**
+ * Binary snapshots of parsed and validated XML documents.<br>
+ * Every source file gets its own snapshot holding the whole DOM tree in a compact, versioned format together with the size and CRC32 of the source it was built from, and the size and modification time of the schema it was validated against.<br>
+ * When the source and its schema are unchanged the tree is rebuilt from the snapshot, skipping the XML parser and the schema validation, otherwise the caller parses the XML as usual and stores a fresh snapshot.<br>
+ * Snapshots are disabled until {@link #setDirectory(Path)} is called with a non {@code null} directory.
+ */
+public final class XmlSnapshot
+{
+	private static final Logger LOGGER = LoggerFactory.getLogger(XmlSnapshot.class);
+	
+	private static final int MAGIC = 0x4C325853; // L2XS
+	private static final int VERSION = 1;
+	
+	private static final byte NODE_ELEMENT = 1;
+	private static final byte NODE_TEXT = 2;
+	private static final byte NODE_CDATA = 3;
+	private static final byte NODE_COMMENT = 4;
+	private static final byte NODE_PROCESSING_INSTRUCTION = 5;
+	
+	/** The schema is referenced by the root element, which is near the start of the file. */
+	private static final int SCHEMA_LOCATION_SCAN_LENGTH = 8192;
+	private static final Pattern SCHEMA_LOCATION = Pattern.compile("(?:noNamespaceSchemaLocation|schemaLocation)\\s*=\\s*[\"']([^\"']*)[\"']");
+	
+	private static volatile Path _directory;
+	
+	private static final AtomicLong _hits = new AtomicLong();
+	private static final AtomicLong _misses = new AtomicLong();
+	private static final AtomicLong _writeFailures = new AtomicLong();
+	
+	private XmlSnapshot()
+	{
+		// utility class
+	}
+	
+	/**
+	 * Sets the directory where snapshots are stored.
+	 * @param directory the snapshot directory, {@code null} disables snapshots
+	 */
+	public static void setDirectory(Path directory)
+	{
+		_directory = directory;
+	}
+	
+	/**
+	 * @return {@code true} if snapshots are enabled, {@code false} otherwise
+	 */
+	public static boolean isEnabled()
+	{
+		return _directory != null;
+	}
+	
+	/**
+	 * Computes the key of a source file, it changes whenever the content of the file changes, or the schema it is validated against.
+	 * @param path the source file
+	 * @param source the content of the source file
+	 * @param flags the parser flags the document is built with
+	 * @return the key of the source
+	 * @throws IOException
+	 */
+	public static long computeKey(Path path, byte[] source, int flags) throws IOException
+	{
+		final CRC32 crc = new CRC32();
+		crc.update(source);
+		if ((flags & 1) != 0)
+		{
+			final Path schema = findSchema(path, source);
+			if ((schema != null) && Files.isRegularFile(schema))
+			{
+				final ByteBuffer schemaState = ByteBuffer.allocate(16);
+				schemaState.putLong(Files.size(schema));
+				schemaState.putLong(Files.getLastModifiedTime(schema).toMillis());
+				crc.update(schemaState.array());
+			}
+		}
+		return (crc.getValue() << 8) ^ (((long) source.length) << 40) ^ flags;
+	}
+	
+	/**
+	 * @param path the source file
+	 * @param source the content of the source file
+	 * @return the local schema file referenced by the source, or {@code null} if there is none
+	 */
+	private static Path findSchema(Path path, byte[] source)
+	{
+		final Matcher matcher = SCHEMA_LOCATION.matcher(new String(source, 0, Math.min(source.length, SCHEMA_LOCATION_SCAN_LENGTH), StandardCharsets.UTF_8));
+		if (!matcher.find())
+		{
+			return null;
+		}
+		
+		// A schema location is a list of namespace and location pairs, the location is last.
+		final String[] locations = matcher.group(1).trim().split("\\s+");
+		final String location = locations[locations.length - 1];
+		if (location.isEmpty() || location.contains(":/"))
+		{
+			return null;
+		}
+		
+		try
+		{
+			final Path parent = path.toAbsolutePath().getParent();
+			return parent == null ? null : parent.resolve(location).normalize();
+		}
+		catch (InvalidPathException e)
+		{
+			return null;
+		}
+	}
+	
+	/**
+	 * Builds the parser flags that are stored in the snapshot, a snapshot is only used when it was built with the same flags.
+	 * @param validating {@code true} if the document is validated
+	 * @param ignoringComments {@code true} if comments are ignored
+	 * @param ignoringWhitespace {@code true} if whitespace nodes are ignored
+	 * @return the parser flags
+	 */
+	public static int flagsOf(boolean validating, boolean ignoringComments, boolean ignoringWhitespace)
+	{
+		return (validating ? 1 : 0) | (ignoringComments ? 2 : 0) | (ignoringWhitespace ? 4 : 0);
+	}
+	
+	/**
+	 * Reads the snapshot of the given source.
+	 * @param path the source file
+	 * @param key the key of the source, see {@link #computeKey(Path, byte[], int)}
+	 * @param db the document builder used to create the document
+	 * @return the document, or {@code null} if there is no up to date snapshot
+	 */
+	public static Document read(Path path, long key, DocumentBuilder db)
+	{
+		final Path snapshot = getSnapshotPath(path);
+		if ((snapshot == null) || !Files.isRegularFile(snapshot))
+		{
+			_misses.incrementAndGet();
+			return null;
+		}
+		
+		try
+		{
+			// Read onto the heap, a mapped file could not be replaced by a fresh snapshot while the mapping is alive on some platforms.
+			final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(snapshot));
+			if ((buffer.getInt() != MAGIC) || (buffer.getInt() != VERSION) || (buffer.getLong() != key) || !readString(buffer).equals(getSourceName(path)))
+			{
+				_misses.incrementAndGet();
+				return null;
+			}
+			
+			final String[] strings = new String[readVarInt(buffer)];
+			for (int i = 0; i < strings.length; i++)
+			{
+				strings[i] = readString(buffer);
+			}
+			
+			final Document doc = db.newDocument();
+			doc.setDocumentURI(path.toAbsolutePath().toUri().toString());
+			readChildren(buffer, strings, doc, doc);
+			_hits.incrementAndGet();
+			return doc;
+		}
+		catch (IOException | BufferUnderflowException | IndexOutOfBoundsException e)
+		{
+			LOGGER.warn("Discarding corrupted snapshot {} of {}", snapshot, path, e);
+			_misses.incrementAndGet();
+			return null;
+		}
+	}
+	
+	/**
+	 * Stores a snapshot of the given document, the snapshot file is replaced atomically where the file system allows it.
+	 * @param path the source file
+	 * @param key the key of the source, see {@link #computeKey(Path, byte[], int)}
+	 * @param doc the parsed document
+	 */
+	public static void write(Path path, long key, Document doc)
+	{
+		final Path snapshot = getSnapshotPath(path);
+		if (snapshot == null)
+		{
+			return;
+		}
+		
+		try
+		{
+			final Map<String, Integer> stringIds = new HashMap<>();
+			final List<String> strings = new ArrayList<>();
+			final ByteArrayOutputStream tree = new ByteArrayOutputStream(4096);
+			writeChildren(new DataOutputStream(tree), doc, stringIds, strings);
+			
+			final ByteArrayOutputStream content = new ByteArrayOutputStream(tree.size() + 1024);
+			final DataOutputStream out = new DataOutputStream(content);
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(key);
+			writeString(out, getSourceName(path));
+			writeVarInt(out, strings.size());
+			for (String string : strings)
+			{
+				writeString(out, string);
+			}
+			tree.writeTo(out);
+			out.flush();
+			
+			Files.createDirectories(snapshot.getParent());
+			final Path temp = Files.createTempFile(snapshot.getParent(), snapshot.getFileName().toString(), ".tmp");
+			try
+			{
+				Files.write(temp, content.toByteArray());
+				try
+				{
+					Files.move(temp, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+				}
+				catch (AtomicMoveNotSupportedException e)
+				{
+					Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING);
+				}
+			}
+			finally
+			{
+				Files.deleteIfExists(temp);
+			}
+		}
+		catch (IOException e)
+		{
+			_writeFailures.incrementAndGet();
+			LOGGER.debug("Could not write snapshot of {}", path, e);
+		}
+	}
+	
+	/**
+	 * @return the snapshot statistics
+	 */
+	public static List<String> getStats()
+	{
+		final List<String> list = new ArrayList<>();
+		list.add("XML Snapshots:");
+		list.add(" + Directory: " + _directory);
+		list.add("\tHits: .............. " + _hits.get());
+		list.add("\tMisses: ............ " + _misses.get());
+		list.add("\tWrite failures: .... " + _writeFailures.get());
+		return list;
+	}
+	
+	private static Path getSnapshotPath(Path path)
+	{
+		final Path directory = _directory;
+		if (directory == null)
+		{
+			return null;
+		}
+		
+		final String name = getSourceName(path);
+		return directory.resolve(UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8)) + ".bin");
+	}
+	
+	private static String getSourceName(Path path)
+	{
+		return path.toAbsolutePath().normalize().toString();
+	}
+	
+	private static void writeChildren(DataOutputStream out, Node parent, Map<String, Integer> stringIds, List<String> strings) throws IOException
+	{
+		int count = 0;
+		for (Node node = parent.getFirstChild(); node != null; node = node.getNextSibling())
+		{
+			if (getNodeType(node) != 0)
+			{
+				count++;
+			}
+		}
+		
+		writeVarInt(out, count);
+		for (Node node = parent.getFirstChild(); node != null; node = node.getNextSibling())
+		{
+			final byte type = getNodeType(node);
+			if (type == 0)
+			{
+				continue;
+			}
+			
+			out.writeByte(type);
+			switch (type)
+			{
+				case NODE_ELEMENT:
+				{
+					writeStringId(out, node.getNamespaceURI(), stringIds, strings);
+					writeStringId(out, node.getNodeName(), stringIds, strings);
+					final NamedNodeMap attrs = node.getAttributes();
+					writeVarInt(out, attrs.getLength());
+					for (int i = 0; i < attrs.getLength(); i++)
+					{
+						final Node attr = attrs.item(i);
+						writeStringId(out, attr.getNamespaceURI(), stringIds, strings);
+						writeStringId(out, attr.getNodeName(), stringIds, strings);
+						writeStringId(out, attr.getNodeValue(), stringIds, strings);
+					}
+					writeChildren(out, node, stringIds, strings);
+					break;
+				}
+				case NODE_PROCESSING_INSTRUCTION:
+				{
+					writeStringId(out, ((ProcessingInstruction) node).getTarget(), stringIds, strings);
+					writeStringId(out, ((ProcessingInstruction) node).getData(), stringIds, strings);
+					break;
+				}
+				default:
+				{
+					writeStringId(out, node.getNodeValue(), stringIds, strings);
+					break;
+				}
+			}
+		}
+	}
+	
+	private static byte getNodeType(Node node)
+	{
+		switch (node.getNodeType())
+		{
+			case Node.ELEMENT_NODE:
+				return NODE_ELEMENT;
+			case Node.TEXT_NODE:
+				return NODE_TEXT;
+			case Node.CDATA_SECTION_NODE:
+				return NODE_CDATA;
+			case Node.COMMENT_NODE:
+				return NODE_COMMENT;
+			case Node.PROCESSING_INSTRUCTION_NODE:
+				return NODE_PROCESSING_INSTRUCTION;
+			default:
+				// Document types and entity references are resolved by the parser already.
+				return 0;
+		}
+	}
+	
+	private static void readChildren(ByteBuffer buffer, String[] strings, Document doc, Node parent)
+	{
+		final int count = readVarInt(buffer);
+		for (int i = 0; i < count; i++)
+		{
+			final byte type = buffer.get();
+			switch (type)
+			{
+				case NODE_ELEMENT:
+				{
+					final String namespace = readStringId(buffer, strings);
+					final Element element = doc.createElementNS(namespace, readStringId(buffer, strings));
+					final int attrCount = readVarInt(buffer);
+					for (int j = 0; j < attrCount; j++)
+					{
+						final String attrNamespace = readStringId(buffer, strings);
+						final Attr attr = doc.createAttributeNS(attrNamespace, readStringId(buffer, strings));
+						attr.setValue(readStringId(buffer, strings));
+						element.setAttributeNodeNS(attr);
+					}
+					readChildren(buffer, strings, doc, element);
+					parent.appendChild(element);
+					break;
+				}
+				case NODE_TEXT:
+				{
+					parent.appendChild(doc.createTextNode(readStringId(buffer, strings)));
+					break;
+				}
+				case NODE_CDATA:
+				{
+					parent.appendChild(doc.createCDATASection(readStringId(buffer, strings)));
+					break;
+				}
+				case NODE_COMMENT:
+				{
+					parent.appendChild(doc.createComment(readStringId(buffer, strings)));
+					break;
+				}
+				case NODE_PROCESSING_INSTRUCTION:
+				{
+					final String target = readStringId(buffer, strings);
+					parent.appendChild(doc.createProcessingInstruction(target, readStringId(buffer, strings)));
+					break;
+				}
+				default:
+				{
+					throw new IndexOutOfBoundsException("Unknown node type " + type);
+				}
+			}
+		}
+	}
+	
+	private static void writeStringId(DataOutputStream out, String value, Map<String, Integer> stringIds, List<String> strings) throws IOException
+	{
+		if (value == null)
+		{
+			writeVarInt(out, 0);
+			return;
+		}
+		
+		Integer id = stringIds.get(value);
+		if (id == null)
+		{
+			strings.add(value);
+			id = strings.size();
+			stringIds.put(value, id);
+		}
+		writeVarInt(out, id);
+	}
+	
+	private static String readStringId(ByteBuffer buffer, String[] strings)
+	{
+		final int id = readVarInt(buffer);
+		return id == 0 ? null : strings[id - 1];
+	}
+	
+	private static void writeString(DataOutputStream out, String value) throws IOException
+	{
+		final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeVarInt(out, bytes.length);
+		out.write(bytes);
+	}
+	
+	private static String readString(ByteBuffer buffer)
+	{
+		final byte[] bytes = new byte[readVarInt(buffer)];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+	
+	private static void writeVarInt(OutputStream out, int value) throws IOException
+	{
+		while ((value & ~0x7F) != 0)
+		{
+			out.write((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.write(value);
+	}
+	
+	private static int readVarInt(ByteBuffer buffer)
+	{
+		int value = 0;
+		for (int shift = 0; shift < 32; shift += 7)
+		{
+			final byte b = buffer.get();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+			{
+				return value;
+			}
+		}
+		throw new IndexOutOfBoundsException("Malformed variable length integer");
+	}
+}
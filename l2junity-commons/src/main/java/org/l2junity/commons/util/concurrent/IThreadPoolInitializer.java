@@ -23,4 +23,20 @@ public interface IThreadPoolInitializer
 	int getScheduledThreadPoolSize();
 	
 	int getThreadPoolSize();
+	
+	/**
+	 * @return the duration of one tick scheduler tick in milliseconds
+	 */
+	default int getTickSchedulerResolution()
+	{
+		return 100;
+	}
+	
+	/**
+	 * @return the amount of tick scheduler buckets
+	 */
+	default int getTickSchedulerWheelSize()
+	{
+		return 512;
+	}
 }
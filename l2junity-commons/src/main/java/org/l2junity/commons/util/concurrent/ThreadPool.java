@@ -43,6 +43,7 @@ public final class ThreadPool
 	
 	private static ScheduledThreadPoolExecutor SCHEDULED_THREAD_POOL_EXECUTOR;
 	private static ThreadPoolExecutor THREAD_POOL_EXECUTOR;
+	private static TickScheduler TICK_SCHEDULER;
 	
 	public static void initThreadPools(IThreadPoolInitializer initializer) throws Exception
 	{
@@ -60,11 +61,15 @@ public final class ThreadPool
 			tp.prestartAllCoreThreads();
 		});
 		
+		TICK_SCHEDULER = new TickScheduler("Tick scheduler", initializer.getTickSchedulerResolution(), initializer.getTickSchedulerWheelSize(), THREAD_POOL_EXECUTOR);
+		TICK_SCHEDULER.start(SCHEDULED_THREAD_POOL_EXECUTOR);
+		
 		scheduleAtFixedRate(ThreadPool::purge, 1, 1, TimeUnit.MINUTES);
 		
 		LOGGER.info("Initialized with");
 		LOGGER.info("\t... " + SCHEDULED_THREAD_POOL_EXECUTOR.getPoolSize() + "/" + SCHEDULED_THREAD_POOL_EXECUTOR.getPoolSize() + " scheduled thread(s)."); // ScheduledThreadPoolExecutor has a fixed number of threads and maximumPoolSize has no effect
 		LOGGER.info("\t... " + THREAD_POOL_EXECUTOR.getPoolSize() + "/" + THREAD_POOL_EXECUTOR.getMaximumPoolSize() + " thread(s).");
+		LOGGER.info("\t... " + initializer.getTickSchedulerResolution() + " ms tick scheduler resolution.");
 	}
 	
 	/**
@@ -85,6 +90,15 @@ public final class ThreadPool
 		return THREAD_POOL_EXECUTOR;
 	}
 	
+	/**
+	 * Gets the tick scheduler, meant for the huge amount of periodic per creature tasks.
+	 * @return the tick scheduler
+	 */
+	public static TickScheduler getTickScheduler()
+	{
+		return TICK_SCHEDULER;
+	}
+	
 	/**
 	 * Gets a stream of all the thread pools.
 	 * @return the stream of all the thread pools
@@ -188,7 +202,7 @@ public final class ThreadPool
 		list.add("\tgetCompletedTaskCount: " + THREAD_POOL_EXECUTOR.getCompletedTaskCount());
 		list.add("\tgetQueuedTaskCount: .. " + THREAD_POOL_EXECUTOR.getQueue().size());
 		list.add("\tgetTaskCount: ........ " + THREAD_POOL_EXECUTOR.getTaskCount());
-		list.add("");
+		list.addAll(TICK_SCHEDULER.getStats());
 		return list;
 	}
 	
@@ -205,6 +219,7 @@ public final class ThreadPool
 		final long startTime = System.currentTimeMillis();
 		
 		LOGGER.info("Shutting down.");
+		TICK_SCHEDULER.stop();
 		LOGGER.info("\t... executing {} scheduled tasks.", SCHEDULED_THREAD_POOL_EXECUTOR.getQueue().size());
 		LOGGER.info("\t... executing {} tasks.", THREAD_POOL_EXECUTOR.getQueue().size());
 		
@@ -0,0 +1,466 @@
+/*
+ * Copyright (C) 2004-2017 L2J Unity
+ * 
+ * This file is part of L2J Unity.
+ * 
+ * L2J Unity is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Unity is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2junity.commons.util.concurrent;
+
+import java.lang.Thread.UncaughtExceptionHandler;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A hashed timing wheel for the huge amount of small periodic tasks every creature owns (AI thinking, regeneration, following...).<br>
+ * Instead of one {@link java.util.concurrent.ScheduledThreadPoolExecutor} heap entry per task, tasks are hashed into tick buckets, so scheduling and cancelling are O(1) and lock free.<br>
+ * Every tick the due bucket is collected by a single ticker and its tasks are executed in batches on the given executor.<br>
+ * A periodic task is rescheduled only after its run completed, so it never runs concurrently with itself.
+ */
+public final class TickScheduler
+{
+	private static final Logger LOGGER = LoggerFactory.getLogger(TickScheduler.class);
+	
+	/** Amount of due tasks executed by one executor task. */
+	private static final int BATCH_SIZE = 128;
+	
+	private static final int STATE_SCHEDULED = 0;
+	private static final int STATE_RUNNING = 1;
+	private static final int STATE_DONE = 2;
+	private static final int STATE_CANCELLED = 3;
+	
+	private final String _name;
+	private final long _tickNanos;
+	private final int _mask;
+	private final Bucket[] _wheel;
+	private final Queue<TickTask> _pendingTasks = new ConcurrentLinkedQueue<>();
+	private final Executor _executor;
+	private final long _startTime = System.nanoTime();
+	private volatile long _processedTick;
+	private ScheduledFuture<?> _ticker;
+	
+	// Statistics
+	private final AtomicLong _scheduledTasks = new AtomicLong();
+	private final AtomicLong _executedTasks = new AtomicLong();
+	private final AtomicLong _cancelledTasks = new AtomicLong();
+	private final AtomicInteger _activeTasks = new AtomicInteger();
+	private volatile int _lastBucketSize;
+	private volatile int _largestBucketSize;
+	private volatile long _overrunTicks;
+	private volatile long _largestTickLag;
+	
+	/**
+	 * Creates a new tick scheduler.
+	 * @param name the name of the scheduler, used for statistics
+	 * @param tickMillis the duration of one tick in milliseconds, delays are rounded up to whole ticks
+	 * @param wheelSize the amount of buckets of the wheel, rounded up to a power of two
+	 * @param executor the executor that runs the due tasks
+	 */
+	public TickScheduler(String name, long tickMillis, int wheelSize, Executor executor)
+	{
+		if (tickMillis <= 0)
+		{
+			throw new IllegalArgumentException("tickMillis must be positive: " + tickMillis);
+		}
+		
+		final int size = Integer.highestOneBit(Math.max(wheelSize, 2) - 1) << 1;
+		_name = name;
+		_tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+		_mask = size - 1;
+		_wheel = new Bucket[size];
+		for (int i = 0; i < size; i++)
+		{
+			_wheel[i] = new Bucket();
+		}
+		_executor = executor;
+	}
+	
+	/**
+	 * Starts ticking the wheel on the given scheduler.
+	 * @param ticker the scheduler driving the wheel, it only hosts a single periodic task
+	 */
+	public synchronized void start(ScheduledExecutorService ticker)
+	{
+		if (_ticker == null)
+		{
+			_ticker = ticker.scheduleAtFixedRate(this::tick, _tickNanos, _tickNanos, TimeUnit.NANOSECONDS);
+		}
+	}
+	
+	/**
+	 * Stops ticking the wheel, pending tasks are not executed anymore.
+	 */
+	public synchronized void stop()
+	{
+		if (_ticker != null)
+		{
+			_ticker.cancel(false);
+			_ticker = null;
+		}
+	}
+	
+	/**
+	 * Schedules a task to be executed once after the given delay.
+	 * @param task the task to execute
+	 * @param delay the delay in the given time unit
+	 * @param timeUnit the time unit of the delay parameter
+	 * @return a ScheduledFuture representing pending completion of the task
+	 */
+	public ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit timeUnit)
+	{
+		return submit(new TickTask(task, currentTick() + toTicks(delay, timeUnit), 0));
+	}
+	
+	/**
+	 * Schedules a task to be executed after the given delay at fixed rate.
+	 * @param task the task to execute
+	 * @param delay the delay in the given time unit
+	 * @param period the period in the given time unit
+	 * @param timeUnit the time unit of the delay parameter
+	 * @return a ScheduledFuture representing pending completion of the task, whose get() method will throw an exception upon cancellation
+	 */
+	public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long delay, long period, TimeUnit timeUnit)
+	{
+		if (period <= 0)
+		{
+			throw new IllegalArgumentException("period must be positive: " + period);
+		}
+		return submit(new TickTask(task, currentTick() + toTicks(delay, timeUnit), toTicks(period, timeUnit)));
+	}
+	
+	private TickTask submit(TickTask task)
+	{
+		_scheduledTasks.incrementAndGet();
+		_activeTasks.incrementAndGet();
+		_pendingTasks.add(task);
+		return task;
+	}
+	
+	private long toTicks(long delay, TimeUnit timeUnit)
+	{
+		final long nanos = timeUnit.toNanos(Math.max(delay, 0));
+		return Math.max(1, ((nanos + _tickNanos) - 1) / _tickNanos);
+	}
+	
+	private long currentTick()
+	{
+		return (System.nanoTime() - _startTime) / _tickNanos;
+	}
+	
+	/**
+	 * Advances the wheel up to the current time, collecting the due tasks of every tick passed since the last call.
+	 */
+	private void tick()
+	{
+		try
+		{
+			final long targetTick = currentTick();
+			final long lag = targetTick - _processedTick;
+			if (lag > 1)
+			{
+				_overrunTicks += lag - 1;
+				if (lag > _largestTickLag)
+				{
+					_largestTickLag = lag;
+				}
+			}
+			
+			for (long tick = _processedTick + 1; tick <= targetTick; tick++)
+			{
+				transferPendingTasks(tick);
+				
+				final List<TickTask> bucket = _wheel[(int) (tick & _mask)]._tasks;
+				final int bucketSize = bucket.size();
+				_lastBucketSize = bucketSize;
+				if (bucketSize > _largestBucketSize)
+				{
+					_largestBucketSize = bucketSize;
+				}
+				
+				List<TickTask> batch = null;
+				for (int i = bucket.size() - 1; i >= 0; i--)
+				{
+					final TickTask task = bucket.get(i);
+					if (task.isCancelled())
+					{
+						removeAt(bucket, i);
+						continue;
+					}
+					
+					if (task._deadlineTick > tick)
+					{
+						continue;
+					}
+					
+					removeAt(bucket, i);
+					if (batch == null)
+					{
+						batch = new ArrayList<>(Math.min(BATCH_SIZE, bucketSize));
+					}
+					batch.add(task);
+					if (batch.size() == BATCH_SIZE)
+					{
+						execute(batch);
+						batch = null;
+					}
+				}
+				
+				if (batch != null)
+				{
+					execute(batch);
+				}
+				
+				_processedTick = tick;
+			}
+		}
+		catch (Throwable e)
+		{
+			LOGGER.warn("{}: Error while ticking the wheel.", _name, e);
+		}
+	}
+	
+	private void transferPendingTasks(long tick)
+	{
+		TickTask task;
+		while ((task = _pendingTasks.poll()) != null)
+		{
+			if (task.isCancelled())
+			{
+				continue;
+			}
+			
+			if (task._deadlineTick < tick)
+			{
+				task._deadlineTick = tick;
+			}
+			_wheel[(int) (task._deadlineTick & _mask)]._tasks.add(task);
+		}
+	}
+	
+	private static void removeAt(List<TickTask> bucket, int index)
+	{
+		final int last = bucket.size() - 1;
+		if (index != last)
+		{
+			bucket.set(index, bucket.get(last));
+		}
+		bucket.remove(last);
+	}
+	
+	private void execute(List<TickTask> batch)
+	{
+		_executor.execute(() ->
+		{
+			for (TickTask task : batch)
+			{
+				task.run();
+			}
+		});
+	}
+	
+	/**
+	 * Gets the tick scheduler stats.
+	 * @return the stats
+	 */
+	public List<String> getStats()
+	{
+		final List<String> list = new ArrayList<>(12);
+		list.add("");
+		list.add(_name + ":");
+		list.add("=================================================");
+		list.add("\tgetTickDuration: ..... " + TimeUnit.NANOSECONDS.toMillis(_tickNanos) + " ms");
+		list.add("\tgetWheelSize: ........ " + _wheel.length);
+		list.add("\tgetActiveTaskCount: .. " + _activeTasks.get());
+		list.add("\tgetScheduledCount: ... " + _scheduledTasks.get());
+		list.add("\tgetExecutedCount: .... " + _executedTasks.get());
+		list.add("\tgetCancelledCount: ... " + _cancelledTasks.get());
+		list.add("\tgetLastBucketSize: ... " + _lastBucketSize);
+		list.add("\tgetLargestBucketSize: " + _largestBucketSize);
+		list.add("\tgetOverrunTicks: ..... " + _overrunTicks);
+		list.add("\tgetLargestTickLag: ... " + _largestTickLag);
+		list.add("");
+		return list;
+	}
+	
+	/**
+	 * A bucket of the wheel, only used by the ticking thread.
+	 */
+	private static final class Bucket
+	{
+		protected final List<TickTask> _tasks = new ArrayList<>();
+	}
+	
+	/**
+	 * A task hashed into the wheel.
+	 */
+	private final class TickTask implements ScheduledFuture<Void>
+	{
+		private final Runnable _task;
+		private final long _periodTicks;
+		private final AtomicInteger _state = new AtomicInteger(STATE_SCHEDULED);
+		private volatile long _deadlineTick;
+		
+		protected TickTask(Runnable task, long deadlineTick, long periodTicks)
+		{
+			_task = task;
+			_deadlineTick = deadlineTick;
+			_periodTicks = periodTicks;
+		}
+		
+		protected void run()
+		{
+			if (!_state.compareAndSet(STATE_SCHEDULED, STATE_RUNNING))
+			{
+				return;
+			}
+			
+			try
+			{
+				_task.run();
+			}
+			catch (Throwable e)
+			{
+				final Thread t = Thread.currentThread();
+				final UncaughtExceptionHandler h = t.getUncaughtExceptionHandler();
+				if (h != null)
+				{
+					h.uncaughtException(t, e);
+				}
+			}
+			_executedTasks.incrementAndGet();
+			
+			if (_periodTicks > 0)
+			{
+				if (_state.compareAndSet(STATE_RUNNING, STATE_SCHEDULED))
+				{
+					// Fixed rate, but never try to catch up missed runs in a burst.
+					_deadlineTick = Math.max(_deadlineTick + _periodTicks, currentTick() + 1);
+					_pendingTasks.add(this);
+				}
+			}
+			else if (_state.compareAndSet(STATE_RUNNING, STATE_DONE))
+			{
+				_activeTasks.decrementAndGet();
+				synchronized (this)
+				{
+					notifyAll();
+				}
+			}
+		}
+		
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning)
+		{
+			while (true)
+			{
+				final int state = _state.get();
+				if ((state == STATE_DONE) || (state == STATE_CANCELLED))
+				{
+					return false;
+				}
+				
+				if (_state.compareAndSet(state, STATE_CANCELLED))
+				{
+					_cancelledTasks.incrementAndGet();
+					_activeTasks.decrementAndGet();
+					synchronized (this)
+					{
+						notifyAll();
+					}
+					return true;
+				}
+			}
+		}
+		
+		@Override
+		public boolean isCancelled()
+		{
+			return _state.get() == STATE_CANCELLED;
+		}
+		
+		@Override
+		public boolean isDone()
+		{
+			return _state.get() >= STATE_DONE;
+		}
+		
+		@Override
+		public Void get() throws InterruptedException
+		{
+			synchronized (this)
+			{
+				while (!isDone())
+				{
+					wait();
+				}
+			}
+			
+			if (isCancelled())
+			{
+				throw new CancellationException();
+			}
+			return null;
+		}
+		
+		@Override
+		public Void get(long timeout, TimeUnit unit) throws InterruptedException, TimeoutException
+		{
+			final long deadline = System.nanoTime() + unit.toNanos(timeout);
+			synchronized (this)
+			{
+				while (!isDone())
+				{
+					final long remaining = deadline - System.nanoTime();
+					if (remaining <= 0)
+					{
+						throw new TimeoutException();
+					}
+					TimeUnit.NANOSECONDS.timedWait(this, remaining);
+				}
+			}
+			
+			if (isCancelled())
+			{
+				throw new CancellationException();
+			}
+			return null;
+		}
+		
+		@Override
+		public long getDelay(TimeUnit unit)
+		{
+			return unit.convert((_deadlineTick - currentTick()) * _tickNanos, TimeUnit.NANOSECONDS);
+		}
+		
+		@Override
+		public int compareTo(Delayed o)
+		{
+			return Long.compare(getDelay(TimeUnit.NANOSECONDS), o.getDelay(TimeUnit.NANOSECONDS));
+		}
+	}
+}
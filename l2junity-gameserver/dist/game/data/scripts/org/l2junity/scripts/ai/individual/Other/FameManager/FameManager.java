@@ -21,7 +21,6 @@ package org.l2junity.scripts.ai.individual.Other.FameManager;
 import org.l2junity.gameserver.enums.CategoryType;
 import org.l2junity.gameserver.model.actor.Npc;
 import org.l2junity.gameserver.model.actor.instance.PlayerInstance;
-import org.l2junity.gameserver.network.client.send.UserInfo;
 import org.l2junity.gameserver.network.client.send.string.SystemMessageId;
 import org.l2junity.gameserver.scripting.annotations.GameScript;
 
@@ -83,7 +82,7 @@ public final class FameManager extends AbstractNpcAI
 					{
 						player.setFame(player.getFame() - DECREASE_COST);
 						player.setPkKills(player.getPkKills() - 1);
-						player.sendPacket(new UserInfo(player));
+						player.updateUserInfo();
 						htmltext = npc.getId() + "-06.html";
 					}
 					else
@@ -105,7 +104,7 @@ public final class FameManager extends AbstractNpcAI
 					{
 						player.setFame(player.getFame() - REPUTATION_COST);
 						player.getClan().addReputationScore(50, true);
-						player.sendPacket(new UserInfo(player));
+						player.updateUserInfo();
 						player.sendPacket(SystemMessageId.YOU_HAVE_ACQUIRED_50_CLAN_REPUTATION);
 						htmltext = npc.getId() + "-04.html";
 					}
@@ -314,9 +314,7 @@ public final class AwakeningMaster extends AbstractNpcAI
 				player.setBaseClass(player.getActiveClass());
 			}
 			player.sendPacket(SystemMessageId.CONGRATULATIONS_YOU_VE_COMPLETED_A_CLASS_TRANSFER);
-			final UserInfo ui = new UserInfo(player, false);
-			ui.addComponentType(UserInfoType.BASIC_INFO);
-			ui.addComponentType(UserInfoType.MAX_HPCPMP);
+			final UserInfo ui = new UserInfo(player, UserInfoType.BASIC_INFO, UserInfoType.MAX_HPCPMP);
 			player.sendPacket(ui);
 			player.broadcastInfo();
 			
@@ -56,7 +56,6 @@ import org.l2junity.gameserver.network.client.send.NpcHtmlMessage;
 import org.l2junity.gameserver.network.client.send.PartySmallWindowAll;
 import org.l2junity.gameserver.network.client.send.PartySmallWindowDeleteAll;
 import org.l2junity.gameserver.network.client.send.SystemMessage;
-import org.l2junity.gameserver.network.client.send.UserInfo;
 import org.l2junity.gameserver.network.client.send.string.SystemMessageId;
 import org.l2junity.gameserver.scripting.annotations.GameScript;
 import org.slf4j.Logger;
@@ -107,7 +106,8 @@ public class AdminEditChar implements IAdminCommandHandler
 		"admin_set_mp",
 		"admin_set_cp",
 		"admin_setparam",
-		"admin_unsetparam"
+		"admin_unsetparam",
+		"admin_stat_bench" // times full and incremental stat recalculation of the target. //stat_bench [count]
 	};
 	
 	@Override
@@ -248,7 +248,7 @@ public class AdminEditChar implements IAdminCommandHandler
 					final PlayerInstance player = target.getActingPlayer();
 					player.setPkKills(pk);
 					player.broadcastUserInfo();
-					player.sendPacket(new UserInfo(player));
+					player.updateUserInfo();
 					player.sendMessage("A GM changed your PK count to " + pk);
 					activeChar.sendMessage(player.getName() + "'s PK count changed to " + pk);
 				}
@@ -278,7 +278,7 @@ public class AdminEditChar implements IAdminCommandHandler
 					PlayerInstance player = (PlayerInstance) target;
 					player.setPvpKills(pvp);
 					player.broadcastUserInfo();
-					player.sendPacket(new UserInfo(player));
+					player.updateUserInfo();
 					player.sendMessage("A GM changed your PVP count to " + pvp);
 					activeChar.sendMessage(player.getName() + "'s PVP count changed to " + pvp);
 				}
@@ -308,7 +308,7 @@ public class AdminEditChar implements IAdminCommandHandler
 					PlayerInstance player = (PlayerInstance) target;
 					player.setFame(fame);
 					player.broadcastUserInfo();
-					player.sendPacket(new UserInfo(player));
+					player.updateUserInfo();
 					player.sendMessage("A GM changed your Reputation points to " + fame);
 					activeChar.sendMessage(player.getName() + "'s Fame changed to " + fame);
 				}
@@ -338,7 +338,7 @@ public class AdminEditChar implements IAdminCommandHandler
 					PlayerInstance player = (PlayerInstance) target;
 					player.setRecomHave(recVal);
 					player.broadcastUserInfo();
-					player.sendPacket(new UserInfo(player));
+					player.updateUserInfo();
 					player.sendPacket(new ExVoteSystemInfo(player));
 					player.sendMessage("A GM changed your Recommend points to " + recVal);
 					activeChar.sendMessage(player.getName() + "'s Recommend changed to " + recVal);
@@ -1017,6 +1017,31 @@ public class AdminEditChar implements IAdminCommandHandler
 			}
 			activeChar.sendMessage("Fixed stat: " + stat + " has been removed.");
 		}
+		else if (command.startsWith("admin_stat_bench"))
+		{
+			final WorldObject target = activeChar.getTarget();
+			if ((target == null) || !target.isCreature())
+			{
+				activeChar.sendPacket(SystemMessageId.INVALID_TARGET);
+				return false;
+			}
+			final StringTokenizer st = new StringTokenizer(command, " ");
+			st.nextToken(); // admin_stat_bench
+			int iterations = 1000;
+			if (st.hasMoreTokens())
+			{
+				try
+				{
+					iterations = Integer.parseInt(st.nextToken());
+				}
+				catch (NumberFormatException e)
+				{
+					activeChar.sendMessage("Syntax: //stat_bench [count]");
+					return false;
+				}
+			}
+			target.asCreature().getStat().benchmark(Math.max(iterations, 1)).forEach(activeChar::sendMessage);
+		}
 		return true;
 	}
 	
@@ -18,14 +18,21 @@
  */
 package org.l2junity.scripts.handlers.admincommandhandlers;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.StringTokenizer;
+import java.util.concurrent.TimeUnit;
 
 import org.l2junity.gameserver.cache.HtmCache;
+import org.l2junity.gameserver.cache.HtmlTemplate;
 import org.l2junity.gameserver.handler.AdminCommandHandler;
 import org.l2junity.gameserver.handler.IAdminCommandHandler;
 import org.l2junity.gameserver.model.actor.instance.PlayerInstance;
+import org.l2junity.gameserver.model.html.HtmlActionSet;
 import org.l2junity.gameserver.network.client.send.NpcHtmlMessage;
 import org.l2junity.gameserver.scripting.annotations.GameScript;
+import org.l2junity.gameserver.util.Util;
 
 /**
  * @author NosBit
@@ -35,7 +42,8 @@ public class AdminHtml implements IAdminCommandHandler
 	private static final String[] ADMIN_COMMANDS =
 	{
 		"admin_html",
-		"admin_loadhtml"
+		"admin_loadhtml",
+		"admin_html_benchmark"
 	};
 	
 	@Override
@@ -69,6 +77,25 @@ public class AdminHtml implements IAdminCommandHandler
 				showHtml(activeChar, path, true);
 				break;
 			}
+			case "admin_html_benchmark":
+			{
+				int iterations = 10;
+				if (st.hasMoreTokens())
+				{
+					try
+					{
+						iterations = Integer.parseInt(st.nextToken());
+					}
+					catch (NumberFormatException e)
+					{
+						activeChar.sendMessage("Usage: //html_benchmark [iterations]");
+						return false;
+					}
+				}
+				
+				benchmarkHtmlActions(activeChar, Math.max(1, iterations));
+				break;
+			}
 		}
 		return true;
 	}
@@ -113,6 +140,75 @@ public class AdminHtml implements IAdminCommandHandler
 		activeChar.sendPacket(html);
 	}
 	
+	/**
+	 * Measures how long building the html action cache takes for every cached page, parsing the rendered page against looking up the action index of its template.<br>
+	 * Every placeholder is bound to an object id like value, the way npc pages are usually sent.
+	 * @param activeChar the player to send the results to
+	 * @param iterations how many times every page is processed
+	 */
+	private static void benchmarkHtmlActions(PlayerInstance activeChar, int iterations)
+	{
+		final List<HtmlTemplate> templates = new ArrayList<>();
+		final List<String[]> values = new ArrayList<>();
+		for (String path : HtmCache.getInstance().getPaths())
+		{
+			final HtmlTemplate template = HtmCache.getInstance().getTemplate(null, path);
+			if (template != null)
+			{
+				final String[] templateValues = template.newValues();
+				Arrays.fill(templateValues, String.valueOf(activeChar.getObjectId()));
+				templates.add(template);
+				values.add(templateValues);
+			}
+		}
+		
+		if (templates.isEmpty())
+		{
+			activeChar.sendMessage("There are no cached html pages.");
+			return;
+		}
+		
+		// The first round warms up both ways
+		long parsedActions = 0;
+		long indexedActions = 0;
+		long parseTime = 0;
+		long indexTime = 0;
+		for (int i = 0; i <= iterations; i++)
+		{
+			long start = System.nanoTime();
+			for (int j = 0; j < templates.size(); j++)
+			{
+				final List<String> actions = new ArrayList<>();
+				Util.collectHtmlActions(templates.get(j).render(values.get(j)), actions);
+				parsedActions += HtmlActionSet.of(actions).size();
+			}
+			final long parsed = System.nanoTime() - start;
+			
+			start = System.nanoTime();
+			for (int j = 0; j < templates.size(); j++)
+			{
+				final HtmlActionSet actions = templates.get(j).getActions(values.get(j));
+				indexedActions += actions != null ? actions.size() : 0;
+			}
+			final long indexed = System.nanoTime() - start;
+			
+			if (i > 0)
+			{
+				parseTime += parsed;
+				indexTime += indexed;
+			}
+		}
+		
+		final long pages = (long) templates.size() * iterations;
+		activeChar.sendMessage("Html action cache of " + templates.size() + " pages, " + iterations + " iterations:");
+		activeChar.sendMessage("Parsing rendered pages: " + TimeUnit.NANOSECONDS.toMillis(parseTime) + " ms, " + (parseTime / pages) + " ns per page");
+		activeChar.sendMessage("Template action index: " + TimeUnit.NANOSECONDS.toMillis(indexTime) + " ms, " + (indexTime / pages) + " ns per page");
+		if (parsedActions != indexedActions)
+		{
+			activeChar.sendMessage("Indexed " + indexedActions + " actions but parsed " + parsedActions + ", some pages are parsed after rendering.");
+		}
+	}
+	
 	@Override
 	public String[] getAdminCommandList()
 	{
@@ -20,9 +20,11 @@ package org.l2junity.scripts.handlers.admincommandhandlers;
 
 import java.util.List;
 
+import org.l2junity.commons.util.concurrent.ThreadPool;
 import org.l2junity.gameserver.config.GeoDataConfig;
 import org.l2junity.gameserver.geodata.pathfinding.AbstractNodeLoc;
 import org.l2junity.gameserver.geodata.pathfinding.PathFinding;
+import org.l2junity.gameserver.geodata.pathfinding.hierarchical.HierarchicalPathFinding;
 import org.l2junity.gameserver.handler.AdminCommandHandler;
 import org.l2junity.gameserver.handler.IAdminCommandHandler;
 import org.l2junity.gameserver.model.actor.instance.PlayerInstance;
@@ -37,6 +39,7 @@ public class AdminPathNode implements IAdminCommandHandler
 		"admin_path_debug",
 		"admin_show_pn",
 		"admin_find_path",
+		"admin_path_bench",
 	};
 	
 	@Override
@@ -94,6 +97,17 @@ public class AdminPathNode implements IAdminCommandHandler
 				activeChar.sendMessage("No Target!");
 			}
 		}
+		else if (command.equals("admin_path_bench"))
+		{
+			if (!(PathFinding.getInstance() instanceof HierarchicalPathFinding))
+			{
+				activeChar.sendMessage("Hierarchical pathfinding is not enabled.");
+				return true;
+			}
+			
+			activeChar.sendMessage("Replaying recorded pathfinding requests...");
+			ThreadPool.execute(() -> ((HierarchicalPathFinding) PathFinding.getInstance()).benchmark().forEach(activeChar::sendMessage));
+		}
 		return true;
 	}
 	
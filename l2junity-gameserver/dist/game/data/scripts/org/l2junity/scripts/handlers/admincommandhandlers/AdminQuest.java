@@ -18,7 +18,6 @@
  */
 package org.l2junity.scripts.handlers.admincommandhandlers;
 
-import java.util.List;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.StringTokenizer;
@@ -255,16 +254,13 @@ public class AdminQuest implements IAdminCommandHandler
 				items = quest.getRegisteredItemIds().length + ":" + items.substring(2);
 			}
 
-			for (List<QuestTimer> list : quest.getQuestTimers().values())
+			for (QuestTimer timer : quest.getQuestTimers().values())
 			{
-				for (QuestTimer timer : list)
+				timers += "<tr><td colspan=\"4\"><table width=270 border=0 bgcolor=131210><tr><td width=270><font color=\"LEVEL\">" + timer.getName() + ":</font> <font color=00FF00>Active: " + timer.getIsActive() + " Repeatable: " + timer.getIsRepeating() + " Player: " + timer.getPlayer() + " Npc: " + timer.getNpc() + "</font></td></tr></table></td></tr>";
+				counter++;
+				if (counter > 10)
 				{
-					timers += "<tr><td colspan=\"4\"><table width=270 border=0 bgcolor=131210><tr><td width=270><font color=\"LEVEL\">" + timer.getName() + ":</font> <font color=00FF00>Active: " + timer.getIsActive() + " Repeatable: " + timer.getIsRepeating() + " Player: " + timer.getPlayer() + " Npc: " + timer.getNpc() + "</font></td></tr></table></td></tr>";
-					counter++;
-					if (counter > 10)
-					{
-						break;
-					}
+					break;
 				}
 			}
 
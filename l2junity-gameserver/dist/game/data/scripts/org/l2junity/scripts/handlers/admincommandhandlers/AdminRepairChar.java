@@ -27,6 +27,7 @@ import org.l2junity.gameserver.handler.AdminCommandHandler;
 import org.l2junity.gameserver.handler.IAdminCommandHandler;
 import org.l2junity.gameserver.model.actor.instance.PlayerInstance;
 import org.l2junity.gameserver.scripting.annotations.GameScript;
+import org.l2junity.gameserver.taskmanager.WriteBehindTaskManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -98,6 +99,7 @@ public class AdminRepairChar implements IAdminCommandHandler
 			statement.close();
 			
 			// connection = L2DatabaseFactory.getInstance().getConnection();
+			WriteBehindTaskManager.getInstance().flush(objId);
 			statement = con.prepareStatement("UPDATE items SET loc=\"INVENTORY\" WHERE owner_id=?");
 			statement.setInt(1, objId);
 			statement.execute();
@@ -28,15 +28,24 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.l2junity.commons.sql.AsyncQueryExecutor;
 import org.l2junity.commons.util.BasePathProvider;
 import org.l2junity.commons.util.CommonUtil;
 import org.l2junity.commons.util.SystemUtil;
+import org.l2junity.commons.util.XmlSnapshot;
 import org.l2junity.commons.util.concurrent.ThreadPool;
+import org.l2junity.gameserver.cache.HtmCache;
+import org.l2junity.gameserver.geodata.GeoData;
 import org.l2junity.gameserver.handler.AdminCommandHandler;
 import org.l2junity.gameserver.handler.IAdminCommandHandler;
+import org.l2junity.gameserver.instancemanager.TimersManager;
 import org.l2junity.gameserver.model.actor.instance.PlayerInstance;
+import org.l2junity.gameserver.model.actor.stat.CharStat;
 import org.l2junity.gameserver.network.client.send.NpcHtmlMessage;
 import org.l2junity.gameserver.scripting.annotations.GameScript;
+import org.l2junity.gameserver.taskmanager.MovementController;
+import org.l2junity.gameserver.taskmanager.StatUpdateTaskManager;
+import org.l2junity.gameserver.taskmanager.WriteBehindTaskManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -137,6 +146,16 @@ public final class AdminSystem implements IAdminCommandHandler
 			final StringBuilder sb = new StringBuilder();
 			sb.append("<html><title>Thread Viewer: ").append("</title><body>");
 			ThreadPool.getStats().forEach(line -> sb.append(line).append("<br1>"));
+			MovementController.getInstance().getStats().forEach(line -> sb.append(line).append("<br1>"));
+			WriteBehindTaskManager.getInstance().getStats().forEach(line -> sb.append(line).append("<br1>"));
+			GeoData.getInstance().getStats().forEach(line -> sb.append(line).append("<br1>"));
+			CharStat.getRecalculationStats().forEach(line -> sb.append(line).append("<br1>"));
+			CharStat.getValueCacheStats().forEach(line -> sb.append(line).append("<br1>"));
+			StatUpdateTaskManager.getInstance().getStats().forEach(line -> sb.append(line).append("<br1>"));
+			HtmCache.getInstance().getStats().forEach(line -> sb.append(line).append("<br1>"));
+			TimersManager.getInstance().getStats().forEach(line -> sb.append(line).append("<br1>"));
+			AsyncQueryExecutor.getInstance().getStats().forEach(line -> sb.append(line).append("<br1>"));
+			XmlSnapshot.getStats().forEach(line -> sb.append(line).append("<br1>"));
 			sb.append("</body></html>");
 			player.sendPacket(new NpcHtmlMessage(sb.toString()));
 		}
@@ -24,6 +24,7 @@ import java.sql.ResultSet;
 
 import org.l2junity.commons.sql.DatabaseFactory;
 import org.l2junity.gameserver.cache.HtmCache;
+import org.l2junity.gameserver.cache.HtmlTemplate;
 import org.l2junity.gameserver.data.sql.impl.ClanTable;
 import org.l2junity.gameserver.handler.CommunityBoardHandler;
 import org.l2junity.gameserver.handler.IParseBoardHandler;
@@ -58,11 +59,12 @@ public final class HomeBoard implements IParseBoardHandler
 		{
 			CommunityBoardHandler.getInstance().addBypass(activeChar, "Home", command);
 			
-			String html = HtmCache.getInstance().getHtm(activeChar.getHtmlPrefix(), "data/html/CommunityBoard/home.html");
-			html = html.replaceAll("%fav_count%", Integer.toString(getFavoriteCount(activeChar)));
-			html = html.replaceAll("%region_count%", Integer.toString(getRegionCount(activeChar)));
-			html = html.replaceAll("%clan_count%", Integer.toString(ClanTable.getInstance().getClanCount()));
-			CommunityBoardHandler.separateAndSend(html, activeChar);
+			final HtmlTemplate template = HtmCache.getInstance().getTemplate(activeChar.getHtmlPrefix(), "data/html/CommunityBoard/home.html");
+			final String[] values = template.newValues();
+			template.bind(values, "%fav_count%", Integer.toString(getFavoriteCount(activeChar)));
+			template.bind(values, "%region_count%", Integer.toString(getRegionCount(activeChar)));
+			template.bind(values, "%clan_count%", Integer.toString(ClanTable.getInstance().getClanCount()));
+			CommunityBoardHandler.separateAndSend(template.render(values), activeChar);
 		}
 		else if (command.startsWith("_bbstop;"))
 		{
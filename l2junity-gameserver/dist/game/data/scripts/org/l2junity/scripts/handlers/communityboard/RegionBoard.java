@@ -19,6 +19,7 @@
 package org.l2junity.scripts.handlers.communityboard;
 
 import org.l2junity.gameserver.cache.HtmCache;
+import org.l2junity.gameserver.cache.HtmlTemplate;
 import org.l2junity.gameserver.data.sql.impl.ClanTable;
 import org.l2junity.gameserver.enums.TaxType;
 import org.l2junity.gameserver.handler.CommunityBoardHandler;
@@ -58,23 +59,25 @@ public class RegionBoard implements IWriteBoardHandler
 		{
 			CommunityBoardHandler.getInstance().addBypass(activeChar, "Region", command);
 			
-			final String list = HtmCache.getInstance().getHtm(activeChar.getHtmlPrefix(), "data/html/CommunityBoard/region_list.html");
+			final HtmlTemplate list = HtmCache.getInstance().getTemplate(activeChar.getHtmlPrefix(), "data/html/CommunityBoard/region_list.html");
+			final String[] linkValues = list.newValues();
 			final StringBuilder sb = new StringBuilder();
 			for (int i = 0; i < REGIONS.length; i++)
 			{
 				final Castle castle = CastleManager.getInstance().getCastleById(i + 1);
 				final L2Clan clan = ClanTable.getInstance().getClan(castle.getOwnerId());
-				String link = list.replaceAll("%region_id%", String.valueOf(i));
-				link = link.replace("%region_name%", String.valueOf(REGIONS[i]));
-				link = link.replace("%region_owning_clan%", (clan != null ? clan.getName() : "NPC"));
-				link = link.replace("%region_owning_clan_alliance%", ((clan != null) && (clan.getAllyName() != null) ? clan.getAllyName() : ""));
-				link = link.replace("%region_tax_rate%", castle.getTaxPercent(TaxType.BUY) + "%");
-				sb.append(link);
+				list.bind(linkValues, "%region_id%", String.valueOf(i));
+				list.bind(linkValues, "%region_name%", String.valueOf(REGIONS[i]));
+				list.bind(linkValues, "%region_owning_clan%", (clan != null ? clan.getName() : "NPC"));
+				list.bind(linkValues, "%region_owning_clan_alliance%", ((clan != null) && (clan.getAllyName() != null) ? clan.getAllyName() : ""));
+				list.bind(linkValues, "%region_tax_rate%", castle.getTaxPercent(TaxType.BUY) + "%");
+				sb.append(list.render(linkValues));
 			}
 			
-			String html = HtmCache.getInstance().getHtm(activeChar.getHtmlPrefix(), "data/html/CommunityBoard/region.html");
-			html = html.replace("%region_list%", sb.toString());
-			CommunityBoardHandler.separateAndSend(html, activeChar);
+			final HtmlTemplate template = HtmCache.getInstance().getTemplate(activeChar.getHtmlPrefix(), "data/html/CommunityBoard/region.html");
+			final String[] values = template.newValues();
+			template.bind(values, "%region_list%", sb.toString());
+			CommunityBoardHandler.separateAndSend(template.render(values), activeChar);
 		}
 		else if (command.startsWith("_bbsloc;"))
 		{
@@ -40,4 +40,10 @@ public abstract class AbstractBooleanStatEffect extends AbstractEffect
 	{
 		target.getStat().set(_stat);
 	}
+	
+	@Override
+	public boolean isStaticPump()
+	{
+		return true;
+	}
 }
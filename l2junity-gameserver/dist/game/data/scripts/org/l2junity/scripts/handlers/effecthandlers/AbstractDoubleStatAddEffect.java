@@ -43,4 +43,10 @@ public class AbstractDoubleStatAddEffect extends AbstractEffect
 	{
 		target.getStat().mergeAdd(_stat, _amount);
 	}
+	
+	@Override
+	public boolean isStaticPump()
+	{
+		return true;
+	}
 }
@@ -98,6 +98,12 @@ public abstract class AbstractDoubleStatEffect extends AbstractEffect
 		}
 	}
 	
+	@Override
+	public boolean isStaticPump()
+	{
+		return true;
+	}
+	
 	@Override
 	public boolean checkPumpCondition(Creature caster, Creature target, Skill skill)
 	{
@@ -28,7 +28,6 @@ import org.l2junity.gameserver.model.items.instance.ItemInstance;
 import org.l2junity.gameserver.model.skills.Skill;
 import org.l2junity.gameserver.network.client.send.ExVoteSystemInfo;
 import org.l2junity.gameserver.network.client.send.SystemMessage;
-import org.l2junity.gameserver.network.client.send.UserInfo;
 import org.l2junity.gameserver.network.client.send.string.SystemMessageId;
 import org.l2junity.gameserver.scripting.annotations.SkillScript;
 
@@ -67,7 +66,7 @@ public final class InstantBonusCountUp extends AbstractEffect
 			SystemMessage sm = SystemMessage.getSystemMessage(SystemMessageId.YOU_OBTAINED_S1_RECOMMENDATION_S);
 			sm.addInt(recommendationsGiven);
 			targetPlayer.sendPacket(sm);
-			targetPlayer.sendPacket(new UserInfo(targetPlayer));
+			targetPlayer.updateUserInfo();
 			targetPlayer.sendPacket(new ExVoteSystemInfo(targetPlayer));
 		}
 		else
@@ -26,7 +26,6 @@ import org.l2junity.gameserver.model.actor.instance.PlayerInstance;
 import org.l2junity.gameserver.model.effects.AbstractEffect;
 import org.l2junity.gameserver.model.items.instance.ItemInstance;
 import org.l2junity.gameserver.model.skills.Skill;
-import org.l2junity.gameserver.network.client.send.UserInfo;
 import org.l2junity.gameserver.scripting.annotations.SkillScript;
 
 /**
@@ -52,7 +51,7 @@ public class InstantPkCount extends AbstractEffect
 		}
 		
 		targetPlayer.setPkKills(Math.max(targetPlayer.getPkKills() + _amount, 0));
-		targetPlayer.sendPacket(new UserInfo(targetPlayer));
+		targetPlayer.updateUserInfo();
 	}
 
 	@SkillScript
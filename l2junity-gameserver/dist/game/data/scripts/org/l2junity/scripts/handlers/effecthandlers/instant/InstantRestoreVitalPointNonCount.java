@@ -26,7 +26,6 @@ import org.l2junity.gameserver.model.actor.instance.PlayerInstance;
 import org.l2junity.gameserver.model.effects.AbstractEffect;
 import org.l2junity.gameserver.model.items.instance.ItemInstance;
 import org.l2junity.gameserver.model.skills.Skill;
-import org.l2junity.gameserver.network.client.send.UserInfo;
 import org.l2junity.gameserver.scripting.annotations.SkillScript;
 
 /**
@@ -58,7 +57,7 @@ public final class InstantRestoreVitalPointNonCount extends AbstractEffect
 		}
 		
 		targetPlayer.updateVitalityPoints(_amount, false, false);
-		targetPlayer.sendPacket(new UserInfo(targetPlayer));
+		targetPlayer.updateUserInfo();
 	}
 
 	@SkillScript
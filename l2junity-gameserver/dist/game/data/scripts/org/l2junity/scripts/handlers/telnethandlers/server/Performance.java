@@ -18,10 +18,19 @@
  */
 package org.l2junity.scripts.handlers.telnethandlers.server;
 
+import org.l2junity.commons.sql.AsyncQueryExecutor;
+import org.l2junity.commons.util.XmlSnapshot;
 import org.l2junity.commons.util.concurrent.ThreadPool;
+import org.l2junity.gameserver.cache.HtmCache;
+import org.l2junity.gameserver.geodata.GeoData;
+import org.l2junity.gameserver.instancemanager.TimersManager;
+import org.l2junity.gameserver.model.actor.stat.CharStat;
 import org.l2junity.gameserver.network.telnet.ITelnetCommand;
 import org.l2junity.gameserver.network.telnet.TelnetServer;
 import org.l2junity.gameserver.scripting.annotations.GameScript;
+import org.l2junity.gameserver.taskmanager.MovementController;
+import org.l2junity.gameserver.taskmanager.StatUpdateTaskManager;
+import org.l2junity.gameserver.taskmanager.WriteBehindTaskManager;
 
 /**
  * @author UnAfraid
@@ -53,6 +62,46 @@ public class Performance implements ITelnetCommand
 		{
 			sb.append(line + System.lineSeparator());
 		}
+		for (String line : MovementController.getInstance().getStats())
+		{
+			sb.append(line + System.lineSeparator());
+		}
+		for (String line : WriteBehindTaskManager.getInstance().getStats())
+		{
+			sb.append(line + System.lineSeparator());
+		}
+		for (String line : GeoData.getInstance().getStats())
+		{
+			sb.append(line + System.lineSeparator());
+		}
+		for (String line : CharStat.getRecalculationStats())
+		{
+			sb.append(line + System.lineSeparator());
+		}
+		for (String line : CharStat.getValueCacheStats())
+		{
+			sb.append(line + System.lineSeparator());
+		}
+		for (String line : StatUpdateTaskManager.getInstance().getStats())
+		{
+			sb.append(line + System.lineSeparator());
+		}
+		for (String line : HtmCache.getInstance().getStats())
+		{
+			sb.append(line + System.lineSeparator());
+		}
+		for (String line : TimersManager.getInstance().getStats())
+		{
+			sb.append(line + System.lineSeparator());
+		}
+		for (String line : AsyncQueryExecutor.getInstance().getStats())
+		{
+			sb.append(line + System.lineSeparator());
+		}
+		for (String line : XmlSnapshot.getStats())
+		{
+			sb.append(line + System.lineSeparator());
+		}
 		return sb.toString();
 	}
 	
@@ -61,4 +61,22 @@ public final class GameDatabaseConfig implements IDatabaseConfig
 	{
 		return ServerConfig.CONNECTION_CLOSE_TIME;
 	}
+	
+	@Override
+	public int getAsyncThreads()
+	{
+		return ServerConfig.DATABASE_ASYNC_THREADS;
+	}
+	
+	@Override
+	public int getAsyncQueueSize()
+	{
+		return ServerConfig.DATABASE_ASYNC_QUEUE_SIZE;
+	}
+	
+	@Override
+	public int getAsyncBatchSize()
+	{
+		return ServerConfig.DATABASE_ASYNC_BATCH_SIZE;
+	}
 }
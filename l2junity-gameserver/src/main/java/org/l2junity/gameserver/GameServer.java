@@ -81,6 +81,7 @@ public final class GameServer
 			{
 				sideLoadCompletableFuture = _loader.runAsync(SideLoadGroup.class);
 				_loader.runAsync(PreLoadGroup.class, LoadGroup.class, ScriptLoadGroup.class, ClientAccessLoadGroup.class, PostLoadGroup.class).join();
+				LOGGER.info(_loader.getCriticalPathString(PreLoadGroup.class, LoadGroup.class, ScriptLoadGroup.class, ClientAccessLoadGroup.class, PostLoadGroup.class));
 			}
 			else
 			{
@@ -37,4 +37,10 @@ public final class GameThreadPools implements IThreadPoolInitializer
 	{
 		return ThreadPoolConfig.THREAD_POOL_SIZE != -1 ? ThreadPoolConfig.THREAD_POOL_SIZE : Runtime.getRuntime().availableProcessors() * 2;
 	}
+	
+	@Override
+	public int getTickSchedulerResolution()
+	{
+		return ThreadPoolConfig.TICK_SCHEDULER_RESOLUTION;
+	}
 }
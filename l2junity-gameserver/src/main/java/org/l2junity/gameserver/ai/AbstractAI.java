@@ -681,7 +681,7 @@ public abstract class AbstractAI implements Ctrl
 		}
 		
 		final int followRange = range == -1 ? Rnd.get(50, 100) : range;
-		_followTask = ThreadPool.scheduleAtFixedRate(() ->
+		_followTask = ThreadPool.getTickScheduler().scheduleAtFixedRate(() ->
 		{
 			try
 			{
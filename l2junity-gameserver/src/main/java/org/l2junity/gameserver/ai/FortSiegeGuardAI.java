@@ -201,7 +201,7 @@ public class FortSiegeGuardAI extends CharacterAI implements Runnable
 		// If not idle - create an AI task (schedule onEvtThink repeatedly)
 		if (_aiTask == null)
 		{
-			_aiTask = ThreadPool.scheduleAtFixedRate(this, 1000, 1000, TimeUnit.MILLISECONDS);
+			_aiTask = ThreadPool.getTickScheduler().scheduleAtFixedRate(this, 1000, 1000, TimeUnit.MILLISECONDS);
 		}
 	}
 	
@@ -0,0 +1,398 @@
+/*
+ * Copyright (C) 2004-2017 L2J Unity
+ * 
+ * This file is part of L2J Unity.
+ * 
+ * L2J Unity is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Unity is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2junity.gameserver.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.l2junity.gameserver.config.GeneralConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The storage of {@link HtmCache} when {@link GeneralConfig#COMPRESSED_HTM_CACHE} is enabled.<br>
+ * Every page is kept deflated, the most recently used pages are kept decompressed along with their templates as long as they fit into {@link GeneralConfig#COMPRESSED_HTM_CACHE_BUDGET} bytes.<br>
+ * A language prefixed path that falls back to the page without prefix is kept as an alias of that page, so it takes neither a compressed nor a decompressed copy of its own.
+ */
+final class CompressedHtmCache
+{
+	private static final Logger LOGGER = LoggerFactory.getLogger(CompressedHtmCache.class);
+	
+	private final Map<String, CompressedPage> _pages = new ConcurrentHashMap<>();
+	/** The paths falling back to another page by path */
+	private final Map<String, String> _aliases = new ConcurrentHashMap<>();
+	/** The decompressed pages by path, in access order, guarded by itself */
+	private final LinkedHashMap<String, ResidentPage> _residentPages = new LinkedHashMap<>(256, 0.75f, true);
+	private long _residentBytes;
+	
+	// Statistics
+	private final AtomicLong _compressedBytes = new AtomicLong();
+	private final AtomicLong _uncompressedBytes = new AtomicLong();
+	private final LongAdder _hits = new LongAdder();
+	private final LongAdder _misses = new LongAdder();
+	private final LongAdder _evictions = new LongAdder();
+	
+	/**
+	 * Compresses and stores a page, a decompressed copy of the page it replaces is dropped.
+	 * @param path the path
+	 * @param content the page
+	 * @return {@code true} if the page was not cached before, {@code false} if it replaced a cached page
+	 */
+	boolean put(String path, String content)
+	{
+		final CompressedPage page = CompressedPage.compress(content);
+		final CompressedPage oldPage = _pages.put(path, page);
+		_aliases.remove(path);
+		_compressedBytes.addAndGet(page.getSize());
+		_uncompressedBytes.addAndGet(page.getUncompressedSize());
+		if (oldPage == null)
+		{
+			return true;
+		}
+		
+		_compressedBytes.addAndGet(-oldPage.getSize());
+		_uncompressedBytes.addAndGet(-oldPage.getUncompressedSize());
+		synchronized (_residentPages)
+		{
+			final ResidentPage residentPage = _residentPages.remove(path);
+			if (residentPage != null)
+			{
+				_residentBytes -= residentPage.getSize();
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Lets a path fall back to the page of another path.
+	 * @param path the path, for example with a language prefix
+	 * @param targetPath the path of the cached page
+	 */
+	void putAlias(String path, String targetPath)
+	{
+		if (!_pages.containsKey(path))
+		{
+			_aliases.put(path, _aliases.getOrDefault(targetPath, targetPath));
+		}
+	}
+	
+	boolean contains(String path)
+	{
+		return _pages.containsKey(path) || _aliases.containsKey(path);
+	}
+	
+	List<String> getPaths()
+	{
+		final List<String> paths = new ArrayList<>(_pages.keySet());
+		paths.addAll(_aliases.keySet());
+		return paths;
+	}
+	
+	/**
+	 * @param path the path
+	 * @return the page, {@code null} if it is not cached
+	 */
+	String get(String path)
+	{
+		final ResidentPage page = getResidentPage(path);
+		return page != null ? page.getContent() : null;
+	}
+	
+	/**
+	 * @param path the path
+	 * @return the template of the page, {@code null} if it is not cached
+	 */
+	HtmlTemplate getTemplate(String path)
+	{
+		final ResidentPage page = getResidentPage(path);
+		if (page == null)
+		{
+			return null;
+		}
+		
+		HtmlTemplate template = page.getTemplate();
+		if (template == null)
+		{
+			template = HtmlTemplate.parse(page.getContent());
+			synchronized (_residentPages)
+			{
+				if (page.getTemplate() != null)
+				{
+					return page.getTemplate();
+				}
+				
+				page.setTemplate(template);
+				if (_residentPages.get(page.getPath()) == page)
+				{
+					_residentBytes += page.getTemplateSize();
+					evict();
+				}
+			}
+		}
+		return template;
+	}
+	
+	private ResidentPage getResidentPage(String path)
+	{
+		final String pagePath = _aliases.getOrDefault(path, path);
+		synchronized (_residentPages)
+		{
+			final ResidentPage page = _residentPages.get(pagePath);
+			if (page != null)
+			{
+				_hits.increment();
+				return page;
+			}
+		}
+		
+		final CompressedPage compressedPage = _pages.get(pagePath);
+		if (compressedPage == null)
+		{
+			return null;
+		}
+		
+		_misses.increment();
+		final String content = compressedPage.decompress();
+		if (content == null)
+		{
+			return null;
+		}
+		
+		final ResidentPage page = new ResidentPage(pagePath, content);
+		synchronized (_residentPages)
+		{
+			if (_pages.get(pagePath) != compressedPage)
+			{
+				// Replaced meanwhile, do not keep the old content
+				return page;
+			}
+			
+			final ResidentPage concurrentPage = _residentPages.putIfAbsent(pagePath, page);
+			if (concurrentPage != null)
+			{
+				return concurrentPage;
+			}
+			
+			_residentBytes += page.getSize();
+			evict();
+		}
+		return page;
+	}
+	
+	/**
+	 * Drops the least recently used pages until the resident pages fit into the budget, the most recently used page is always kept.
+	 */
+	private void evict()
+	{
+		final Iterator<ResidentPage> iterator = _residentPages.values().iterator();
+		while ((_residentBytes > GeneralConfig.COMPRESSED_HTM_CACHE_BUDGET) && (_residentPages.size() > 1))
+		{
+			_residentBytes -= iterator.next().getSize();
+			iterator.remove();
+			_evictions.increment();
+		}
+	}
+	
+	long getCompressedBytes()
+	{
+		return _compressedBytes.get();
+	}
+	
+	void clear()
+	{
+		_pages.clear();
+		_aliases.clear();
+		_compressedBytes.set(0);
+		_uncompressedBytes.set(0);
+		synchronized (_residentPages)
+		{
+			_residentPages.clear();
+			_residentBytes = 0;
+		}
+	}
+	
+	List<String> getStats()
+	{
+		final int residentPages;
+		final long residentBytes;
+		synchronized (_residentPages)
+		{
+			residentPages = _residentPages.size();
+			residentBytes = _residentBytes;
+		}
+		
+		final long hits = _hits.sum();
+		final long requests = hits + _misses.sum();
+		final List<String> list = new ArrayList<>();
+		list.add("Compressed Html Cache:");
+		list.add("\tPages: ............... " + _pages.size());
+		list.add("\tAliases: ............. " + _aliases.size());
+		list.add("\tCompressed bytes: .... " + _compressedBytes.get());
+		list.add("\tUncompressed bytes: .. " + _uncompressedBytes.get());
+		list.add("\tResident pages: ...... " + residentPages);
+		list.add("\tResident bytes: ...... " + residentBytes + " / " + GeneralConfig.COMPRESSED_HTM_CACHE_BUDGET);
+		list.add("\tRequests: ............ " + requests);
+		list.add("\tHit ratio: ........... " + (requests > 0 ? String.format("%.2f%%", (hits * 100.0) / requests) : "-"));
+		list.add("\tEvictions: ........... " + _evictions.sum());
+		return list;
+	}
+	
+	/**
+	 * A deflated page along with the length of its UTF-8 encoding and the length of the page.
+	 */
+	private static final class CompressedPage
+	{
+		private final byte[] _data;
+		private final int _length;
+		private final int _chars;
+		
+		private CompressedPage(byte[] data, int length, int chars)
+		{
+			_data = data;
+			_length = length;
+			_chars = chars;
+		}
+		
+		protected static CompressedPage compress(String content)
+		{
+			final byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+			final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+			try
+			{
+				deflater.setInput(bytes);
+				deflater.finish();
+				
+				final ByteArrayOutputStream out = new ByteArrayOutputStream((bytes.length / 3) + 16);
+				final byte[] buffer = new byte[1024];
+				while (!deflater.finished())
+				{
+					out.write(buffer, 0, deflater.deflate(buffer));
+				}
+				return new CompressedPage(out.toByteArray(), bytes.length, content.length());
+			}
+			finally
+			{
+				deflater.end();
+			}
+		}
+		
+		protected String decompress()
+		{
+			final Inflater inflater = new Inflater();
+			try
+			{
+				inflater.setInput(_data);
+				final byte[] bytes = new byte[_length];
+				int offset = 0;
+				while ((offset < _length) && !inflater.finished())
+				{
+					final int length = inflater.inflate(bytes, offset, _length - offset);
+					if ((length == 0) && inflater.needsInput())
+					{
+						break;
+					}
+					offset += length;
+				}
+				return new String(bytes, 0, offset, StandardCharsets.UTF_8);
+			}
+			catch (DataFormatException e)
+			{
+				LOGGER.warn("Failed to decompress a cached html!", e);
+				return null;
+			}
+			finally
+			{
+				inflater.end();
+			}
+		}
+		
+		protected int getSize()
+		{
+			return _data.length;
+		}
+		
+		/**
+		 * @return the size of the page as a string
+		 */
+		protected long getUncompressedSize()
+		{
+			return _chars * 2L;
+		}
+	}
+	
+	/**
+	 * A decompressed page, along with its template once it is requested.
+	 */
+	private static final class ResidentPage
+	{
+		private final String _path;
+		private final String _content;
+		private volatile HtmlTemplate _template;
+		
+		protected ResidentPage(String path, String content)
+		{
+			_path = path;
+			_content = content;
+		}
+		
+		protected String getPath()
+		{
+			return _path;
+		}
+		
+		protected String getContent()
+		{
+			return _content;
+		}
+		
+		protected HtmlTemplate getTemplate()
+		{
+			return _template;
+		}
+		
+		protected void setTemplate(HtmlTemplate template)
+		{
+			_template = template;
+		}
+		
+		protected long getSize()
+		{
+			return (_content.length() * 2L) + (_template != null ? getTemplateSize() : 0);
+		}
+		
+		/**
+		 * @return the size of the segments of the template, which are copies of the page
+		 */
+		protected long getTemplateSize()
+		{
+			return _content.length() * 2L;
+		}
+	}
+}
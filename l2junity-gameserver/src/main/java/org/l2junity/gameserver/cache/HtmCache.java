@@ -23,10 +23,13 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -53,6 +56,12 @@ public final class HtmCache
 	private static final Pattern BLOCK_PATTERN = Pattern.compile("<block name=\"([a-zA-Z0-9-_. ]*)\">(.*?)</block>", Pattern.DOTALL);
 	
 	private final Map<String, String> _cache = GeneralConfig.LAZY_CACHE ? new ConcurrentHashMap<>() : new HashMap<>();
+	/** The templates parsed from the cached pages, by requested path */
+	private final Map<String, CachedTemplate> _templates = new ConcurrentHashMap<>();
+	/** Changed whenever a cached page is replaced, the templates parsed before are outdated then */
+	private final AtomicInteger _pagesVersion = new AtomicInteger();
+	/** The storage of the pages and their templates instead of the maps above, if enabled */
+	private final CompressedHtmCache _compressedCache = GeneralConfig.COMPRESSED_HTM_CACHE ? new CompressedHtmCache() : null;
 	
 	private int _loadedFiles;
 	private long _bytesBuffLen;
@@ -66,6 +75,8 @@ public final class HtmCache
 	@Load(group = LoadGroup.class)
 	public void load()
 	{
+		_pagesVersion.incrementAndGet();
+		_templates.clear();
 		if (!GeneralConfig.LAZY_CACHE)
 		{
 			LOGGER.info("HTML caching started...");
@@ -84,6 +95,10 @@ public final class HtmCache
 		else
 		{
 			_cache.clear();
+			if (_compressedCache != null)
+			{
+				_compressedCache.clear();
+			}
 			_loadedFiles = 0;
 			_bytesBuffLen = 0;
 			
@@ -95,8 +110,8 @@ public final class HtmCache
 	public String toString()
 	{
 		final StringBuilder sb = new StringBuilder();
-		sb.append(String.format("%.3f", (float) _bytesBuffLen / 1_048_576));
-		sb.append(" megabyte(s) on ");
+		sb.append(String.format("%.3f", (float) (_compressedCache != null ? _compressedCache.getCompressedBytes() : _bytesBuffLen) / 1_048_576));
+		sb.append(_compressedCache != null ? " compressed megabyte(s) on " : " megabyte(s) on ");
 		sb.append(_loadedFiles);
 		sb.append(" file(s) loaded.");
 		return sb.toString();
@@ -125,6 +140,15 @@ public final class HtmCache
 		}
 		
 		final String content = processHtml(lines);
+		if (_compressedCache != null)
+		{
+			if (_compressedCache.put(_pathProvider.relativePath(file).toString(), content))
+			{
+				_loadedFiles++;
+			}
+			return content;
+		}
+		
 		final String oldContent = _cache.put(_pathProvider.relativePath(file).toString(), content);
 		if (oldContent == null)
 		{
@@ -134,6 +158,7 @@ public final class HtmCache
 		else
 		{
 			_bytesBuffLen = (_bytesBuffLen - oldContent.length()) + (content.length() * 2);
+			_pagesVersion.incrementAndGet();
 		}
 		
 		return content;
@@ -167,20 +192,103 @@ public final class HtmCache
 		content = getHtm(path);
 		if ((content != null) && (newPath != null))
 		{
-			_cache.put(newPath, content);
+			if (_compressedCache != null)
+			{
+				_compressedCache.putAlias(newPath, path);
+			}
+			else
+			{
+				_cache.put(newPath, content);
+			}
 		}
 		
 		return content;
 	}
 	
+	/**
+	 * Gets the page the same way {@link #getHtm(String, String)} does, parsed into a template.<br>
+	 * The template is parsed once and kept until the page changes.
+	 * @param prefix the language prefix
+	 * @param path the path of the page
+	 * @return the template of the page, {@code null} if there is no such page
+	 */
+	public HtmlTemplate getTemplate(String prefix, String path)
+	{
+		if (_compressedCache != null)
+		{
+			// The template is kept along with the decompressed page
+			final String key = (prefix != null) && !prefix.isEmpty() ? prefix + "/" + path : path;
+			HtmlTemplate template = _compressedCache.getTemplate(key);
+			if ((template == null) && (getHtm(prefix, path) != null))
+			{
+				// Loaded lazily or the prefixed path was aliased to the page without prefix
+				template = _compressedCache.getTemplate(key);
+			}
+			return template;
+		}
+		
+		// Read before the page, so a page replaced meanwhile outdates the template parsed here
+		final int pagesVersion = _pagesVersion.get();
+		final String key = (prefix != null) && !prefix.isEmpty() ? prefix + "/" + path : path;
+		final CachedTemplate cachedTemplate = _templates.get(key);
+		if ((cachedTemplate != null) && (cachedTemplate._pagesVersion == pagesVersion))
+		{
+			return cachedTemplate._template;
+		}
+		
+		final String content = getHtm(prefix, path);
+		if (content == null)
+		{
+			return null;
+		}
+		
+		final HtmlTemplate template = HtmlTemplate.parse(content);
+		_templates.put(key, new CachedTemplate(template, pagesVersion));
+		return template;
+	}
+	
 	private String getHtm(String path)
 	{
-		return (path == null) || path.isEmpty() ? null : _cache.getOrDefault(path, GeneralConfig.LAZY_CACHE ? loadFile(getHtmFilePath(path)) : null);
+		if ((path == null) || path.isEmpty())
+		{
+			return null;
+		}
+		
+		if (_compressedCache != null)
+		{
+			final String content = _compressedCache.get(path);
+			return (content == null) && GeneralConfig.LAZY_CACHE ? loadFile(getHtmFilePath(path)) : content;
+		}
+		final String content = _cache.get(path);
+		return (content == null) && GeneralConfig.LAZY_CACHE ? loadFile(getHtmFilePath(path)) : content;
 	}
 	
 	public boolean contains(String path)
 	{
-		return _cache.containsKey(path);
+		return _compressedCache != null ? _compressedCache.contains(path) : _cache.containsKey(path);
+	}
+	
+	/**
+	 * @return the paths of all cached pages, including the language prefixed paths requested so far
+	 */
+	public List<String> getPaths()
+	{
+		return _compressedCache != null ? _compressedCache.getPaths() : new ArrayList<>(_cache.keySet());
+	}
+	
+	public List<String> getStats()
+	{
+		if (_compressedCache != null)
+		{
+			return _compressedCache.getStats();
+		}
+		
+		final List<String> list = new ArrayList<>();
+		list.add("Html Cache:");
+		list.add("\tPages: ............... " + _cache.size());
+		list.add("\tBytes: ............... " + _bytesBuffLen);
+		list.add("\tTemplates: ........... " + _templates.size());
+		return list;
 	}
 	
 	private String parseTemplateName(String name)
@@ -260,6 +368,21 @@ public final class HtmCache
 		return blockMap;
 	}
 	
+	/**
+	 * A template along with the version of the pages it was parsed from.
+	 */
+	private static final class CachedTemplate
+	{
+		protected final HtmlTemplate _template;
+		protected final int _pagesVersion;
+		
+		protected CachedTemplate(HtmlTemplate template, int pagesVersion)
+		{
+			_template = template;
+			_pagesVersion = pagesVersion;
+		}
+	}
+	
 	@InstanceGetter
 	public static HtmCache getInstance()
 	{
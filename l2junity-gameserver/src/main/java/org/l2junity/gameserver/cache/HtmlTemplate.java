@@ -0,0 +1,348 @@
+/*
+ * Copyright (C) 2004-2017 L2J Unity
+ * 
+ * This file is part of L2J Unity.
+ * 
+ * L2J Unity is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Unity is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2junity.gameserver.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+import org.l2junity.gameserver.model.html.HtmlActionSet;
+import org.l2junity.gameserver.util.Util;
+import org.l2junity.network.PacketWriter;
+
+/**
+ * A html page parsed once into its literal segments and the {@code %placeholder%} slots between them.<br>
+ * The values of the placeholders are kept in an array indexed by {@link #getPlaceholderIndex(String)}, a placeholder without a value is rendered as it is written in the page.<br>
+ * Unlike {@link String#replaceAll(String, String)}, only the placeholders of the page are replaced, placeholders inside values are kept as they are.<br>
+ * The bypass and link actions of the page are indexed once as well, so the actions of a rendered page are known by looking only at the actions and values that contain placeholders.
+ */
+public final class HtmlTemplate
+{
+	private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile("%[A-Za-z0-9_]+%");
+	
+	private final String _source;
+	/** The literal segments, one more than there are slots */
+	private final String[] _segments;
+	/** The placeholder index of every slot */
+	private final int[] _slots;
+	/** The distinct placeholders by index */
+	private final String[] _placeholders;
+	private final Map<String, Integer> _placeholderIndexes;
+	
+	/** The actions of the page whatever the values are, {@code null} if they depend on the values */
+	private HtmlActionSet _actionSet;
+	/** The actions without placeholders */
+	private final List<String> _staticActions = new ArrayList<>();
+	/** The actions with placeholders */
+	private final List<ActionRange> _dynamicActions = new ArrayList<>();
+	/** The placeholder indexes of the slots outside of any action, their values may add actions of their own */
+	private int[] _contentPlaceholders;
+	/** {@code true} if the page ends inside an action, so the values decide where it ends */
+	private boolean _unterminatedAction;
+	
+	private HtmlTemplate(String source, String[] segments, int[] slots, String[] placeholders, Map<String, Integer> placeholderIndexes)
+	{
+		_source = source;
+		_segments = segments;
+		_slots = slots;
+		_placeholders = placeholders;
+		_placeholderIndexes = placeholderIndexes;
+	}
+	
+	/**
+	 * @param source the html page
+	 * @return the template of the page
+	 */
+	public static HtmlTemplate parse(String source)
+	{
+		final List<String> segments = new ArrayList<>();
+		final List<Integer> slots = new ArrayList<>();
+		final List<String> placeholders = new ArrayList<>();
+		final Map<String, Integer> placeholderIndexes = new HashMap<>();
+		final List<Integer> slotStarts = new ArrayList<>();
+		
+		int start = 0;
+		final Matcher matcher = PLACEHOLDER_PATTERN.matcher(source);
+		while (matcher.find())
+		{
+			final String placeholder = matcher.group();
+			Integer index = placeholderIndexes.get(placeholder);
+			if (index == null)
+			{
+				index = placeholders.size();
+				placeholders.add(placeholder);
+				placeholderIndexes.put(placeholder, index);
+			}
+			
+			segments.add(source.substring(start, matcher.start()));
+			slots.add(index);
+			slotStarts.add(matcher.start());
+			start = matcher.end();
+		}
+		segments.add(source.substring(start));
+		
+		final HtmlTemplate template = new HtmlTemplate(source, segments.toArray(new String[segments.size()]), slots.stream().mapToInt(Integer::intValue).toArray(), placeholders.toArray(new String[placeholders.size()]), placeholderIndexes);
+		template.indexActions(slotStarts.stream().mapToInt(Integer::intValue).toArray());
+		return template;
+	}
+	
+	/**
+	 * Splits the actions of the page into the actions without placeholders, which are kept as they are, and the actions with placeholders, which are kept as ranges of the segments.
+	 * @param slotStarts the index of every slot in the page
+	 */
+	private void indexActions(int[] slotStarts)
+	{
+		final boolean[] actionSlots = new boolean[_slots.length];
+		_unterminatedAction = !Util.scanHtmlActions(_source, (link, start, end) ->
+		{
+			int firstSlot = -1;
+			int lastSlot = -1;
+			for (int i = 0; i < slotStarts.length; i++)
+			{
+				// Neither the start nor the closing quote of an action can be part of a placeholder
+				if ((slotStarts[i] >= start) && (slotStarts[i] < end))
+				{
+					if (firstSlot == -1)
+					{
+						firstSlot = i;
+					}
+					lastSlot = i;
+					actionSlots[i] = true;
+				}
+			}
+			
+			if (firstSlot == -1)
+			{
+				final String action = Util.toHtmlAction(link, _source.substring(start, end));
+				if (action != null)
+				{
+					_staticActions.add(action);
+				}
+			}
+			else
+			{
+				final int firstSegmentStart = firstSlot == 0 ? 0 : slotStarts[firstSlot - 1] + getPlaceholderLength(firstSlot - 1);
+				final int lastSegmentStart = slotStarts[lastSlot] + getPlaceholderLength(lastSlot);
+				_dynamicActions.add(new ActionRange(link, firstSlot, start - firstSegmentStart, lastSlot, end - lastSegmentStart));
+			}
+		});
+		
+		_contentPlaceholders = IntStream.range(0, _slots.length).filter(slot -> !actionSlots[slot]).map(slot -> _slots[slot]).distinct().toArray();
+		if (!_unterminatedAction && _dynamicActions.isEmpty() && (_contentPlaceholders.length == 0))
+		{
+			_actionSet = HtmlActionSet.of(_staticActions);
+		}
+	}
+	
+	private int getPlaceholderLength(int slot)
+	{
+		return _placeholders[_slots[slot]].length();
+	}
+	
+	/**
+	 * @return the html page this template was parsed from
+	 */
+	public String getSource()
+	{
+		return _source;
+	}
+	
+	/**
+	 * @return the amount of distinct placeholders, the length of the value arrays
+	 */
+	public int getPlaceholderCount()
+	{
+		return _placeholders.length;
+	}
+	
+	/**
+	 * @param placeholder the placeholder including the percent signs
+	 * @return the index of the placeholder in the value arrays, {@code -1} if the page does not contain it
+	 */
+	public int getPlaceholderIndex(String placeholder)
+	{
+		final Integer index = _placeholderIndexes.get(placeholder);
+		return index != null ? index : -1;
+	}
+	
+	private String getValue(String[] values, int slot)
+	{
+		final int index = _slots[slot];
+		final String value = values[index];
+		return value != null ? value : _placeholders[index];
+	}
+	
+	/**
+	 * @param values the values by placeholder index
+	 * @return the length of the rendered page
+	 */
+	public int length(String[] values)
+	{
+		int length = 0;
+		for (String segment : _segments)
+		{
+			length += segment.length();
+		}
+		for (int i = 0; i < _slots.length; i++)
+		{
+			length += getValue(values, i).length();
+		}
+		return length;
+	}
+	
+	/**
+	 * Writes the rendered page without the terminator of the string.
+	 * @param packet the packet to write to
+	 * @param values the values by placeholder index
+	 */
+	public void write(PacketWriter packet, String[] values)
+	{
+		for (int i = 0; i < _slots.length; i++)
+		{
+			packet.writeChars(_segments[i]);
+			packet.writeChars(getValue(values, i));
+		}
+		packet.writeChars(_segments[_slots.length]);
+	}
+	
+	/**
+	 * @param values the values by placeholder index
+	 * @return the rendered page
+	 */
+	public String render(String[] values)
+	{
+		if (_slots.length == 0)
+		{
+			return _source;
+		}
+		
+		final StringBuilder sb = new StringBuilder(length(values));
+		for (int i = 0; i < _slots.length; i++)
+		{
+			sb.append(_segments[i]);
+			sb.append(getValue(values, i));
+		}
+		sb.append(_segments[_slots.length]);
+		return sb.toString();
+	}
+	
+	/**
+	 * Collects the actions of the rendered page from the index, the page itself is not rendered.<br>
+	 * Only the actions containing placeholders and the values outside of any action are parsed.
+	 * @param values the values by placeholder index
+	 * @return the actions of the rendered page, {@code null} if the values change where actions start or end, so the rendered page has to be parsed instead
+	 */
+	public HtmlActionSet getActions(String[] values)
+	{
+		if (_actionSet != null)
+		{
+			return _actionSet;
+		}
+		
+		if (_unterminatedAction)
+		{
+			return null;
+		}
+		
+		final List<String> actions = new ArrayList<>(_staticActions.size() + _dynamicActions.size());
+		actions.addAll(_staticActions);
+		
+		for (ActionRange range : _dynamicActions)
+		{
+			final StringBuilder sb = new StringBuilder();
+			for (int slot = range._firstSlot; slot <= range._lastSlot; slot++)
+			{
+				final String segment = _segments[slot];
+				sb.append(segment, slot == range._firstSlot ? range._startOffset : 0, segment.length());
+				
+				final String value = getValue(values, slot);
+				if (value.indexOf('"') != -1)
+				{
+					return null;
+				}
+				sb.append(value);
+			}
+			sb.append(_segments[range._lastSlot + 1], 0, range._endOffset);
+			
+			final String action = Util.toHtmlAction(range._link, sb.toString());
+			if (action != null)
+			{
+				actions.add(action);
+			}
+		}
+		
+		for (int index : _contentPlaceholders)
+		{
+			final String value = values[index];
+			if ((value != null) && !Util.collectHtmlActions(value, actions))
+			{
+				return null;
+			}
+		}
+		return HtmlActionSet.of(actions);
+	}
+	
+	/**
+	 * @return new values for this template, with all placeholders unbound
+	 */
+	public String[] newValues()
+	{
+		return new String[_placeholders.length];
+	}
+	
+	/**
+	 * Sets the value of a placeholder, nothing is set if the page does not contain the placeholder.
+	 * @param values the values by placeholder index
+	 * @param placeholder the placeholder including the percent signs
+	 * @param value the value
+	 */
+	public void bind(String[] values, String placeholder, String value)
+	{
+		final int index = getPlaceholderIndex(placeholder);
+		if (index >= 0)
+		{
+			values[index] = value;
+		}
+	}
+	
+	/**
+	 * The value of an action containing placeholders, from an offset in the segment before its first slot to an offset in the segment after its last slot.
+	 */
+	private static final class ActionRange
+	{
+		protected final boolean _link;
+		protected final int _firstSlot;
+		protected final int _startOffset;
+		protected final int _lastSlot;
+		protected final int _endOffset;
+		
+		protected ActionRange(boolean link, int firstSlot, int startOffset, int lastSlot, int endOffset)
+		{
+			_link = link;
+			_firstSlot = firstSlot;
+			_startOffset = startOffset;
+			_lastSlot = lastSlot;
+			_endOffset = endOffset;
+		}
+	}
+}
@@ -262,6 +262,22 @@ public final class GeneralConfig extends ConfigPropertiesLoader
 	})
 	public static boolean UPDATE_ITEMS_ON_CHAR_STORE;
 	
+	@ConfigField(name = "WriteBehindFlushInterval", value = "1000", comment =
+	{
+		"The interval (in milliseconds) at which item and periodic character saves are written to the database in batches by a dedicated thread.",
+		"Saves of the same item or character made in between are merged into one.",
+		"A value of 0 disables it, then every save is written right away by the thread that made it.",
+		"Independent of this setting everything still pending is written on shutdown."
+	}, reloadable = false)
+	public static long WRITE_BEHIND_FLUSH_INTERVAL;
+	
+	@ConfigField(name = "WriteBehindMaxLag", value = "10000", comment =
+	{
+		"The maximum time (in milliseconds) saves may wait for the database.",
+		"When the database falls further behind, saves are written right away again until it catches up, to limit what can be lost on a crash."
+	}, reloadable = false)
+	public static long WRITE_BEHIND_MAX_LAG;
+	
 	@ConfigField(name = "DestroyPlayerDroppedItem", value = "false", comment =
 	{
 		"Also delete from world misc. items dropped by players (all except equip-able items).",
@@ -337,6 +353,21 @@ public final class GeneralConfig extends ConfigPropertiesLoader
 	})
 	public static boolean LAZY_CACHE;
 	
+	@ConfigField(name = "CompressedHtmCache", value = "false", comment =
+	{
+		"Keep html's in cache as compressed bytes, only the most recently used html's are kept decompressed.",
+		"Decreases memory consumption, most of all with multiple languages, in exchange for decompressing html's that were not used lately.",
+		"False - every cached html is kept as it is sent"
+	}, reloadable = false)
+	public static boolean COMPRESSED_HTM_CACHE;
+	
+	@ConfigField(name = "CompressedHtmCacheBudget", value = "8388608", comment =
+	{
+		"Amount of bytes the decompressed html's and their templates may take when CompressedHtmCache is enabled.",
+		"The least recently used html's are dropped above it, they stay cached compressed."
+	})
+	public static long COMPRESSED_HTM_CACHE_BUDGET;
+	
 	@ConfigField(name = "CacheCharNames", value = "true", comment =
 	{
 		"Cache all character names in to memory on server startup",
@@ -345,6 +376,40 @@ public final class GeneralConfig extends ConfigPropertiesLoader
 	})
 	public static boolean CACHE_CHAR_NAMES;
 	
+	@ConfigField(name = "IncrementalStats", value = "true", comment =
+	{
+		"Recalculate character stats incrementally.",
+		"The stats contributed by every buff, passive skill and item are kept, so a recalculation only pumps what was added or changed since the last one and recomputes the stats it touched.",
+		"False - every recalculation wipes all stats and pumps every effect again"
+	})
+	public static boolean INCREMENTAL_STATS;
+	
+	@ConfigField(name = "IncrementalStatsVerify", value = "false", comment =
+	{
+		"Runs a full recalculation after every incremental one and logs the stats on which they differ.",
+		"Notes:",
+		"	Meant for debugging only, this is slower than both modes alone"
+	})
+	public static boolean INCREMENTAL_STATS_VERIFY;
+	
+	@ConfigField(name = "StatUpdateDelay", value = "100", comment =
+	{
+		"The maximum delay (in milliseconds) of stat update packets.",
+		"Stat changes of a creature are collected and broadcast together once per delay, so a skill applying many effects at once sends its updates only once.",
+		"The stats themselves are recalculated as soon as they are read, so they are never outdated on the server.",
+		"A value of 0 disables it, then every stat change is broadcast right away."
+	}, reloadable = false)
+	public static long STAT_UPDATE_DELAY;
+	
+	@ConfigField(name = "CacheStatValues", value = "true", comment =
+	{
+		"Keeps the final value of every stat of a creature until something it depends on changes.",
+		"A value is finalized again after a recalculation, or when the level, zone, mount, equipment or any stat it depends on changes.",
+		"Regeneration stats depend on too many things (sitting, moving, zones, residences), they are always finalized.",
+		"False - every read finalizes the stat again"
+	})
+	public static boolean CACHE_STAT_VALUES;
+	
 	@ConfigField(name = "MinNPCAnimation", value = "10", comment =
 	{
 		"Minimum and maximum variables in seconds for npc animation delay.",
@@ -40,7 +40,8 @@ public final class GeoDataConfig extends ConfigPropertiesLoader
 		"Pathfinding options:",
 		"0 = Disabled",
 		"1 = Enabled using path node files",
-		"2 = Enabled using geodata cells at runtime"
+		"2 = Enabled using geodata cells at runtime",
+		"3 = Enabled using hierarchical pathfinding (HPA*) over geodata cells"
 	})
 	public static int PATHFINDING;
 	
@@ -110,6 +111,24 @@ public final class GeoDataConfig extends ConfigPropertiesLoader
 	})
 	public static boolean FORCE_GEODATA;
 	
+	@ConfigField(name = "GeoDataMode", value = "0", comment =
+	{
+		"How the geodata regions are kept in memory:",
+		"0 = Every block is decoded into heap objects at startup",
+		"1 = Blocks are read from the memory mapped files on each request, only an offset index is kept on heap",
+		"2 = Like 1, but each region file is mapped when the region is first used or a player activates a grid in it",
+		"Modes 1 and 2 use ForceGeoData to decide whether the mapped files are loaded into physical memory."
+	}, reloadable = false)
+	public static int GEODATA_MODE;
+	
+	@ConfigField(name = "GeoDataCacheSize", value = "65536", comment =
+	{
+		"Amount of line of sight and move check results kept in memory, rounded down to a power of two.",
+		"Only the geodata part is cached, doors and fences are checked every time.",
+		"0 = Disabled"
+	}, reloadable = false)
+	public static int GEODATA_CACHE_SIZE;
+	
 	@ConfigField(name = "CoordSynchronize", value = "-1", comment =
 	{
 		"This setting controls Client <--> Server Player coordinates synchronization:",
@@ -31,15 +31,17 @@ public final class IdFactoryConfig extends ConfigPropertiesLoader
 	public enum IdFactoryType
 	{
 		BitSet,
-		Stack
+		Stack,
+		Striped
 	}
 	
-	@ConfigField(name = "IDFactory", value = "BitSet", comment =
+	@ConfigField(name = "IDFactory", value = "Striped", comment =
 	{
 		"Tell server which IDFactory Class to use:",
 		"Compaction = Original method",
 		"BitSet = One non compaction method",
-		"Stack = Another non compaction method"
+		"Stack = Another non compaction method",
+		"Striped = Non compaction method without locks, for many concurrent threads"
 	}, reloadable = false)
 	public static IdFactoryType IDFACTORY_TYPE;
 	
@@ -49,4 +51,26 @@ public final class IdFactoryConfig extends ConfigPropertiesLoader
 		"Much faster load time without it, but may cause problems."
 	}, reloadable = false)
 	public static boolean BAD_ID_CHECKING;
+	
+	@ConfigField(name = "IdSnapshot", value = "false", comment =
+	{
+		"Striped only: Store the used ids into data/idfactory.dat on a clean shutdown and read them from there",
+		"on the next boot up instead of the database. The file is deleted once read, so the ids are read",
+		"from the database again after a crash.",
+		"The ids of npcs are freed on shutdown, also of the ones waiting for their respawn."
+	}, reloadable = false)
+	public static boolean ID_SNAPSHOT;
+	
+	@ConfigField(name = "IdScanThreads", value = "4", comment =
+	{
+		"Striped only: The amount of database connections reading the used ids at once on boot up.",
+		"Keep it below the maximum amount of database connections."
+	}, reloadable = false)
+	public static int ID_SCAN_THREADS;
+	
+	@ConfigField(name = "IdScanChunkSize", value = "1000000", comment =
+	{
+		"Striped only: The size of the id ranges read by a single query on boot up."
+	}, reloadable = false)
+	public static int ID_SCAN_CHUNK_SIZE;
 }
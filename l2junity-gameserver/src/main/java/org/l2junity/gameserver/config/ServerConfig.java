@@ -33,6 +33,8 @@ import org.l2junity.commons.config.annotation.ConfigGroupBeginning;
 import org.l2junity.commons.config.annotation.ConfigGroupEnding;
 import org.l2junity.commons.util.BasePathProvider;
 import org.l2junity.commons.util.PropertiesParser;
+import org.l2junity.commons.util.XmlParserPool;
+import org.l2junity.commons.util.XmlSnapshot;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -83,6 +85,13 @@ public final class ServerConfig extends ConfigPropertiesLoader
 	}, reloadable = false)
 	public static String GAME_SERVER_LOGIN_HOST;
 	
+	@ConfigField(name = "SharedBroadcastPackets", value = "true", comment =
+	{
+		"Write broadcast packets only once and share the written payload between all recipients.",
+		"Only the per client encryption is done for each recipient, which lowers CPU and allocation in crowded areas."
+	})
+	public static boolean SHARED_BROADCAST_PACKETS;
+	
 	@ConfigGroupEnding(name = "Network")
 	@ConfigField(name = "AllowedProtocolRevisions", value = "110", comment =
 	{
@@ -119,13 +128,33 @@ public final class ServerConfig extends ConfigPropertiesLoader
 	@ConfigField(name = "MaximumDbIdleTime", value = "0", reloadable = false)
 	public static int DATABASE_MAX_IDLE_TIME;
 	
-	@ConfigGroupEnding(name = "Database")
 	@ConfigField(name = "ConnectionCloseTime", value = "60000", comment =
 	{
 		"Connection close time."
 	}, reloadable = false)
 	public static long CONNECTION_CLOSE_TIME;
 	
+	@ConfigField(name = "AsyncDbThreads", value = "2", comment =
+	{
+		"Amount of threads running the queries game logic submits without waiting for them.",
+		"Queries of the same key, for example the same clan, always run on the same thread in the order they were submitted."
+	}, reloadable = false)
+	public static int DATABASE_ASYNC_THREADS;
+	
+	@ConfigField(name = "AsyncDbQueueSize", value = "10000", comment =
+	{
+		"Amount of queries queued for these threads before submitting threads wait for them."
+	}, reloadable = false)
+	public static int DATABASE_ASYNC_QUEUE_SIZE;
+	
+	@ConfigGroupEnding(name = "Database")
+	@ConfigField(name = "AsyncDbBatchSize", value = "100", comment =
+	{
+		"Largest amount of queued queries run in one transaction.",
+		"Consecutive writes of the same statement are sent as one batch."
+	}, reloadable = false)
+	public static int DATABASE_ASYNC_BATCH_SIZE;
+	
 	@ConfigField(name = "CnameTemplate", value = ".*", comment =
 	{
 		"Character name template.",
@@ -186,6 +215,22 @@ public final class ServerConfig extends ConfigPropertiesLoader
 	}, reloadable = false)
 	public static boolean MULTI_THREADED_LOADING;
 	
+	@ConfigField(name = "XmlParserThreads", value = "-1", comment =
+	{
+		"Amount of threads parsing the XML files of a directory while multithreaded loading is used.",
+		"The files are still handed to their data holder one by one and in order, only the parsing itself is spread over the threads.",
+		"-1 = number of processors, 1 = parse on the loading thread only",
+	}, reloadable = false)
+	public static int XML_PARSER_THREADS;
+	
+	@ConfigField(name = "XmlSnapshotPath", value = "cache/xml", comment =
+	{
+		"Directory, relative to the datapack root, where binary snapshots of the parsed XML files are stored.",
+		"Unchanged XML files are loaded from their snapshot instead of being parsed and validated again on every startup.",
+		"Leave it empty to disable snapshots.",
+	}, reloadable = false)
+	public static String XML_SNAPSHOT_PATH;
+	
 	/**
 	 * Creates a path that points to a resource in the datapack.<BR>
 	 * <BR>
@@ -255,6 +300,9 @@ public final class ServerConfig extends ConfigPropertiesLoader
 	@Override
 	protected void loadImpl(PropertiesParser properties, PropertiesParser override)
 	{
+		XmlSnapshot.setDirectory(XML_SNAPSHOT_PATH.isEmpty() ? null : DATAPACK_ROOT.resolve(XML_SNAPSHOT_PATH));
+		XmlParserPool.setParallelism(MULTI_THREADED_LOADING ? (XML_PARSER_THREADS > 0 ? XML_PARSER_THREADS : Runtime.getRuntime().availableProcessors()) : 1);
+		
 		// Load DataHolder's simple class name based override configurations.
 		final Properties props = propertiesOf(properties, override);
 		props.entrySet().forEach(entry ->
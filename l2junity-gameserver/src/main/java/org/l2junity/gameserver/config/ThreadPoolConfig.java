@@ -30,4 +30,25 @@ public final class ThreadPoolConfig extends ConfigPropertiesLoader
 		"If set to -1 (which is recommended), the server will decide the amount depending on the available processors"
 	}, reloadable = false)
 	public static int THREAD_POOL_SIZE;
+	
+	@ConfigField(name = "TickSchedulerResolution", value = "100", comment =
+	{
+		"Specifies the duration of one tick scheduler tick in milliseconds.",
+		"The tick scheduler runs the periodic per creature tasks (AI thinking, regeneration, following), their delays are rounded up to whole ticks."
+	}, reloadable = false)
+	public static int TICK_SCHEDULER_RESOLUTION;
+	
+	@ConfigField(name = "ScriptTimerResolution", value = "50", comment =
+	{
+		"Specifies the duration of one tick of the script timers in milliseconds.",
+		"Quest and AI script timers fire on their own timing wheel, their delays are rounded up to whole ticks."
+	}, reloadable = false)
+	public static int SCRIPT_TIMER_RESOLUTION;
+	
+	@ConfigField(name = "MovementThreadPoolSize", value = "-1", comment =
+	{
+		"Specifies how many threads update the positions of moving creatures, moving creatures are split between them by world region.",
+		"If set to -1 (which is recommended), the server will decide the amount depending on the available processors"
+	}, reloadable = false)
+	public static int MOVEMENT_THREAD_POOL_SIZE;
 }
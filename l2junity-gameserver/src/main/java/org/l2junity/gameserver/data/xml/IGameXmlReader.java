@@ -104,7 +104,7 @@ public interface IGameXmlReader extends IXmlReader
 	}
 	
 	/**
-	 * Loads all XML files from {@code path} and calls {@link #parseFile(Path)} for each one of them.
+	 * Loads all XML files from {@code path} and calls {@link #parseFiles(java.util.Collection)} for them.
 	 * @param dir the directory object to scan.
 	 * @param recursive parses all sub folders if there is.
 	 * @return {@code false} if it fails to find the directory, {@code true} otherwise.
@@ -114,17 +114,7 @@ public interface IGameXmlReader extends IXmlReader
 	default boolean parseDirectory(final Path dir, final boolean recursive) throws IOException
 	{
 		final PathProvider pathProvider = new PathProvider().setAcceptFilter(this::acceptFilter).setOverrideLogging(overrideSystemLogging());
-		pathProvider.resolveOverriddenDirectory(dir, recursive, overrideMode()).forEach(file ->
-		{
-			try
-			{
-				parseFile(file);
-			}
-			catch (final IOException | XmlReaderException e)
-			{
-				LOGGER.warn("Failed to load file: '" + file + "'", e);
-			}
-		});
+		parseFiles(pathProvider.resolveOverriddenDirectory(dir, recursive, overrideMode()));
 		
 		return true;
 	}
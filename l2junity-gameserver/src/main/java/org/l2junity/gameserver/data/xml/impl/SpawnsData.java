@@ -47,6 +47,8 @@ import org.l2junity.gameserver.model.spawns.SpawnTemplate;
 import org.l2junity.gameserver.model.zone.form.ZoneNPoly;
 import org.l2junity.gameserver.model.zone.type.BannedSpawnTerritory;
 import org.l2junity.gameserver.model.zone.type.SpawnTerritory;
+import org.l2junity.gameserver.plugins.ServerPluginProvider;
+import org.l2junity.gameserver.scripting.ScriptsManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.Document;
@@ -90,9 +92,13 @@ public class SpawnsData implements IGameXmlReader
 	}
 	
 	/**
-	 * Initializing all spawns
+	 * Initializing all spawns, they only need the scripts to be loaded, not the client access to be opened.
 	 */
-	@Load(group = PostLoadGroup.class)
+	@Load(group = PostLoadGroup.class, dependencies =
+	{
+		@Dependency(clazz = ScriptsManager.class),
+		@Dependency(clazz = ServerPluginProvider.class, method = "onLoad")
+	}, waitPreviousGroups = false)
 	protected void init()
 	{
 		if (GeneralConfig.ALT_DEV_NO_SPAWNS)
@@ -18,14 +18,18 @@
  */
 package org.l2junity.gameserver.geodata;
 
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
 
 import org.l2junity.commons.lang.management.ShutdownManager;
 import org.l2junity.commons.lang.management.TerminationStatus;
 import org.l2junity.commons.loader.annotations.InstanceGetter;
 import org.l2junity.commons.loader.annotations.Load;
 import org.l2junity.commons.util.BasePathProvider;
+import org.l2junity.commons.util.concurrent.ThreadPool;
 import org.l2junity.gameserver.config.GeoDataConfig;
 import org.l2junity.gameserver.data.xml.impl.DoorData;
 import org.l2junity.gameserver.data.xml.impl.FenceData;
@@ -54,7 +58,19 @@ public final class GeoData
 	private static final int MAX_SEE_OVER_HEIGHT = 48;
 	private static final int SPAWN_Z_DELTA_LIMIT = 100;
 	
+	// Cached check types
+	private static final int CHECK_LOS = 0;
+	private static final int CHECK_MOVE = 1;
+	
+	// Move check results, the cell where the move stops is packed into the lower bits
+	private static final int MOVE_REACHED = 0;
+	private static final int MOVE_BLOCKED = 1;
+	private static final int MOVE_STOPPED = 2;
+	private static final int MOVE_OTHER_FLOOR = 3;
+	private static final int MOVE_RESULT_SHIFT = 48;
+	
 	private final GeoDriver _driver = new GeoDriver();
+	private GeoDataCache _cache;
 	
 	protected GeoData()
 	{
@@ -63,6 +79,11 @@ public final class GeoData
 	@Load(group = SideLoadGroup.class)
 	private void load()
 	{
+		if (GeoDataConfig.GEODATA_CACHE_SIZE > 0)
+		{
+			_cache = new GeoDataCache(GeoDataConfig.GEODATA_CACHE_SIZE);
+		}
+		
 		int loadedRegions = 0;
 		try
 		{
@@ -77,7 +98,7 @@ public final class GeoData
 						if (loadFile)
 						{
 							LOGGER.debug("Loading " + geoFilePath.getFileName() + "...");
-							_driver.loadRegion(geoFilePath, regionX, regionY);
+							loadRegion(geoFilePath, regionX, regionY);
 							loadedRegions++;
 						}
 					}
@@ -86,7 +107,7 @@ public final class GeoData
 						try
 						{
 							LOGGER.debug("Loading " + geoFilePath.getFileName() + "...");
-							_driver.loadRegion(geoFilePath, regionX, regionY);
+							loadRegion(geoFilePath, regionX, regionY);
 							loadedRegions++;
 						}
 						catch (Exception e)
@@ -106,6 +127,50 @@ public final class GeoData
 		LOGGER.info("Loaded {} geodata region(s).", loadedRegions);
 	}
 	
+	private void loadRegion(Path geoFilePath, int regionX, int regionY) throws IOException
+	{
+		switch (GeoDataConfig.GEODATA_MODE)
+		{
+			case 1:
+				_driver.loadMappedRegion(geoFilePath, regionX, regionY, false, GeoDataConfig.FORCE_GEODATA);
+				break;
+			case 2:
+				_driver.loadMappedRegion(geoFilePath, regionX, regionY, true, GeoDataConfig.FORCE_GEODATA);
+				break;
+			default:
+				_driver.loadRegion(geoFilePath, regionX, regionY);
+				break;
+		}
+	}
+	
+	/**
+	 * Maps the geodata region containing the specified location in background if it is still waiting for its first use.
+	 * @param x the world x
+	 * @param y the world y
+	 */
+	public void prefetchRegion(int x, int y)
+	{
+		final int geoX = getGeoX(x);
+		final int geoY = getGeoY(y);
+		if (_driver.isRegionPending(geoX, geoY))
+		{
+			ThreadPool.execute(() ->
+			{
+				try
+				{
+					if (_driver.mapRegion(geoX, geoY))
+					{
+						LOGGER.debug("Mapped geodata region of {}, {}.", x, y);
+					}
+				}
+				catch (Exception e)
+				{
+					LOGGER.warn("Failed to map geodata region of {}, {}!", x, y, e);
+				}
+			});
+		}
+	}
+	
 	public boolean hasGeoPos(int geoX, int geoY)
 	{
 		return _driver.hasGeoPos(geoX, geoY);
@@ -331,14 +396,33 @@ public final class GeoData
 	 */
 	public boolean canSeeTarget(double x, double y, double z, double tx, double ty, double tz)
 	{
-		int geoX = getGeoX(x);
-		int geoY = getGeoY(y);
-		int tGeoX = getGeoX(tx);
-		int tGeoY = getGeoY(ty);
+		final int geoX = getGeoX(x);
+		final int geoY = getGeoY(y);
+		final int tGeoX = getGeoX(tx);
+		final int tGeoY = getGeoY(ty);
+		final int nearestZ = getNearestZ(geoX, geoY, z);
+		final int nearestTz = getNearestZ(tGeoX, tGeoY, tz);
 		
-		z = getNearestZ(geoX, geoY, z);
-		tz = getNearestZ(tGeoX, tGeoY, tz);
+		final GeoDataCache cache = _cache;
+		if (cache == null)
+		{
+			return checkSeeTarget(geoX, geoY, nearestZ, tGeoX, tGeoY, nearestTz);
+		}
 		
+		// The walk only depends on the cells and their nearest z
+		final long from = GeoDataCache.toKey(geoX, geoY, nearestZ);
+		final long to = GeoDataCache.toKey(tGeoX, tGeoY, nearestTz);
+		long result = cache.get(CHECK_LOS, from, to);
+		if (result == GeoDataCache.MISS)
+		{
+			result = checkSeeTarget(geoX, geoY, nearestZ, tGeoX, tGeoY, nearestTz) ? 1 : 0;
+			cache.put(CHECK_LOS, from, to, result);
+		}
+		return result != 0;
+	}
+	
+	private boolean checkSeeTarget(int geoX, int geoY, int z, int tGeoX, int tGeoY, int tz)
+	{
 		// fastpath
 		if ((geoX == tGeoX) && (geoY == tGeoY))
 		{
@@ -352,28 +436,20 @@ public final class GeoData
 		
 		if (tz > z)
 		{
-			double tmp = tx;
-			tx = x;
-			x = tmp;
-			
-			tmp = ty;
-			ty = y;
-			y = tmp;
-			
-			tmp = tz;
+			int tmp = tz;
 			tz = z;
 			z = tmp;
 			
 			tmp = tGeoX;
 			tGeoX = geoX;
-			geoX = (int) tmp;
+			geoX = tmp;
 			
 			tmp = tGeoY;
 			tGeoY = geoY;
-			geoY = (int) tmp;
+			geoY = tmp;
 		}
 		
-		LinePointIterator3D pointIter = new LinePointIterator3D(geoX, geoY, (int) z, tGeoX, tGeoY, (int) tz);
+		LinePointIterator3D pointIter = new LinePointIterator3D(geoX, geoY, z, tGeoX, tGeoY, tz);
 		// first point is guaranteed to be available, skip it, we can always see our own position
 		pointIter.next();
 		int prevX = pointIter.x();
@@ -478,15 +554,76 @@ public final class GeoData
 		int tGeoY = getGeoY(ty);
 		tz = getNearestZ(tGeoX, tGeoY, tz);
 		
+		final long result = getMoveResult(x, y, z, tx, ty, tz, geoX, geoY, tGeoX, tGeoY, instance);
+		switch ((int) (result >>> MOVE_RESULT_SHIFT))
+		{
+			case MOVE_BLOCKED:
+			{
+				return new Location(x, y, getHeight(x, y, z));
+			}
+			case MOVE_STOPPED:
+			{
+				// can't move, return previous location
+				return new Location(getWorldX((int) ((result >>> 32) & 0xFFFF)), getWorldY((int) ((result >>> 16) & 0xFFFF)), (short) result);
+			}
+			case MOVE_OTHER_FLOOR:
+			{
+				// different floors, return start location
+				return new Location(x, y, z);
+			}
+			default:
+			{
+				return new Location(tx, ty, tz);
+			}
+		}
+	}
+	
+	/**
+	 * Gets the result of a move check, the geodata walk is cached if possible.
+	 * @param x the x coordinate
+	 * @param y the y coordinate
+	 * @param z the nearest z coordinate of the start cell
+	 * @param tx the target's x coordinate
+	 * @param ty the target's y coordinate
+	 * @param tz the nearest z coordinate of the target cell
+	 * @param geoX the geo x of the start cell
+	 * @param geoY the geo y of the start cell
+	 * @param tGeoX the geo x of the target cell
+	 * @param tGeoY the geo y of the target cell
+	 * @param instance the instance
+	 * @return one of the move results shifted by {@link #MOVE_RESULT_SHIFT}, {@link #MOVE_STOPPED} also holds the cell key where the move stops
+	 */
+	private long getMoveResult(double x, double y, double z, double tx, double ty, double tz, int geoX, int geoY, int tGeoX, int tGeoY, Instance instance)
+	{
 		if (DoorData.getInstance().checkIfDoorsBetween(x, y, z, tx, ty, tz, instance, false))
 		{
-			return new Location(x, y, getHeight(x, y, z));
+			return (long) MOVE_BLOCKED << MOVE_RESULT_SHIFT;
 		}
 		if (FenceData.getInstance().checkIfFenceBetween(x, y, z, tx, ty, tz, instance))
 		{
-			return new Location(x, y, getHeight(x, y, z));
+			return (long) MOVE_BLOCKED << MOVE_RESULT_SHIFT;
 		}
 		
+		final GeoDataCache cache = _cache;
+		if (cache == null)
+		{
+			return computeMoveResult(z, tz, geoX, geoY, tGeoX, tGeoY);
+		}
+		
+		// The walk only depends on the cells and their nearest z
+		final long from = GeoDataCache.toKey(geoX, geoY, (int) z);
+		final long to = GeoDataCache.toKey(tGeoX, tGeoY, (int) tz);
+		long result = cache.get(CHECK_MOVE, from, to);
+		if (result == GeoDataCache.MISS)
+		{
+			result = computeMoveResult(z, tz, geoX, geoY, tGeoX, tGeoY);
+			cache.put(CHECK_MOVE, from, to, result);
+		}
+		return result;
+	}
+	
+	private long computeMoveResult(double z, double tz, int geoX, int geoY, int tGeoX, int tGeoY)
+	{
 		LinePointIterator pointIter = new LinePointIterator(geoX, geoY, tGeoX, tGeoY);
 		// first point is guaranteed to be available
 		pointIter.next();
@@ -504,8 +641,7 @@ public final class GeoData
 				int nswe = GeoUtils.computeNswe(prevX, prevY, curX, curY);
 				if (!checkNearestNsweAntiCornerCut(prevX, prevY, prevZ, nswe))
 				{
-					// can't move, return previous location
-					return new Location(getWorldX(prevX), getWorldY(prevY), prevZ);
+					return ((long) MOVE_STOPPED << MOVE_RESULT_SHIFT) | GeoDataCache.toKey(prevX, prevY, (int) prevZ);
 				}
 			}
 			
@@ -516,11 +652,10 @@ public final class GeoData
 		
 		if (hasGeoPos(prevX, prevY) && (prevZ != tz))
 		{
-			// different floors, return start location
-			return new Location(x, y, z);
+			return (long) MOVE_OTHER_FLOOR << MOVE_RESULT_SHIFT;
 		}
 		
-		return new Location(tx, ty, tz);
+		return (long) MOVE_REACHED << MOVE_RESULT_SHIFT;
 	}
 	
 	public Location moveCheck(Location startLoc, Location endLoc, Instance instance)
@@ -548,48 +683,7 @@ public final class GeoData
 		int tGeoY = getGeoY(toY);
 		toZ = getNearestZ(tGeoX, tGeoY, toZ);
 		
-		if (DoorData.getInstance().checkIfDoorsBetween(fromX, fromY, fromZ, toX, toY, toZ, instance, false))
-		{
-			return false;
-		}
-		if (FenceData.getInstance().checkIfFenceBetween(fromX, fromY, fromZ, toX, toY, toZ, instance))
-		{
-			return false;
-		}
-		
-		LinePointIterator pointIter = new LinePointIterator(geoX, geoY, tGeoX, tGeoY);
-		// first point is guaranteed to be available
-		pointIter.next();
-		int prevX = pointIter.x();
-		int prevY = pointIter.y();
-		double prevZ = fromZ;
-		
-		while (pointIter.next())
-		{
-			int curX = pointIter.x();
-			int curY = pointIter.y();
-			int curZ = getNearestZ(curX, curY, prevZ);
-			if (hasGeoPos(prevX, prevY))
-			{
-				int nswe = GeoUtils.computeNswe(prevX, prevY, curX, curY);
-				if (!checkNearestNsweAntiCornerCut(prevX, prevY, prevZ, nswe))
-				{
-					return false;
-				}
-			}
-			
-			prevX = curX;
-			prevY = curY;
-			prevZ = curZ;
-		}
-		
-		if (hasGeoPos(prevX, prevY) && (prevZ != toZ))
-		{
-			// different floors
-			return false;
-		}
-		
-		return true;
+		return (getMoveResult(fromX, fromY, fromZ, toX, toY, toZ, geoX, geoY, tGeoX, tGeoY, instance) >>> MOVE_RESULT_SHIFT) == MOVE_REACHED;
 	}
 	
 	/**
@@ -627,6 +721,12 @@ public final class GeoData
 		return hasGeoPos(getGeoX(x), getGeoY(y));
 	}
 	
+	public List<String> getStats()
+	{
+		final GeoDataCache cache = _cache;
+		return (cache != null) ? cache.getStats() : Collections.emptyList();
+	}
+	
 	@InstanceGetter
 	public static GeoData getInstance()
 	{
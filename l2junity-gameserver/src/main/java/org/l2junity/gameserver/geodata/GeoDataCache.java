@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2004-2017 L2J Unity
+ * 
+ * This file is part of L2J Unity.
+ * 
+ * L2J Unity is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Unity is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2junity.gameserver.geodata;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, lock-free cache of geodata walk results keyed by start cell and end cell.<br>
+ * Each key maps to exactly one slot of a fixed size table, a new result simply replaces whatever the slot held before.<br>
+ * Only results which depend on the geodata alone are cached, doors and fences are checked on every call.
+ */
+final class GeoDataCache
+{
+	/** Returned by {@link #get(int, long, long)} when no result is cached */
+	public static final long MISS = Long.MIN_VALUE;
+	
+	private final AtomicReferenceArray<Entry> _entries;
+	private final int _mask;
+	
+	// Statistics
+	private final LongAdder _hits = new LongAdder();
+	private final LongAdder _misses = new LongAdder();
+	
+	/**
+	 * @param size the amount of results to keep, rounded down to a power of two
+	 */
+	GeoDataCache(int size)
+	{
+		final int capacity = Integer.highestOneBit(Math.max(size, 1));
+		_entries = new AtomicReferenceArray<>(capacity);
+		_mask = capacity - 1;
+	}
+	
+	/**
+	 * Packs a cell into a key part.
+	 * @param geoX the geo x
+	 * @param geoY the geo y
+	 * @param z the nearest z of the cell
+	 * @return the key part
+	 */
+	public static long toKey(int geoX, int geoY, int z)
+	{
+		return ((geoX & 0xFFFFL) << 32) | ((geoY & 0xFFFFL) << 16) | (z & 0xFFFFL);
+	}
+	
+	/**
+	 * Gets a cached result.
+	 * @param type the type of the check
+	 * @param from the start cell key
+	 * @param to the end cell key
+	 * @return the result, or {@link #MISS}
+	 */
+	public long get(int type, long from, long to)
+	{
+		final Entry entry = _entries.get(indexOf(type, from, to));
+		if ((entry != null) && (entry._type == type) && (entry._from == from) && (entry._to == to))
+		{
+			_hits.increment();
+			return entry._result;
+		}
+		
+		_misses.increment();
+		return MISS;
+	}
+	
+	/**
+	 * Caches a result.
+	 * @param type the type of the check
+	 * @param from the start cell key
+	 * @param to the end cell key
+	 * @param result the result
+	 */
+	public void put(int type, long from, long to, long result)
+	{
+		_entries.set(indexOf(type, from, to), new Entry(type, from, to, result));
+	}
+	
+	private int indexOf(int type, long from, long to)
+	{
+		long hash = (from * 0x9E3779B97F4A7C15L) ^ (to * 0xC2B2AE3D27D4EB4FL) ^ type;
+		hash ^= hash >>> 29;
+		hash *= 0xBF58476D1CE4E5B9L;
+		hash ^= hash >>> 32;
+		return (int) hash & _mask;
+	}
+	
+	public List<String> getStats()
+	{
+		final long hits = _hits.sum();
+		final long misses = _misses.sum();
+		final long total = hits + misses;
+		
+		final List<String> list = new ArrayList<>();
+		list.add("GeoData Cache:");
+		list.add("\tSize: ................ " + _entries.length());
+		list.add("\tHits: ................ " + hits);
+		list.add("\tMisses: .............. " + misses);
+		list.add("\tHit ratio: ........... " + (total > 0 ? String.format("%.1f%%", (hits * 100.0) / total) : "-"));
+		return list;
+	}
+	
+	private static final class Entry
+	{
+		protected final int _type;
+		protected final long _from;
+		protected final long _to;
+		protected final long _result;
+		
+		protected Entry(int type, long from, long to, long result)
+		{
+			_type = type;
+			_from = from;
+			_to = to;
+			_result = result;
+		}
+	}
+}
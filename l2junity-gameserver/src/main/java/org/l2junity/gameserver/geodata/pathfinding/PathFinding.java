@@ -27,6 +27,7 @@ import org.l2junity.gameserver.geodata.pathfinding.cellnodes.CellPathFinding;
 import org.l2junity.gameserver.geodata.pathfinding.empty.EmptyPathFinding;
 import org.l2junity.gameserver.geodata.pathfinding.geonodes.GeoNode;
 import org.l2junity.gameserver.geodata.pathfinding.geonodes.GeoPathFinding;
+import org.l2junity.gameserver.geodata.pathfinding.hierarchical.HierarchicalPathFinding;
 import org.l2junity.gameserver.loader.LoadGroup;
 import org.l2junity.gameserver.model.World;
 import org.l2junity.gameserver.model.instancezone.Instance;
@@ -48,6 +49,9 @@ public abstract class PathFinding
 				case 2:
 					INSTANCE = new CellPathFinding();
 					break;
+				case 3:
+					INSTANCE = new HierarchicalPathFinding();
+					break;
 				default:
 					INSTANCE = new EmptyPathFinding();
 					break;
@@ -234,6 +238,14 @@ public abstract class PathFinding
 		return null;
 	}
 	
+	/**
+	 * @return the amount of nodes expanded by all searches so far
+	 */
+	public long getExpandedNodes()
+	{
+		return 0;
+	}
+	
 	public GeoNode[] readNeighbors(GeoNode n, int idx)
 	{
 		// bleah... I have to vomit every time I visit that damn geoengine/pathfinding...
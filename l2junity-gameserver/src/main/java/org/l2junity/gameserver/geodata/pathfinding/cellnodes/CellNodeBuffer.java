@@ -44,6 +44,7 @@ public class CellNodeBuffer
 	
 	private long _timeStamp = 0;
 	private long _lastElapsedTime = 0;
+	private int _lastIterations = 0;
 	
 	private CellNode _current = null;
 	
@@ -71,6 +72,7 @@ public class CellNodeBuffer
 		
 		for (int count = 0; count < MAX_ITERATIONS; count++)
 		{
+			_lastIterations = count + 1;
 			if ((_current.getLoc().getNodeX() == _targetX) && (_current.getLoc().getNodeY() == _targetY) && (Math.abs(_current.getLoc().getZ() - _targetZ) < 64))
 			{
 				return _current; // found
@@ -113,6 +115,14 @@ public class CellNodeBuffer
 		return _lastElapsedTime;
 	}
 	
+	/**
+	 * @return the amount of nodes expanded by the last search
+	 */
+	public final int getLastIterations()
+	{
+		return _lastIterations;
+	}
+	
 	public final List<CellNode> debugPath()
 	{
 		List<CellNode> result = new LinkedList<>();
@@ -50,6 +50,7 @@ public final class CellPathFinding extends PathFinding
 	private int _postFilterPlayableUses = 0;
 	private int _postFilterPasses = 0;
 	private long _postFilterElapsed = 0;
+	private long _expandedNodes = 0;
 	
 	private List<ItemInstance> _debugItems = null;
 	
@@ -65,6 +66,14 @@ public final class CellPathFinding extends PathFinding
 			return;
 		}
 		
+		initBuffers();
+	}
+	
+	/**
+	 * Creates the node buffers as configured in {@link GeoDataConfig#PATHFIND_BUFFERS}.
+	 */
+	public void initBuffers()
+	{
 		try
 		{
 			String[] array = GeoDataConfig.PATHFIND_BUFFERS.split(";");
@@ -148,6 +157,7 @@ public final class CellPathFinding extends PathFinding
 		try
 		{
 			CellNode result = buffer.findPath(gx, gy, (int) gz, gtx, gty, (int) gtz);
+			_expandedNodes += buffer.getLastIterations();
 			
 			if (debug)
 			{
@@ -406,6 +416,12 @@ public final class CellPathFinding extends PathFinding
 		}
 	}
 	
+	@Override
+	public long getExpandedNodes()
+	{
+		return _expandedNodes;
+	}
+	
 	@Override
 	public String[] getStat()
 	{
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2004-2017 L2J Unity
+ * 
+ * This file is part of L2J Unity.
+ * 
+ * L2J Unity is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Unity is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2junity.gameserver.geodata.pathfinding.hierarchical;
+
+/**
+ * A square of {@link #SIZE} x {@link #SIZE} geodata cells, the unit the abstract graph is built of.
+ */
+final class Cluster
+{
+	static final int SHIFT = 4;
+	static final int SIZE = 1 << SHIFT;
+	
+	private final int _x;
+	private final int _y;
+	private final Portal[] _portals;
+	
+	Cluster(int x, int y, Portal[] portals)
+	{
+		_x = x;
+		_y = y;
+		_portals = portals;
+	}
+	
+	int getX()
+	{
+		return _x;
+	}
+	
+	int getY()
+	{
+		return _y;
+	}
+	
+	int getMinX()
+	{
+		return _x << SHIFT;
+	}
+	
+	int getMinY()
+	{
+		return _y << SHIFT;
+	}
+	
+	int getMaxX()
+	{
+		return getMinX() + SIZE - 1;
+	}
+	
+	int getMaxY()
+	{
+		return getMinY() + SIZE - 1;
+	}
+	
+	/**
+	 * @return the portals on all four borders of this cluster
+	 */
+	Portal[] getPortals()
+	{
+		return _portals;
+	}
+}
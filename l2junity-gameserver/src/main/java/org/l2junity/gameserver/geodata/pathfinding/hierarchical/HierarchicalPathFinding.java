@@ -0,0 +1,725 @@
+/*
+ * Copyright (C) 2004-2017 L2J Unity
+ * 
+ * This file is part of L2J Unity.
+ * 
+ * L2J Unity is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Unity is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2junity.gameserver.geodata.pathfinding.hierarchical;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.l2junity.gameserver.config.GeoDataConfig;
+import org.l2junity.gameserver.geodata.GeoData;
+import org.l2junity.gameserver.geodata.pathfinding.AbstractNodeLoc;
+import org.l2junity.gameserver.geodata.pathfinding.PathFinding;
+import org.l2junity.gameserver.geodata.pathfinding.cellnodes.CellPathFinding;
+import org.l2junity.gameserver.geodata.pathfinding.cellnodes.NodeLoc;
+import org.l2junity.gameserver.model.instancezone.Instance;
+import org.l2junity.geodriver.Cell;
+import org.l2junity.geodriver.GeoDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hierarchical pathfinding (HPA*) over geodata cells.<br>
+ * The world is split into clusters of {@link Cluster#SIZE} x {@link Cluster#SIZE} cells. Where a border between two clusters can be crossed, portals are placed on both sides, and the portals of a cluster are connected by searches inside the cluster.<br>
+ * A path is planned over the portals first and only the clusters on the planned route are searched cell by cell afterwards, so long paths need neither a large node buffer nor a search over the whole area between start and target.<br>
+ * Clusters are built the first time a search reaches them and are kept afterwards, up to {@link #MAX_CLUSTERS}. Doors and fences are not part of the graph, they are checked by the LOS postfilter like in {@link CellPathFinding}.
+ */
+public final class HierarchicalPathFinding extends PathFinding
+{
+	private static final Logger LOGGER = LoggerFactory.getLogger(HierarchicalPathFinding.class);
+	
+	/** Maximum amount of portals expanded by one search */
+	private static final int MAX_ITERATIONS = 4096;
+	/** Border segments up to this length are crossed through a single portal in their middle, longer ones get a portal at each end */
+	private static final int MAX_SINGLE_PORTAL_SEGMENT = 6;
+	private static final int MAX_STEP_Z = 16;
+	private static final int TARGET_Z_TOLERANCE = 64;
+	private static final int RECORDED_REQUESTS = 256;
+	/** When this many clusters are built, the whole graph is dropped and built again as searches reach it */
+	private static final int MAX_CLUSTERS = 1 << 16;
+	
+	private static final Portal[][] EMPTY_BORDER = new Portal[2][0];
+	private static final Comparator<PortalNode> NODE_COMPARATOR = (n1, n2) -> Double.compare(n1._f, n2._f);
+	
+	/** Portals of both sides of every border built so far, lower cluster first */
+	private final Map<Long, Portal[][]> _borders = new ConcurrentHashMap<>();
+	private final Map<Long, Cluster> _clusters = new ConcurrentHashMap<>();
+	
+	/** The last requests in world coordinates, replayed by {@link #benchmark()} */
+	private final AtomicReferenceArray<int[]> _requests = new AtomicReferenceArray<>(RECORDED_REQUESTS);
+	private final AtomicInteger _requestIndex = new AtomicInteger();
+	
+	// Statistics
+	private final LongAdder _graphDrops = new LongAdder();
+	private final LongAdder _findSuccess = new LongAdder();
+	private final LongAdder _findFails = new LongAdder();
+	private final LongAdder _localPaths = new LongAdder();
+	private final LongAdder _expandedCells = new LongAdder();
+	private final LongAdder _expandedPortals = new LongAdder();
+	private final LongAdder _elapsed = new LongAdder();
+	private final LongAdder _postFilterUses = new LongAdder();
+	private final LongAdder _postFilterPasses = new LongAdder();
+	
+	@Override
+	public void load()
+	{
+		if (GeoDataConfig.PATHFINDING != 3)
+		{
+			return;
+		}
+		
+		_borders.clear();
+		_clusters.clear();
+		LOGGER.info("Using hierarchical pathfinding with clusters of {}x{} cells.", Cluster.SIZE, Cluster.SIZE);
+	}
+	
+	@Override
+	public boolean pathNodesExist(short regionoffset)
+	{
+		return false;
+	}
+	
+	@Override
+	public List<AbstractNodeLoc> findPath(double x, double y, double z, double tx, double ty, double tz, Instance instance, boolean playable)
+	{
+		_requests.set(Math.floorMod(_requestIndex.getAndIncrement(), RECORDED_REQUESTS), new int[]
+		{
+			(int) x,
+			(int) y,
+			(int) z,
+			(int) tx,
+			(int) ty,
+			(int) tz
+		});
+		return findPath(x, y, z, tx, ty, tz, instance, playable, LocalSearch.get());
+	}
+	
+	private List<AbstractNodeLoc> findPath(double x, double y, double z, double tx, double ty, double tz, Instance instance, boolean playable, LocalSearch search)
+	{
+		final GeoData geoData = GeoData.getInstance();
+		final int gx = geoData.getGeoX(x);
+		final int gy = geoData.getGeoY(y);
+		if (!geoData.hasGeo(x, y))
+		{
+			return null;
+		}
+		final int gz = (int) geoData.getHeight(x, y, z);
+		final int gtx = geoData.getGeoX(tx);
+		final int gty = geoData.getGeoY(ty);
+		if (!geoData.hasGeo(tx, ty))
+		{
+			return null;
+		}
+		final int gtz = (int) geoData.getHeight(tx, ty, tz);
+		
+		final long timeStamp = System.nanoTime();
+		final long expanded = search.getExpanded();
+		final List<Long> cells;
+		try
+		{
+			cells = findCells(search, gx, gy, gz, gtx, gty, gtz);
+		}
+		catch (Exception e)
+		{
+			LOGGER.warn("", e);
+			return null;
+		}
+		finally
+		{
+			_expandedCells.add(search.getExpanded() - expanded);
+			_elapsed.add(System.nanoTime() - timeStamp);
+		}
+		
+		if (cells == null)
+		{
+			_findFails.increment();
+			return null;
+		}
+		
+		final List<AbstractNodeLoc> path = constructPath(cells);
+		if ((path.size() < 3) || (GeoDataConfig.MAX_POSTFILTER_PASSES <= 0))
+		{
+			_findSuccess.increment();
+			return path;
+		}
+		
+		_postFilterUses.increment();
+		
+		double currentX, currentY, currentZ;
+		ListIterator<AbstractNodeLoc> middlePoint;
+		boolean remove;
+		int pass = 0;
+		do
+		{
+			pass++;
+			_postFilterPasses.increment();
+			
+			remove = false;
+			middlePoint = path.listIterator();
+			currentX = x;
+			currentY = y;
+			currentZ = z;
+			
+			while (middlePoint.hasNext())
+			{
+				final AbstractNodeLoc locMiddle = middlePoint.next();
+				if (!middlePoint.hasNext())
+				{
+					break;
+				}
+				
+				final AbstractNodeLoc locEnd = path.get(middlePoint.nextIndex());
+				if (geoData.canMove(currentX, currentY, currentZ, locEnd.getX(), locEnd.getY(), locEnd.getZ(), instance))
+				{
+					middlePoint.remove();
+					remove = true;
+				}
+				else
+				{
+					currentX = locMiddle.getX();
+					currentY = locMiddle.getY();
+					currentZ = locMiddle.getZ();
+				}
+			}
+		}
+		// only one postfilter pass for AI
+		while (playable && remove && (path.size() > 2) && (pass < GeoDataConfig.MAX_POSTFILTER_PASSES));
+		
+		_findSuccess.increment();
+		return path;
+	}
+	
+	/**
+	 * Finds the cells of a path, planning over the portals unless start and target are in the same cluster and connected inside of it.
+	 * @param search the local search of the current thread
+	 * @param x the start geo x
+	 * @param y the start geo y
+	 * @param z the start geo height
+	 * @param tx the target geo x
+	 * @param ty the target geo y
+	 * @param tz the target geo height
+	 * @return the keys of all cells of the path, or {@code null} if there is no path
+	 */
+	private List<Long> findCells(LocalSearch search, int x, int y, int z, int tx, int ty, int tz)
+	{
+		final Cluster startCluster = getCluster(x >> Cluster.SHIFT, y >> Cluster.SHIFT);
+		final Cluster targetCluster = getCluster(tx >> Cluster.SHIFT, ty >> Cluster.SHIFT);
+		if (startCluster == targetCluster)
+		{
+			final List<Long> cells = search.findPath(startCluster, x, y, z, tx, ty, tz, TARGET_Z_TOLERANCE);
+			if (cells != null)
+			{
+				_localPaths.increment();
+				return cells;
+			}
+		}
+		
+		final List<Portal> portals = findPortals(search, startCluster, x, y, z, targetCluster, tx, ty, tz);
+		if (portals == null)
+		{
+			return null;
+		}
+		
+		// refine the abstract path cluster by cluster
+		final Portal first = portals.get(0);
+		final List<Long> cells = search.findPath(startCluster, x, y, z, first.getX(), first.getY(), first.getZ(), 1);
+		if (cells == null)
+		{
+			return null;
+		}
+		
+		for (int i = 1; i < portals.size(); i++)
+		{
+			final Portal from = portals.get(i - 1);
+			final Portal to = portals.get(i);
+			if (from.getPartner() == to)
+			{
+				cells.add(to.getKey());
+				continue;
+			}
+			
+			final List<Long> part = search.findPath(getCluster(from.getClusterX(), from.getClusterY()), from.getX(), from.getY(), from.getZ(), to.getX(), to.getY(), to.getZ(), 1);
+			if (part == null)
+			{
+				return null;
+			}
+			cells.addAll(part.subList(1, part.size()));
+		}
+		
+		final Portal last = portals.get(portals.size() - 1);
+		final List<Long> part = search.findPath(targetCluster, last.getX(), last.getY(), last.getZ(), tx, ty, tz, TARGET_Z_TOLERANCE);
+		if (part == null)
+		{
+			return null;
+		}
+		cells.addAll(part.subList(1, part.size()));
+		return cells;
+	}
+	
+	/**
+	 * A* over the portals, the target is reached from the portals of its cluster through a search inside the cluster.
+	 * @param search the local search of the current thread
+	 * @param startCluster the cluster of the start cell
+	 * @param x the start geo x
+	 * @param y the start geo y
+	 * @param z the start geo height
+	 * @param targetCluster the cluster of the target cell
+	 * @param tx the target geo x
+	 * @param ty the target geo y
+	 * @param tz the target geo height
+	 * @return the portals passed from start to target, or {@code null} if there is no path
+	 */
+	private List<Portal> findPortals(LocalSearch search, Cluster startCluster, int x, int y, int z, Cluster targetCluster, int tx, int ty, int tz)
+	{
+		final Portal[] startPortals = startCluster.getPortals();
+		final double[] startCosts = search.flood(startCluster, x, y, z, getKeys(startPortals));
+		
+		final Map<Portal, PortalNode> nodes = new HashMap<>();
+		final PriorityQueue<PortalNode> open = new PriorityQueue<>(NODE_COMPARATOR);
+		for (int i = 0; i < startPortals.length; i++)
+		{
+			if (startCosts[i] >= 0)
+			{
+				addNode(nodes, open, null, startPortals[i], startCosts[i], tx, ty);
+			}
+		}
+		
+		int iterations = 0;
+		try
+		{
+			PortalNode current;
+			while ((current = open.poll()) != null)
+			{
+				if (current._portal == null)
+				{
+					// target reached
+					final List<Portal> portals = new ArrayList<>();
+					for (PortalNode node = current._parent; node != null; node = node._parent)
+					{
+						portals.add(node._portal);
+					}
+					Collections.reverse(portals);
+					return portals;
+				}
+				
+				// skip nodes closed already or replaced by a cheaper one
+				if (current._closed || (nodes.get(current._portal) != current))
+				{
+					continue;
+				}
+				current._closed = true;
+				
+				if (++iterations > MAX_ITERATIONS)
+				{
+					return null;
+				}
+				
+				final Portal portal = current._portal;
+				final Cluster cluster = getCluster(portal.getClusterX(), portal.getClusterY());
+				if (cluster == targetCluster)
+				{
+					final double cost = search.findCost(cluster, portal.getX(), portal.getY(), portal.getZ(), tx, ty, tz, TARGET_Z_TOLERANCE);
+					if (cost >= 0)
+					{
+						open.add(new PortalNode(null, current, current._g + cost, current._g + cost));
+					}
+				}
+				
+				addNode(nodes, open, current, portal.getPartner(), current._g + portal.getPartnerCost(), tx, ty);
+				
+				final Portal[] edges = portal.getEdges();
+				final double[] costs = portal.getCosts();
+				for (int i = 0; i < edges.length; i++)
+				{
+					addNode(nodes, open, current, edges[i], current._g + costs[i], tx, ty);
+				}
+			}
+			return null;
+		}
+		finally
+		{
+			_expandedPortals.add(iterations);
+		}
+	}
+	
+	private static void addNode(Map<Portal, PortalNode> nodes, PriorityQueue<PortalNode> open, PortalNode parent, Portal portal, double g, int tx, int ty)
+	{
+		final PortalNode node = nodes.get(portal);
+		if ((node != null) && (node._closed || (g >= node._g)))
+		{
+			return;
+		}
+		
+		final PortalNode newNode = new PortalNode(portal, parent, g, g + LocalSearch.estimate(portal.getX(), portal.getY(), tx, ty));
+		nodes.put(portal, newNode);
+		open.add(newNode);
+	}
+	
+	private static long[] getKeys(Portal[] portals)
+	{
+		final long[] keys = new long[portals.length];
+		for (int i = 0; i < portals.length; i++)
+		{
+			keys[i] = portals[i].getKey();
+		}
+		return keys;
+	}
+	
+	private List<AbstractNodeLoc> constructPath(List<Long> cells)
+	{
+		final LinkedList<AbstractNodeLoc> path = new LinkedList<>();
+		int previousDirectionX = Integer.MIN_VALUE;
+		int previousDirectionY = Integer.MIN_VALUE;
+		int directionX, directionY;
+		
+		for (int i = cells.size() - 1; i > 0; i--)
+		{
+			final long cell = cells.get(i);
+			final long parent = cells.get(i - 1);
+			if (!GeoDataConfig.ADVANCED_DIAGONAL_STRATEGY && (i > 1))
+			{
+				final long grandParent = cells.get(i - 2);
+				final int tmpX = LocalSearch.keyX(cell) - LocalSearch.keyX(grandParent);
+				final int tmpY = LocalSearch.keyY(cell) - LocalSearch.keyY(grandParent);
+				if (Math.abs(tmpX) == Math.abs(tmpY))
+				{
+					directionX = tmpX;
+					directionY = tmpY;
+				}
+				else
+				{
+					directionX = LocalSearch.keyX(cell) - LocalSearch.keyX(parent);
+					directionY = LocalSearch.keyY(cell) - LocalSearch.keyY(parent);
+				}
+			}
+			else
+			{
+				directionX = LocalSearch.keyX(cell) - LocalSearch.keyX(parent);
+				directionY = LocalSearch.keyY(cell) - LocalSearch.keyY(parent);
+			}
+			
+			// only add a new route point if moving direction changes
+			if ((directionX != previousDirectionX) || (directionY != previousDirectionY))
+			{
+				previousDirectionX = directionX;
+				previousDirectionY = directionY;
+				path.addFirst(new NodeLoc(LocalSearch.keyX(cell), LocalSearch.keyY(cell), LocalSearch.keyZ(cell)));
+			}
+		}
+		return path;
+	}
+	
+	private static long getClusterKey(int clusterX, int clusterY)
+	{
+		return (((long) clusterX) << 32) | clusterY;
+	}
+	
+	private Cluster getCluster(int clusterX, int clusterY)
+	{
+		final long key = getClusterKey(clusterX, clusterY);
+		final Cluster cluster = _clusters.get(key);
+		if (cluster != null)
+		{
+			return cluster;
+		}
+		
+		if (_clusters.size() >= MAX_CLUSTERS)
+		{
+			// searches still running keep the portals they already reached, they only miss the edges of clusters built after this
+			_clusters.clear();
+			_borders.clear();
+			_graphDrops.increment();
+		}
+		return _clusters.computeIfAbsent(key, k -> buildCluster(clusterX, clusterY));
+	}
+	
+	/**
+	 * Builds a cluster and connects each of its portals to all others reachable inside of it.
+	 * @param clusterX the cluster x
+	 * @param clusterY the cluster y
+	 * @return the cluster
+	 */
+	private Cluster buildCluster(int clusterX, int clusterY)
+	{
+		final List<Portal> portals = new ArrayList<>();
+		Collections.addAll(portals, getBorder(clusterX, clusterY, true)[0]);
+		Collections.addAll(portals, getBorder(clusterX, clusterY, false)[0]);
+		if (clusterX > 0)
+		{
+			Collections.addAll(portals, getBorder(clusterX - 1, clusterY, true)[1]);
+		}
+		if (clusterY > 0)
+		{
+			Collections.addAll(portals, getBorder(clusterX, clusterY - 1, false)[1]);
+		}
+		
+		final Cluster cluster = new Cluster(clusterX, clusterY, portals.toArray(new Portal[portals.size()]));
+		final long[] keys = getKeys(cluster.getPortals());
+		final LocalSearch search = LocalSearch.get();
+		for (Portal portal : cluster.getPortals())
+		{
+			final double[] costs = search.flood(cluster, portal.getX(), portal.getY(), portal.getZ(), keys);
+			final List<Portal> edges = new ArrayList<>();
+			final List<Double> edgeCosts = new ArrayList<>();
+			for (int i = 0; i < costs.length; i++)
+			{
+				if ((costs[i] >= 0) && (cluster.getPortals()[i] != portal))
+				{
+					edges.add(cluster.getPortals()[i]);
+					edgeCosts.add(costs[i]);
+				}
+			}
+			portal.setEdges(edges.toArray(new Portal[edges.size()]), edgeCosts.stream().mapToDouble(Double::doubleValue).toArray());
+		}
+		
+		return cluster;
+	}
+	
+	private static long getBorderKey(int clusterX, int clusterY, boolean vertical)
+	{
+		return (((long) clusterX) << 32) | (clusterY << 1) | (vertical ? 1 : 0);
+	}
+	
+	/**
+	 * @param clusterX the cluster x
+	 * @param clusterY the cluster y
+	 * @param vertical {@code true} for the border to the cluster east of the given one, {@code false} for the border to the cluster south of it
+	 * @return the portals on the side of the given cluster and the portals on the side of its neighbor
+	 */
+	private Portal[][] getBorder(int clusterX, int clusterY, boolean vertical)
+	{
+		return _borders.computeIfAbsent(getBorderKey(clusterX, clusterY, vertical), k -> buildBorder(clusterX, clusterY, vertical));
+	}
+	
+	private static Portal[][] buildBorder(int clusterX, int clusterY, boolean vertical)
+	{
+		final int dx = vertical ? 1 : 0;
+		final int dy = vertical ? 0 : 1;
+		final int neighborX = clusterX + dx;
+		final int neighborY = clusterY + dy;
+		if (((neighborX << Cluster.SHIFT) >= GeoDriver.GEO_CELLS_X) || ((neighborY << Cluster.SHIFT) >= GeoDriver.GEO_CELLS_Y))
+		{
+			return EMPTY_BORDER;
+		}
+		
+		// the first cell of the border on the side of the given cluster, the border runs along y when vertical
+		final int x0 = (clusterX << Cluster.SHIFT) + (dx * (Cluster.SIZE - 1));
+		final int y0 = (clusterY << Cluster.SHIFT) + (dy * (Cluster.SIZE - 1));
+		
+		// consecutive cells where the border can be crossed, as {offset, z on this side, z on the other side}
+		final GeoData geoData = GeoData.getInstance();
+		final List<List<int[]>> segments = new ArrayList<>();
+		List<List<int[]>> open = new ArrayList<>();
+		for (int i = 0; i < Cluster.SIZE; i++)
+		{
+			final int x1 = x0 + (i * dy);
+			final int y1 = y0 + (i * dx);
+			final int x2 = x1 + dx;
+			final int y2 = y1 + dy;
+			final List<List<int[]>> extended = new ArrayList<>();
+			if (geoData.hasGeoPos(x1, y1) && geoData.hasGeoPos(x2, y2))
+			{
+				for (int z1 : LocalSearch.getLayers(x1, y1))
+				{
+					final int z2 = geoData.getNearestZ(x2, y2, z1);
+					if ((geoData.getNearestZ(x1, y1, z2) != z1) || !geoData.checkNearestNswe(x1, y1, z1, Cell.NSWE_ALL) || !geoData.checkNearestNswe(x2, y2, z2, Cell.NSWE_ALL))
+					{
+						continue;
+					}
+					
+					List<int[]> segment = null;
+					for (List<int[]> candidate : open)
+					{
+						if (Math.abs(candidate.get(candidate.size() - 1)[1] - z1) <= MAX_STEP_Z)
+						{
+							segment = candidate;
+							break;
+						}
+					}
+					if (segment != null)
+					{
+						open.remove(segment);
+					}
+					else
+					{
+						segment = new ArrayList<>();
+						segments.add(segment);
+					}
+					segment.add(new int[]
+					{
+						i,
+						z1,
+						z2
+					});
+					extended.add(segment);
+				}
+			}
+			open = extended;
+		}
+		
+		final List<Portal> portals = new ArrayList<>();
+		final List<Portal> neighborPortals = new ArrayList<>();
+		for (List<int[]> segment : segments)
+		{
+			final List<int[]> crossings = segment.size() <= MAX_SINGLE_PORTAL_SEGMENT ? Collections.singletonList(segment.get(segment.size() / 2)) : Arrays.asList(segment.get(0), segment.get(segment.size() - 1));
+			for (int[] crossing : crossings)
+			{
+				final int x1 = x0 + (crossing[0] * dy);
+				final int y1 = y0 + (crossing[0] * dx);
+				final Portal portal = new Portal(x1, y1, crossing[1], clusterX, clusterY);
+				final Portal neighborPortal = new Portal(x1 + dx, y1 + dy, crossing[2], neighborX, neighborY);
+				Portal.link(portal, neighborPortal, LocalSearch.getStepCost(false, true, Math.abs(crossing[2] - crossing[1])));
+				portals.add(portal);
+				neighborPortals.add(neighborPortal);
+			}
+		}
+		
+		return new Portal[][]
+		{
+			portals.toArray(new Portal[portals.size()]),
+			neighborPortals.toArray(new Portal[neighborPortals.size()])
+		};
+	}
+	
+	@Override
+	public long getExpandedNodes()
+	{
+		return _expandedCells.sum();
+	}
+	
+	/**
+	 * Replays the recorded requests with this implementation and with a new {@link CellPathFinding} and compares their latency and expanded cells.<br>
+	 * Every request is replayed once unmeasured first, so clusters are already built and both implementations are warmed up when measuring.<br>
+	 * Runs on the calling thread, which should not be a game thread.
+	 * @return the results
+	 */
+	public List<String> benchmark()
+	{
+		final List<int[]> requests = new ArrayList<>();
+		for (int i = 0; i < RECORDED_REQUESTS; i++)
+		{
+			final int[] request = _requests.get(i);
+			if (request != null)
+			{
+				requests.add(request);
+			}
+		}
+		
+		final List<String> result = new ArrayList<>();
+		if (requests.isEmpty())
+		{
+			result.add("No pathfinding requests recorded yet.");
+			return result;
+		}
+		
+		final CellPathFinding reference = new CellPathFinding();
+		reference.initBuffers();
+		final LocalSearch search = LocalSearch.get();
+		for (int[] request : requests)
+		{
+			findPath(request[0], request[1], request[2], request[3], request[4], request[5], null, false, search);
+			reference.findPath(request[0], request[1], request[2], request[3], request[4], request[5], null, false);
+		}
+		
+		final long[] found = new long[2];
+		final long[] elapsed = new long[2];
+		final long[] maxElapsed = new long[2];
+		final long[] expanded =
+		{
+			search.getExpanded(),
+			reference.getExpandedNodes()
+		};
+		for (int[] request : requests)
+		{
+			for (int i = 0; i < 2; i++)
+			{
+				final long timeStamp = System.nanoTime();
+				final List<AbstractNodeLoc> path = i == 0 ? findPath(request[0], request[1], request[2], request[3], request[4], request[5], null, false, search) : reference.findPath(request[0], request[1], request[2], request[3], request[4], request[5], null, false);
+				final long time = System.nanoTime() - timeStamp;
+				elapsed[i] += time;
+				maxElapsed[i] = Math.max(maxElapsed[i], time);
+				if (path != null)
+				{
+					found[i]++;
+				}
+			}
+		}
+		expanded[0] = search.getExpanded() - expanded[0];
+		expanded[1] = reference.getExpandedNodes() - expanded[1];
+		
+		result.add("Replayed " + requests.size() + " recorded requests:");
+		for (int i = 0; i < 2; i++)
+		{
+			result.add(String.format("%s found:%d avg/max(us):%1.1f/%1.1f expanded avg:%1.1f", i == 0 ? "HPA*" : "Cell", found[i], (double) TimeUnit.NANOSECONDS.toMicros(elapsed[i]) / requests.size(), (double) TimeUnit.NANOSECONDS.toMicros(maxElapsed[i]), (double) expanded[i] / requests.size()));
+		}
+		return result;
+	}
+	
+	@Override
+	public String[] getStat()
+	{
+		final long success = _findSuccess.sum();
+		final long fails = _findFails.sum();
+		final long total = success + fails;
+		final long postFilterUses = _postFilterUses.sum();
+		
+		final List<String> result = new ArrayList<>();
+		result.add("Clusters built:" + _clusters.size() + "/" + MAX_CLUSTERS + " borders:" + _borders.size() + " graph drops:" + _graphDrops.sum());
+		result.add("Pathfind success/fail:" + success + "/" + fails + " inside one cluster:" + _localPaths.sum());
+		if (total > 0)
+		{
+			result.add(String.format("Search total/avg(ms):%d/%1.2f expanded cells/portals avg:%1.1f/%1.1f", TimeUnit.NANOSECONDS.toMillis(_elapsed.sum()), (_elapsed.sum() / 1_000_000.0) / total, (double) _expandedCells.sum() / total, (double) _expandedPortals.sum() / total));
+		}
+		if (postFilterUses > 0)
+		{
+			result.add(String.format("LOS postfilter uses:%d passes avg:%1.1f", postFilterUses, (double) _postFilterPasses.sum() / postFilterUses));
+		}
+		return result.toArray(new String[result.size()]);
+	}
+	
+	private static final class PortalNode
+	{
+		/** The portal, or {@code null} for the target */
+		protected final Portal _portal;
+		protected final PortalNode _parent;
+		protected final double _g;
+		protected final double _f;
+		protected boolean _closed;
+		
+		protected PortalNode(Portal portal, PortalNode parent, double g, double f)
+		{
+			_portal = portal;
+			_parent = parent;
+			_g = g;
+			_f = f;
+		}
+	}
+}
@@ -0,0 +1,620 @@
+/*
+ * Copyright (C) 2004-2017 L2J Unity
+ * 
+ * This file is part of L2J Unity.
+ * 
+ * L2J Unity is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Unity is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2junity.gameserver.geodata.pathfinding.hierarchical;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.l2junity.gameserver.config.GeoDataConfig;
+import org.l2junity.gameserver.geodata.GeoData;
+import org.l2junity.geodriver.Cell;
+
+/**
+ * A* over the geodata cells of one cluster, used to connect portals inside a cluster and to refine abstract paths.<br>
+ * Moves follow the rules of {@link org.l2junity.gameserver.geodata.pathfinding.cellnodes.CellNodeBuffer}: only cells open to all sides are expanded, diagonal moves require both orthogonal moves and cells near walls or steps cost more.<br>
+ * The geodata of the last used clusters is kept in primitive arrays, so the many searches inside the same cluster read each cell from geodata only once.<br>
+ * Instances are not thread-safe, every thread uses its own through {@link #get()}.
+ */
+final class LocalSearch
+{
+	private static final ThreadLocal<LocalSearch> INSTANCES = ThreadLocal.withInitial(LocalSearch::new);
+	
+	private static final double DIAGONAL_STEP = Math.sqrt(2);
+	private static final int MAX_STEP_Z = 16;
+	/** Amount of clusters whose cells are kept by each thread */
+	private static final int MAX_CACHED_CLUSTERS = 16;
+	
+	private final Map<Long, ClusterCells> _cells = new LinkedHashMap<Long, ClusterCells>(MAX_CACHED_CLUSTERS, 0.75f, true)
+	{
+		private static final long serialVersionUID = 1L;
+		
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Long, ClusterCells> eldest)
+		{
+			return size() > MAX_CACHED_CLUSTERS;
+		}
+	};
+	
+	// open set, a binary heap of nodes with lazy deletion
+	private int[] _heapNodes = new int[256];
+	private double[] _heapCosts = new double[256];
+	private int _heapSize;
+	
+	private long _expanded;
+	
+	private LocalSearch()
+	{
+	}
+	
+	/**
+	 * @return the search of the current thread
+	 */
+	static LocalSearch get()
+	{
+		return INSTANCES.get();
+	}
+	
+	/**
+	 * Packs a cell into a key.
+	 * @param x the geo x
+	 * @param y the geo y
+	 * @param z the geo height
+	 * @return the key
+	 */
+	static long toKey(int x, int y, int z)
+	{
+		return ((x & 0xFFFFL) << 32) | ((y & 0xFFFFL) << 16) | (z & 0xFFFFL);
+	}
+	
+	static int keyX(long key)
+	{
+		return (int) ((key >>> 32) & 0xFFFF);
+	}
+	
+	static int keyY(long key)
+	{
+		return (int) ((key >>> 16) & 0xFFFF);
+	}
+	
+	static int keyZ(long key)
+	{
+		return (short) key;
+	}
+	
+	/**
+	 * Gets the cost of a single move as used by the searches.
+	 * @param diagonal {@code true} for a diagonal move
+	 * @param openTarget {@code true} if the target cell is open to all sides
+	 * @param stepZ the height difference of the move
+	 * @return the cost
+	 */
+	static double getStepCost(boolean diagonal, boolean openTarget, int stepZ)
+	{
+		final double weight = (!openTarget || (stepZ > MAX_STEP_Z)) ? GeoDataConfig.HIGH_WEIGHT : (diagonal ? GeoDataConfig.DIAGONAL_WEIGHT : GeoDataConfig.LOW_WEIGHT);
+		return (diagonal ? DIAGONAL_STEP : 1) + weight;
+	}
+	
+	/**
+	 * Gets a lower bound of the cost between two cells.
+	 * @param x the geo x
+	 * @param y the geo y
+	 * @param tx the target geo x
+	 * @param ty the target geo y
+	 * @return the estimated cost
+	 */
+	static double estimate(int x, int y, int tx, int ty)
+	{
+		final int dX = Math.abs(tx - x);
+		final int dY = Math.abs(ty - y);
+		final int min = Math.min(dX, dY);
+		final int max = Math.max(dX, dY);
+		return (max - min) + (min * DIAGONAL_STEP) + (max * Math.min(GeoDataConfig.LOW_WEIGHT, GeoDataConfig.DIAGONAL_WEIGHT));
+	}
+	
+	/**
+	 * Gets the heights of all layers of a cell.
+	 * @param x the geo x
+	 * @param y the geo y
+	 * @return the heights from top to bottom, empty if there is no geodata for the cell
+	 */
+	static int[] getLayers(int x, int y)
+	{
+		final GeoData geoData = GeoData.getInstance();
+		if (!geoData.hasGeoPos(x, y))
+		{
+			return new int[0];
+		}
+		
+		int[] layers = new int[1];
+		int count = 0;
+		int z = Short.MAX_VALUE;
+		while (z > Short.MIN_VALUE)
+		{
+			final int layerZ = geoData.getNextLowerZ(x, y, z);
+			if ((layerZ == z) && (geoData.getNearestZ(x, y, z) != z))
+			{
+				break;
+			}
+			
+			if (count == layers.length)
+			{
+				layers = Arrays.copyOf(layers, count * 2);
+			}
+			layers[count++] = layerZ;
+			z = layerZ - 1;
+		}
+		return count == layers.length ? layers : Arrays.copyOf(layers, count);
+	}
+	
+	/**
+	 * @return the amount of cells expanded by all searches of this thread
+	 */
+	long getExpanded()
+	{
+		return _expanded;
+	}
+	
+	/**
+	 * Finds the cheapest path to the target cell inside a cluster.
+	 * @param cluster the cluster
+	 * @param x the start geo x
+	 * @param y the start geo y
+	 * @param z the start geo height
+	 * @param tx the target geo x
+	 * @param ty the target geo y
+	 * @param tz the target geo height
+	 * @param zTolerance the target is reached when the height difference is smaller than this
+	 * @return the keys of all cells of the path including start and target, or {@code null} if there is no path
+	 */
+	List<Long> findPath(Cluster cluster, int x, int y, int z, int tx, int ty, int tz, int zTolerance)
+	{
+		final ClusterCells cells = getCells(cluster);
+		int node = search(cells, x, y, z, tx, ty, tz, zTolerance);
+		if (node < 0)
+		{
+			return null;
+		}
+		
+		final List<Long> path = new ArrayList<>();
+		for (; node >= 0; node = cells._parent[node])
+		{
+			path.add(toKey(cells._x[node], cells._y[node], cells._z[node]));
+		}
+		
+		Collections.reverse(path);
+		return path;
+	}
+	
+	/**
+	 * Finds the cost of the cheapest path to the target cell inside a cluster.
+	 * @param cluster the cluster
+	 * @param x the start geo x
+	 * @param y the start geo y
+	 * @param z the start geo height
+	 * @param tx the target geo x
+	 * @param ty the target geo y
+	 * @param tz the target geo height
+	 * @param zTolerance the target is reached when the height difference is smaller than this
+	 * @return the cost, or {@code -1} if there is no path
+	 */
+	double findCost(Cluster cluster, int x, int y, int z, int tx, int ty, int tz, int zTolerance)
+	{
+		final ClusterCells cells = getCells(cluster);
+		final int node = search(cells, x, y, z, tx, ty, tz, zTolerance);
+		return node >= 0 ? cells._g[node] : -1;
+	}
+	
+	/**
+	 * Computes the costs from the start cell to all cells of a cluster reachable from it.
+	 * @param cluster the cluster
+	 * @param x the start geo x
+	 * @param y the start geo y
+	 * @param z the start geo height
+	 * @param targets the keys of the cells whose costs are wanted
+	 * @return the costs of the targets in the same order, {@code -1} for unreachable ones
+	 */
+	double[] flood(Cluster cluster, int x, int y, int z, long[] targets)
+	{
+		final ClusterCells cells = getCells(cluster);
+		search(cells, x, y, z, Integer.MIN_VALUE, Integer.MIN_VALUE, 0, 0);
+		
+		final double[] costs = new double[targets.length];
+		for (int i = 0; i < targets.length; i++)
+		{
+			final int node = cells.getNode(keyX(targets[i]), keyY(targets[i]), keyZ(targets[i]));
+			costs[i] = ((node >= 0) && cells.isClosed(node)) ? cells._g[node] : -1;
+		}
+		return costs;
+	}
+	
+	private ClusterCells getCells(Cluster cluster)
+	{
+		final long key = (((long) cluster.getX()) << 32) | cluster.getY();
+		ClusterCells cells = _cells.get(key);
+		if (cells == null)
+		{
+			cells = new ClusterCells(cluster.getMinX(), cluster.getMinY());
+			_cells.put(key, cells);
+		}
+		return cells;
+	}
+	
+	private int search(ClusterCells cells, int x, int y, int z, int tx, int ty, int tz, int zTolerance)
+	{
+		final boolean flood = tx == Integer.MIN_VALUE;
+		cells.reset();
+		_heapSize = 0;
+		
+		final int start = cells.getNode(x, y, z);
+		if (start < 0)
+		{
+			return -1;
+		}
+		cells.open(start, 0, -1);
+		push(start, flood ? 0 : estimate(x, y, tx, ty));
+		
+		while (_heapSize > 0)
+		{
+			final int current = pop();
+			if (cells.isClosed(current))
+			{
+				continue;
+			}
+			cells.close(current);
+			
+			if (!flood && (cells._x[current] == tx) && (cells._y[current] == ty) && (Math.abs(cells._z[current] - tz) < zTolerance))
+			{
+				return current;
+			}
+			
+			// cells near walls are never expanded, except the start cell
+			if ((current != start) && !cells.canGoAll(current))
+			{
+				continue;
+			}
+			
+			_expanded++;
+			expand(cells, current, flood, tx, ty);
+		}
+		return -1;
+	}
+	
+	private void expand(ClusterCells cells, int current, boolean flood, int tx, int ty)
+	{
+		final int x = cells._x[current];
+		final int y = cells._y[current];
+		
+		final int nodeE = cells.canGo(current, Cell.NSWE_EAST) ? addNode(cells, current, x + 1, y, false, flood, tx, ty) : -1;
+		final int nodeS = cells.canGo(current, Cell.NSWE_SOUTH) ? addNode(cells, current, x, y + 1, false, flood, tx, ty) : -1;
+		final int nodeW = cells.canGo(current, Cell.NSWE_WEST) ? addNode(cells, current, x - 1, y, false, flood, tx, ty) : -1;
+		final int nodeN = cells.canGo(current, Cell.NSWE_NORTH) ? addNode(cells, current, x, y - 1, false, flood, tx, ty) : -1;
+		
+		if (GeoDataConfig.ADVANCED_DIAGONAL_STRATEGY)
+		{
+			if ((nodeE >= 0) && (nodeS >= 0) && cells.canGo(nodeE, Cell.NSWE_SOUTH) && cells.canGo(nodeS, Cell.NSWE_EAST))
+			{
+				addNode(cells, current, x + 1, y + 1, true, flood, tx, ty);
+			}
+			if ((nodeS >= 0) && (nodeW >= 0) && cells.canGo(nodeW, Cell.NSWE_SOUTH) && cells.canGo(nodeS, Cell.NSWE_WEST))
+			{
+				addNode(cells, current, x - 1, y + 1, true, flood, tx, ty);
+			}
+			if ((nodeN >= 0) && (nodeE >= 0) && cells.canGo(nodeE, Cell.NSWE_NORTH) && cells.canGo(nodeN, Cell.NSWE_EAST))
+			{
+				addNode(cells, current, x + 1, y - 1, true, flood, tx, ty);
+			}
+			if ((nodeN >= 0) && (nodeW >= 0) && cells.canGo(nodeW, Cell.NSWE_NORTH) && cells.canGo(nodeN, Cell.NSWE_WEST))
+			{
+				addNode(cells, current, x - 1, y - 1, true, flood, tx, ty);
+			}
+		}
+	}
+	
+	private int addNode(ClusterCells cells, int current, int x, int y, boolean diagonal, boolean flood, int tx, int ty)
+	{
+		final int node = cells.getNode(x, y, cells._z[current]);
+		if ((node < 0) || cells.isClosed(node))
+		{
+			return node;
+		}
+		
+		final double weight;
+		if (!cells.canGoAll(node) || (Math.abs(cells._z[node] - cells._z[current]) > MAX_STEP_Z))
+		{
+			weight = GeoDataConfig.HIGH_WEIGHT;
+		}
+		else if (cells.isNearWall(node))
+		{
+			weight = GeoDataConfig.MEDIUM_WEIGHT;
+		}
+		else
+		{
+			weight = diagonal ? GeoDataConfig.DIAGONAL_WEIGHT : GeoDataConfig.LOW_WEIGHT;
+		}
+		
+		final double g = cells._g[current] + (diagonal ? DIAGONAL_STEP : 1) + weight;
+		if (!cells.isOpen(node) || (g < cells._g[node]))
+		{
+			cells.open(node, g, current);
+			push(node, flood ? g : g + estimate(x, y, tx, ty));
+		}
+		return node;
+	}
+	
+	private void push(int node, double cost)
+	{
+		if (_heapSize == _heapNodes.length)
+		{
+			_heapNodes = Arrays.copyOf(_heapNodes, _heapSize * 2);
+			_heapCosts = Arrays.copyOf(_heapCosts, _heapSize * 2);
+		}
+		
+		int index = _heapSize++;
+		while (index > 0)
+		{
+			final int parent = (index - 1) >>> 1;
+			if (_heapCosts[parent] <= cost)
+			{
+				break;
+			}
+			_heapNodes[index] = _heapNodes[parent];
+			_heapCosts[index] = _heapCosts[parent];
+			index = parent;
+		}
+		_heapNodes[index] = node;
+		_heapCosts[index] = cost;
+	}
+	
+	private int pop()
+	{
+		final int result = _heapNodes[0];
+		final int lastNode = _heapNodes[--_heapSize];
+		final double lastCost = _heapCosts[_heapSize];
+		
+		int index = 0;
+		while (true)
+		{
+			int child = (index << 1) + 1;
+			if (child >= _heapSize)
+			{
+				break;
+			}
+			if (((child + 1) < _heapSize) && (_heapCosts[child + 1] < _heapCosts[child]))
+			{
+				child++;
+			}
+			if (lastCost <= _heapCosts[child])
+			{
+				break;
+			}
+			_heapNodes[index] = _heapNodes[child];
+			_heapCosts[index] = _heapCosts[child];
+			index = child;
+		}
+		_heapNodes[index] = lastNode;
+		_heapCosts[index] = lastCost;
+		return result;
+	}
+	
+	/**
+	 * The geodata of the cells of a cluster and the state of the current search over them.<br>
+	 * Every layer of a cell is a node, the nodes of a cell are created together when the cell is first used.
+	 */
+	private static final class ClusterCells
+	{
+		private static final int CELLS = Cluster.SIZE * Cluster.SIZE;
+		private static final byte NEAR_WALL_UNKNOWN = 0;
+		private static final byte NEAR_WALL_NO = 1;
+		private static final byte NEAR_WALL_YES = 2;
+		
+		private final int _minX;
+		private final int _minY;
+		/** Index of the first node of every cell, {@code -1} if the cell was not read yet */
+		private final int[] _firstNodes = new int[CELLS];
+		private final byte[] _layerCounts = new byte[CELLS];
+		private int _nodeCount;
+		
+		// geodata of the nodes
+		protected int[] _x = new int[CELLS];
+		protected int[] _y = new int[CELLS];
+		protected int[] _z = new int[CELLS];
+		private byte[] _nswe = new byte[CELLS];
+		private byte[] _nearWall = new byte[CELLS];
+		
+		// search state of the nodes, only valid when stamped with the current search
+		protected double[] _g = new double[CELLS];
+		protected int[] _parent = new int[CELLS];
+		private int[] _openStamps = new int[CELLS];
+		private int[] _closedStamps = new int[CELLS];
+		private int _stamp;
+		
+		protected ClusterCells(int minX, int minY)
+		{
+			_minX = minX;
+			_minY = minY;
+			Arrays.fill(_firstNodes, -1);
+		}
+		
+		/**
+		 * Forgets the state of the previous search.
+		 */
+		protected void reset()
+		{
+			if (++_stamp == Integer.MAX_VALUE)
+			{
+				Arrays.fill(_openStamps, 0);
+				Arrays.fill(_closedStamps, 0);
+				_stamp = 1;
+			}
+		}
+		
+		protected boolean isOpen(int node)
+		{
+			return _openStamps[node] == _stamp;
+		}
+		
+		protected void open(int node, double g, int parent)
+		{
+			_openStamps[node] = _stamp;
+			_g[node] = g;
+			_parent[node] = parent;
+		}
+		
+		protected boolean isClosed(int node)
+		{
+			return _closedStamps[node] == _stamp;
+		}
+		
+		protected void close(int node)
+		{
+			_closedStamps[node] = _stamp;
+		}
+		
+		protected boolean canGo(int node, int nswe)
+		{
+			return (_nswe[node] & nswe) == nswe;
+		}
+		
+		protected boolean canGoAll(int node)
+		{
+			return _nswe[node] == Cell.NSWE_ALL;
+		}
+		
+		protected boolean isNearWall(int node)
+		{
+			if (_nearWall[node] == NEAR_WALL_UNKNOWN)
+			{
+				final int x = _x[node];
+				final int y = _y[node];
+				final int z = _z[node];
+				_nearWall[node] = (isHighWeight(x + 1, y, z) || isHighWeight(x - 1, y, z) || isHighWeight(x, y + 1, z) || isHighWeight(x, y - 1, z)) ? NEAR_WALL_YES : NEAR_WALL_NO;
+			}
+			return _nearWall[node] == NEAR_WALL_YES;
+		}
+		
+		private boolean isHighWeight(int x, int y, int z)
+		{
+			final int node = getNode(x, y, z);
+			return (node < 0) || !canGoAll(node) || (Math.abs(_z[node] - z) > MAX_STEP_Z);
+		}
+		
+		/**
+		 * @param x the geo x
+		 * @param y the geo y
+		 * @param z the geo height
+		 * @return the node of the layer nearest to the given height, or {@code -1} if the cell is outside of the cluster
+		 */
+		protected int getNode(int x, int y, int z)
+		{
+			final int localX = x - _minX;
+			final int localY = y - _minY;
+			if ((localX < 0) || (localX >= Cluster.SIZE) || (localY < 0) || (localY >= Cluster.SIZE))
+			{
+				return -1;
+			}
+			
+			final int cell = (localX * Cluster.SIZE) + localY;
+			int first = _firstNodes[cell];
+			if (first < 0)
+			{
+				first = readCell(cell, x, y);
+			}
+			
+			final int layerCount = _layerCounts[cell];
+			if (layerCount == 1)
+			{
+				return first;
+			}
+			
+			final int nearestZ = GeoData.getInstance().getNearestZ(x, y, z);
+			for (int node = first; node < (first + layerCount); node++)
+			{
+				if (_z[node] == nearestZ)
+				{
+					return node;
+				}
+			}
+			return first;
+		}
+		
+		private int readCell(int cell, int x, int y)
+		{
+			final GeoData geoData = GeoData.getInstance();
+			final int[] layers = getLayers(x, y);
+			final int layerCount = Math.max(1, layers.length);
+			ensureCapacity(_nodeCount + layerCount);
+			
+			final int first = _nodeCount;
+			for (int i = 0; i < layerCount; i++)
+			{
+				final int z = layers.length > 0 ? layers[i] : geoData.getNearestZ(x, y, 0);
+				int nswe = 0;
+				if (geoData.checkNearestNswe(x, y, z, Cell.NSWE_EAST))
+				{
+					nswe |= Cell.NSWE_EAST;
+				}
+				if (geoData.checkNearestNswe(x, y, z, Cell.NSWE_WEST))
+				{
+					nswe |= Cell.NSWE_WEST;
+				}
+				if (geoData.checkNearestNswe(x, y, z, Cell.NSWE_SOUTH))
+				{
+					nswe |= Cell.NSWE_SOUTH;
+				}
+				if (geoData.checkNearestNswe(x, y, z, Cell.NSWE_NORTH))
+				{
+					nswe |= Cell.NSWE_NORTH;
+				}
+				
+				final int node = _nodeCount++;
+				_x[node] = x;
+				_y[node] = y;
+				_z[node] = z;
+				_nswe[node] = (byte) nswe;
+			}
+			
+			_firstNodes[cell] = first;
+			_layerCounts[cell] = (byte) layerCount;
+			return first;
+		}
+		
+		private void ensureCapacity(int capacity)
+		{
+			if (capacity <= _x.length)
+			{
+				return;
+			}
+			
+			final int length = Math.max(capacity, _x.length * 2);
+			_x = Arrays.copyOf(_x, length);
+			_y = Arrays.copyOf(_y, length);
+			_z = Arrays.copyOf(_z, length);
+			_nswe = Arrays.copyOf(_nswe, length);
+			_nearWall = Arrays.copyOf(_nearWall, length);
+			_g = Arrays.copyOf(_g, length);
+			_parent = Arrays.copyOf(_parent, length);
+			_openStamps = Arrays.copyOf(_openStamps, length);
+			_closedStamps = Arrays.copyOf(_closedStamps, length);
+		}
+	}
+}
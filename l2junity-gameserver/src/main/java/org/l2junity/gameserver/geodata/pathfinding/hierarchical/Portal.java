@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2004-2017 L2J Unity
+ * 
+ * This file is part of L2J Unity.
+ * 
+ * L2J Unity is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Unity is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2junity.gameserver.geodata.pathfinding.hierarchical;
+
+/**
+ * A cell on the border of a cluster from which the neighbor cluster can be entered, a node of the abstract graph.<br>
+ * Every portal has a partner on the other side of the border, the edges to the other portals of its own cluster are set when the cluster is built.
+ */
+final class Portal
+{
+	private static final Portal[] EMPTY_EDGES = new Portal[0];
+	private static final double[] EMPTY_COSTS = new double[0];
+	
+	private final int _x;
+	private final int _y;
+	private final int _z;
+	private final int _clusterX;
+	private final int _clusterY;
+	private Portal _partner;
+	private double _partnerCost;
+	private Portal[] _edges = EMPTY_EDGES;
+	private double[] _costs = EMPTY_COSTS;
+	
+	Portal(int x, int y, int z, int clusterX, int clusterY)
+	{
+		_x = x;
+		_y = y;
+		_z = z;
+		_clusterX = clusterX;
+		_clusterY = clusterY;
+	}
+	
+	int getX()
+	{
+		return _x;
+	}
+	
+	int getY()
+	{
+		return _y;
+	}
+	
+	int getZ()
+	{
+		return _z;
+	}
+	
+	long getKey()
+	{
+		return LocalSearch.toKey(_x, _y, _z);
+	}
+	
+	int getClusterX()
+	{
+		return _clusterX;
+	}
+	
+	int getClusterY()
+	{
+		return _clusterY;
+	}
+	
+	Portal getPartner()
+	{
+		return _partner;
+	}
+	
+	double getPartnerCost()
+	{
+		return _partnerCost;
+	}
+	
+	/**
+	 * Links two portals on both sides of a border.
+	 * @param portal1 the first portal
+	 * @param portal2 the second portal
+	 * @param cost the cost of crossing the border
+	 */
+	static void link(Portal portal1, Portal portal2, double cost)
+	{
+		portal1._partner = portal2;
+		portal1._partnerCost = cost;
+		portal2._partner = portal1;
+		portal2._partnerCost = cost;
+	}
+	
+	/**
+	 * @return the portals of the same cluster reachable from this portal
+	 */
+	Portal[] getEdges()
+	{
+		return _edges;
+	}
+	
+	/**
+	 * @return the costs to the portals returned by {@link #getEdges()}
+	 */
+	double[] getCosts()
+	{
+		return _costs;
+	}
+	
+	void setEdges(Portal[] edges, double[] costs)
+	{
+		_edges = edges;
+		_costs = costs;
+	}
+	
+	@Override
+	public String toString()
+	{
+		return "Portal(" + _x + ", " + _y + ", " + _z + ")";
+	}
+}
@@ -26,6 +26,13 @@ import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
 
 import org.l2junity.commons.sql.DatabaseFactory;
 import org.l2junity.gameserver.config.GeneralConfig;
@@ -115,6 +122,9 @@ public abstract class IdFactory
 			case Stack:
 				_instance = new StackIDFactory();
 				break;
+			case Striped:
+				_instance = new StripedIDFactory();
+				break;
 			default:
 				_instance = null;
 				break;
@@ -301,6 +311,104 @@ public abstract class IdFactory
 		return temp.toArray(new Integer[temp.size()]);
 	}
 	
+	/**
+	 * @return the lowest and the highest object ID of every table holding used object IDs, empty tables are left out
+	 * @throws SQLException
+	 */
+	protected final List<IdBounds> extractUsedObjectIdBounds() throws SQLException
+	{
+		final List<IdBounds> bounds = new ArrayList<>(ID_EXTRACTS.length);
+		try (Connection con = DatabaseFactory.getInstance().getConnection();
+			Statement s = con.createStatement())
+		{
+			for (String[] tblClmn : ID_EXTRACTS)
+			{
+				try (ResultSet rs = s.executeQuery("SELECT MIN(" + tblClmn[1] + "), MAX(" + tblClmn[1] + ") FROM " + tblClmn[0]))
+				{
+					if (rs.next() && (rs.getObject(1) != null))
+					{
+						bounds.add(new IdBounds(tblClmn[0], tblClmn[1], rs.getInt(1), rs.getInt(2)));
+					}
+				}
+			}
+		}
+		return bounds;
+	}
+	
+	/**
+	 * Reads the used object IDs of every table in ID ranges of {@link IdFactoryConfig#ID_SCAN_CHUNK_SIZE}, the ranges are read on {@link IdFactoryConfig#ID_SCAN_THREADS} connections at once.<br>
+	 * The consumer is called concurrently by the reading threads, once for every row, so an ID used by several tables is passed more than once.
+	 * @param consumer the consumer of the used object IDs
+	 * @return the amount of rows read
+	 * @throws Exception
+	 */
+	protected final long scanUsedObjectIds(IntConsumer consumer) throws Exception
+	{
+		final long start = System.currentTimeMillis();
+		final int chunkSize = Math.max(1, IdFactoryConfig.ID_SCAN_CHUNK_SIZE);
+		final List<IdRange> ranges = new ArrayList<>();
+		final List<IdBounds> tables = extractUsedObjectIdBounds();
+		for (IdBounds table : tables)
+		{
+			for (long from = table.getMin(); from <= table.getMax(); from += chunkSize)
+			{
+				ranges.add(new IdRange(table, from, Math.min(from + chunkSize, table.getMax() + 1L)));
+			}
+		}
+		if (ranges.isEmpty())
+		{
+			return 0;
+		}
+		
+		final AtomicInteger threadId = new AtomicInteger();
+		final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(IdFactoryConfig.ID_SCAN_THREADS, ranges.size())), r ->
+		{
+			final Thread thread = new Thread(r, "L2JU-IdScan-" + threadId.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		
+		final AtomicInteger scannedRanges = new AtomicInteger();
+		final AtomicLong rows = new AtomicLong();
+		try
+		{
+			final List<Future<?>> futures = new ArrayList<>(ranges.size());
+			for (IdRange range : ranges)
+			{
+				futures.add(executor.submit(() ->
+				{
+					rows.addAndGet(range.scan(consumer));
+					
+					final int scanned = scannedRanges.incrementAndGet();
+					if (((scanned * 10L) / ranges.size()) != (((scanned - 1) * 10L) / ranges.size()))
+					{
+						LOGGER.info("Scanned {} of {} id ranges ({}%), {} rows.", scanned, ranges.size(), (scanned * 100L) / ranges.size(), rows.get());
+					}
+					return null;
+				}));
+			}
+			
+			for (Future<?> future : futures)
+			{
+				try
+				{
+					future.get();
+				}
+				catch (ExecutionException e)
+				{
+					throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+				}
+			}
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+		
+		LOGGER.info("Scanned {} rows of {} tables in {} ms.", rows.get(), tables.size(), System.currentTimeMillis() - start);
+		return rows.get();
+	}
+	
 	public boolean isInitialized()
 	{
 		return _initialized;
@@ -320,4 +428,85 @@ public abstract class IdFactory
 	public abstract void releaseId(int id);
 	
 	public abstract int size();
+	
+	/**
+	 * The lowest and the highest object ID of a table.
+	 */
+	protected static final class IdBounds
+	{
+		private final String _table;
+		private final String _column;
+		private final int _min;
+		private final int _max;
+		
+		protected IdBounds(String table, String column, int min, int max)
+		{
+			_table = table;
+			_column = column;
+			_min = min;
+			_max = max;
+		}
+		
+		public String getTable()
+		{
+			return _table;
+		}
+		
+		public String getColumn()
+		{
+			return _column;
+		}
+		
+		public int getMin()
+		{
+			return _min;
+		}
+		
+		public int getMax()
+		{
+			return _max;
+		}
+	}
+	
+	/**
+	 * A range of object IDs of a table, read on a connection of its own.
+	 */
+	private static final class IdRange
+	{
+		private final IdBounds _table;
+		private final long _from;
+		private final long _to;
+		
+		protected IdRange(IdBounds table, long from, long to)
+		{
+			_table = table;
+			_from = from;
+			_to = to;
+		}
+		
+		/**
+		 * @param consumer the consumer of the object IDs
+		 * @return the amount of rows read
+		 * @throws SQLException
+		 */
+		protected long scan(IntConsumer consumer) throws SQLException
+		{
+			long rows = 0;
+			try (Connection con = DatabaseFactory.getInstance().getConnection();
+				PreparedStatement ps = con.prepareStatement("SELECT " + _table.getColumn() + " FROM " + _table.getTable() + " WHERE " + _table.getColumn() + " >= ? AND " + _table.getColumn() + " < ?"))
+			{
+				ps.setLong(1, _from);
+				ps.setLong(2, _to);
+				try (ResultSet rs = ps.executeQuery())
+				{
+					while (rs.next())
+					{
+						consumer.accept(rs.getInt(1));
+						rows++;
+					}
+				}
+			}
+			return rows;
+		}
+	}
 }
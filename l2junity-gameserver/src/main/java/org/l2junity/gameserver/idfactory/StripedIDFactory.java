@@ -0,0 +1,227 @@
+/*
+ * Copyright (C) 2004-2017 L2J Unity
+ * 
+ * This file is part of L2J Unity.
+ * 
+ * L2J Unity is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Unity is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2junity.gameserver.idfactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.Set;
+
+import org.l2junity.commons.lang.management.ShutdownManager;
+import org.l2junity.commons.util.BasePathProvider;
+import org.l2junity.gameserver.config.IdFactoryConfig;
+import org.l2junity.gameserver.datatables.SpawnTable;
+import org.l2junity.gameserver.instancemanager.ItemsOnGroundManager;
+import org.l2junity.gameserver.model.L2Spawn;
+import org.l2junity.gameserver.model.World;
+import org.l2junity.gameserver.model.WorldObject;
+import org.l2junity.gameserver.model.actor.Npc;
+import org.l2junity.gameserver.model.items.instance.ItemInstance;
+
+/**
+ * An ID factory without locks, the used IDs are kept in a {@link StripedIdBitmap}.<br>
+ * The used IDs are read from the database in ranges on several connections at once, see {@link #scanUsedObjectIds(java.util.function.IntConsumer)}. When {@link IdFactoryConfig#ID_SNAPSHOT} is enabled, the used IDs are stored on a clean shutdown and restored on the next start up instead of reading them from the database.
+ */
+public class StripedIDFactory extends IdFactory
+{
+	public static final Path SNAPSHOT_FILE = BasePathProvider.resolvePath(Paths.get("data", "idfactory.dat"));
+	
+	/** Runs after the pending saves were written, see WriteBehindTaskManager. */
+	private static final int SHUTDOWN_HOOK_PRIORITY = 200;
+	
+	private final StripedIdBitmap _bitmap = new StripedIdBitmap((long) FREE_OBJECT_ID_SIZE + 1, Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 2));
+	
+	protected StripedIDFactory()
+	{
+		super();
+		
+		try
+		{
+			if (!IdFactoryConfig.ID_SNAPSHOT || !loadSnapshot())
+			{
+				scanUsedObjectIds(usedObjectId ->
+				{
+					final int objectId = usedObjectId - FIRST_OID;
+					if (objectId < 0)
+					{
+						LOGGER.warn("Object ID {} in DB is less than minimum ID of {}", usedObjectId, FIRST_OID);
+						return;
+					}
+					_bitmap.markUsed(objectId);
+				});
+			}
+			
+			if (IdFactoryConfig.ID_SNAPSHOT)
+			{
+				ShutdownManager.addShutdownHook(SHUTDOWN_HOOK_PRIORITY, this::storeSnapshot);
+			}
+			_initialized = true;
+		}
+		catch (Exception e)
+		{
+			_initialized = false;
+			LOGGER.error("Could not be initialized properly: " + e.getMessage());
+		}
+		LOGGER.info("{} id's available in {} stripes.", size(), _bitmap.getStripes());
+	}
+	
+	@Override
+	public int getNextId()
+	{
+		return FIRST_OID + _bitmap.getNextId();
+	}
+	
+	@Override
+	public void releaseId(int objectID)
+	{
+		final int objectId = objectID - FIRST_OID;
+		if (objectId < 0)
+		{
+			LOGGER.warn("Release objectID {} failed (< {})", objectID, FIRST_OID);
+			return;
+		}
+		
+		_bitmap.markFree(objectId);
+	}
+	
+	@Override
+	public int size()
+	{
+		return (int) _bitmap.getFreeCount();
+	}
+	
+	/**
+	 * Restores the used IDs stored on the last clean shutdown.<br>
+	 * The file is deleted once read, so the IDs are read from the database again after a crash. The snapshot is not trusted if the highest ID of any table is not used in it, which is the case when rows were added to the database while the server was down.
+	 * @return {@code true} if the used IDs were restored, {@code false} if they have to be read from the database
+	 */
+	private boolean loadSnapshot()
+	{
+		if (!Files.exists(SNAPSHOT_FILE))
+		{
+			return false;
+		}
+		
+		final long start = System.currentTimeMillis();
+		try
+		{
+			_bitmap.load(SNAPSHOT_FILE);
+			for (IdBounds table : extractUsedObjectIdBounds())
+			{
+				if (!_bitmap.isUsed(table.getMax() - FIRST_OID))
+				{
+					LOGGER.warn("Ignoring outdated ID snapshot {}, {}.{} {} is not used in it.", SNAPSHOT_FILE, table.getTable(), table.getColumn(), table.getMax());
+					_bitmap.clear();
+					return false;
+				}
+			}
+			LOGGER.info("Restored {} used id's from {} in {} ms.", _bitmap.getUsedCount(), SNAPSHOT_FILE, System.currentTimeMillis() - start);
+			return true;
+		}
+		catch (IOException | SQLException | RuntimeException e)
+		{
+			_bitmap.clear();
+			LOGGER.warn("Could not read ID snapshot {}, reading the used id's from the database.", SNAPSHOT_FILE, e);
+			return false;
+		}
+		finally
+		{
+			try
+			{
+				Files.deleteIfExists(SNAPSHOT_FILE);
+			}
+			catch (IOException e)
+			{
+				LOGGER.warn("Could not delete ID snapshot {}!", SNAPSHOT_FILE, e);
+			}
+		}
+	}
+	
+	/**
+	 * Stores the used IDs, once everything is saved on shutdown.<br>
+	 * The IDs of the objects which are not saved in the database, of the NPCs waiting for their respawn, and the IDs taken by threads which died but not handed out, are stored as free.<br>
+	 * The IDs taken by threads which are still alive stay used, such a thread may still hand them out.
+	 */
+	private void storeSnapshot()
+	{
+		_bitmap.freeDeadBlocks();
+		for (WorldObject object : World.getInstance().getVisibleObjects())
+		{
+			if (!isStored(object))
+			{
+				releaseId(object.getObjectId());
+			}
+		}
+		for (Set<L2Spawn> spawns : SpawnTable.getInstance().getSpawnTable().values())
+		{
+			for (L2Spawn spawn : spawns)
+			{
+				releaseIdsOutOfWorld(spawn.getSpawnedNpcs());
+				releaseIdsOutOfWorld(spawn.getRespawningNpcs());
+			}
+		}
+		
+		final long start = System.currentTimeMillis();
+		try
+		{
+			_bitmap.store(SNAPSHOT_FILE);
+			LOGGER.info("Stored {} used id's into {} in {} ms.", _bitmap.getUsedCount(), SNAPSHOT_FILE, System.currentTimeMillis() - start);
+		}
+		catch (IOException e)
+		{
+			LOGGER.warn("Could not store ID snapshot {}!", SNAPSHOT_FILE, e);
+		}
+	}
+	
+	/**
+	 * Releases the IDs of the NPCs which are not in the world, the ones in the world were released already.
+	 * @param npcs the NPCs of a spawn
+	 */
+	private void releaseIdsOutOfWorld(Iterable<Npc> npcs)
+	{
+		for (Npc npc : npcs)
+		{
+			if (World.getInstance().findObject(npc.getObjectId()) != npc)
+			{
+				releaseId(npc.getObjectId());
+			}
+		}
+	}
+	
+	/**
+	 * @param object the object
+	 * @return {@code true} if the ID of the object is read from the database on the next start up
+	 */
+	private static boolean isStored(WorldObject object)
+	{
+		if (object.isPlayer())
+		{
+			return true;
+		}
+		
+		if (object.isItem())
+		{
+			final ItemInstance item = (ItemInstance) object;
+			return item.existsInDb() || ItemsOnGroundManager.getInstance().isStored(item);
+		}
+		return false;
+	}
+}
@@ -0,0 +1,456 @@
+/*
+ * Copyright (C) 2004-2017 L2J Unity
+ * 
+ * This file is part of L2J Unity.
+ * 
+ * L2J Unity is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Unity is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2junity.gameserver.idfactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * The used IDs of {@link StripedIDFactory}, without locks.<br>
+ * The used IDs are kept in a bitmap of atomic words, whose segments are allocated as the IDs are used. The words are striped, every stripe has its own cursor to the first word which may still have a clear bit.<br>
+ * A thread takes all the free IDs of a word at once and hands them out without any further synchronization, a released ID is cleared in the bitmap and found again by the cursor of its stripe.<br>
+ * The IDs are counted from 0, the factory adds {@link IdFactory#FIRST_OID}.
+ */
+final class StripedIdBitmap
+{
+	private static final int SNAPSHOT_MAGIC = 0x4C324944; // L2ID
+	private static final int SNAPSHOT_VERSION = 1;
+	
+	static final int SEGMENT_WORDS = 1024;
+	
+	/** The amount of IDs */
+	private final long _idCount;
+	private final int _wordCount;
+	private final int _segmentCount;
+	private final int _stripes;
+	
+	private final AtomicReferenceArray<AtomicLongArray> _segments;
+	/** The index of the first word of each stripe which may have a clear bit, counted within the stripe */
+	private final AtomicInteger[] _cursors;
+	private final LongAdder _usedIds = new LongAdder();
+	private final Queue<IdBlock> _blocks = new ConcurrentLinkedQueue<>();
+	private final ThreadLocal<IdBlock> _threadBlock = ThreadLocal.withInitial(this::createBlock);
+	
+	/**
+	 * @param idCount the amount of IDs
+	 * @param stripes the amount of stripes, a power of two
+	 */
+	StripedIdBitmap(long idCount, int stripes)
+	{
+		if ((stripes <= 0) || (Integer.bitCount(stripes) != 1))
+		{
+			throw new IllegalArgumentException("The amount of stripes must be a power of two: " + stripes);
+		}
+		
+		_idCount = idCount;
+		_wordCount = (int) ((idCount + 63) >>> 6);
+		_segmentCount = ((_wordCount + SEGMENT_WORDS) - 1) / SEGMENT_WORDS;
+		_stripes = stripes;
+		_segments = new AtomicReferenceArray<>(_segmentCount);
+		_cursors = new AtomicInteger[stripes];
+		for (int i = 0; i < stripes; i++)
+		{
+			_cursors[i] = new AtomicInteger();
+		}
+	}
+	
+	/**
+	 * @return a free ID, which is used from now on
+	 * @throws NullPointerException if there is no free ID left
+	 */
+	int getNextId()
+	{
+		final IdBlock block = _threadBlock.get();
+		if (block._freeMask == 0)
+		{
+			claimWord(block);
+		}
+		
+		final int bit = Long.numberOfTrailingZeros(block._freeMask);
+		block._freeMask &= block._freeMask - 1;
+		_usedIds.increment();
+		return (block._word << 6) + bit;
+	}
+	
+	/**
+	 * @param id the ID
+	 * @return {@code true} if the ID was used before
+	 */
+	boolean markFree(int id)
+	{
+		if (clearBit(id))
+		{
+			_usedIds.decrement();
+			return true;
+		}
+		return false;
+	}
+	
+	private boolean clearBit(int id)
+	{
+		final int word = id >>> 6;
+		final AtomicLongArray segment = getSegment(word / SEGMENT_WORDS);
+		final int index = word % SEGMENT_WORDS;
+		final long bit = 1L << (id & 63);
+		long used;
+		do
+		{
+			used = segment.get(index);
+			if ((used & bit) == 0)
+			{
+				return false;
+			}
+		}
+		while (!segment.compareAndSet(index, used, used & ~bit));
+		
+		// Let the stripe find the ID again
+		final AtomicInteger cursor = _cursors[word & (_stripes - 1)];
+		final int position = word / _stripes;
+		int current;
+		while (((current = cursor.get()) > position) && !cursor.compareAndSet(current, position))
+		{
+			// retry
+		}
+		return true;
+	}
+	
+	/**
+	 * @param id the ID
+	 * @return {@code true} if the ID was not used before
+	 */
+	boolean markUsed(int id)
+	{
+		final int word = id >>> 6;
+		final AtomicLongArray segment = getSegment(word / SEGMENT_WORDS);
+		final int index = word % SEGMENT_WORDS;
+		final long bit = 1L << (id & 63);
+		long used;
+		do
+		{
+			used = segment.get(index);
+			if ((used & bit) != 0)
+			{
+				return false;
+			}
+		}
+		while (!segment.compareAndSet(index, used, used | bit));
+		_usedIds.increment();
+		return true;
+	}
+	
+	/**
+	 * @param id the ID
+	 * @return {@code true} if the ID is used, IDs out of range are always used
+	 */
+	boolean isUsed(int id)
+	{
+		if ((id < 0) || (id >= _idCount))
+		{
+			return true;
+		}
+		
+		final int word = id >>> 6;
+		final AtomicLongArray segment = _segments.get(word / SEGMENT_WORDS);
+		return (segment != null) && ((segment.get(word % SEGMENT_WORDS) & (1L << (id & 63))) != 0);
+	}
+	
+	/**
+	 * @return the amount of free IDs
+	 */
+	long getFreeCount()
+	{
+		return _idCount - _usedIds.sum();
+	}
+	
+	/**
+	 * @return the amount of used IDs
+	 */
+	long getUsedCount()
+	{
+		return _usedIds.sum();
+	}
+	
+	int getStripes()
+	{
+		return _stripes;
+	}
+	
+	/**
+	 * Frees the IDs taken by threads which died but not handed out.<br>
+	 * The blocks of living threads are left alone, such a thread keeps handing out the IDs of its block without any synchronization.
+	 */
+	void freeDeadBlocks()
+	{
+		for (IdBlock block : _blocks)
+		{
+			if (!block._thread.isAlive() && _blocks.remove(block))
+			{
+				freeBlock(block);
+			}
+		}
+	}
+	
+	private IdBlock createBlock()
+	{
+		// The IDs taken by a thread which died would stay used otherwise
+		freeDeadBlocks();
+		
+		final IdBlock block = new IdBlock(Thread.currentThread(), (int) Thread.currentThread().getId() & (_stripes - 1));
+		_blocks.add(block);
+		return block;
+	}
+	
+	/**
+	 * Frees the IDs of a block which were not handed out, they are not counted as used.
+	 * @param block the block, not used by its thread anymore
+	 */
+	private void freeBlock(IdBlock block)
+	{
+		for (long mask = block._freeMask; mask != 0; mask &= mask - 1)
+		{
+			clearBit((block._word << 6) + Long.numberOfTrailingZeros(mask));
+		}
+		block._freeMask = 0;
+	}
+	
+	/**
+	 * Takes all the free IDs of the first word having any, starting with the stripe of the block.
+	 * @param block the block receiving the IDs
+	 */
+	private void claimWord(IdBlock block)
+	{
+		for (int i = 0; i < _stripes; i++)
+		{
+			final int stripe = (block._stripe + i) & (_stripes - 1);
+			if (claimWord(block, stripe, _cursors[stripe]))
+			{
+				return;
+			}
+			
+			// A release may have been missed while the cursor moved on, look at the whole stripe once more
+			_cursors[stripe].set(0);
+			if (claimWord(block, stripe, _cursors[stripe]))
+			{
+				return;
+			}
+		}
+		throw new NullPointerException("Ran out of valid Id's.");
+	}
+	
+	private boolean claimWord(IdBlock block, int stripe, AtomicInteger cursor)
+	{
+		while (true)
+		{
+			final int position = cursor.get();
+			final long word = ((long) position * _stripes) + stripe;
+			if (word >= _wordCount)
+			{
+				return false;
+			}
+			
+			final AtomicLongArray segment = getSegment((int) (word / SEGMENT_WORDS));
+			final int index = (int) (word % SEGMENT_WORDS);
+			final long used = segment.get(index);
+			if (used == -1L)
+			{
+				cursor.compareAndSet(position, position + 1);
+			}
+			else if (segment.compareAndSet(index, used, -1L))
+			{
+				block._word = (int) word;
+				block._freeMask = ~used;
+				return true;
+			}
+		}
+	}
+	
+	private AtomicLongArray getSegment(int index)
+	{
+		AtomicLongArray segment = _segments.get(index);
+		if (segment == null)
+		{
+			segment = newSegment(index);
+			if (!_segments.compareAndSet(index, null, segment))
+			{
+				segment = _segments.get(index);
+			}
+		}
+		return segment;
+	}
+	
+	private AtomicLongArray newSegment(int index)
+	{
+		final AtomicLongArray segment = new AtomicLongArray(SEGMENT_WORDS);
+		if ((index == (_segmentCount - 1)) && ((_idCount & 63) != 0))
+		{
+			// The bits after the last ID are never handed out
+			segment.set((_wordCount - 1) % SEGMENT_WORDS, -1L << (_idCount & 63));
+		}
+		return segment;
+	}
+	
+	/**
+	 * Frees all the IDs.
+	 */
+	void clear()
+	{
+		for (int i = 0; i < _segmentCount; i++)
+		{
+			_segments.set(i, null);
+		}
+		for (AtomicInteger cursor : _cursors)
+		{
+			cursor.set(0);
+		}
+		_usedIds.reset();
+	}
+	
+	/**
+	 * Writes the used IDs into a temporary file first, which replaces the file once complete.
+	 * @param file the file
+	 * @throws IOException if the file could not be written
+	 */
+	void store(Path file) throws IOException
+	{
+		int segmentCount = 0;
+		for (int i = 0; i < _segmentCount; i++)
+		{
+			if (_segments.get(i) != null)
+			{
+				segmentCount++;
+			}
+		}
+		
+		final Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+		final CRC32 crc = new CRC32();
+		try (DataOutputStream out = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)), crc)))
+		{
+			out.writeInt(SNAPSHOT_MAGIC);
+			out.writeInt(SNAPSHOT_VERSION);
+			out.writeInt(_wordCount);
+			out.writeInt(segmentCount);
+			for (int i = 0; i < _segmentCount; i++)
+			{
+				final AtomicLongArray segment = _segments.get(i);
+				if (segment != null)
+				{
+					out.writeInt(i);
+					for (int j = 0; j < SEGMENT_WORDS; j++)
+					{
+						out.writeLong(segment.get(j));
+					}
+				}
+			}
+			out.flush();
+			out.writeLong(crc.getValue());
+		}
+		Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+	
+	/**
+	 * Replaces the used IDs by the ones written by {@link #store(Path)}, nothing is changed if the file can not be read.
+	 * @param file the file
+	 * @throws IOException if the file could not be read, is of another format or corrupted
+	 */
+	void load(Path file) throws IOException
+	{
+		final CRC32 crc = new CRC32();
+		try (DataInputStream in = new DataInputStream(new CheckedInputStream(new BufferedInputStream(Files.newInputStream(file)), crc)))
+		{
+			if ((in.readInt() != SNAPSHOT_MAGIC) || (in.readInt() != SNAPSHOT_VERSION) || (in.readInt() != _wordCount))
+			{
+				throw new IOException("Another format");
+			}
+			
+			final AtomicLongArray[] segments = new AtomicLongArray[_segmentCount];
+			long usedIds = 0;
+			final int segmentCount = in.readInt();
+			for (int i = 0; i < segmentCount; i++)
+			{
+				final int index = in.readInt();
+				if ((index < 0) || (index >= _segmentCount) || (segments[index] != null))
+				{
+					throw new IOException("Invalid segment " + index);
+				}
+				
+				final AtomicLongArray segment = new AtomicLongArray(SEGMENT_WORDS);
+				segments[index] = segment;
+				for (int j = 0; j < SEGMENT_WORDS; j++)
+				{
+					final long used = in.readLong();
+					segment.set(j, used);
+					usedIds += Long.bitCount(used);
+				}
+			}
+			
+			final long checksum = crc.getValue();
+			if (in.readLong() != checksum)
+			{
+				throw new IOException("Corrupted");
+			}
+			
+			clear();
+			for (int i = 0; i < _segmentCount; i++)
+			{
+				if (segments[i] != null)
+				{
+					_segments.set(i, segments[i]);
+				}
+			}
+			if ((segments[_segmentCount - 1] != null) && ((_idCount & 63) != 0))
+			{
+				// The bits after the last ID are not counted as used
+				usedIds -= 64 - (_idCount & 63);
+			}
+			_usedIds.add(usedIds);
+		}
+	}
+	
+	/**
+	 * The free IDs of one word taken by a thread, only used by that thread.
+	 */
+	private static final class IdBlock
+	{
+		protected final Thread _thread;
+		protected final int _stripe;
+		protected int _word;
+		protected long _freeMask;
+		
+		protected IdBlock(Thread thread, int stripe)
+		{
+			_thread = thread;
+			_stripe = stripe;
+		}
+	}
+}
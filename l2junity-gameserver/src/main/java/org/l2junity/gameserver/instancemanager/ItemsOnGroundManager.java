@@ -21,7 +21,6 @@ package org.l2junity.gameserver.instancemanager;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -30,6 +29,7 @@ import java.util.concurrent.TimeUnit;
 import org.l2junity.commons.loader.annotations.Dependency;
 import org.l2junity.commons.loader.annotations.InstanceGetter;
 import org.l2junity.commons.loader.annotations.Load;
+import org.l2junity.commons.sql.AsyncQueryExecutor;
 import org.l2junity.commons.sql.DatabaseFactory;
 import org.l2junity.commons.util.concurrent.ThreadPool;
 import org.l2junity.gameserver.ItemsAutoDestroy;
@@ -48,6 +48,9 @@ public final class ItemsOnGroundManager
 {
 	private static final Logger LOGGER = LoggerFactory.getLogger(ItemsOnGroundManager.class);
 	
+	/** Keeps the statements writing the items on ground in order */
+	private static final int QUERY_KEY = "itemsonground".hashCode();
+	
 	private final Set<ItemInstance> _items = ConcurrentHashMap.newKeySet();
 	
 	protected ItemsOnGroundManager()
@@ -180,6 +183,15 @@ public final class ItemsOnGroundManager
 		}
 	}
 	
+	/**
+	 * @param item the item on ground
+	 * @return {@code true} if the item is stored along with the items on ground
+	 */
+	public boolean isStored(ItemInstance item)
+	{
+		return GeneralConfig.SAVE_DROPPED_ITEM && _items.contains(item) && !CursedWeaponsManager.getInstance().isCursed(item.getId());
+	}
+	
 	public void saveInDb()
 	{
 		storeInDB();
@@ -192,6 +204,8 @@ public final class ItemsOnGroundManager
 	
 	public void emptyTable()
 	{
+		// Stored items still queued would be inserted after the removal
+		AsyncQueryExecutor.getInstance().await(QUERY_KEY);
 		try (Connection con = DatabaseFactory.getInstance().getConnection();
 			Statement s = con.createStatement())
 		{
@@ -203,6 +217,10 @@ public final class ItemsOnGroundManager
 		}
 	}
 	
+	/**
+	 * Replaces the stored items by the items on ground, on a database thread.<br>
+	 * The statements run in order, an item failing to be stored does not keep the others from being stored.
+	 */
 	private synchronized void storeInDB()
 	{
 		if (!GeneralConfig.SAVE_DROPPED_ITEM)
@@ -210,50 +228,21 @@ public final class ItemsOnGroundManager
 			return;
 		}
 		
-		emptyTable();
-		
-		if (_items.isEmpty())
-		{
-			return;
-		}
-		
-		try (Connection con = DatabaseFactory.getInstance().getConnection();
-			PreparedStatement statement = con.prepareStatement("INSERT INTO itemsonground(object_id, item_id, count, enchant_level, x, y, z, drop_time, equipable) VALUES(?, ?, ?, ?, ?, ?, ?, ?, ?)"))
+		final AsyncQueryExecutor executor = AsyncQueryExecutor.getInstance();
+		executor.execute(QUERY_KEY, "DELETE FROM itemsonground");
+		for (ItemInstance item : _items)
 		{
-			for (ItemInstance item : _items)
+			if (item == null)
 			{
-				if (item == null)
-				{
-					continue;
-				}
-				
-				if (CursedWeaponsManager.getInstance().isCursed(item.getId()))
-				{
-					continue; // Cursed Items not saved to ground, prevent double save
-				}
-				
-				try
-				{
-					statement.setInt(1, item.getObjectId());
-					statement.setInt(2, item.getId());
-					statement.setLong(3, item.getCount());
-					statement.setInt(4, item.getEnchantLevel());
-					statement.setInt(5, (int) item.getX());
-					statement.setInt(6, (int) item.getY());
-					statement.setInt(7, (int) item.getZ());
-					statement.setLong(8, (item.isProtected() ? -1 : item.getDropTime())); // item is protected or AutoDestroyed
-					statement.setLong(9, (item.isEquipable() ? 1 : 0)); // set equip-able
-					statement.execute();
-				}
-				catch (Exception e)
-				{
-					LOGGER.error("Error while inserting into table ItemsOnGround: ", e);
-				}
+				continue;
 			}
-		}
-		catch (SQLException e)
-		{
-			LOGGER.error("SQL error while storing items on ground: ", e);
+			
+			if (CursedWeaponsManager.getInstance().isCursed(item.getId()))
+			{
+				continue; // Cursed Items not saved to ground, prevent double save
+			}
+			
+			executor.execute(QUERY_KEY, "INSERT INTO itemsonground(object_id, item_id, count, enchant_level, x, y, z, drop_time, equipable) VALUES(?, ?, ?, ?, ?, ?, ?, ?, ?)", item.getObjectId(), item.getId(), item.getCount(), item.getEnchantLevel(), (int) item.getX(), (int) item.getY(), (int) item.getZ(), (item.isProtected() ? -1L : item.getDropTime()), (item.isEquipable() ? 1 : 0)); // drop time -1 if item is protected or AutoDestroyed
 		}
 	}
 	
@@ -18,36 +18,133 @@
  */
 package org.l2junity.gameserver.instancemanager;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
+import org.l2junity.commons.util.concurrent.ThreadPool;
+import org.l2junity.commons.util.concurrent.TickScheduler;
+import org.l2junity.gameserver.config.ThreadPoolConfig;
 import org.l2junity.gameserver.model.actor.Npc;
 import org.l2junity.gameserver.model.actor.instance.PlayerInstance;
+import org.l2junity.gameserver.model.events.timers.ScriptTimerStats;
 import org.l2junity.gameserver.model.events.timers.TimerHolder;
 
 /**
+ * The timer service of quest and AI scripts.<br>
+ * All script timers fire from a single timing wheel instead of one {@link java.util.concurrent.ScheduledThreadPoolExecutor} heap entry per timer, the timers due in the same tick are executed in batches.<br>
+ * It also keeps the event timers by the object id of their npc and player, so they are cancelled when the creature is deleted, and counts the timers of every script.
  * @author UnAfraid
  */
 public class TimersManager
 {
+	/** Amount of buckets of the wheel, with the default resolution a round takes about three minutes */
+	private static final int WHEEL_SIZE = 4096;
+	/** Amount of scripts listed by {@link #getStats()} */
+	private static final int STATS_SCRIPTS = 15;
+	
+	private final TickScheduler _scheduler;
 	private final Map<Integer, Set<TimerHolder<?>>> _timers = new ConcurrentHashMap<>();
+	private final Map<String, ScriptTimerStats> _scriptStats = new ConcurrentHashMap<>();
+	
+	protected TimersManager()
+	{
+		_scheduler = new TickScheduler("Script timers", Math.max(ThreadPoolConfig.SCRIPT_TIMER_RESOLUTION, 1), WHEEL_SIZE, ThreadPool.getThreadPoolExecutor());
+		_scheduler.start(ThreadPool.getScheduledThreadPoolExecutor());
+	}
+	
+	/**
+	 * Schedules a script timer to fire once.
+	 * @param task the task
+	 * @param delay the delay in milliseconds
+	 * @return the future of the timer
+	 */
+	public ScheduledFuture<?> schedule(Runnable task, long delay)
+	{
+		return _scheduler.schedule(task, delay, TimeUnit.MILLISECONDS);
+	}
+	
+	/**
+	 * Schedules a script timer to fire every period, starting after one period.
+	 * @param task the task
+	 * @param period the period in milliseconds
+	 * @return the future of the timer
+	 */
+	public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long period)
+	{
+		return _scheduler.scheduleAtFixedRate(task, period, Math.max(period, 1), TimeUnit.MILLISECONDS);
+	}
+	
+	/**
+	 * @param script the script
+	 * @return the timer counters of the script
+	 */
+	public ScriptTimerStats getScriptStats(Object script)
+	{
+		return _scriptStats.computeIfAbsent(script.getClass().getSimpleName(), ScriptTimerStats::new);
+	}
 	
 	public void registerTimer(TimerHolder<?> timer)
 	{
 		final Npc npc = timer.getNpc();
 		if (npc != null)
 		{
-			_timers.computeIfAbsent(npc.getObjectId(), key -> ConcurrentHashMap.newKeySet()).add(timer);
+			registerTimer(npc.getObjectId(), timer);
 		}
 		
 		final PlayerInstance player = timer.getPlayer();
 		if (player != null)
 		{
-			_timers.computeIfAbsent(player.getObjectId(), key -> ConcurrentHashMap.newKeySet()).add(timer);
+			registerTimer(player.getObjectId(), timer);
 		}
 	}
 	
+	private void registerTimer(int objectId, TimerHolder<?> timer)
+	{
+		_timers.compute(objectId, (key, timers) ->
+		{
+			if (timers == null)
+			{
+				timers = ConcurrentHashMap.newKeySet();
+			}
+			timers.add(timer);
+			return timers;
+		});
+	}
+	
+	/**
+	 * Forgets a timer that fired for the last time or was cancelled.
+	 * @param timer the timer
+	 */
+	public void unregisterTimer(TimerHolder<?> timer)
+	{
+		final Npc npc = timer.getNpc();
+		if (npc != null)
+		{
+			unregisterTimer(npc.getObjectId(), timer);
+		}
+		
+		final PlayerInstance player = timer.getPlayer();
+		if (player != null)
+		{
+			unregisterTimer(player.getObjectId(), timer);
+		}
+	}
+	
+	private void unregisterTimer(int objectId, TimerHolder<?> timer)
+	{
+		_timers.computeIfPresent(objectId, (key, timers) ->
+		{
+			timers.remove(timer);
+			return timers.isEmpty() ? null : timers;
+		});
+	}
+	
 	public void cancelTimers(int objectId)
 	{
 		final Set<TimerHolder<?>> timers = _timers.remove(objectId);
@@ -57,6 +154,17 @@ public class TimersManager
 		}
 	}
 	
+	public List<String> getStats()
+	{
+		final List<String> list = new ArrayList<>(_scheduler.getStats());
+		list.add("Script Timers (most started):");
+		_scriptStats.values().stream().sorted(Comparator.comparingLong(ScriptTimerStats::getStarted).reversed()).limit(STATS_SCRIPTS).forEach(stats ->
+		{
+			list.add("\t" + stats.getName() + ": active " + stats.getActive() + ", started " + stats.getStarted() + ", executed " + stats.getExecuted() + ", cancelled " + stats.getCancelled());
+		});
+		return list;
+	}
+	
 	public static TimersManager getInstance()
 	{
 		return SingletonHolder._instance;
@@ -69,9 +69,9 @@ public final class ZoneManager implements IGameXmlReader
 	
 	private static final Map<String, AbstractZoneSettings> SETTINGS = new HashMap<>();
 	
-	private static final int SHIFT_BY = 15;
-	private static final int OFFSET_X = Math.abs(World.MAP_MIN_X >> SHIFT_BY);
-	private static final int OFFSET_Y = Math.abs(World.MAP_MIN_Y >> SHIFT_BY);
+	public static final int SHIFT_BY = 15;
+	public static final int OFFSET_X = Math.abs(World.MAP_MIN_X >> SHIFT_BY);
+	public static final int OFFSET_Y = Math.abs(World.MAP_MIN_Y >> SHIFT_BY);
 	
 	private final Map<Class<? extends ZoneType>, Map<Integer, ? extends ZoneType>> _classZones = new HashMap<>();
 	private final Map<String, SpawnTerritory> _spawnTerritories = new HashMap<>();
@@ -373,7 +373,7 @@ public final class ZoneManager implements IGameXmlReader
 								
 								if (temp.getZone().intersectsRectangle(ax, bx, ay, by))
 								{
-									_zoneRegions[x][y].getZones().put(temp.getId(), temp);
+									_zoneRegions[x][y].addZone(temp);
 								}
 							}
 						}
@@ -419,7 +419,7 @@ public final class ZoneManager implements IGameXmlReader
 		{
 			for (ZoneRegion zoneRegion : zoneRegions)
 			{
-				zoneRegion.getZones().clear();
+				zoneRegion.clearZones();
 				count++;
 			}
 		}
@@ -605,15 +605,19 @@ public final class ZoneManager implements IGameXmlReader
 	 */
 	public List<ZoneType> getZones(double x, double y)
 	{
-		final List<ZoneType> temp = new ArrayList<>();
-		for (ZoneType zone : getRegion((int) x, (int) y).getZones().values())
+		List<ZoneType> temp = null;
+		for (ZoneType zone : getRegion((int) x, (int) y).getZones(x, y))
 		{
 			if (zone.isInsideZone(x, y))
 			{
+				if (temp == null)
+				{
+					temp = new ArrayList<>(2);
+				}
 				temp.add(zone);
 			}
 		}
-		return temp;
+		return temp != null ? temp : Collections.emptyList();
 	}
 	
 	/**
@@ -625,15 +629,19 @@ public final class ZoneManager implements IGameXmlReader
 	 */
 	public List<ZoneType> getZones(double x, double y, double z)
 	{
-		final List<ZoneType> temp = new ArrayList<>();
-		for (ZoneType zone : getRegion((int) x, (int) y).getZones().values())
+		List<ZoneType> temp = null;
+		for (ZoneType zone : getRegion((int) x, (int) y).getZones(x, y))
 		{
 			if (zone.isInsideZone(x, y, z))
 			{
+				if (temp == null)
+				{
+					temp = new ArrayList<>(2);
+				}
 				temp.add(zone);
 			}
 		}
-		return temp;
+		return temp != null ? temp : Collections.emptyList();
 	}
 	
 	/**
@@ -648,9 +656,9 @@ public final class ZoneManager implements IGameXmlReader
 	@SuppressWarnings("unchecked")
 	public <T extends ZoneType> T getZone(double x, double y, double z, Class<T> type)
 	{
-		for (ZoneType zone : getRegion((int) x, (int) y).getZones().values())
+		for (ZoneType zone : getRegion((int) x, (int) y).getZones(x, y))
 		{
-			if (zone.isInsideZone(x, y, z) && type.isInstance(zone))
+			if (type.isInstance(zone) && zone.isInsideZone(x, y, z))
 			{
 				return (T) zone;
 			}
@@ -699,9 +707,9 @@ public final class ZoneManager implements IGameXmlReader
 			return null;
 		}
 		
-		for (ZoneType temp : ZoneManager.getInstance().getZones(character.getX(), character.getY(), character.getZ()))
+		for (ZoneType temp : getRegion(character).getZones(character.getX(), character.getY()))
 		{
-			if ((temp instanceof ArenaZone) && temp.isCharacterInZone(character))
+			if ((temp instanceof ArenaZone) && temp.isCharacterInZone(character) && temp.isInsideZone(character))
 			{
 				return ((ArenaZone) temp);
 			}
@@ -722,9 +730,9 @@ public final class ZoneManager implements IGameXmlReader
 			return null;
 		}
 		
-		for (ZoneType temp : ZoneManager.getInstance().getZones(character.getX(), character.getY(), character.getZ()))
+		for (ZoneType temp : getRegion(character).getZones(character.getX(), character.getY()))
 		{
-			if ((temp instanceof OlympiadStadiumZone) && temp.isCharacterInZone(character))
+			if ((temp instanceof OlympiadStadiumZone) && temp.isCharacterInZone(character) && temp.isInsideZone(character))
 			{
 				return ((OlympiadStadiumZone) temp);
 			}
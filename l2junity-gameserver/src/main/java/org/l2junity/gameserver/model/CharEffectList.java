@@ -18,25 +18,33 @@
  */
 package org.l2junity.gameserver.model;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
+import org.l2junity.commons.util.concurrent.ThreadPool;
 import org.l2junity.gameserver.config.PlayerConfig;
+import org.l2junity.gameserver.instancemanager.GameTimeManager;
 import org.l2junity.gameserver.model.actor.Creature;
 import org.l2junity.gameserver.model.actor.instance.PlayerInstance;
+import org.l2junity.gameserver.model.effects.AbstractEffect;
 import org.l2junity.gameserver.model.olympiad.OlympiadGameManager;
 import org.l2junity.gameserver.model.olympiad.OlympiadGameTask;
 import org.l2junity.gameserver.model.skills.AbnormalType;
@@ -51,20 +59,37 @@ import org.l2junity.gameserver.network.client.send.ExAbnormalStatusUpdateFromTar
 import org.l2junity.gameserver.network.client.send.ExOlympiadSpelledInfo;
 import org.l2junity.gameserver.network.client.send.PartySpelled;
 import org.l2junity.gameserver.network.client.send.ShortBuffStatusUpdate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Effect lists.<br>
  * Holds all the {@code BuffInfo}s that are affecting a creature.<br>
  * Manages the logic that controls whether a buff is added, remove, replaced or set inactive.<br>
- * Uses maps with skill ID as key and {@code BuffInfo} DTO as value to avoid iterations.<br>
+ * Uses maps with skill ID and {@code AbnormalType} as key and the {@code BuffInfo}s as value to avoid iterations.<br>
+ * Drives the expiry and the ticks of all its effects from a single queue of deadlines, so a creature takes only one scheduled task however many effects it has.<br>
  * Uses Double-Checked Locking to avoid useless initialization and synchronization issues and overhead.<br>
  * Methods may resemble List interface, although it doesn't implement such interface.
  * @author Zoey76
  */
 public final class CharEffectList
 {
+	private static final Logger LOGGER = LoggerFactory.getLogger(CharEffectList.class);
+	
+	private static final BuffInfo[] EMPTY_BUFF_INFOS = new BuffInfo[0];
+	
 	/** Queue containing all effects from buffs for this effect list. */
 	private volatile Queue<BuffInfo> _actives;
+	/** Map containing the active effects for each skill ID, in the order they were added. */
+	private volatile Map<Integer, BuffInfo[]> _activesBySkillId;
+	/** Map containing the active effects for each {@code AbnormalType}, in the order they were added. */
+	private volatile Map<AbnormalType, BuffInfo[]> _activesByAbnormalType;
+	/** Queue containing the pending expiries and ticks of the active effects, ordered by time. Guarded by itself. */
+	private volatile PriorityQueue<EffectDeadline> _deadlines;
+	/** The task running the next due deadlines, along with its time and its ID. Guarded by {@link #_deadlines}. */
+	private ScheduledFuture<?> _deadlineTask;
+	private long _deadlineTaskTime;
+	private int _deadlineTaskId;
 	/** List containing all options for this effect list. They bypass most of the actions and they are not included in most operations. */
 	private volatile Set<BuffInfo> _options;
 	/** Map containing the all stacked effect in progress for each {@code AbnormalType}. */
@@ -142,7 +167,8 @@ public final class CharEffectList
 	 */
 	public boolean isAffectedBySkill(int skillId)
 	{
-		return ((_actives != null) && _actives.stream().anyMatch(i -> i.getSkill().getId() == skillId));
+		final Map<Integer, BuffInfo[]> activesBySkillId = _activesBySkillId;
+		return (activesBySkillId != null) && activesBySkillId.containsKey(skillId);
 	}
 	
 	/**
@@ -152,7 +178,8 @@ public final class CharEffectList
 	 */
 	public BuffInfo getBuffInfoBySkillId(int skillId)
 	{
-		return (_actives != null ? _actives.stream() : Stream.<BuffInfo> empty()).filter(b -> b.getSkill().getId() == skillId).findFirst().orElse(null);
+		final BuffInfo[] infos = getBuffInfos(_activesBySkillId, skillId);
+		return infos.length > 0 ? infos[0] : null;
 	}
 	
 	/**
@@ -182,7 +209,17 @@ public final class CharEffectList
 	 */
 	public boolean hasAbnormalType(AbnormalType type, Predicate<BuffInfo> filter)
 	{
-		return hasAbnormalType(type) && _actives.stream().filter(i -> i.isAbnormalType(type)).anyMatch(filter);
+		if (hasAbnormalType(type))
+		{
+			for (BuffInfo info : getBuffInfos(_activesByAbnormalType, type))
+			{
+				if (filter.test(info))
+				{
+					return true;
+				}
+			}
+		}
+		return false;
 	}
 	
 	/**
@@ -193,7 +230,76 @@ public final class CharEffectList
 	 */
 	public BuffInfo getFirstBuffInfoByAbnormalType(AbnormalType type)
 	{
-		return hasAbnormalType(type) ? _actives.stream().filter(i -> i.isAbnormalType(type)).findFirst().orElse(null) : null;
+		final BuffInfo[] infos = getBuffInfos(_activesByAbnormalType, type);
+		return infos.length > 0 ? infos[0] : null;
+	}
+	
+	/**
+	 * @param index the index
+	 * @param key the key
+	 * @return the active effects of the key in the order they were added, never {@code null}
+	 */
+	private static <K> BuffInfo[] getBuffInfos(Map<K, BuffInfo[]> index, K key)
+	{
+		final BuffInfo[] infos = index != null ? index.get(key) : null;
+		return infos != null ? infos : EMPTY_BUFF_INFOS;
+	}
+	
+	private static <K> void addToIndex(Map<K, BuffInfo[]> index, K key, BuffInfo info)
+	{
+		index.compute(key, (k, infos) ->
+		{
+			if (infos == null)
+			{
+				return new BuffInfo[]
+				{
+					info
+				};
+			}
+			
+			final BuffInfo[] newInfos = Arrays.copyOf(infos, infos.length + 1);
+			newInfos[infos.length] = info;
+			return newInfos;
+		});
+	}
+	
+	private static <K> void removeFromIndex(Map<K, BuffInfo[]> index, K key, BuffInfo info)
+	{
+		index.computeIfPresent(key, (k, infos) ->
+		{
+			for (int i = 0; i < infos.length; i++)
+			{
+				if (infos[i] == info)
+				{
+					if (infos.length == 1)
+					{
+						return null;
+					}
+					
+					final BuffInfo[] newInfos = new BuffInfo[infos.length - 1];
+					System.arraycopy(infos, 0, newInfos, 0, i);
+					System.arraycopy(infos, i + 1, newInfos, i, infos.length - i - 1);
+					return newInfos;
+				}
+			}
+			return infos;
+		});
+	}
+	
+	/**
+	 * @param info the {@code BuffInfo}
+	 * @return {@code true} if the {@code BuffInfo} is one of the active effects of this effect list, {@code false} otherwise
+	 */
+	private boolean isActive(BuffInfo info)
+	{
+		for (BuffInfo active : getBuffInfos(_activesBySkillId, info.getSkill().getId()))
+		{
+			if (active == info)
+			{
+				return true;
+			}
+		}
+		return false;
 	}
 	
 	/**
@@ -419,7 +525,11 @@ public final class CharEffectList
 	{
 		if (hasAbnormalType(type))
 		{
-			stopEffects(i -> i.isAbnormalType(type), true, true);
+			for (BuffInfo info : getBuffInfos(_activesByAbnormalType, type))
+			{
+				remove(info);
+			}
+			updateEffectList(true);
 			return true;
 		}
 		
@@ -640,10 +750,12 @@ public final class CharEffectList
 	 */
 	private void removeActive(BuffInfo info, boolean removed)
 	{
-		if (_actives != null)
+		// Removes the buff from the given effect list, unless it has been removed already.
+		if ((_actives != null) && _actives.remove(info))
 		{
-			// Removes the buff from the given effect list.
-			_actives.remove(info);
+			removeFromIndex(_activesBySkillId, info.getSkill().getId(), info);
+			removeFromIndex(_activesByAbnormalType, info.getSkill().getAbnormalType(), info);
+			removeDeadlines(info);
 			
 			// Remove short buff.
 			if (info == _shortBuff)
@@ -746,6 +858,9 @@ public final class CharEffectList
 			{
 				if (_actives == null)
 				{
+					_activesBySkillId = new ConcurrentHashMap<>();
+					_activesByAbnormalType = new ConcurrentHashMap<>();
+					_deadlines = new PriorityQueue<>();
 					_actives = new ConcurrentLinkedQueue<>();
 				}
 			}
@@ -754,7 +869,8 @@ public final class CharEffectList
 		// Manage effect stacking.
 		if (hasAbnormalType(skill.getAbnormalType()))
 		{
-			for (BuffInfo existingInfo : _actives)
+			final BuffInfo[] existingInfos = skill.getAbnormalType().isNone() ? getBuffInfos(_activesBySkillId, skill.getId()) : getBuffInfos(_activesByAbnormalType, skill.getAbnormalType());
+			for (BuffInfo existingInfo : existingInfos)
 			{
 				final Skill existingSkill = existingInfo.getSkill();
 				// Check if existing effect should be removed due to stack.
@@ -822,6 +938,8 @@ public final class CharEffectList
 		// After removing old buff (same ID) or stacked buff (same abnormal type),
 		// Add the buff to the end of the effect list.
 		_actives.add(info);
+		addToIndex(_activesBySkillId, skill.getId(), info);
+		addToIndex(_activesByAbnormalType, skill.getAbnormalType(), info);
 		// Initialize effects.
 		info.initializeEffects();
 	}
@@ -1055,4 +1173,187 @@ public final class CharEffectList
 			updateEffectIcons(false);
 		}
 	}
+	
+	/**
+	 * Schedules the expiry of an active effect once its remaining time is over, replacing the expiry scheduled before.
+	 * @param info the {@code BuffInfo}
+	 */
+	public void scheduleExpiry(BuffInfo info)
+	{
+		final PriorityQueue<EffectDeadline> deadlines = _deadlines;
+		if ((deadlines != null) && (info.getAbnormalTime() > 0))
+		{
+			synchronized (deadlines)
+			{
+				deadlines.removeIf(d -> (d._info == info) && (d._effect == null));
+				addDeadline(deadlines, new EffectDeadline(info, null, 0, System.currentTimeMillis() + info.getRemainingMillis()));
+			}
+		}
+	}
+	
+	/**
+	 * Schedules the ticks of an effect of an active effect, they stop once the effect is removed.
+	 * @param info the {@code BuffInfo}
+	 * @param effect the effect
+	 * @param period the period of the ticks in milliseconds
+	 */
+	public void scheduleTicks(BuffInfo info, AbstractEffect effect, long period)
+	{
+		final PriorityQueue<EffectDeadline> deadlines = _deadlines;
+		if (deadlines != null)
+		{
+			synchronized (deadlines)
+			{
+				addDeadline(deadlines, new EffectDeadline(info, effect, period, System.currentTimeMillis() + period));
+			}
+		}
+	}
+	
+	/**
+	 * Cancels the pending expiry and ticks of an effect.
+	 * @param info the {@code BuffInfo}
+	 */
+	private void removeDeadlines(BuffInfo info)
+	{
+		final PriorityQueue<EffectDeadline> deadlines = _deadlines;
+		synchronized (deadlines)
+		{
+			if (deadlines.removeIf(d -> d._info == info) && deadlines.isEmpty() && (_deadlineTask != null))
+			{
+				_deadlineTask.cancel(false);
+				_deadlineTask = null;
+			}
+		}
+	}
+	
+	/**
+	 * Adds a deadline, the deadline task is moved ahead if the deadline is due before it.<br>
+	 * <b>The caller must hold the lock of the deadlines.</b>
+	 * @param deadlines the deadlines
+	 * @param deadline the deadline to add
+	 */
+	private void addDeadline(PriorityQueue<EffectDeadline> deadlines, EffectDeadline deadline)
+	{
+		deadlines.add(deadline);
+		if ((_deadlineTask == null) || (_deadlineTaskTime > deadline._time))
+		{
+			scheduleDeadlineTask(deadline._time);
+		}
+	}
+	
+	/**
+	 * Schedules the deadline task at the given time, replacing the task scheduled before.<br>
+	 * <b>The caller must hold the lock of the deadlines.</b>
+	 * @param time the time
+	 */
+	private void scheduleDeadlineTask(long time)
+	{
+		if (_deadlineTask != null)
+		{
+			_deadlineTask.cancel(false);
+		}
+		
+		final int taskId = ++_deadlineTaskId;
+		_deadlineTaskTime = time;
+		_deadlineTask = ThreadPool.getTickScheduler().schedule(() -> runDeadlines(taskId), time - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+	}
+	
+	/**
+	 * Runs the expiries and ticks that are due, then schedules the deadline task for the next one.
+	 * @param taskId the ID of the deadline task
+	 */
+	private void runDeadlines(int taskId)
+	{
+		final PriorityQueue<EffectDeadline> deadlines = _deadlines;
+		final long now = System.currentTimeMillis();
+		final List<EffectDeadline> dueDeadlines = new ArrayList<>();
+		synchronized (deadlines)
+		{
+			// A task replaced while it was starting leaves the rescheduling to its replacement.
+			if (taskId != _deadlineTaskId)
+			{
+				return;
+			}
+			_deadlineTask = null;
+			
+			while (!deadlines.isEmpty() && (deadlines.peek()._time <= now))
+			{
+				dueDeadlines.add(deadlines.poll());
+			}
+		}
+		
+		for (EffectDeadline deadline : dueDeadlines)
+		{
+			final BuffInfo info = deadline._info;
+			if (!isActive(info))
+			{
+				continue;
+			}
+			
+			try
+			{
+				if (deadline._effect == null)
+				{
+					// The abnormal time may have changed since the expiry was scheduled, game ticks may run up to one tick behind the deadline.
+					if (info.getRemainingMillis() > GameTimeManager.MILLIS_IN_TICK)
+					{
+						scheduleExpiry(info);
+					}
+					else
+					{
+						remove(info, false, true, true);
+					}
+				}
+				else
+				{
+					info.onTick(deadline._effect);
+					if (isActive(info))
+					{
+						synchronized (deadlines)
+						{
+							deadline._time = Math.max(deadline._time + deadline._period, now + 1);
+							addDeadline(deadlines, deadline);
+						}
+					}
+				}
+			}
+			catch (Exception e)
+			{
+				LOGGER.warn("Failed to run the effect deadline of {} on {}", info.getSkill(), _owner, e);
+			}
+		}
+		
+		synchronized (deadlines)
+		{
+			if ((_deadlineTask == null) && !deadlines.isEmpty())
+			{
+				scheduleDeadlineTask(deadlines.peek()._time);
+			}
+		}
+	}
+	
+	/**
+	 * The time of the next tick of an effect, or of the expiry of a {@code BuffInfo} when there is no effect.
+	 */
+	private static final class EffectDeadline implements Comparable<EffectDeadline>
+	{
+		protected final BuffInfo _info;
+		protected final AbstractEffect _effect;
+		protected final long _period;
+		protected long _time;
+		
+		protected EffectDeadline(BuffInfo info, AbstractEffect effect, long period, long time)
+		{
+			_info = info;
+			_effect = effect;
+			_period = period;
+			_time = time;
+		}
+		
+		@Override
+		public int compareTo(EffectDeadline other)
+		{
+			return Long.compare(_time, other._time);
+		}
+	}
 }
@@ -44,8 +44,8 @@ import org.l2junity.gameserver.network.client.send.ExRedSky;
 import org.l2junity.gameserver.network.client.send.InventoryUpdate;
 import org.l2junity.gameserver.network.client.send.SocialAction;
 import org.l2junity.gameserver.network.client.send.SystemMessage;
-import org.l2junity.gameserver.network.client.send.UserInfo;
 import org.l2junity.gameserver.network.client.send.string.SystemMessageId;
+import org.l2junity.gameserver.taskmanager.WriteBehindTaskManager;
 import org.l2junity.gameserver.util.Broadcast;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -139,6 +139,7 @@ public class CursedWeapon implements INamable
 				// Remove from Db
 				LOGGER.info(_name + " being removed offline.");
 				
+				WriteBehindTaskManager.getInstance().flush(_playerId);
 				try (Connection con = DatabaseFactory.getInstance().getConnection();
 					PreparedStatement del = con.prepareStatement("DELETE FROM items WHERE owner_id=? AND item_id=?");
 					PreparedStatement ps = con.prepareStatement("UPDATE characters SET reputation=?, pkkills=? WHERE charId=?"))
@@ -534,7 +535,7 @@ public class CursedWeapon implements INamable
 		if ((_player != null) && _player.isOnline())
 		{
 			_player.setPkKills(_nbKills);
-			_player.sendPacket(new UserInfo(_player));
+			_player.updateUserInfo();
 			
 			if (((_nbKills % _stageKills) == 0) && (_nbKills <= (_stageKills * (_skillMaxLevel - 1))))
 			{
@@ -33,6 +33,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
+import org.l2junity.commons.sql.AsyncQueryExecutor;
 import org.l2junity.commons.sql.DatabaseFactory;
 import org.l2junity.commons.util.concurrent.ThreadPool;
 import org.l2junity.gameserver.communitybbs.BB.Forum;
@@ -848,17 +849,7 @@ public class L2Clan implements IIdentifiable, INamable
 	 */
 	public void updateBloodAllianceCountInDB()
 	{
-		try (Connection con = DatabaseFactory.getInstance().getConnection();
-			PreparedStatement ps = con.prepareStatement("UPDATE clan_data SET blood_alliance_count=? WHERE clan_id=?"))
-		{
-			ps.setInt(1, getBloodAllianceCount());
-			ps.setInt(2, getId());
-			ps.execute();
-		}
-		catch (Exception e)
-		{
-			LOGGER.warn("Exception on updateBloodAllianceCountInDB(): " + e.getMessage(), e);
-		}
+		AsyncQueryExecutor.getInstance().execute(getId(), "UPDATE clan_data SET blood_alliance_count=? WHERE clan_id=?", getBloodAllianceCount(), getId());
 	}
 	
 	/**
@@ -892,33 +883,13 @@ public class L2Clan implements IIdentifiable, INamable
 	 */
 	public void updateBloodOathCountInDB()
 	{
-		try (Connection con = DatabaseFactory.getInstance().getConnection();
-			PreparedStatement ps = con.prepareStatement("UPDATE clan_data SET blood_oath_count=? WHERE clan_id=?"))
-		{
-			ps.setInt(1, getBloodOathCount());
-			ps.setInt(2, getId());
-			ps.execute();
-		}
-		catch (Exception e)
-		{
-			LOGGER.warn("Exception on updateBloodAllianceCountInDB(): " + e.getMessage(), e);
-		}
+		AsyncQueryExecutor.getInstance().execute(getId(), "UPDATE clan_data SET blood_oath_count=? WHERE clan_id=?", getBloodOathCount(), getId());
 	}
 	
 	public void updateInDB()
 	{
 		// Update reputation
-		try (Connection con = DatabaseFactory.getInstance().getConnection();
-			PreparedStatement ps = con.prepareStatement("UPDATE clan_data SET reputation_score=? WHERE clan_id=?"))
-		{
-			ps.setInt(1, getReputationScore());
-			ps.setInt(2, getId());
-			ps.execute();
-		}
-		catch (Exception e)
-		{
-			LOGGER.warn("Exception on updateClanScoreInDb(): " + e.getMessage(), e);
-		}
+		AsyncQueryExecutor.getInstance().execute(getId(), "UPDATE clan_data SET reputation_score=? WHERE clan_id=?", getReputationScore(), getId());
 		
 		// Update variables at database
 		if (_vars != null)
@@ -943,28 +914,11 @@ public class L2Clan implements IIdentifiable, INamable
 	 */
 	public void updateClanInDB()
 	{
-		try (Connection con = DatabaseFactory.getInstance().getConnection();
-			PreparedStatement ps = con.prepareStatement("UPDATE clan_data SET leader_id=?,ally_id=?,ally_name=?,reputation_score=?,ally_penalty_expiry_time=?,ally_penalty_type=?,char_penalty_expiry_time=?,dissolving_expiry_time=?,new_leader_id=? WHERE clan_id=?"))
-		{
-			ps.setInt(1, getLeaderId());
-			ps.setInt(2, getAllyId());
-			ps.setString(3, getAllyName());
-			ps.setInt(4, getReputationScore());
-			ps.setLong(5, getAllyPenaltyExpiryTime());
-			ps.setInt(6, getAllyPenaltyType());
-			ps.setLong(7, getCharPenaltyExpiryTime());
-			ps.setLong(8, getDissolvingExpiryTime());
-			ps.setInt(9, getNewLeaderId());
-			ps.setInt(10, getId());
-			ps.execute();
-			if (GeneralConfig.DEBUG)
-			{
-				LOGGER.debug("New clan leader saved in db: " + getId());
-			}
-		}
-		catch (Exception e)
+		// Queued on the clan id, so the writes of a clan stay in order
+		AsyncQueryExecutor.getInstance().execute(getId(), "UPDATE clan_data SET leader_id=?,ally_id=?,ally_name=?,reputation_score=?,ally_penalty_expiry_time=?,ally_penalty_type=?,char_penalty_expiry_time=?,dissolving_expiry_time=?,new_leader_id=? WHERE clan_id=?", getLeaderId(), getAllyId(), getAllyName(), getReputationScore(), getAllyPenaltyExpiryTime(), getAllyPenaltyType(), getCharPenaltyExpiryTime(), getDissolvingExpiryTime(), getNewLeaderId(), getId());
+		if (GeneralConfig.DEBUG)
 		{
-			LOGGER.error("Error saving clan: " + e.getMessage(), e);
+			LOGGER.debug("New clan leader saved in db: " + getId());
 		}
 	}
 	
@@ -2031,7 +1985,7 @@ public class L2Clan implements IIdentifiable, INamable
 						if (cm.getPlayerInstance() != null)
 						{
 							cm.getPlayerInstance().getClanPrivileges().setBitmask(privs);
-							cm.getPlayerInstance().sendPacket(new UserInfo(cm.getPlayerInstance()));
+							cm.getPlayerInstance().updateUserInfo();
 						}
 					}
 				}
@@ -2440,7 +2394,7 @@ public class L2Clan implements IIdentifiable, INamable
 		setAllyPenaltyExpiryTime(0, 0);
 		updateClanInDB();
 		
-		player.sendPacket(new UserInfo(player));
+		player.updateUserInfo();
 		
 		// TODO: Need correct message id
 		player.sendMessage("Alliance " + allyName + " has been created.");
@@ -2689,8 +2643,7 @@ public class L2Clan implements IIdentifiable, INamable
 		}
 		
 		// the player should know that he has less sp now :p
-		final UserInfo ui = new UserInfo(player, false);
-		ui.addComponentType(UserInfoType.CURRENT_HPMPCP_EXP_SP);
+		final UserInfo ui = new UserInfo(player, UserInfoType.CURRENT_HPMPCP_EXP_SP);
 		player.sendPacket(ui);
 		
 		player.sendItemList(false);
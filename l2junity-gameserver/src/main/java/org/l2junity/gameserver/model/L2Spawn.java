@@ -74,6 +74,8 @@ public class L2Spawn extends Location implements IIdentifiable, INamable
 	private boolean _doRespawn;
 	/** If true then spawn is custom */
 	private final Deque<Npc> _spawnedNpcs = new ConcurrentLinkedDeque<>();
+	/** The decayed L2NpcInstance waiting for their SpawnTask, they keep their object ID */
+	private final Deque<Npc> _respawningNpcs = new ConcurrentLinkedDeque<>();
 	private boolean _randomWalk = false; // Is no random walk
 	private NpcSpawnTemplate _spawnTemplate;
 	
@@ -93,6 +95,7 @@ public class L2Spawn extends Location implements IIdentifiable, INamable
 			try
 			{
 				// doSpawn();
+				_respawningNpcs.remove(_oldNpc);
 				respawnNpc(_oldNpc);
 			}
 			catch (Exception e)
@@ -283,6 +286,7 @@ public class L2Spawn extends Location implements IIdentifiable, INamable
 		{
 			// Update the current number of SpawnTask in progress or stand by of this L2Spawn
 			_scheduledCount++;
+			_respawningNpcs.add(oldNpc);
 			
 			// Create a new SpawnTask to launch after the respawn Delay
 			// ClientScheduler.getInstance().scheduleLow(new SpawnTask(npcId), _respawnDelay);
@@ -528,6 +532,14 @@ public class L2Spawn extends Location implements IIdentifiable, INamable
 		return _spawnedNpcs;
 	}
 	
+	/**
+	 * @return the decayed NPCs of this spawn which are waiting for their respawn
+	 */
+	public final Deque<Npc> getRespawningNpcs()
+	{
+		return _respawningNpcs;
+	}
+	
 	/**
 	 * @param oldNpc
 	 */
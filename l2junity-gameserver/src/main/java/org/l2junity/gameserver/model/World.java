@@ -35,6 +35,7 @@ import org.l2junity.gameserver.ai.CtrlEvent;
 import org.l2junity.gameserver.ai.CtrlIntention;
 import org.l2junity.gameserver.data.sql.impl.CharNameTable;
 import org.l2junity.gameserver.loader.PreLoadGroup;
+import org.l2junity.gameserver.model.WorldRegion.VisibleObjectBucket;
 import org.l2junity.gameserver.model.actor.Creature;
 import org.l2junity.gameserver.model.actor.Npc;
 import org.l2junity.gameserver.model.actor.instance.L2DefenderInstance;
@@ -46,6 +47,7 @@ import org.l2junity.gameserver.model.entity.Castle;
 import org.l2junity.gameserver.model.entity.Fort;
 import org.l2junity.gameserver.model.events.EventDispatcher;
 import org.l2junity.gameserver.model.events.impl.character.npc.OnNpcCreatureSee;
+import org.l2junity.gameserver.model.instancezone.Instance;
 import org.l2junity.gameserver.model.interfaces.ILocational;
 import org.l2junity.gameserver.network.client.Disconnection;
 import org.l2junity.gameserver.network.client.send.DeleteObject;
@@ -619,20 +621,22 @@ public final class World
 			return;
 		}
 		
+		final VisibleObjectBucket bucket = VisibleObjectBucket.of(clazz);
+		final Instance instanceWorld = object.getInstanceWorld();
 		for (int x = Math.max(centerWorldRegion.getRegionX() - depth, 0); x <= Math.min(centerWorldRegion.getRegionX() + depth, REGIONS_X); x++)
 		{
 			for (int y = Math.max(centerWorldRegion.getRegionY() - depth, 0); y <= Math.min(centerWorldRegion.getRegionY() + depth, REGIONS_Y); y++)
 			{
 				for (int z = Math.max(centerWorldRegion.getRegionZ() - depth, 0); z <= Math.min(centerWorldRegion.getRegionZ() + depth, REGIONS_Z); z++)
 				{
-					for (WorldObject visibleObject : _worldRegions[x][y][z].getVisibleObjects().values())
+					for (WorldObject visibleObject : _worldRegions[x][y][z].getVisibleObjects(bucket).values())
 					{
 						if ((visibleObject == null) || (visibleObject == object) || !clazz.isInstance(visibleObject))
 						{
 							continue;
 						}
 						
-						if (visibleObject.getInstanceWorld() != object.getInstanceWorld())
+						if (visibleObject.getInstanceWorld() != instanceWorld)
 						{
 							continue;
 						}
@@ -662,6 +666,12 @@ public final class World
 			return;
 		}
 		
+		final VisibleObjectBucket bucket = VisibleObjectBucket.of(clazz);
+		final Instance instanceWorld = object.getInstanceWorld();
+		final double objectX = object.getX();
+		final double objectY = object.getY();
+		final double objectZ = object.getZ();
+		final double radiusSq = (double) radius * radius;
 		final int depth = (radius / REGION_MIN_DIMENSION) + 1;
 		for (int x = Math.max(centerWorldRegion.getRegionX() - depth, 0); x <= Math.min(centerWorldRegion.getRegionX() + depth, REGIONS_X); x++)
 		{
@@ -675,24 +685,31 @@ public final class World
 					final int x2 = ((x + 1) - OFFSET_X) << SHIFT_BY;
 					final int y2 = ((y + 1) - OFFSET_Y) << SHIFT_BY;
 					final int z2 = ((z + 1) - OFFSET_Z) << SHIFT_BY_Z;
-					if (Util.cubeIntersectsSphere(x1, y1, z1, x2, y2, z2, object.getX(), object.getY(), object.getZ(), radius))
+					final Map<Integer, WorldObject> visibleObjects = _worldRegions[x][y][z].getVisibleObjects(bucket);
+					if (visibleObjects.isEmpty() || !Util.cubeIntersectsSphere(x1, y1, z1, x2, y2, z2, objectX, objectY, objectZ, radius))
 					{
-						for (WorldObject visibleObject : _worldRegions[x][y][z].getVisibleObjects().values())
+						continue;
+					}
+					
+					for (WorldObject visibleObject : visibleObjects.values())
+					{
+						if ((visibleObject == null) || (visibleObject == object) || !clazz.isInstance(visibleObject))
 						{
-							if ((visibleObject == null) || (visibleObject == object) || !clazz.isInstance(visibleObject))
-							{
-								continue;
-							}
-							
-							if (visibleObject.getInstanceWorld() != object.getInstanceWorld())
-							{
-								continue;
-							}
-							
-							if (visibleObject.isInRadius3d(object, radius))
-							{
-								c.accept(clazz.cast(visibleObject));
-							}
+							continue;
+						}
+						
+						if (visibleObject.getInstanceWorld() != instanceWorld)
+						{
+							continue;
+						}
+						
+						// Compare squared distances to avoid the square root per object.
+						final double dx = visibleObject.getX() - objectX;
+						final double dy = visibleObject.getY() - objectY;
+						final double dz = visibleObject.getZ() - objectZ;
+						if (((dx * dx) + (dy * dy) + (dz * dz)) <= radiusSq)
+						{
+							c.accept(clazz.cast(visibleObject));
 						}
 					}
 				}
@@ -29,9 +29,12 @@ import org.l2junity.commons.util.concurrent.ThreadPool;
 import org.l2junity.gameserver.ai.CtrlIntention;
 import org.l2junity.gameserver.config.GeneralConfig;
 import org.l2junity.gameserver.datatables.SpawnTable;
+import org.l2junity.gameserver.geodata.GeoData;
 import org.l2junity.gameserver.model.actor.Attackable;
 import org.l2junity.gameserver.model.actor.Npc;
+import org.l2junity.gameserver.model.actor.Playable;
 import org.l2junity.gameserver.model.actor.Vehicle;
+import org.l2junity.gameserver.model.actor.instance.PlayerInstance;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,6 +43,9 @@ public final class WorldRegion
 	private static final Logger LOGGER = LoggerFactory.getLogger(WorldRegion.class);
 	
 	private volatile Map<Integer, WorldObject> _visibleObjects;
+	private volatile Map<Integer, WorldObject> _visiblePlayables;
+	private volatile Map<Integer, WorldObject> _visiblePlayers;
+	private volatile Map<Integer, WorldObject> _visibleNpcs;
 	private final short _regionX;
 	private final short _regionY;
 	private final short _regionZ;
@@ -139,7 +145,7 @@ public final class WorldRegion
 	
 	public boolean areNeighborsEmpty()
 	{
-		return forEachSurroundingRegion(w -> !(w.isActive() && w.getVisibleObjects().values().stream().anyMatch(WorldObject::isPlayable)));
+		return forEachSurroundingRegion(w -> !(w.isActive() && !w.getVisibleObjects(VisibleObjectBucket.PLAYABLES).isEmpty()));
 	}
 	
 	public void setActive(boolean active)
@@ -153,6 +159,12 @@ public final class WorldRegion
 		
 		switchAI(active);
 		
+		if (active)
+		{
+			// map lazily loaded geodata before the AI of this grid starts asking for it
+			GeoData.getInstance().prefetchRegion((_regionX - World.OFFSET_X) << World.SHIFT_BY, (_regionY - World.OFFSET_Y) << World.SHIFT_BY);
+		}
+		
 		LOGGER.debug("{} Grid {}", active ? "Starting" : "Stopping", this);
 	}
 	
@@ -192,12 +204,27 @@ public final class WorldRegion
 			{
 				if (_visibleObjects == null)
 				{
+					_visiblePlayables = new ConcurrentHashMap<>();
+					_visiblePlayers = new ConcurrentHashMap<>();
+					_visibleNpcs = new ConcurrentHashMap<>();
 					_visibleObjects = new ConcurrentHashMap<>();
 				}
 			}
 		}
-
+		
 		_visibleObjects.put(object.getObjectId(), object);
+		if (object.isPlayable())
+		{
+			_visiblePlayables.put(object.getObjectId(), object);
+			if (object.isPlayer())
+			{
+				_visiblePlayers.put(object.getObjectId(), object);
+			}
+		}
+		else if (object.isNpc())
+		{
+			_visibleNpcs.put(object.getObjectId(), object);
+		}
 		
 		if (object.isPlayable())
 		{
@@ -215,6 +242,9 @@ public final class WorldRegion
 			return;
 		}
 		_visibleObjects.remove(object.getObjectId());
+		_visiblePlayables.remove(object.getObjectId());
+		_visiblePlayers.remove(object.getObjectId());
+		_visibleNpcs.remove(object.getObjectId());
 		
 		if (object.isPlayable())
 		{
@@ -230,6 +260,39 @@ public final class WorldRegion
 		return _visibleObjects != null ? _visibleObjects : Collections.emptyMap();
 	}
 	
+	/**
+	 * Gets the visible objects of the given bucket, every object in the returned map is an instance of the bucket's type.
+	 * @param bucket the bucket
+	 * @return the visible objects of the bucket
+	 */
+	public Map<Integer, WorldObject> getVisibleObjects(VisibleObjectBucket bucket)
+	{
+		if (_visibleObjects == null)
+		{
+			return Collections.emptyMap();
+		}
+		
+		switch (bucket)
+		{
+			case PLAYABLES:
+			{
+				return _visiblePlayables;
+			}
+			case PLAYERS:
+			{
+				return _visiblePlayers;
+			}
+			case NPCS:
+			{
+				return _visibleNpcs;
+			}
+			default:
+			{
+				return _visibleObjects;
+			}
+		}
+	}
+	
 	/**
 	 * Deleted all spawns in the world.
 	 */
@@ -306,4 +369,46 @@ public final class WorldRegion
 	{
 		return "(" + _regionX + ", " + _regionY + ", " + _regionZ + ")";
 	}
+	
+	/**
+	 * Per type buckets of the visible objects of a region.<br>
+	 * Type filtered visibility queries only walk the narrowest bucket containing the requested type, so looking up players in a crowded town does not touch every NPC and item around.
+	 */
+	public enum VisibleObjectBucket
+	{
+		ALL,
+		PLAYABLES,
+		PLAYERS,
+		NPCS;
+		
+		private static final ClassValue<VisibleObjectBucket> BUCKETS = new ClassValue<VisibleObjectBucket>()
+		{
+			@Override
+			protected VisibleObjectBucket computeValue(Class<?> type)
+			{
+				if (PlayerInstance.class.isAssignableFrom(type))
+				{
+					return PLAYERS;
+				}
+				else if (Playable.class.isAssignableFrom(type))
+				{
+					return PLAYABLES;
+				}
+				else if (Npc.class.isAssignableFrom(type))
+				{
+					return NPCS;
+				}
+				return ALL;
+			}
+		};
+		
+		/**
+		 * @param type the requested type
+		 * @return the narrowest bucket that contains every object of the requested type
+		 */
+		public static VisibleObjectBucket of(Class<?> type)
+		{
+			return BUCKETS.get(type);
+		}
+	}
 }
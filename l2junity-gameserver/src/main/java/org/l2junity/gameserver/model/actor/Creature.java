@@ -21,17 +21,16 @@ package org.l2junity.gameserver.model.actor;
 import static org.l2junity.gameserver.ai.CtrlIntention.AI_INTENTION_ACTIVE;
 
 import java.lang.ref.WeakReference;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentSkipListMap;
-import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -39,7 +38,6 @@ import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
-import org.l2junity.commons.util.EmptyQueue;
 import org.l2junity.commons.util.Rnd;
 import org.l2junity.commons.util.concurrent.ThreadPool;
 import org.l2junity.gameserver.ai.AttackableAI;
@@ -64,7 +62,6 @@ import org.l2junity.gameserver.enums.Race;
 import org.l2junity.gameserver.enums.ShotType;
 import org.l2junity.gameserver.enums.StatusUpdateType;
 import org.l2junity.gameserver.enums.Team;
-import org.l2junity.gameserver.enums.UserInfoType;
 import org.l2junity.gameserver.geodata.GeoData;
 import org.l2junity.gameserver.geodata.pathfinding.AbstractNodeLoc;
 import org.l2junity.gameserver.geodata.pathfinding.PathFinding;
@@ -97,6 +94,7 @@ import org.l2junity.gameserver.model.debugger.Debugger;
 import org.l2junity.gameserver.model.events.Containers;
 import org.l2junity.gameserver.model.events.EventDispatcher;
 import org.l2junity.gameserver.model.events.EventType;
+import org.l2junity.gameserver.model.events.ListenersContainer;
 import org.l2junity.gameserver.model.events.impl.character.OnCreatureAttack;
 import org.l2junity.gameserver.model.events.impl.character.OnCreatureAttackAvoid;
 import org.l2junity.gameserver.model.events.impl.character.OnCreatureAttacked;
@@ -137,18 +135,23 @@ import org.l2junity.gameserver.model.stats.BooleanStat;
 import org.l2junity.gameserver.model.stats.DoubleStat;
 import org.l2junity.gameserver.model.stats.Formulas;
 import org.l2junity.gameserver.model.stats.MoveType;
+import org.l2junity.gameserver.model.stats.StatInput;
 import org.l2junity.gameserver.model.zone.ZoneId;
 import org.l2junity.gameserver.model.zone.ZoneRegion;
+import org.l2junity.gameserver.model.zone.ZoneType;
 import org.l2junity.gameserver.network.client.Disconnection;
+import org.l2junity.gameserver.network.client.SharedPacketSender;
 import org.l2junity.gameserver.network.client.send.ActionFailed;
 import org.l2junity.gameserver.network.client.send.Attack;
 import org.l2junity.gameserver.network.client.send.ChangeMoveType;
 import org.l2junity.gameserver.network.client.send.ChangeWaitType;
+import org.l2junity.gameserver.network.client.send.CreatureInfoSnapshot;
 import org.l2junity.gameserver.network.client.send.ExShowTrace;
 import org.l2junity.gameserver.network.client.send.ExTeleportToLocationActivate;
 import org.l2junity.gameserver.network.client.send.IClientOutgoingPacket;
 import org.l2junity.gameserver.network.client.send.MoveToLocation;
 import org.l2junity.gameserver.network.client.send.NpcInfo;
+import org.l2junity.gameserver.network.client.send.NpcInfoSnapshot;
 import org.l2junity.gameserver.network.client.send.Revive;
 import org.l2junity.gameserver.network.client.send.ServerObjectInfo;
 import org.l2junity.gameserver.network.client.send.SetupGauge;
@@ -157,7 +160,6 @@ import org.l2junity.gameserver.network.client.send.StatusUpdate;
 import org.l2junity.gameserver.network.client.send.StopMove;
 import org.l2junity.gameserver.network.client.send.StopRotation;
 import org.l2junity.gameserver.network.client.send.TeleportToLocation;
-import org.l2junity.gameserver.network.client.send.UserInfo;
 import org.l2junity.gameserver.network.client.send.string.SystemMessageId;
 import org.l2junity.gameserver.taskmanager.AttackStanceTaskManager;
 import org.l2junity.gameserver.taskmanager.MovementController;
@@ -226,6 +228,8 @@ public abstract class Creature extends WorldObject implements ISkillsHolder, IDe
 	
 	private final byte[] _zones = new byte[ZoneId.getZoneCount()];
 	protected byte _zoneValidateCounter = 4;
+	/** The zones of the zone region cell this creature was last revalidated in */
+	private volatile ZoneType[] _lastZones;
 	
 	private volatile Map<Integer, Debugger> _debuggers = null;
 	
@@ -272,6 +276,9 @@ public abstract class Creature extends WorldObject implements ISkillsHolder, IDe
 	
 	private final AtomicInteger _abnormalShieldBlocks = new AtomicInteger();
 	
+	/** The version of the state shown by the info packets, see {@link CreatureInfoSnapshot}. */
+	private final AtomicInteger _infoVersion = new AtomicInteger();
+	
 	private volatile CreatureContainer _seenCreatures;
 	
 	private final Map<StatusUpdateType, Integer> _statusUpdates = new ConcurrentHashMap<>();
@@ -507,17 +514,27 @@ public abstract class Creature extends WorldObject implements ISkillsHolder, IDe
 	 */
 	public final void setInsideZone(ZoneId zone, final boolean state)
 	{
+		final boolean changed;
 		synchronized (_zones)
 		{
 			if (state)
 			{
-				_zones[zone.ordinal()]++;
+				changed = _zones[zone.ordinal()]++ == 0;
 			}
 			else if (_zones[zone.ordinal()] > 0)
 			{
-				_zones[zone.ordinal()]--;
+				changed = --_zones[zone.ordinal()] == 0;
+			}
+			else
+			{
+				changed = false;
 			}
 		}
+		
+		if (changed)
+		{
+			getStat().invalidateValues(StatInput.ZONE);
+		}
 	}
 	
 	/**
@@ -558,6 +575,7 @@ public abstract class Creature extends WorldObject implements ISkillsHolder, IDe
 	public void transform(Transform transformation, boolean addSkills)
 	{
 		_transform = Optional.of(transformation);
+		getStat().invalidateValues();
 		transformation.onTransform(this, addSkills);
 	}
 	
@@ -565,6 +583,7 @@ public abstract class Creature extends WorldObject implements ISkillsHolder, IDe
 	{
 		_transform.ifPresent(t -> t.onUntransform(this));
 		_transform = Optional.empty();
+		getStat().invalidateValues();
 	}
 	
 	public Optional<Transform> getTransformation()
@@ -701,13 +720,16 @@ public abstract class Creature extends WorldObject implements ISkillsHolder, IDe
 	 */
 	public void broadcastPacket(IClientOutgoingPacket mov)
 	{
-		World.getInstance().forEachVisibleObject(this, PlayerInstance.class, player ->
+		try (SharedPacketSender sender = new SharedPacketSender(mov))
 		{
-			if (isVisibleFor(player))
+			World.getInstance().forEachVisibleObject(this, PlayerInstance.class, player ->
 			{
-				player.sendPacket(mov);
-			}
-		});
+				if (isVisibleFor(player))
+				{
+					sender.accept(player);
+				}
+			});
+		}
 	}
 	
 	/**
@@ -720,13 +742,16 @@ public abstract class Creature extends WorldObject implements ISkillsHolder, IDe
 	 */
 	public void broadcastPacket(IClientOutgoingPacket mov, int radiusInKnownlist)
 	{
-		World.getInstance().forEachVisibleObjectInRadius(this, PlayerInstance.class, radiusInKnownlist, player ->
+		try (SharedPacketSender sender = new SharedPacketSender(mov))
 		{
-			if (isVisibleFor(player))
+			World.getInstance().forEachVisibleObjectInRadius(this, PlayerInstance.class, radiusInKnownlist, player ->
 			{
-				player.sendPacket(mov);
-			}
-		});
+				if (isVisibleFor(player))
+				{
+					sender.accept(player);
+				}
+			});
+		}
 	}
 	
 	/**
@@ -1636,8 +1661,14 @@ public abstract class Creature extends WorldObject implements ISkillsHolder, IDe
 			setCurrentHp(0);
 			setIsDead(true);
 		}
-		EventDispatcher.getInstance().notifyEvent(new OnCreatureDeath(killer, this), this);
-		EventDispatcher.getInstance().notifyEvent(new OnCreatureKilled(killer, this), killer);
+		if (EventDispatcher.getInstance().hasListener(EventType.ON_CREATURE_DEATH, this))
+		{
+			EventDispatcher.getInstance().notifyEvent(new OnCreatureDeath(killer, this), this);
+		}
+		if (EventDispatcher.getInstance().hasListener(EventType.ON_CREATURE_KILLED, killer))
+		{
+			EventDispatcher.getInstance().notifyEvent(new OnCreatureKilled(killer, this), killer);
+		}
 		
 		// Set target to null and cancel Attack or Cast
 		setTarget(null);
@@ -2010,6 +2041,7 @@ public abstract class Creature extends WorldObject implements ISkillsHolder, IDe
 		}
 		else if (isNpc())
 		{
+			final NpcInfoSnapshot snapshot = ((Npc) this).updateInfoSnapshot();
 			World.getInstance().forEachVisibleObject(this, PlayerInstance.class, player ->
 			{
 				if (!isVisibleFor(player))
@@ -2023,7 +2055,7 @@ public abstract class Creature extends WorldObject implements ISkillsHolder, IDe
 				}
 				else
 				{
-					player.sendPacket(new NpcInfo((Npc) this));
+					player.sendPacket(new NpcInfo(snapshot));
 				}
 			});
 		}
@@ -2465,125 +2497,12 @@ public abstract class Creature extends WorldObject implements ISkillsHolder, IDe
 		{
 			boolean broadcastFull = true;
 			StatusUpdate su = new StatusUpdate(this);
-			UserInfo info = null;
-			if (isPlayer())
-			{
-				info = new UserInfo(getActingPlayer(), false);
-				info.addComponentType(UserInfoType.SLOTS, UserInfoType.ENCHANTLEVEL);
-			}
-			for (DoubleStat stat : changed)
-			{
-				if (info != null)
-				{
-					switch (stat)
-					{
-						case MOVE_SPEED:
-						case RUN_SPEED:
-						case WALK_SPEED:
-						case SWIM_RUN_SPEED:
-						case SWIM_WALK_SPEED:
-						case FLY_RUN_SPEED:
-						case FLY_WALK_SPEED:
-						{
-							info.addComponentType(UserInfoType.MULTIPLIER);
-							break;
-						}
-						case PHYSICAL_ATTACK_SPEED:
-						{
-							info.addComponentType(UserInfoType.MULTIPLIER, UserInfoType.STATS);
-							break;
-						}
-						case PHYSICAL_ATTACK:
-						case PHYSICAL_DEFENCE:
-						case EVASION_RATE:
-						case ACCURACY_COMBAT:
-						case CRITICAL_RATE:
-						case MAGIC_CRITICAL_RATE:
-						case MAGIC_EVASION_RATE:
-						case ACCURACY_MAGIC:
-						case MAGIC_ATTACK:
-						case MAGIC_ATTACK_SPEED:
-						case MAGICAL_DEFENCE:
-						{
-							info.addComponentType(UserInfoType.STATS);
-							break;
-						}
-						case MAX_CP:
-						{
-							if (isPlayer())
-							{
-								info.addComponentType(UserInfoType.MAX_HPCPMP);
-							}
-							else
-							{
-								su.addUpdate(StatusUpdateType.MAX_CP, getMaxCp());
-							}
-							break;
-						}
-						case MAX_HP:
-						{
-							if (isPlayer())
-							{
-								info.addComponentType(UserInfoType.MAX_HPCPMP);
-							}
-							else
-							{
-								su.addUpdate(StatusUpdateType.MAX_HP, getMaxHp());
-							}
-							break;
-						}
-						case MAX_MP:
-						{
-							if (isPlayer())
-							{
-								info.addComponentType(UserInfoType.MAX_HPCPMP);
-							}
-							else
-							{
-								su.addUpdate(StatusUpdateType.MAX_CP, getMaxMp());
-							}
-							break;
-						}
-						case STAT_STR:
-						case STAT_CON:
-						case STAT_DEX:
-						case STAT_INT:
-						case STAT_WIT:
-						case STAT_MEN:
-						{
-							info.addComponentType(UserInfoType.BASE_STATS);
-							break;
-						}
-						case FIRE_RES:
-						case WATER_RES:
-						case WIND_RES:
-						case EARTH_RES:
-						case HOLY_RES:
-						case DARK_RES:
-						{
-							info.addComponentType(UserInfoType.ELEMENTALS);
-							break;
-						}
-						case FIRE_POWER:
-						case WATER_POWER:
-						case WIND_POWER:
-						case EARTH_POWER:
-						case HOLY_POWER:
-						case DARK_POWER:
-						{
-							info.addComponentType(UserInfoType.ATK_ELEMENTAL);
-							break;
-						}
-					}
-				}
-			}
-			
 			if (isPlayer())
 			{
 				final PlayerInstance player = getActingPlayer();
 				player.refreshOverloaded(true);
 				player.refreshExpertisePenalty();
-				sendPacket(info);
+				player.updateUserInfo();
 				
 				if (broadcastFull)
 				{
@@ -2605,6 +2524,7 @@ public abstract class Creature extends WorldObject implements ISkillsHolder, IDe
 			{
 				if (broadcastFull)
 				{
+					final NpcInfoSnapshot snapshot = ((Npc) this).updateInfoSnapshot();
 					World.getInstance().forEachVisibleObject(this, PlayerInstance.class, player ->
 					{
 						if (!isVisibleFor(player))
@@ -2618,7 +2538,7 @@ public abstract class Creature extends WorldObject implements ISkillsHolder, IDe
 						}
 						else
 						{
-							player.sendPacket(new NpcInfo((Npc) this));
+							player.sendPacket(new NpcInfo(snapshot));
 						}
 					});
 				}
@@ -2692,6 +2612,14 @@ public abstract class Creature extends WorldObject implements ISkillsHolder, IDe
 		return _move != null;
 	}
 	
+	/**
+	 * @return the current move of the L2Character, {@code null} if it is not moving
+	 */
+	public final MoveData getMove()
+	{
+		return _move;
+	}
+	
 	/**
 	 * @return True if the L2Character is travelling a calculated path.
 	 */
@@ -2975,6 +2903,20 @@ public abstract class Creature extends WorldObject implements ISkillsHolder, IDe
 		ZoneManager.getInstance().getRegion(this).revalidateZones(this);
 	}
 	
+	/**
+	 * @return the zones of the zone region cell this creature was last revalidated in, {@code null} if it is not in any zone region
+	 * @see ZoneRegion#revalidateZones(Creature)
+	 */
+	public ZoneType[] getLastZones()
+	{
+		return _lastZones;
+	}
+	
+	public void setLastZones(ZoneType[] zones)
+	{
+		_lastZones = zones;
+	}
+	
 	/**
 	 * Stop movement of the L2Character (Called by AI Accessor only).<br>
 	 * <B><U>Actions</U>:</B>
@@ -3639,8 +3581,14 @@ public abstract class Creature extends WorldObject implements ISkillsHolder, IDe
 		doAttack(hit.getDamage(), target, null, false, false, hit.isCritical(), false);
 		
 		// Notify to scripts when the attack has been done.
-		EventDispatcher.getInstance().notifyEvent(new OnCreatureAttack(this, target, null), this);
-		EventDispatcher.getInstance().notifyEvent(new OnCreatureAttacked(this, target, null), target);
+		if (EventDispatcher.getInstance().hasListener(EventType.ON_CREATURE_ATTACK, this))
+		{
+			EventDispatcher.getInstance().notifyEvent(new OnCreatureAttack(this, target, null), this);
+		}
+		if (EventDispatcher.getInstance().hasListener(EventType.ON_CREATURE_ATTACKED, target))
+		{
+			EventDispatcher.getInstance().notifyEvent(new OnCreatureAttacked(this, target, null), target);
+		}
 		
 		if (_triggerSkills != null)
 		{
@@ -4360,12 +4308,12 @@ public abstract class Creature extends WorldObject implements ISkillsHolder, IDe
 	public void reduceCurrentHp(double value, Creature attacker, Skill skill, boolean isDOT, boolean directlyToHp, boolean critical, boolean reflect)
 	{
 		// Notify of this attack only if there is an attacking creature.
-		if (attacker != null)
+		if ((attacker != null) && EventDispatcher.getInstance().hasListener(EventType.ON_CREATURE_DAMAGE_DEALT, attacker))
 		{
 			EventDispatcher.getInstance().notifyEventAsync(new OnCreatureDamageDealt(attacker, this, value, skill, critical, isDOT, reflect), attacker);
 		}
 		
-		final DamageReturn term = EventDispatcher.getInstance().notifyEvent(new OnCreatureDamageReceived(attacker, this, value, skill, critical, isDOT, reflect), this, DamageReturn.class);
+		final DamageReturn term = EventDispatcher.getInstance().hasListener(EventType.ON_CREATURE_DAMAGE_RECEIVED, this) ? EventDispatcher.getInstance().notifyEvent(new OnCreatureDamageReceived(attacker, this, value, skill, critical, isDOT, reflect), this, DamageReturn.class) : null;
 		if (term != null)
 		{
 			if (term.terminate())
@@ -4590,6 +4538,7 @@ public abstract class Creature extends WorldObject implements ISkillsHolder, IDe
 		{
 			_exceptions |= exc.getMask();
 		}
+		getStat().invalidateValues();
 	}
 	
 	public void removeOverridedCond(PcCondOverride... excs)
@@ -4598,6 +4547,7 @@ public abstract class Creature extends WorldObject implements ISkillsHolder, IDe
 		{
 			_exceptions &= ~exc.getMask();
 		}
+		getStat().invalidateValues();
 	}
 	
 	public boolean canOverrideCond(PcCondOverride excs)
@@ -4608,6 +4558,7 @@ public abstract class Creature extends WorldObject implements ISkillsHolder, IDe
 	public void setOverrideCond(long masks)
 	{
 		_exceptions = masks;
+		getStat().invalidateValues();
 	}
 	
 	public void setLethalable(boolean val)
@@ -4751,7 +4702,10 @@ public abstract class Creature extends WorldObject implements ISkillsHolder, IDe
 		{
 			target.getAI().notifyEvent(CtrlEvent.EVT_EVADED, this);
 		}
-		EventDispatcher.getInstance().notifyEventAsync(new OnCreatureAttackAvoid(this, target, isDot), target);
+		if (EventDispatcher.getInstance().hasListener(EventType.ON_CREATURE_ATTACK_AVOID, target))
+		{
+			EventDispatcher.getInstance().notifyEventAsync(new OnCreatureAttackAvoid(this, target, isDot), target);
+		}
 	}
 	
 	/**
@@ -5009,35 +4963,52 @@ public abstract class Creature extends WorldObject implements ISkillsHolder, IDe
 	}
 	
 	@Override
-	public Queue<AbstractEventListener> getListeners(EventType type)
+	public AbstractEventListener[] getListenerArray(EventType type)
 	{
-		final Queue<AbstractEventListener> objectListenres = super.getListeners(type);
-		final Queue<AbstractEventListener> templateListeners = getTemplate().getListeners(type);
-		final Queue<AbstractEventListener> globalListeners = isNpc() && !isMonster() ? Containers.Npcs().getListeners(type) : isMonster() ? Containers.Monsters().getListeners(type) : isPlayer() ? Containers.Players().getListeners(type) : EmptyQueue.emptyQueue();
+		final AbstractEventListener[] objectListeners = super.getListenerArray(type);
+		final AbstractEventListener[] templateListeners = getTemplate().getListenerArray(type);
+		final ListenersContainer globalContainer = getGlobalListenersContainer();
+		final AbstractEventListener[] globalListeners = globalContainer != null ? globalContainer.getListenerArray(type) : null;
+		final int globalLength = globalListeners != null ? globalListeners.length : 0;
 		
-		// Attempt to do not create collection
-		if (objectListenres.isEmpty() && templateListeners.isEmpty() && globalListeners.isEmpty())
-		{
-			return EmptyQueue.emptyQueue();
-		}
-		else if (!objectListenres.isEmpty() && templateListeners.isEmpty() && globalListeners.isEmpty())
+		// Attempt to do not create an array
+		if ((templateListeners.length == 0) && (globalLength == 0))
 		{
-			return objectListenres;
+			return objectListeners;
 		}
-		else if (!templateListeners.isEmpty() && objectListenres.isEmpty() && globalListeners.isEmpty())
+		else if ((objectListeners.length == 0) && (globalLength == 0))
 		{
 			return templateListeners;
 		}
-		else if (!globalListeners.isEmpty() && objectListenres.isEmpty() && templateListeners.isEmpty())
+		else if ((objectListeners.length == 0) && (templateListeners.length == 0))
 		{
 			return globalListeners;
 		}
 		
-		final Queue<AbstractEventListener> both = new LinkedBlockingDeque<>(objectListenres.size() + templateListeners.size() + globalListeners.size());
-		both.addAll(objectListenres);
-		both.addAll(templateListeners);
-		both.addAll(globalListeners);
-		return both;
+		final AbstractEventListener[] all = Arrays.copyOf(objectListeners, objectListeners.length + templateListeners.length + globalLength);
+		System.arraycopy(templateListeners, 0, all, objectListeners.length, templateListeners.length);
+		System.arraycopy(globalListeners, 0, all, objectListeners.length + templateListeners.length, globalLength);
+		return all;
+	}
+	
+	@Override
+	public boolean hasListener(EventType type)
+	{
+		if (super.hasListener(type) || getTemplate().hasListener(type))
+		{
+			return true;
+		}
+		
+		final ListenersContainer globalContainer = getGlobalListenersContainer();
+		return (globalContainer != null) && globalContainer.hasListener(type);
+	}
+	
+	/**
+	 * @return the global listeners container of npcs, monsters or players this creature belongs to, {@code null} if none
+	 */
+	private ListenersContainer getGlobalListenersContainer()
+	{
+		return isNpc() && !isMonster() ? Containers.Npcs() : isMonster() ? Containers.Monsters() : isPlayer() ? Containers.Players() : null;
 	}
 	
 	public Race getRace()
@@ -5099,6 +5070,22 @@ public abstract class Creature extends WorldObject implements ISkillsHolder, IDe
 		return _abnormalShieldBlocks.decrementAndGet();
 	}
 	
+	/**
+	 * @return the version of the state shown by the info packets
+	 */
+	public int getInfoVersion()
+	{
+		return _infoVersion.get();
+	}
+	
+	/**
+	 * Marks the state shown by the info packets as changed, so the next info packet takes a new {@link CreatureInfoSnapshot} instead of reusing the last one.
+	 */
+	public void invalidateInfo()
+	{
+		_infoVersion.incrementAndGet();
+	}
+	
 	public boolean hasAbnormalType(AbnormalType abnormalType)
 	{
 		return getEffectList().hasAbnormalType(abnormalType);
@@ -95,6 +95,7 @@ import org.l2junity.gameserver.network.client.send.MagicSkillUse;
 import org.l2junity.gameserver.network.client.send.NpcHtmlMessage;
 import org.l2junity.gameserver.network.client.send.NpcInfo;
 import org.l2junity.gameserver.network.client.send.NpcInfoAbnormalVisualEffect;
+import org.l2junity.gameserver.network.client.send.NpcInfoSnapshot;
 import org.l2junity.gameserver.network.client.send.NpcSay;
 import org.l2junity.gameserver.network.client.send.ServerObjectInfo;
 import org.l2junity.gameserver.network.client.send.SocialAction;
@@ -124,6 +125,8 @@ public class Npc extends Creature
 	private boolean _isBusy = false;
 	/** True if endDecayTask has already been called */
 	private volatile boolean _isDecayed = false;
+	/** The last state sent in a NpcInfo packet */
+	private volatile NpcInfoSnapshot _infoSnapshot;
 	/** True if this L2Npc is autoattackable **/
 	private boolean _isAutoAttackable = false;
 	/** Time of last social packet broadcast */
@@ -842,8 +845,8 @@ public class Npc extends Creature
 		
 		// Send a Server->Client NpcHtmlMessage containing the text of the L2NpcInstance to the L2PcInstance
 		final NpcHtmlMessage html = new NpcHtmlMessage(getObjectId());
-		html.setFile(player.getHtmlPrefix(), filename);
-		html.replace("%objectId%", String.valueOf(getObjectId()));
+		html.setTemplate(player.getHtmlPrefix(), filename);
+		html.bind("%objectId%", getObjectId());
 		player.sendPacket(html);
 		
 		// Send a Server->Client ActionFailed to the L2PcInstance in order to avoid that the client wait another packet
@@ -859,8 +862,8 @@ public class Npc extends Creature
 	{
 		// Send a Server->Client NpcHtmlMessage containing the text of the L2NpcInstance to the L2PcInstance
 		final NpcHtmlMessage html = new NpcHtmlMessage(getObjectId());
-		html.setFile(player.getHtmlPrefix(), filename);
-		html.replace("%objectId%", String.valueOf(getObjectId()));
+		html.setTemplate(player.getHtmlPrefix(), filename);
+		html.bind("%objectId%", getObjectId());
 		player.sendPacket(html);
 		
 		// Send a Server->Client ActionFailed to the L2PcInstance in order to avoid that the client wait another packet
@@ -1244,11 +1247,34 @@ public class Npc extends Creature
 			}
 			else
 			{
-				activeChar.sendPacket(new NpcInfo(this));
+				activeChar.sendPacket(new NpcInfo(getInfoSnapshot()));
 			}
 		}
 	}
 	
+	/**
+	 * @return the last state sent in a NpcInfo packet if it is still current, otherwise a new one
+	 */
+	public NpcInfoSnapshot getInfoSnapshot()
+	{
+		final NpcInfoSnapshot snapshot = _infoSnapshot;
+		if ((snapshot != null) && snapshot.isCurrent(this))
+		{
+			return snapshot;
+		}
+		return _infoSnapshot = new NpcInfoSnapshot(this);
+	}
+	
+	/**
+	 * Takes a new state to be sent in a NpcInfo packet, for broadcasting a change.
+	 * @return the new state
+	 */
+	public NpcInfoSnapshot updateInfoSnapshot()
+	{
+		invalidateInfo();
+		return _infoSnapshot = new NpcInfoSnapshot(this);
+	}
+	
 	public Npc scheduleDespawn(long delay)
 	{
 		ThreadPool.schedule(() ->
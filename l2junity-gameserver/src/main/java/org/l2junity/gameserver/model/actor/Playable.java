@@ -30,6 +30,7 @@ import org.l2junity.gameserver.model.actor.stat.PlayableStat;
 import org.l2junity.gameserver.model.actor.status.PlayableStatus;
 import org.l2junity.gameserver.model.actor.templates.L2CharTemplate;
 import org.l2junity.gameserver.model.events.EventDispatcher;
+import org.l2junity.gameserver.model.events.EventType;
 import org.l2junity.gameserver.model.events.impl.character.OnCreatureDeath;
 import org.l2junity.gameserver.model.events.impl.character.OnCreatureKilled;
 import org.l2junity.gameserver.model.events.returns.TerminateReturn;
@@ -104,7 +105,7 @@ public abstract class Playable extends Creature
 	@Override
 	public boolean doDie(Creature killer)
 	{
-		final TerminateReturn returnBack = EventDispatcher.getInstance().notifyEvent(new OnCreatureDeath(killer, this), this, TerminateReturn.class);
+		final TerminateReturn returnBack = EventDispatcher.getInstance().hasListener(EventType.ON_CREATURE_DEATH, this) ? EventDispatcher.getInstance().notifyEvent(new OnCreatureDeath(killer, this), this, TerminateReturn.class) : null;
 		if ((returnBack != null) && returnBack.terminate())
 		{
 			return false;
@@ -122,7 +123,10 @@ public abstract class Playable extends Creature
 			setIsDead(true);
 		}
 		
-		EventDispatcher.getInstance().notifyEvent(new OnCreatureKilled(killer, this), killer);
+		if (EventDispatcher.getInstance().hasListener(EventType.ON_CREATURE_KILLED, killer))
+		{
+			EventDispatcher.getInstance().notifyEvent(new OnCreatureKilled(killer, this), killer);
+		}
 		
 		// Set target to null and cancel Attack or Cast
 		setTarget(null);
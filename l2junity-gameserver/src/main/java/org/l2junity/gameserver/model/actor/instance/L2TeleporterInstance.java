@@ -179,9 +179,9 @@ public final class L2TeleporterInstance extends Npc
 	private void sendHtmlMessage(PlayerInstance player, String filename)
 	{
 		final NpcHtmlMessage html = new NpcHtmlMessage(getObjectId());
-		html.setFile(player.getHtmlPrefix(), filename);
-		html.replace("%objectId%", String.valueOf(getObjectId()));
-		html.replace("%npcname%", getName());
+		html.setTemplate(player.getHtmlPrefix(), filename);
+		html.bind("%objectId%", getObjectId());
+		html.bind("%npcname%", getName());
 		player.sendPacket(html);
 	}
 }
@@ -47,7 +47,6 @@ import org.l2junity.gameserver.network.client.send.MagicSkillLaunched;
 import org.l2junity.gameserver.network.client.send.MagicSkillUse;
 import org.l2junity.gameserver.network.client.send.NpcHtmlMessage;
 import org.l2junity.gameserver.network.client.send.SystemMessage;
-import org.l2junity.gameserver.network.client.send.UserInfo;
 import org.l2junity.gameserver.network.client.send.string.SystemMessageId;
 import org.l2junity.gameserver.util.Util;
 import org.slf4j.Logger;
@@ -480,7 +479,7 @@ public class L2VillageMasterInstance extends L2NpcInstance
 			if (leaderPlayer != null)
 			{
 				leaderPlayer.setPledgeClass(ClanMember.calculatePledgeClass(leaderPlayer));
-				leaderPlayer.sendPacket(new UserInfo(leaderPlayer));
+				leaderPlayer.updateUserInfo();
 			}
 		}
 	}
@@ -566,7 +565,7 @@ public class L2VillageMasterInstance extends L2NpcInstance
 		if (leaderPlayer != null)
 		{
 			leaderPlayer.setPledgeClass(ClanMember.calculatePledgeClass(leaderPlayer));
-			leaderPlayer.sendPacket(new UserInfo(leaderPlayer));
+			leaderPlayer.updateUserInfo();
 		}
 		
 		clan.broadcastClanStatus();
@@ -29,7 +29,6 @@ import java.util.Calendar;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -200,6 +199,7 @@ import org.l2junity.gameserver.model.entity.Hero;
 import org.l2junity.gameserver.model.entity.Siege;
 import org.l2junity.gameserver.model.eventengine.AbstractEvent;
 import org.l2junity.gameserver.model.events.EventDispatcher;
+import org.l2junity.gameserver.model.events.EventType;
 import org.l2junity.gameserver.model.events.impl.character.player.OnPlayerAbilityPointsChanged;
 import org.l2junity.gameserver.model.events.impl.character.player.OnPlayerDeathExpPenalty;
 import org.l2junity.gameserver.model.events.impl.character.player.OnPlayerDeathPenalty;
@@ -234,6 +234,7 @@ import org.l2junity.gameserver.model.holders.RecipeHolder;
 import org.l2junity.gameserver.model.holders.SellBuffHolder;
 import org.l2junity.gameserver.model.holders.SkillUseHolder;
 import org.l2junity.gameserver.model.holders.TrainingHolder;
+import org.l2junity.gameserver.model.html.HtmlActionSet;
 import org.l2junity.gameserver.model.instancezone.Instance;
 import org.l2junity.gameserver.model.interfaces.ILocational;
 import org.l2junity.gameserver.model.itemcontainer.Inventory;
@@ -274,13 +275,14 @@ import org.l2junity.gameserver.model.stats.BooleanStat;
 import org.l2junity.gameserver.model.stats.DoubleStat;
 import org.l2junity.gameserver.model.stats.Formulas;
 import org.l2junity.gameserver.model.stats.MoveType;
+import org.l2junity.gameserver.model.stats.StatInput;
 import org.l2junity.gameserver.model.variables.AccountVariables;
 import org.l2junity.gameserver.model.variables.PlayerVariables;
 import org.l2junity.gameserver.model.zone.ZoneId;
 import org.l2junity.gameserver.model.zone.ZoneType;
 import org.l2junity.gameserver.network.client.Disconnection;
 import org.l2junity.gameserver.network.client.L2GameClient;
-import org.l2junity.gameserver.network.client.send.AbstractHtmlPacket;
+import org.l2junity.gameserver.network.client.SharedPacketSender;
 import org.l2junity.gameserver.network.client.send.AcquireSkillList;
 import org.l2junity.gameserver.network.client.send.ActionFailed;
 import org.l2junity.gameserver.network.client.send.ChangeWaitType;
@@ -322,6 +324,7 @@ import org.l2junity.gameserver.network.client.send.ObservationMode;
 import org.l2junity.gameserver.network.client.send.ObservationReturn;
 import org.l2junity.gameserver.network.client.send.PartySmallWindowUpdate;
 import org.l2junity.gameserver.network.client.send.PetInventoryUpdate;
+import org.l2junity.gameserver.network.client.send.PlayerInfoSnapshot;
 import org.l2junity.gameserver.network.client.send.PledgeShowMemberListDelete;
 import org.l2junity.gameserver.network.client.send.PledgeShowMemberListUpdate;
 import org.l2junity.gameserver.network.client.send.PrivateStoreListBuy;
@@ -348,16 +351,19 @@ import org.l2junity.gameserver.network.client.send.TradeDone;
 import org.l2junity.gameserver.network.client.send.TradeOtherDone;
 import org.l2junity.gameserver.network.client.send.TradeStart;
 import org.l2junity.gameserver.network.client.send.UserInfo;
+import org.l2junity.gameserver.network.client.send.UserInfoTracker;
 import org.l2junity.gameserver.network.client.send.ValidateLocation;
 import org.l2junity.gameserver.network.client.send.commission.ExResponseCommissionInfo;
 import org.l2junity.gameserver.network.client.send.custom.PlayerPolymorphedNpcInfo;
 import org.l2junity.gameserver.network.client.send.friend.L2FriendStatus;
 import org.l2junity.gameserver.network.client.send.string.SystemMessageId;
 import org.l2junity.gameserver.taskmanager.AttackStanceTaskManager;
+import org.l2junity.gameserver.taskmanager.WriteBehindTaskManager;
 import org.l2junity.gameserver.util.Broadcast;
 import org.l2junity.gameserver.util.EnumIntBitmask;
 import org.l2junity.gameserver.util.FloodProtectors;
 import org.l2junity.gameserver.util.Util;
+import org.l2junity.network.SharedPacket;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -652,6 +658,10 @@ public final class PlayerInstance extends Playable
 	
 	// charges
 	private final AtomicInteger _charges = new AtomicInteger();
+	
+	/** The last state sent in a UserInfo or CharInfo packet */
+	private volatile PlayerInfoSnapshot _infoSnapshot;
+	private final UserInfoTracker _userInfoTracker = new UserInfoTracker(getObjectId());
 	private ScheduledFuture<?> _chargeTask = null;
 	
 	// Absorbed Souls
@@ -750,8 +760,7 @@ public final class PlayerInstance extends Playable
 	private int _lastHtmlActionOriginObjId;
 	
 	/** Bypass validations */
-	@SuppressWarnings("unchecked")
-	private final LinkedList<String>[] _htmlActionCaches = new LinkedList[HtmlActionScope.values().length];
+	private final HtmlActionSet[] _htmlActionCaches = new HtmlActionSet[HtmlActionScope.values().length];
 	
 	private Forum _forumMail;
 	private Forum _forumMemo;
@@ -1121,10 +1130,7 @@ public final class PlayerInstance extends Playable
 		super.initCharStatusUpdateValues();
 		initPcStatusUpdateValues();
 		
-		for (int i = 0; i < _htmlActionCaches.length; ++i)
-		{
-			_htmlActionCaches[i] = new LinkedList<>();
-		}
+		Arrays.fill(_htmlActionCaches, HtmlActionSet.EMPTY);
 		
 		_accountName = accountName;
 		app.setOwner(this);
@@ -3868,6 +3874,7 @@ public final class PlayerInstance extends Playable
 	public void setClient(L2GameClient client)
 	{
 		_client = client;
+		_userInfoTracker.reset();
 	}
 	
 	public String getIPAddress()
@@ -4078,7 +4085,7 @@ public final class PlayerInstance extends Playable
 	public final void broadcastUserInfo()
 	{
 		// Send user info to the current player
-		sendPacket(new UserInfo(this));
+		updateUserInfo();
 		sendPacket(new ExBrPremiumState(this));
 		
 		// Broadcast char info to known players
@@ -4088,41 +4095,90 @@ public final class PlayerInstance extends Playable
 	public final void broadcastUserInfo(UserInfoType... types)
 	{
 		// Send user info to the current player
-		UserInfo ui = new UserInfo(this, false);
-		ui.addComponentType(types);
-		sendPacket(ui);
+		updateUserInfo(types);
 		
 		// Broadcast char info to all known players
 		broadcastCharInfo();
 	}
 	
+	/**
+	 * Sends a UserInfo packet carrying the components changed since they were last sent to this player, with the next game tick.<br>
+	 * All the updates requested within a game tick are merged into one packet.
+	 * @param types the components to send even if they did not change
+	 */
+	public final void updateUserInfo(UserInfoType... types)
+	{
+		if (_userInfoTracker.requestUpdate(types))
+		{
+			ThreadPool.getTickScheduler().schedule(this::sendUserInfoUpdate, 0, TimeUnit.MILLISECONDS);
+		}
+	}
+	
+	private void sendUserInfoUpdate()
+	{
+		final int requestedMask = _userInfoTracker.takeUpdate();
+		final UserInfo ui = _userInfoTracker.createUpdate(updateInfoSnapshot(), requestedMask);
+		if (ui != null)
+		{
+			sendPacket(ui);
+		}
+	}
+	
+	/**
+	 * Sends the same state to all known players, the packet is written once for all of them.
+	 */
 	public final void broadcastCharInfo()
 	{
-		final IClientOutgoingPacket packet = getPoly().isMorphed() ? new PlayerPolymorphedNpcInfo(this) : new CharInfo(this, false);
-		World.getInstance().forEachVisibleObject(this, PlayerInstance.class, player ->
+		final PlayerInfoSnapshot snapshot = updateInfoSnapshot();
+		final IClientOutgoingPacket packet = getPoly().isMorphed() ? new PlayerPolymorphedNpcInfo(this) : new CharInfo(snapshot, false);
+		try (SharedPacketSender sender = new SharedPacketSender(packet))
 		{
-			if (isVisibleFor(player))
+			World.getInstance().forEachVisibleObject(this, PlayerInstance.class, player ->
 			{
-				if (isInvisible() && player.canOverrideCond(PcCondOverride.SEE_ALL_PLAYERS))
-				{
-					player.sendPacket(getPoly().isMorphed() ? new PlayerPolymorphedNpcInfo(this) : new CharInfo(this, true));
-				}
-				else
+				if (isVisibleFor(player))
 				{
-					player.sendPacket(packet);
+					if (isInvisible() && player.canOverrideCond(PcCondOverride.SEE_ALL_PLAYERS))
+					{
+						player.sendPacket(getPoly().isMorphed() ? new PlayerPolymorphedNpcInfo(this) : new CharInfo(snapshot, true));
+					}
+					else
+					{
+						sender.accept(player);
+					}
+					
+					sendRelationChanged(player);
 				}
-				
-				sendRelationChanged(player);
-			}
-		});
+			});
+		}
+	}
+	
+	/**
+	 * @return the last state sent in a UserInfo or CharInfo packet if it is still current, otherwise a new one
+	 */
+	public PlayerInfoSnapshot getInfoSnapshot()
+	{
+		final PlayerInfoSnapshot snapshot = _infoSnapshot;
+		if ((snapshot != null) && snapshot.isCurrent(this))
+		{
+			return snapshot;
+		}
+		return _infoSnapshot = new PlayerInfoSnapshot(this);
+	}
+	
+	/**
+	 * Takes a new state to be sent in a UserInfo or CharInfo packet, for broadcasting a change.
+	 * @return the new state
+	 */
+	public PlayerInfoSnapshot updateInfoSnapshot()
+	{
+		invalidateInfo();
+		return _infoSnapshot = new PlayerInfoSnapshot(this);
 	}
 	
 	public final void broadcastTitleInfo()
 	{
 		// Send a Server->Client packet UserInfo to this L2PcInstance
-		UserInfo ui = new UserInfo(this, false);
-		ui.addComponentType(UserInfoType.CLAN);
-		sendPacket(ui);
+		updateUserInfo();
 		
 		// Send a Server->Client packet TitleUpdate to all L2PcInstance in _KnownPlayers of the L2PcInstance
 		broadcastPacket(new NicknameChanged(this));
@@ -4136,17 +4192,18 @@ public final class PlayerInstance extends Playable
 			throw new IllegalArgumentException("CharInfo is being sent via broadcastPacket. Do NOT do that! Use broadcastCharInfo() instead.");
 		}
 		
-		sendPacket(mov);
-		
-		World.getInstance().forEachVisibleObject(this, PlayerInstance.class, player ->
+		try (SharedPacketSender sender = new SharedPacketSender(mov))
 		{
-			if (!isVisibleFor(player))
-			{
-				return;
-			}
+			sender.accept(this);
 			
-			player.sendPacket(mov);
-		});
+			World.getInstance().forEachVisibleObject(this, PlayerInstance.class, player ->
+			{
+				if (isVisibleFor(player))
+				{
+					sender.accept(player);
+				}
+			});
+		}
 	}
 	
 	@Override
@@ -4157,16 +4214,18 @@ public final class PlayerInstance extends Playable
 			throw new IllegalArgumentException("CharInfo is being sent via broadcastPacket. Do NOT do that! Use broadcastCharInfo() instead.");
 		}
 		
-		sendPacket(mov);
-		
-		World.getInstance().forEachVisibleObjectInRadius(this, PlayerInstance.class, radiusInKnownlist, player ->
+		try (SharedPacketSender sender = new SharedPacketSender(mov))
 		{
-			if (!isVisibleFor(player))
+			sender.accept(this);
+			
+			World.getInstance().forEachVisibleObjectInRadius(this, PlayerInstance.class, radiusInKnownlist, player ->
 			{
-				return;
-			}
-			player.sendPacket(mov);
-		});
+				if (isVisibleFor(player))
+				{
+					sender.accept(player);
+				}
+			});
+		}
 	}
 	
 	public void sendRelationChanged(PlayerInstance target)
@@ -4276,6 +4335,11 @@ public final class PlayerInstance extends Playable
 			{
 				_client.sendPacket(packet);
 				
+				if (packet instanceof UserInfo)
+				{
+					_userInfoTracker.onSent((UserInfo) packet);
+				}
+				
 				if (isDebug() && !(packet instanceof SystemMessage))
 				{
 					final StringBuilder sb = new StringBuilder();
@@ -4290,6 +4354,19 @@ public final class PlayerInstance extends Playable
 		}
 	}
 	
+	/**
+	 * Send an already written broadcast packet payload to the L2PcInstance.
+	 * @param packet the packet the payload was written from
+	 * @param sharedPacket the shared payload
+	 */
+	public void sendPacket(IClientOutgoingPacket packet, SharedPacket sharedPacket)
+	{
+		if (_client != null)
+		{
+			_client.sendPacket(packet, sharedPacket);
+		}
+	}
+	
 	/**
 	 * Send SystemMessage packet.
 	 * @param id SystemMessageId
@@ -5215,9 +5292,7 @@ public final class PlayerInstance extends Playable
 			}
 		}
 		
-		final UserInfo ui = new UserInfo(this, false);
-		ui.addComponentType(UserInfoType.SOCIAL);
-		player.sendPacket(ui);
+		player.updateUserInfo();
 		player.checkItemRestriction();
 	}
 	
@@ -6302,7 +6377,7 @@ public final class PlayerInstance extends Playable
 		// Send a Server->Client packet UserInfo to this L2PcInstance and CharInfo to all L2PcInstance in its _KnownPlayers (broadcast)
 		if (broadcastType == 1)
 		{
-			sendPacket(new UserInfo(this));
+			updateUserInfo();
 		}
 		if (broadcastType == 2)
 		{
@@ -6978,7 +7053,21 @@ public final class PlayerInstance extends Playable
 	 */
 	public synchronized void store(boolean storeActiveEffects)
 	{
+		if (storeActiveEffects)
+		{
+			WriteBehindTaskManager.getInstance().remove(this);
+		}
+		
 		storeCharBase();
+		storeDetails(storeActiveEffects);
+	}
+	
+	/**
+	 * Stores everything {@link #store(boolean)} does except the characters table row.
+	 * @param storeActiveEffects
+	 */
+	private void storeDetails(boolean storeActiveEffects)
+	{
 		storeCharSub();
 		storeEffect(storeActiveEffects);
 		storeItemReuseDelay();
@@ -7008,73 +7097,113 @@ public final class PlayerInstance extends Playable
 	}
 	
 	private void storeCharBase()
+	{
+		try (Connection con = DatabaseFactory.getInstance().getConnection();
+			PreparedStatement statement = con.prepareStatement(UPDATE_CHARACTER))
+		{
+			setCharBaseParameters(statement);
+			statement.execute();
+		}
+		catch (Exception e)
+		{
+			LOGGER.warn("Could not store char base data: " + this + " - " + e.getMessage(), e);
+		}
+	}
+	
+	private void setCharBaseParameters(PreparedStatement statement) throws SQLException
 	{
 		// Get the exp, level, and sp of base class to store in base table
 		long exp = getStat().getBaseExp();
 		int level = getStat().getBaseLevel();
 		long sp = getStat().getBaseSp();
+		statement.setInt(1, level);
+		statement.setInt(2, getMaxHp());
+		statement.setDouble(3, getCurrentHp());
+		statement.setInt(4, getMaxCp());
+		statement.setDouble(5, getCurrentCp());
+		statement.setInt(6, getMaxMp());
+		statement.setDouble(7, getCurrentMp());
+		statement.setInt(8, getAppearance().getFace());
+		statement.setInt(9, getAppearance().getHairStyle());
+		statement.setInt(10, getAppearance().getHairColor());
+		statement.setInt(11, getAppearance().getSex() ? 1 : 0);
+		statement.setInt(12, getHeading());
+		statement.setInt(13, (int) (_lastLoc != null ? _lastLoc.getX() : getX()));
+		statement.setInt(14, (int) (_lastLoc != null ? _lastLoc.getY() : getY()));
+		statement.setInt(15, (int) (_lastLoc != null ? _lastLoc.getZ() : getZ()));
+		statement.setLong(16, exp);
+		statement.setLong(17, getExpBeforeDeath());
+		statement.setLong(18, sp);
+		statement.setInt(19, getReputation());
+		statement.setInt(20, getFame());
+		statement.setInt(21, getRaidbossPoints());
+		statement.setInt(22, getPvpKills());
+		statement.setInt(23, getPkKills());
+		statement.setInt(24, getClanId());
+		statement.setInt(25, getRace().ordinal());
+		statement.setInt(26, getClassId().getId());
+		statement.setLong(27, getDeleteTimer());
+		statement.setString(28, getTitle());
+		statement.setInt(29, getAppearance().getTitleColor());
+		statement.setInt(30, isOnlineInt());
+		statement.setInt(31, getClanPrivileges().getBitmask());
+		statement.setInt(32, getWantsPeace());
+		statement.setInt(33, getBaseClass());
+		
+		long totalOnlineTime = _onlineTime;
+		if (_onlineBeginTime > 0)
+		{
+			totalOnlineTime += (System.currentTimeMillis() - _onlineBeginTime) / 1000;
+		}
+		
+		statement.setLong(34, totalOnlineTime);
+		statement.setInt(35, getNobleStatus().ordinal());
+		statement.setInt(36, getPowerGrade());
+		statement.setInt(37, getPledgeType());
+		statement.setInt(38, getLvlJoinedAcademy());
+		statement.setLong(39, getApprentice());
+		statement.setLong(40, getSponsor());
+		statement.setLong(41, getClanJoinExpiryTime());
+		statement.setLong(42, getClanCreateExpiryTime());
+		statement.setString(43, getName());
+		statement.setInt(44, getBookMarkSlot());
+		statement.setInt(45, getStat().getBaseVitalityPoints());
+		statement.setString(46, getLang());
+		statement.setInt(47, getObjectId());
+	}
+	
+	/**
+	 * Stores the periodic save of many players, their characters table rows are written in a single batch.<br>
+	 * Used by {@link WriteBehindTaskManager}.
+	 * @param players the players to store
+	 */
+	public static void storeAutoSave(Collection<PlayerInstance> players)
+	{
 		try (Connection con = DatabaseFactory.getInstance().getConnection();
 			PreparedStatement statement = con.prepareStatement(UPDATE_CHARACTER))
 		{
-			statement.setInt(1, level);
-			statement.setInt(2, getMaxHp());
-			statement.setDouble(3, getCurrentHp());
-			statement.setInt(4, getMaxCp());
-			statement.setDouble(5, getCurrentCp());
-			statement.setInt(6, getMaxMp());
-			statement.setDouble(7, getCurrentMp());
-			statement.setInt(8, getAppearance().getFace());
-			statement.setInt(9, getAppearance().getHairStyle());
-			statement.setInt(10, getAppearance().getHairColor());
-			statement.setInt(11, getAppearance().getSex() ? 1 : 0);
-			statement.setInt(12, getHeading());
-			statement.setInt(13, (int) (_lastLoc != null ? _lastLoc.getX() : getX()));
-			statement.setInt(14, (int) (_lastLoc != null ? _lastLoc.getY() : getY()));
-			statement.setInt(15, (int) (_lastLoc != null ? _lastLoc.getZ() : getZ()));
-			statement.setLong(16, exp);
-			statement.setLong(17, getExpBeforeDeath());
-			statement.setLong(18, sp);
-			statement.setInt(19, getReputation());
-			statement.setInt(20, getFame());
-			statement.setInt(21, getRaidbossPoints());
-			statement.setInt(22, getPvpKills());
-			statement.setInt(23, getPkKills());
-			statement.setInt(24, getClanId());
-			statement.setInt(25, getRace().ordinal());
-			statement.setInt(26, getClassId().getId());
-			statement.setLong(27, getDeleteTimer());
-			statement.setString(28, getTitle());
-			statement.setInt(29, getAppearance().getTitleColor());
-			statement.setInt(30, isOnlineInt());
-			statement.setInt(31, getClanPrivileges().getBitmask());
-			statement.setInt(32, getWantsPeace());
-			statement.setInt(33, getBaseClass());
-			
-			long totalOnlineTime = _onlineTime;
-			if (_onlineBeginTime > 0)
-			{
-				totalOnlineTime += (System.currentTimeMillis() - _onlineBeginTime) / 1000;
-			}
-			
-			statement.setLong(34, totalOnlineTime);
-			statement.setInt(35, getNobleStatus().ordinal());
-			statement.setInt(36, getPowerGrade());
-			statement.setInt(37, getPledgeType());
-			statement.setInt(38, getLvlJoinedAcademy());
-			statement.setLong(39, getApprentice());
-			statement.setLong(40, getSponsor());
-			statement.setLong(41, getClanJoinExpiryTime());
-			statement.setLong(42, getClanCreateExpiryTime());
-			statement.setString(43, getName());
-			statement.setInt(44, getBookMarkSlot());
-			statement.setInt(45, getStat().getBaseVitalityPoints());
-			statement.setString(46, getLang());
-			statement.setInt(47, getObjectId());
-			statement.execute();
+			for (PlayerInstance player : players)
+			{
+				synchronized (player)
+				{
+					player.setCharBaseParameters(statement);
+				}
+				statement.addBatch();
+			}
+			statement.executeBatch();
 		}
 		catch (Exception e)
 		{
-			LOGGER.warn("Could not store char base data: " + this + " - " + e.getMessage(), e);
+			LOGGER.warn("Could not store char base data of {} player(s) - {}", players.size(), e.getMessage(), e);
+		}
+		
+		for (PlayerInstance player : players)
+		{
+			synchronized (player)
+			{
+				player.storeDetails(true);
+			}
+			player.storeAutoSaveExtras();
 		}
 	}
 	
@@ -7764,9 +7893,7 @@ public final class PlayerInstance extends Playable
 		sendPacket(new HennaInfo(this));
 		
 		// Send Server->Client UserInfo packet to this L2PcInstance
-		UserInfo ui = new UserInfo(this, false);
-		ui.addComponentType(UserInfoType.BASE_STATS, UserInfoType.MAX_HPCPMP, UserInfoType.STATS, UserInfoType.SPEED);
-		sendPacket(ui);
+		updateUserInfo();
 		// Add the recovered dyes to the player's inventory and notify them.
 		getInventory().addItem("Henna", henna.getDyeItemId(), henna.getCancelCount(), this, null);
 		reduceAdena("Henna", henna.getCancelFee(), this, false);
@@ -7816,9 +7943,7 @@ public final class PlayerInstance extends Playable
 				sendPacket(new HennaInfo(this));
 				
 				// Send Server->Client UserInfo packet to this L2PcInstance
-				UserInfo ui = new UserInfo(this, false);
-				ui.addComponentType(UserInfoType.BASE_STATS, UserInfoType.MAX_HPCPMP, UserInfoType.STATS, UserInfoType.SPEED);
-				sendPacket(ui);
+				updateUserInfo();
 				
 				// Notify to scripts
 				EventDispatcher.getInstance().notifyEventAsync(new OnPlayerHennaAdd(this, henna), this);
@@ -7846,6 +7971,7 @@ public final class PlayerInstance extends Playable
 				_hennaBaseStats.merge(entry.getKey(), entry.getValue(), Integer::sum);
 			}
 		}
+		getStat().invalidateValues();
 	}
 	
 	/**
@@ -8383,6 +8509,7 @@ public final class PlayerInstance extends Playable
 		_mountType = type;
 		_mountNpcId = npcId;
 		_mountLevel = npcLevel;
+		getStat().invalidateValues(StatInput.MOUNT);
 	}
 	
 	/**
@@ -9020,6 +9147,8 @@ public final class PlayerInstance extends Playable
 	public void setIsInOlympiadMode(boolean b)
 	{
 		_inOlympiadMode = b;
+		// The enchant of items is limited in Olympiad
+		getStat().invalidateValues();
 	}
 	
 	public void setIsOlympiadStart(boolean b)
@@ -9861,7 +9990,10 @@ public final class PlayerInstance extends Playable
 			GlobalVariablesManager.getInstance().set(GlobalVariablesManager.RECORD_ONLINE_PLAYERS_VAR, currentOnlinePlayers);
 		}
 		
-		EventDispatcher.getInstance().notifyEventAsync(new OnPlayerLogin(this), this);
+		if (EventDispatcher.getInstance().hasListener(EventType.ON_PLAYER_LOGIN, this))
+		{
+			EventDispatcher.getInstance().notifyEventAsync(new OnPlayerLogin(this), this);
+		}
 		
 		if (isMentee())
 		{
@@ -10250,14 +10382,19 @@ public final class PlayerInstance extends Playable
 		_snoopedPlayer.remove(pci);
 	}
 	
-	public void addHtmlAction(HtmlActionScope scope, String action)
+	/**
+	 * Replaces the html actions of a scope, the actions of the html sent before are no longer valid.
+	 * @param scope the scope
+	 * @param actions the actions of the html sent
+	 */
+	public void setHtmlActions(HtmlActionScope scope, HtmlActionSet actions)
 	{
-		_htmlActionCaches[scope.ordinal()].add(action);
+		_htmlActionCaches[scope.ordinal()] = actions;
 	}
 	
 	public void clearHtmlActions(HtmlActionScope scope)
 	{
-		_htmlActionCaches[scope.ordinal()].clear();
+		_htmlActionCaches[scope.ordinal()] = HtmlActionSet.EMPTY;
 	}
 	
 	public void setHtmlActionOriginObjectId(HtmlActionScope scope, int npcObjId)
@@ -10275,26 +10412,6 @@ public final class PlayerInstance extends Playable
 		return _lastHtmlActionOriginObjId;
 	}
 	
-	private boolean validateHtmlAction(Iterable<String> actionIter, String action)
-	{
-		for (String cachedAction : actionIter)
-		{
-			if (cachedAction.charAt(cachedAction.length() - 1) == AbstractHtmlPacket.VAR_PARAM_START_CHAR)
-			{
-				if (action.startsWith(cachedAction.substring(0, cachedAction.length() - 1).trim()))
-				{
-					return true;
-				}
-			}
-			else if (cachedAction.equals(action))
-			{
-				return true;
-			}
-		}
-		
-		return false;
-	}
-	
 	/**
 	 * Check if the HTML action was sent in a HTML packet.<br>
 	 * If the HTML action was not sent for whatever reason, -1 is returned.<br>
@@ -10308,7 +10425,7 @@ public final class PlayerInstance extends Playable
 	{
 		for (int i = 0; i < _htmlActionCaches.length; ++i)
 		{
-			if (validateHtmlAction(_htmlActionCaches[i], action))
+			if (_htmlActionCaches[i].contains(action))
 			{
 				_lastHtmlActionOriginObjId = _htmlActionOriginObjectIds[i];
 				return _lastHtmlActionOriginObjId;
@@ -11573,6 +11690,7 @@ public final class PlayerInstance extends Playable
 		// broadcast move speed change when strider becomes hungry / full
 		if (lastHungryState != isHungry())
 		{
+			getStat().invalidateValues(StatInput.MOUNT);
 			broadcastUserInfo();
 		}
 	}
@@ -11960,7 +12078,7 @@ public final class PlayerInstance extends Playable
 		}
 		else
 		{
-			activeChar.sendPacket(new CharInfo(this, isInvisible() && activeChar.canOverrideCond(PcCondOverride.SEE_ALL_PLAYERS)));
+			activeChar.sendPacket(new CharInfo(getInfoSnapshot(), isInvisible() && activeChar.canOverrideCond(PcCondOverride.SEE_ALL_PLAYERS)));
 		}
 		
 		sendRelationChanged(activeChar);
@@ -13653,7 +13771,17 @@ public final class PlayerInstance extends Playable
 	
 	protected void autoSave()
 	{
+		if (WriteBehindTaskManager.getInstance().add(this))
+		{
+			return;
+		}
+		
 		storeMe();
+		storeAutoSaveExtras();
+	}
+	
+	private void storeAutoSaveExtras()
+	{
 		storeRecommendations();
 		
 		if (GeneralConfig.UPDATE_ITEMS_ON_CHAR_STORE)
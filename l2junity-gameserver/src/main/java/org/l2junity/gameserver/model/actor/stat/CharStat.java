@@ -18,6 +18,7 @@
  */
 package org.l2junity.gameserver.model.actor.stat;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
@@ -26,25 +27,34 @@ import java.util.EnumMap;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.OptionalDouble;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.BiFunction;
 import java.util.function.BiPredicate;
 import java.util.stream.Stream;
 
 import org.l2junity.commons.util.MathUtil;
+import org.l2junity.gameserver.config.GeneralConfig;
 import org.l2junity.gameserver.config.PlayerConfig;
 import org.l2junity.gameserver.enums.AttributeType;
 import org.l2junity.gameserver.enums.Position;
 import org.l2junity.gameserver.model.CharEffectList;
 import org.l2junity.gameserver.model.actor.Creature;
+import org.l2junity.gameserver.model.effects.AbstractEffect;
 import org.l2junity.gameserver.model.items.instance.ItemInstance;
 import org.l2junity.gameserver.model.skills.AbnormalType;
 import org.l2junity.gameserver.model.skills.BuffInfo;
@@ -56,12 +66,28 @@ import org.l2junity.gameserver.model.stats.DoubleStat;
 import org.l2junity.gameserver.model.stats.DoubleStatValue;
 import org.l2junity.gameserver.model.stats.Formulas;
 import org.l2junity.gameserver.model.stats.MoveType;
+import org.l2junity.gameserver.model.stats.StatInput;
 import org.l2junity.gameserver.model.stats.StatsHolder;
 import org.l2junity.gameserver.model.stats.TraitType;
 import org.l2junity.gameserver.model.zone.ZoneId;
+import org.l2junity.gameserver.taskmanager.StatUpdateTaskManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class CharStat
 {
+	private static final Logger LOGGER = LoggerFactory.getLogger(CharStat.class);
+	
+	// Statistics
+	private static final LongAdder FULL_RECALCULATIONS = new LongAdder();
+	private static final LongAdder INCREMENTAL_RECALCULATIONS = new LongAdder();
+	private static final LongAdder KEPT_SOURCES = new LongAdder();
+	private static final LongAdder PUMPED_SOURCES = new LongAdder();
+	private static final LongAdder FOLDED_STATS = new LongAdder();
+	private static final LongAdder ON_READ_RECALCULATIONS = new LongAdder();
+	private static final LongAdder VERIFY_MISMATCHES = new LongAdder();
+	private static final Map<String, ValueCounters> VALUE_COUNTERS = new ConcurrentHashMap<>();
+	
 	private final Creature _activeChar;
 	private long _exp = 0;
 	private long _sp = 0;
@@ -95,11 +121,31 @@ public class CharStat
 	private double _attackSpeedMultiplier = 1;
 	private double _mAttackSpeedMultiplier = 1;
 	
+	/** The contributions of every source pumped by the last incremental recalculation, by source */
+	private Map<Object, StatContribution> _contributions = new IdentityHashMap<>(8);
+	private Map<Object, StatContribution> _nextContributions = new IdentityHashMap<>(8);
+	private final List<StatContribution> _orderedContributions = new ArrayList<>();
+	private final Set<DoubleStat> _dirtyStats = EnumSet.noneOf(DoubleStat.class);
+	/** The contribution being recorded while a source is pumped, {@code null} otherwise */
+	private StatContribution _recording;
+	
+	/** Set while a recalculation was deferred to the stat update tick and the stats were not read since */
+	private volatile boolean _recalculationPending;
+	/** Set while the stats are marked for a broadcast deferred to the stat update tick, guarded by the lock */
+	private boolean _broadcastPending;
+	
+	/** The cached finalized values and invalidation markers by stat ordinal, allocated on the first cached read */
+	private volatile AtomicReferenceArray<Object> _cachedValues;
+	/** Bumped whenever all cached values have to be finalized again */
+	private final AtomicInteger _valueEpoch = new AtomicInteger();
+	private final ValueCounters _valueCounters;
+	
 	private final ReentrantReadWriteLock _lock = new ReentrantReadWriteLock();
 	
 	public CharStat(Creature activeChar)
 	{
 		_activeChar = activeChar;
+		_valueCounters = VALUE_COUNTERS.computeIfAbsent(activeChar.getClass().getSimpleName(), k -> new ValueCounters());
 	}
 	
 	/**
@@ -128,11 +174,13 @@ public class CharStat
 	 */
 	public final double getAttackSpeedMultiplier()
 	{
+		ensureRecalculated();
 		return _attackSpeedMultiplier;
 	}
 	
 	public final double getMAttackSpeedMultiplier()
 	{
+		ensureRecalculated();
 		return _mAttackSpeedMultiplier;
 	}
 	
@@ -211,6 +259,7 @@ public class CharStat
 	public void setLevel(byte value)
 	{
 		_level = value;
+		invalidateValues();
 	}
 	
 	/**
@@ -542,12 +591,17 @@ public class CharStat
 	
 	public void mergeAttackTrait(TraitType traitType, float value)
 	{
+		if (_recording != null)
+		{
+			_recording.addOperation(stat -> stat.mergeAttackTrait(traitType, value));
+		}
 		_attackTraitValues[traitType.ordinal()] *= value;
 		_attackTraits.add(traitType);
 	}
 	
 	public float getAttackTrait(TraitType traitType)
 	{
+		ensureRecalculated();
 		_lock.readLock().lock();
 		try
 		{
@@ -561,6 +615,7 @@ public class CharStat
 	
 	public boolean hasAttackTrait(TraitType traitType)
 	{
+		ensureRecalculated();
 		_lock.readLock().lock();
 		try
 		{
@@ -574,12 +629,17 @@ public class CharStat
 	
 	public void mergeDefenceTrait(TraitType traitType, float value)
 	{
+		if (_recording != null)
+		{
+			_recording.addOperation(stat -> stat.mergeDefenceTrait(traitType, value));
+		}
 		_defenceTraitValues[traitType.ordinal()] *= value;
 		_defenceTraits.add(traitType);
 	}
 	
 	public float getDefenceTrait(TraitType traitType)
 	{
+		ensureRecalculated();
 		_lock.readLock().lock();
 		try
 		{
@@ -593,6 +653,7 @@ public class CharStat
 	
 	public boolean hasDefenceTrait(TraitType traitType)
 	{
+		ensureRecalculated();
 		_lock.readLock().lock();
 		try
 		{
@@ -606,11 +667,16 @@ public class CharStat
 	
 	public void mergeInvulnerableTrait(TraitType traitType)
 	{
+		if (_recording != null)
+		{
+			_recording.addOperation(stat -> stat.mergeInvulnerableTrait(traitType));
+		}
 		_invulnerableTraits.add(traitType);
 	}
 	
 	public boolean isInvulnerableTrait(TraitType traitType)
 	{
+		ensureRecalculated();
 		_lock.readLock().lock();
 		try
 		{
@@ -628,6 +694,7 @@ public class CharStat
 	 */
 	public int getMaxBuffCount()
 	{
+		ensureRecalculated();
 		_lock.readLock().lock();
 		try
 		{
@@ -645,6 +712,10 @@ public class CharStat
 	 */
 	public void mergeMaxBuffCount(int buffCount)
 	{
+		if (_recording != null)
+		{
+			_recording.addOperation(stat -> stat.mergeMaxBuffCount(buffCount));
+		}
 		_maxBuffCount += buffCount;
 	}
 	
@@ -655,6 +726,12 @@ public class CharStat
 	 */
 	public void mergeAdd(DoubleStat doubleStat, double value)
 	{
+		if (_recording != null)
+		{
+			_recording.addDoubleStat(doubleStat, value, false);
+			return;
+		}
+		
 		final DoubleStatValue doubleStatValue = _doubleStats.computeIfAbsent(doubleStat, DoubleStatValue::new);
 		doubleStatValue.setAdd(doubleStat.add(doubleStatValue.getAdd(), value));
 	}
@@ -666,6 +743,12 @@ public class CharStat
 	 */
 	public void mergeMul(DoubleStat doubleStat, double mul)
 	{
+		if (_recording != null)
+		{
+			_recording.addDoubleStat(doubleStat, mul, true);
+			return;
+		}
+		
 		final DoubleStatValue doubleStatValue = _doubleStats.computeIfAbsent(doubleStat, DoubleStatValue::new);
 		doubleStatValue.setMul(doubleStat.mul(doubleStatValue.getMul(), mul));
 	}
@@ -676,6 +759,7 @@ public class CharStat
 	 */
 	public double getAdd(DoubleStat doubleStat)
 	{
+		ensureRecalculated();
 		_lock.readLock().lock();
 		try
 		{
@@ -694,6 +778,7 @@ public class CharStat
 	 */
 	public double getMul(DoubleStat doubleStat)
 	{
+		ensureRecalculated();
 		_lock.readLock().lock();
 		try
 		{
@@ -713,23 +798,134 @@ public class CharStat
 	 */
 	public double getValue(DoubleStat stat, double baseValue)
 	{
+		ensureRecalculated();
 		final Double fixedValue = _fixedValue.get(stat);
-		return fixedValue != null ? fixedValue : stat.finalize(_activeChar, OptionalDouble.of(baseValue));
+		if (fixedValue != null)
+		{
+			return fixedValue;
+		}
+		
+		_valueCounters._finalizations.increment();
+		return stat.finalize(_activeChar, OptionalDouble.of(baseValue));
 	}
 	
 	/**
+	 * The final value is cached until something it depends on changes, see {@link #invalidateValues()}.
 	 * @param stat
 	 * @return the final value of the stat
 	 */
 	public double getValue(DoubleStat stat)
 	{
+		ensureRecalculated();
 		final Double fixedValue = _fixedValue.get(stat);
-		return fixedValue != null ? fixedValue : stat.finalize(_activeChar, OptionalDouble.empty());
+		if (fixedValue != null)
+		{
+			return fixedValue;
+		}
+		
+		// Values read while this thread recalculates are not final yet
+		if (!GeneralConfig.CACHE_STAT_VALUES || !stat.isCacheable() || _lock.isWriteLockedByCurrentThread())
+		{
+			_valueCounters._finalizations.increment();
+			return stat.finalize(_activeChar, OptionalDouble.empty());
+		}
+		
+		// Read the epoch first, a value finalized while anything is invalidated is never valid
+		final int epoch = _valueEpoch.get();
+		final MoveType moveType = _moveTypeStats.isEmpty() ? null : _activeChar.getMoveType();
+		final AtomicReferenceArray<Object> cachedValues = getCachedValues();
+		final Object current = cachedValues.get(stat.ordinal());
+		if (current instanceof CachedValue)
+		{
+			final CachedValue cachedValue = (CachedValue) current;
+			if ((cachedValue._epoch == epoch) && (cachedValue._moveType == moveType))
+			{
+				_valueCounters._hits.increment();
+				return cachedValue._value;
+			}
+		}
+		
+		_valueCounters._finalizations.increment();
+		final double value = stat.finalize(_activeChar, OptionalDouble.empty());
+		
+		// Fails if the value was invalidated meanwhile, it is finalized again on the next read then
+		cachedValues.compareAndSet(stat.ordinal(), current, new CachedValue(value, epoch, moveType));
+		return value;
+	}
+	
+	private AtomicReferenceArray<Object> getCachedValues()
+	{
+		AtomicReferenceArray<Object> cachedValues = _cachedValues;
+		if (cachedValues == null)
+		{
+			synchronized (this)
+			{
+				cachedValues = _cachedValues;
+				if (cachedValues == null)
+				{
+					cachedValues = new AtomicReferenceArray<>(DoubleStat.NUM_STATS);
+					_cachedValues = cachedValues;
+				}
+			}
+		}
+		return cachedValues;
+	}
+	
+	/**
+	 * Drops all cached final values, they are finalized again on their next read.<br>
+	 * Called after every recalculation and whenever anything most finalizers read changes (level, hennas, Olympiad mode, condition overrides, enchant and attributes of equipped items).
+	 */
+	public void invalidateValues()
+	{
+		_valueEpoch.incrementAndGet();
+	}
+	
+	/**
+	 * Drops the cached final values of all stats depending on the given input.
+	 * @param input the input that changed
+	 */
+	public void invalidateValues(StatInput input)
+	{
+		invalidateValues(DoubleStat.getStatsDependingOn(input));
+	}
+	
+	/**
+	 * Drops the cached final value of the given stat and of every stat depending on it.
+	 * @param stat the stat that changed
+	 */
+	public void invalidateValue(DoubleStat stat)
+	{
+		invalidateValues(stat);
+		invalidateValues(stat.getDependents());
+	}
+	
+	private void invalidateValues(DoubleStat... stats)
+	{
+		final AtomicReferenceArray<Object> cachedValues = _cachedValues;
+		if (cachedValues == null)
+		{
+			return;
+		}
+		
+		// A new marker every time, so a value finalized before cannot replace it by accident
+		final Object marker = new Object();
+		for (DoubleStat stat : stats)
+		{
+			cachedValues.set(stat.ordinal(), marker);
+		}
 	}
 	
 	protected void resetStats()
 	{
 		_doubleStats.forEach((k, v) -> v.reset(k));
+		resetOtherStats();
+	}
+	
+	/**
+	 * Resets everything but the double stats.
+	 */
+	private void resetOtherStats()
+	{
 		_booleanStats.clear();
 		_blockActionsAllowedSkills.clear();
 		_blockActionsAllowedItems.clear();
@@ -746,11 +942,35 @@ public class CharStat
 	}
 	
 	/**
-	 * Locks and resets all stats and recalculates all
+	 * Locks and resets all stats and recalculates all.<br>
+	 * When stat updates are coalesced, a broadcasting recalculation is deferred to the next stat update tick instead, or to the next time a stat is read.
 	 * @param broadcast
 	 */
 	public final void recalculateStats(boolean broadcast)
 	{
+		if (broadcast && StatUpdateTaskManager.getInstance().isEnabled())
+		{
+			_lock.writeLock().lock();
+			try
+			{
+				// Copy old data once, the broadcast covers everything changed until the tick
+				if (!_broadcastPending)
+				{
+					_doubleStats.values().forEach(DoubleStatValue::mark);
+					_broadcastPending = true;
+				}
+				_recalculationPending = true;
+				invalidateValues();
+			}
+			finally
+			{
+				_lock.writeLock().unlock();
+			}
+			
+			StatUpdateTaskManager.getInstance().add(_activeChar);
+			return;
+		}
+		
 		Set<DoubleStat> changedDoubleStats = null;
 		_lock.writeLock().lock();
 		try
@@ -760,79 +980,502 @@ public class CharStat
 			{
 				_doubleStats.values().forEach(DoubleStatValue::mark);
 			}
-			// Wipe all the data
-			resetStats();
 			
-			// Collect all necessary effects
-			final CharEffectList effectList = _activeChar.getEffectList();
-			final Stream<BuffInfo> options = effectList.getOptions().stream().filter(BuffInfo::isInUse);
-			final Stream<BuffInfo> effectsStream = Stream.concat(effectList.getEffects().stream().filter(BuffInfo::isInUse), options != null ? options : Stream.empty());
+			recalculate();
 			
-			// Call pump to each effect
-			//@formatter:off
-			effectsStream.forEach(info -> info.getEffects().stream()
-				.filter(effect -> effect.checkPumpCondition(info.getEffector(), info.getEffected(), info.getSkill()))
-				.forEach(effect -> effect.pump(info.getEffected(), info.getSkill())));
-			//@formatter:on
+			if (broadcast)
+			{
+				changedDoubleStats = getChangedStats();
+			}
+		}
+		finally
+		{
+			_lock.writeLock().unlock();
+		}
+		
+		if (changedDoubleStats != null)
+		{
+			_activeChar.broadcastModifiedStats(changedDoubleStats);
+		}
+		
+		// Notify recalculation to child classes
+		onRecalculateStats(broadcast);
+	}
+	
+	/**
+	 * Runs the broadcasting recalculation deferred by {@link #recalculateStats(boolean)} and broadcasts every stat changed since it was requested first.<br>
+	 * Called by {@link StatUpdateTaskManager} once per tick.
+	 */
+	public final void broadcastPendingStats()
+	{
+		final Set<DoubleStat> changedDoubleStats;
+		_lock.writeLock().lock();
+		try
+		{
+			if (!_broadcastPending)
+			{
+				return;
+			}
+			_broadcastPending = false;
 			
-			// Apply all passives
+			if (_recalculationPending)
+			{
+				recalculate();
+			}
+			changedDoubleStats = getChangedStats();
+		}
+		finally
+		{
+			_lock.writeLock().unlock();
+		}
+		
+		if (changedDoubleStats != null)
+		{
+			_activeChar.broadcastModifiedStats(changedDoubleStats);
+		}
+		
+		// Notify recalculation to child classes
+		onRecalculateStats(true);
+	}
+	
+	/**
+	 * Runs a deferred recalculation before a stat is read, the broadcast still waits for the tick.<br>
+	 * Current HP/MP/CP are fitted to the new maximums and regeneration is started right away, not at the tick.
+	 */
+	private void ensureRecalculated()
+	{
+		// A thread holding the lock is either recalculating already or cannot upgrade its read lock
+		if (!_recalculationPending || _lock.isWriteLockedByCurrentThread() || (_lock.getReadHoldCount() > 0))
+		{
+			return;
+		}
+		
+		boolean recalculated = false;
+		_lock.writeLock().lock();
+		try
+		{
+			if (_recalculationPending)
+			{
+				ON_READ_RECALCULATIONS.increment();
+				recalculate();
+				recalculated = true;
+			}
+		}
+		finally
+		{
+			_lock.writeLock().unlock();
+		}
+		
+		if (recalculated)
+		{
+			// Notify recalculation to child classes, the tick notifies again along with the broadcast
+			onRecalculateStats(false);
+		}
+	}
+	
+	/**
+	 * Recalculates all stats, the write lock has to be held.
+	 */
+	private void recalculate()
+	{
+		_recalculationPending = false;
+		if (GeneralConfig.INCREMENTAL_STATS)
+		{
+			pumpIncremental();
+			if (GeneralConfig.INCREMENTAL_STATS_VERIFY)
+			{
+				verifyIncremental();
+			}
+		}
+		else
+		{
+			// Wipe all the data
+			resetStats();
+			pumpAll();
+		}
+		invalidateValues();
+		
+		_attackSpeedMultiplier = Formulas.calcAtkSpdMultiplier(_activeChar);
+		_mAttackSpeedMultiplier = Formulas.calcMAtkSpdMultiplier(_activeChar);
+	}
+	
+	/**
+	 * @return the double stats changed since they were marked, {@code null} if none did
+	 */
+	private Set<DoubleStat> getChangedStats()
+	{
+		Set<DoubleStat> changedDoubleStats = null;
+		// Calculate the difference between old and new stats
+		for (Entry<DoubleStat, DoubleStatValue> entry : _doubleStats.entrySet())
+		{
+			if (entry.getValue().hasChanged())
+			{
+				if (changedDoubleStats == null)
+				{
+					changedDoubleStats = new HashSet<>();
+				}
+				changedDoubleStats.add(entry.getKey());
+			}
+		}
+		return changedDoubleStats;
+	}
+	
+	/**
+	 * Pumps all effects, passives and additional stats into the freshly reset stats.
+	 */
+	private void pumpAll()
+	{
+		FULL_RECALCULATIONS.increment();
+		
+		// Collect all necessary effects
+		final CharEffectList effectList = _activeChar.getEffectList();
+		final Stream<BuffInfo> options = effectList.getOptions().stream().filter(BuffInfo::isInUse);
+		final Stream<BuffInfo> effectsStream = Stream.concat(effectList.getEffects().stream().filter(BuffInfo::isInUse), options != null ? options : Stream.empty());
+		
+		// Call pump to each effect
+		//@formatter:off
+		effectsStream.forEach(info -> info.getEffects().stream()
+			.filter(effect -> effect.checkPumpCondition(info.getEffector(), info.getEffected(), info.getSkill()))
+			.forEach(effect -> effect.pump(info.getEffected(), info.getSkill())));
+		//@formatter:on
+		
+		// Apply all passives
+		//@formatter:off
+		_activeChar.getAllSkills().stream()
+			.filter(Skill::isPassive)
+			.filter(skill -> skill.checkConditions(SkillConditionScope.PASSIVE, _activeChar, _activeChar))
+			.filter(skill -> skill.hasEffects(EffectScope.GENERAL))
+			.forEach(skill -> skill.getEffects(EffectScope.GENERAL).stream()
+				.filter(effect -> effect.checkPumpCondition(_activeChar, _activeChar, skill))
+				.forEach(effect -> effect.pump(_activeChar, skill)));
+		//@formatter:on
+		
+		if (_activeChar.isSummon() && (_activeChar.getActingPlayer() != null) && _activeChar.getActingPlayer().hasAbnormalType(AbnormalType.ABILITY_CHANGE))
+		{
 			//@formatter:off
-			_activeChar.getAllSkills().stream()
-				.filter(Skill::isPassive)
-				.filter(skill -> skill.checkConditions(SkillConditionScope.PASSIVE, _activeChar, _activeChar))
-				.filter(skill -> skill.hasEffects(EffectScope.GENERAL))
-				.forEach(skill -> skill.getEffects(EffectScope.GENERAL).stream()
-					.filter(effect -> effect.checkPumpCondition(_activeChar, _activeChar, skill))
-					.forEach(effect -> effect.pump(_activeChar, skill)));
+			_activeChar.getActingPlayer().getEffectList().getEffects().stream()
+				.filter(BuffInfo::isInUse)
+				.filter(info -> info.isAbnormalType(AbnormalType.ABILITY_CHANGE))
+				.forEach(info -> info.getSkill().getEffects(EffectScope.GENERAL).stream()
+					.filter(effect -> effect.checkPumpCondition(_activeChar, _activeChar, info.getSkill()))
+					.forEach(effect -> effect.pump(_activeChar, info.getSkill())));
 			//@formatter:on
-			
-			if (_activeChar.isSummon() && (_activeChar.getActingPlayer() != null) && _activeChar.getActingPlayer().hasAbnormalType(AbnormalType.ABILITY_CHANGE))
+		}
+		
+		// Merge with additional stats
+		_additionalAdd.stream().filter(holder -> holder.verifyCondition(_activeChar)).forEach(holder -> mergeAdd(holder.getStat(), holder.getValue()));
+		_additionalMul.stream().filter(holder -> holder.verifyCondition(_activeChar)).forEach(holder -> mergeMul(holder.getStat(), holder.getValue()));
+	}
+	
+	/**
+	 * Visits the same sources in the same order as {@link #pumpAll()}, but only pumps those that were added since the last recalculation, whose pump conditions changed or whose pump is not static.<br>
+	 * The double stats touched by a source that was added, removed or changed are then folded again from the contributions of all sources, the others keep their values.
+	 */
+	private void pumpIncremental()
+	{
+		INCREMENTAL_RECALCULATIONS.increment();
+		
+		resetOtherStats();
+		
+		final CharEffectList effectList = _activeChar.getEffectList();
+		for (BuffInfo info : effectList.getEffects())
+		{
+			if (info.isInUse())
+			{
+				pumpSource(info, info.getEffects(), info.getEffector(), info.getEffected(), info.getSkill(), true);
+			}
+		}
+		
+		for (BuffInfo info : effectList.getOptions())
+		{
+			if (info.isInUse())
+			{
+				pumpSource(info, info.getEffects(), info.getEffector(), info.getEffected(), info.getSkill(), true);
+			}
+		}
+		
+		for (Skill skill : _activeChar.getAllSkills())
+		{
+			if (skill.isPassive() && skill.checkConditions(SkillConditionScope.PASSIVE, _activeChar, _activeChar) && skill.hasEffects(EffectScope.GENERAL))
+			{
+				pumpSource(skill, skill.getEffects(EffectScope.GENERAL), _activeChar, _activeChar, skill, true);
+			}
+		}
+		
+		if (_activeChar.isSummon() && (_activeChar.getActingPlayer() != null) && _activeChar.getActingPlayer().hasAbnormalType(AbnormalType.ABILITY_CHANGE))
+		{
+			// These depend on the stats of the owner, so they are pumped every time
+			for (BuffInfo info : _activeChar.getActingPlayer().getEffectList().getEffects())
+			{
+				if (info.isInUse() && info.isAbnormalType(AbnormalType.ABILITY_CHANGE))
+				{
+					pumpSource(info, info.getSkill().getEffects(EffectScope.GENERAL), _activeChar, _activeChar, info.getSkill(), false);
+				}
+			}
+		}
+		
+		for (StatsHolder holder : _additionalAdd)
+		{
+			if (holder.verifyCondition(_activeChar))
+			{
+				pumpAdditionalStat(holder, false);
+			}
+		}
+		
+		for (StatsHolder holder : _additionalMul)
+		{
+			if (holder.verifyCondition(_activeChar))
+			{
+				pumpAdditionalStat(holder, true);
+			}
+		}
+		
+		// Sources gone since the last recalculation
+		for (Entry<Object, StatContribution> entry : _contributions.entrySet())
+		{
+			if (!_nextContributions.containsKey(entry.getKey()))
+			{
+				entry.getValue().collectStats(_dirtyStats);
+			}
+		}
+		
+		// Nothing was kept, so stats no source touches anymore have to be reset as well
+		if (_contributions.isEmpty())
+		{
+			_doubleStats.forEach((k, v) -> v.reset(k));
+		}
+		
+		for (DoubleStat stat : _dirtyStats)
+		{
+			final DoubleStatValue value = _doubleStats.computeIfAbsent(stat, DoubleStatValue::new);
+			value.reset(stat);
+			for (StatContribution contribution : _orderedContributions)
+			{
+				contribution.fold(stat, value);
+			}
+		}
+		FOLDED_STATS.add(_dirtyStats.size());
+		
+		final Map<Object, StatContribution> contributions = _contributions;
+		_contributions = _nextContributions;
+		_nextContributions = contributions;
+		_nextContributions.clear();
+		_orderedContributions.clear();
+		_dirtyStats.clear();
+	}
+	
+	/**
+	 * Keeps the contribution of a source from the last recalculation if possible, pumps it otherwise.
+	 * @param source the source
+	 * @param effects the effects of the source
+	 * @param effector the effector
+	 * @param effected the effected
+	 * @param skill the skill
+	 * @param cacheable {@code false} if the source has to be pumped regardless of its effects
+	 */
+	private void pumpSource(Object source, List<AbstractEffect> effects, Creature effector, Creature effected, Skill skill, boolean cacheable)
+	{
+		long signature = 0;
+		boolean isStatic = cacheable && (effects.size() < Long.SIZE);
+		for (int i = 0; i < effects.size(); i++)
+		{
+			final AbstractEffect effect = effects.get(i);
+			if (effect.checkPumpCondition(effector, effected, skill))
+			{
+				if (i < Long.SIZE)
+				{
+					signature |= 1L << i;
+				}
+				isStatic &= effect.isStaticPump();
+			}
+		}
+		
+		final StatContribution previous = _contributions.get(source);
+		StatContribution contribution = previous;
+		if ((contribution != null) && isStatic && contribution.isStatic() && (contribution.getSignature() == signature))
+		{
+			KEPT_SOURCES.increment();
+			contribution.replay(this);
+		}
+		else
+		{
+			PUMPED_SOURCES.increment();
+			contribution = new StatContribution(signature, isStatic);
+			_recording = contribution;
+			try
 			{
-				//@formatter:off
-				_activeChar.getActingPlayer().getEffectList().getEffects().stream()
-					.filter(BuffInfo::isInUse)
-					.filter(info -> info.isAbnormalType(AbnormalType.ABILITY_CHANGE))
-					.forEach(info -> info.getSkill().getEffects(EffectScope.GENERAL).stream()
-						.filter(effect -> effect.checkPumpCondition(_activeChar, _activeChar, info.getSkill()))
-						.forEach(effect -> effect.pump(_activeChar, info.getSkill())));
-				//@formatter:on
+				for (int i = 0; i < effects.size(); i++)
+				{
+					final AbstractEffect effect = effects.get(i);
+					if ((i < Long.SIZE) ? ((signature & (1L << i)) != 0) : effect.checkPumpCondition(effector, effected, skill))
+					{
+						effect.pump(effected, skill);
+					}
+				}
+			}
+			finally
+			{
+				_recording = null;
 			}
 			
-			// Merge with additional stats
-			_additionalAdd.stream().filter(holder -> holder.verifyCondition(_activeChar)).forEach(holder -> mergeAdd(holder.getStat(), holder.getValue()));
-			_additionalMul.stream().filter(holder -> holder.verifyCondition(_activeChar)).forEach(holder -> mergeMul(holder.getStat(), holder.getValue()));
+			if ((previous == null) || !previous.hasSameDoubleStats(contribution))
+			{
+				if (previous != null)
+				{
+					previous.collectStats(_dirtyStats);
+				}
+				contribution.collectStats(_dirtyStats);
+			}
+		}
+		
+		_nextContributions.put(source, contribution);
+		_orderedContributions.add(contribution);
+	}
+	
+	private void pumpAdditionalStat(StatsHolder holder, boolean mul)
+	{
+		StatContribution contribution = _contributions.get(holder);
+		if (contribution == null)
+		{
+			PUMPED_SOURCES.increment();
+			contribution = new StatContribution(0, true);
+			contribution.addDoubleStat(holder.getStat(), holder.getValue(), mul);
+			_dirtyStats.add(holder.getStat());
+		}
+		else
+		{
+			KEPT_SOURCES.increment();
+		}
+		
+		_nextContributions.put(holder, contribution);
+		_orderedContributions.add(contribution);
+	}
+	
+	/**
+	 * Runs a full recalculation over the result of an incremental one and logs the double stats on which they differ.<br>
+	 * The result of the full recalculation is kept, on a difference the contributions are dropped so the next incremental recalculation starts over.
+	 * @return {@code true} if both recalculations had the same result, {@code false} otherwise
+	 */
+	private boolean verifyIncremental()
+	{
+		final Map<DoubleStat, double[]> incremental = new EnumMap<>(DoubleStat.class);
+		_doubleStats.forEach((stat, value) -> incremental.put(stat, new double[]
+		{
+			value.getAdd(),
+			value.getMul()
+		}));
+		
+		resetStats();
+		pumpAll();
+		
+		boolean matches = true;
+		for (Entry<DoubleStat, DoubleStatValue> entry : _doubleStats.entrySet())
+		{
+			final DoubleStat stat = entry.getKey();
+			final DoubleStatValue value = entry.getValue();
+			final double[] values = incremental.get(stat);
+			final double add = values != null ? values[0] : stat.getResetAddValue();
+			final double mul = values != null ? values[1] : stat.getResetMulValue();
+			if ((Double.compare(add, value.getAdd()) != 0) || (Double.compare(mul, value.getMul()) != 0))
+			{
+				LOGGER.warn("{}: Incremental recalculation of {} gave add {} mul {}, full recalculation gave add {} mul {}", _activeChar, stat, add, mul, value.getAdd(), value.getMul());
+				matches = false;
+			}
+		}
+		
+		if (!matches)
+		{
+			VERIFY_MISMATCHES.increment();
+			_contributions.clear();
+		}
+		return matches;
+	}
+	
+	/**
+	 * Times full and incremental recalculations of these stats.<br>
+	 * Before every incremental recalculation the contribution of one of the buffs is dropped, so it is pumped again as if the buff was just added.
+	 * @param iterations the amount of recalculations of each kind
+	 * @return the timings
+	 */
+	public List<String> benchmark(int iterations)
+	{
+		final List<Object> buffs = new ArrayList<>();
+		final long fullTime;
+		final long incrementalTime;
+		final boolean matches;
+		_lock.writeLock().lock();
+		try
+		{
+			long start = System.nanoTime();
+			for (int i = 0; i < iterations; i++)
+			{
+				resetStats();
+				pumpAll();
+			}
+			fullTime = System.nanoTime() - start;
 			
-			_attackSpeedMultiplier = Formulas.calcAtkSpdMultiplier(_activeChar);
-			_mAttackSpeedMultiplier = Formulas.calcMAtkSpdMultiplier(_activeChar);
+			_contributions.clear();
+			pumpIncremental();
+			for (BuffInfo info : _activeChar.getEffectList().getEffects())
+			{
+				if (_contributions.containsKey(info))
+				{
+					buffs.add(info);
+				}
+			}
 			
-			if (broadcast)
+			start = System.nanoTime();
+			for (int i = 0; i < iterations; i++)
 			{
-				// Calculate the difference between old and new stats
-				for (Entry<DoubleStat, DoubleStatValue> entry : _doubleStats.entrySet())
+				if (!buffs.isEmpty())
 				{
-					if (entry.getValue().hasChanged())
-					{
-						if (changedDoubleStats == null)
-						{
-							changedDoubleStats = new HashSet<>();
-						}
-						changedDoubleStats.add(entry.getKey());
-					}
+					_contributions.remove(buffs.get(i % buffs.size()));
 				}
+				pumpIncremental();
 			}
+			incrementalTime = System.nanoTime() - start;
+			
+			matches = verifyIncremental();
 		}
 		finally
 		{
 			_lock.writeLock().unlock();
 		}
 		
-		if (changedDoubleStats != null)
+		final List<String> list = new ArrayList<>();
+		list.add("Stat recalculation of " + _activeChar.getName() + " (" + buffs.size() + " buffs, " + iterations + " times):");
+		list.add("\tFull: ................ " + (TimeUnit.NANOSECONDS.toMicros(fullTime) / (double) iterations) + " us");
+		list.add("\tIncremental: ......... " + (TimeUnit.NANOSECONDS.toMicros(incrementalTime) / (double) iterations) + " us");
+		list.add("\tSame result: ......... " + matches);
+		return list;
+	}
+	
+	public static List<String> getRecalculationStats()
+	{
+		final List<String> list = new ArrayList<>();
+		list.add("Stat Recalculation:");
+		list.add("\tFull: ................ " + FULL_RECALCULATIONS.sum());
+		list.add("\tIncremental: ......... " + INCREMENTAL_RECALCULATIONS.sum());
+		list.add("\tKept sources: ........ " + KEPT_SOURCES.sum());
+		list.add("\tPumped sources: ...... " + PUMPED_SOURCES.sum());
+		list.add("\tFolded stats: ........ " + FOLDED_STATS.sum());
+		list.add("\tOn read: ............. " + ON_READ_RECALCULATIONS.sum());
+		list.add("\tVerify mismatches: ... " + VERIFY_MISMATCHES.sum());
+		return list;
+	}
+	
+	public static List<String> getValueCacheStats()
+	{
+		final List<String> list = new ArrayList<>();
+		list.add("Stat Value Cache:");
+		list.add("\tEnabled: ............. " + GeneralConfig.CACHE_STAT_VALUES);
+		for (Entry<String, ValueCounters> entry : new TreeMap<>(VALUE_COUNTERS).entrySet())
 		{
-			_activeChar.broadcastModifiedStats(changedDoubleStats);
+			final long hits = entry.getValue()._hits.sum();
+			final long finalizations = entry.getValue()._finalizations.sum();
+			list.add("\t" + entry.getKey() + ": " + hits + " hits, " + finalizations + " finalized (" + ((hits * 100) / Math.max(1, hits + finalizations)) + "% hits)");
 		}
-		
-		// Notify recalculation to child classes
-		onRecalculateStats(broadcast);
+		return list;
 	}
 	
 	protected void onRecalculateStats(boolean broadcast)
@@ -878,10 +1521,12 @@ public class CharStat
 	public void mergeMoveTypeValue(DoubleStat stat, MoveType type, double value)
 	{
 		_moveTypeStats.computeIfAbsent(stat, key -> new ConcurrentHashMap<>()).merge(type, value, MathUtil::add);
+		invalidateValues();
 	}
 	
 	public double getReuseTypeValue(int magicType)
 	{
+		ensureRecalculated();
 		_lock.readLock().lock();
 		try
 		{
@@ -895,11 +1540,16 @@ public class CharStat
 	
 	public void mergeReuseTypeValue(int magicType, double value, BiFunction<? super Double, ? super Double, ? extends Double> func)
 	{
+		if (_recording != null)
+		{
+			_recording.addOperation(stat -> stat.mergeReuseTypeValue(magicType, value, func));
+		}
 		_reuseStat.merge(magicType, value, func);
 	}
 	
 	public double getCastChanceValue(int magicType)
 	{
+		ensureRecalculated();
 		_lock.readLock().lock();
 		try
 		{
@@ -913,11 +1563,16 @@ public class CharStat
 	
 	public void mergeCastChanceValue(int magicType, double value, BiFunction<? super Double, ? super Double, ? extends Double> func)
 	{
+		if (_recording != null)
+		{
+			_recording.addOperation(stat -> stat.mergeCastChanceValue(magicType, value, func));
+		}
 		_castingStat.merge(magicType, value, func);
 	}
 	
 	public double getMpConsumeTypeValue(int magicType)
 	{
+		ensureRecalculated();
 		_lock.readLock().lock();
 		try
 		{
@@ -931,6 +1586,10 @@ public class CharStat
 	
 	public void mergeMpConsumeTypeValue(int magicType, double value, BiFunction<? super Double, ? super Double, ? extends Double> func)
 	{
+		if (_recording != null)
+		{
+			_recording.addOperation(stat -> stat.mergeMpConsumeTypeValue(magicType, value, func));
+		}
 		_mpConsumeStat.merge(magicType, value, func);
 	}
 	
@@ -970,11 +1629,16 @@ public class CharStat
 	
 	public void addToVampiricSum(double sum)
 	{
+		if (_recording != null)
+		{
+			_recording.addOperation(stat -> stat.addToVampiricSum(sum));
+		}
 		_vampiricSum += sum;
 	}
 	
 	public double getVampiricSum()
 	{
+		ensureRecalculated();
 		_lock.readLock().lock();
 		try
 		{
@@ -988,11 +1652,16 @@ public class CharStat
 	
 	public void set(BooleanStat stat)
 	{
+		if (_recording != null)
+		{
+			_recording.addOperation(charStat -> charStat.set(stat));
+		}
 		_booleanStats.add(stat);
 	}
 	
 	public boolean has(BooleanStat stat)
 	{
+		ensureRecalculated();
 		_lock.readLock().lock();
 		try
 		{
@@ -1107,7 +1776,9 @@ public class CharStat
 	 */
 	public boolean addFixedValue(DoubleStat stat, Double value)
 	{
-		return _fixedValue.put(stat, value) == null;
+		final boolean added = _fixedValue.put(stat, value) == null;
+		invalidateValue(stat);
+		return added;
 	}
 	
 	/**
@@ -1116,16 +1787,23 @@ public class CharStat
 	 */
 	public boolean removeFixedValue(DoubleStat stat)
 	{
-		return _fixedValue.remove(stat) != null;
+		final boolean removed = _fixedValue.remove(stat) != null;
+		invalidateValue(stat);
+		return removed;
 	}
 	
 	public void addBlockActionsAllowedSkill(int skillId)
 	{
+		if (_recording != null)
+		{
+			_recording.addOperation(stat -> stat.addBlockActionsAllowedSkill(skillId));
+		}
 		_blockActionsAllowedSkills.add(skillId);
 	}
 	
 	public boolean isBlockedActionsAllowedSkill(Skill skill)
 	{
+		ensureRecalculated();
 		_lock.readLock().lock();
 		try
 		{
@@ -1139,11 +1817,16 @@ public class CharStat
 	
 	public void addBlockActionsAllowedItem(int itemId)
 	{
+		if (_recording != null)
+		{
+			_recording.addOperation(stat -> stat.addBlockActionsAllowedItem(itemId));
+		}
 		_blockActionsAllowedItems.add(itemId);
 	}
 	
 	public boolean isBlockedActionsAllowedItem(ItemInstance item)
 	{
+		ensureRecalculated();
 		_lock.readLock().lock();
 		try
 		{
@@ -1154,4 +1837,24 @@ public class CharStat
 			_lock.readLock().unlock();
 		}
 	}
+	
+	private static final class CachedValue
+	{
+		final double _value;
+		final int _epoch;
+		final MoveType _moveType;
+		
+		CachedValue(double value, int epoch, MoveType moveType)
+		{
+			_value = value;
+			_epoch = epoch;
+			_moveType = moveType;
+		}
+	}
+	
+	private static final class ValueCounters
+	{
+		final LongAdder _hits = new LongAdder();
+		final LongAdder _finalizations = new LongAdder();
+	}
 }
@@ -85,8 +85,7 @@ public class PcStat extends PlayableStat
 		}
 		
 		// EXP status update currently not used in retail
-		UserInfo ui = new UserInfo(activeChar, false);
-		ui.addComponentType(UserInfoType.CURRENT_HPMPCP_EXP_SP);
+		UserInfo ui = new UserInfo(activeChar, UserInfoType.CURRENT_HPMPCP_EXP_SP);
 		activeChar.sendPacket(ui);
 		return true;
 	}
@@ -264,7 +263,7 @@ public class PcStat extends PlayableStat
 		// Update the expertise status of the L2PcInstance
 		getActiveChar().refreshExpertisePenalty();
 		// Send a Server->Client packet UserInfo to the L2PcInstance
-		getActiveChar().sendPacket(new UserInfo(getActiveChar()));
+		getActiveChar().updateUserInfo();
 		// Send acquirable skill list
 		getActiveChar().sendPacket(new AcquireSkillList(getActiveChar()));
 		getActiveChar().sendPacket(new ExVoteSystemInfo(getActiveChar()));
@@ -280,8 +279,7 @@ public class PcStat extends PlayableStat
 			return false;
 		}
 		
-		final UserInfo ui = new UserInfo(getActiveChar(), false);
-		ui.addComponentType(UserInfoType.CURRENT_HPMPCP_EXP_SP);
+		final UserInfo ui = new UserInfo(getActiveChar(), UserInfoType.CURRENT_HPMPCP_EXP_SP);
 		getActiveChar().sendPacket(ui);
 		
 		return true;
@@ -388,6 +386,7 @@ public class PcStat extends PlayableStat
 		if (getActiveChar().isSubClassActive())
 		{
 			getActiveChar().getSubClasses().get(getActiveChar().getClassIndex()).setLevel(value);
+			invalidateValues();
 		}
 		else
 		{
@@ -627,6 +626,20 @@ public class PcStat extends PlayableStat
 		return (int) getValue(DoubleStat.BROOCH_JEWELS, 0);
 	}
 	
+	@Override
+	public void invalidateValues()
+	{
+		super.invalidateValues();
+		
+		// The base stats of summons read the armor sets and hennas of their owner
+		final PlayerInstance player = getActiveChar();
+		if (player.getPet() != null)
+		{
+			player.getPet().getStat().invalidateValues();
+		}
+		player.getServitors().values().forEach(servitor -> servitor.getStat().invalidateValues());
+	}
+	
 	@Override
 	protected void onRecalculateStats(boolean broadcast)
 	{
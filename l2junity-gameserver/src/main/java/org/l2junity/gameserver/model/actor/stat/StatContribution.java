@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2004-2017 L2J Unity
+ * 
+ * This file is part of L2J Unity.
+ * 
+ * L2J Unity is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Unity is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2junity.gameserver.model.actor.stat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.l2junity.gameserver.model.stats.DoubleStat;
+import org.l2junity.gameserver.model.stats.DoubleStatValue;
+
+/**
+ * What a single source (a buff, a passive skill or an additional stat) merged into a {@link CharStat} during a recalculation.<br>
+ * Double stat merges are kept in the order they were made, so every stat can be folded again from all sources in exactly the order a full recalculation would merge them.<br>
+ * Everything else (boolean stats, traits, skill type values) is kept as operations that are replayed after those stats are reset.
+ */
+final class StatContribution
+{
+	private static final DoubleStat[] EMPTY_STATS = new DoubleStat[0];
+	private static final double[] EMPTY_VALUES = new double[0];
+	private static final boolean[] EMPTY_MULS = new boolean[0];
+	
+	private final long _signature;
+	private final boolean _static;
+	private DoubleStat[] _stats = EMPTY_STATS;
+	private double[] _values = EMPTY_VALUES;
+	private boolean[] _muls = EMPTY_MULS;
+	private int _size;
+	private List<Consumer<CharStat>> _operations;
+	
+	/**
+	 * @param signature the mask of the effects that passed their pump condition
+	 * @param isStatic {@code true} if this contribution can be kept as long as the signature does not change
+	 */
+	StatContribution(long signature, boolean isStatic)
+	{
+		_signature = signature;
+		_static = isStatic;
+	}
+	
+	long getSignature()
+	{
+		return _signature;
+	}
+	
+	boolean isStatic()
+	{
+		return _static;
+	}
+	
+	void addDoubleStat(DoubleStat stat, double value, boolean mul)
+	{
+		if (_size == _stats.length)
+		{
+			final int capacity = Math.max(4, _size * 2);
+			_stats = Arrays.copyOf(_stats, capacity);
+			_values = Arrays.copyOf(_values, capacity);
+			_muls = Arrays.copyOf(_muls, capacity);
+		}
+		_stats[_size] = stat;
+		_values[_size] = value;
+		_muls[_size] = mul;
+		_size++;
+	}
+	
+	void addOperation(Consumer<CharStat> operation)
+	{
+		if (_operations == null)
+		{
+			_operations = new ArrayList<>(2);
+		}
+		_operations.add(operation);
+	}
+	
+	/**
+	 * Replays everything but the double stat merges.
+	 * @param charStat the stats to replay on
+	 */
+	void replay(CharStat charStat)
+	{
+		if (_operations != null)
+		{
+			_operations.forEach(operation -> operation.accept(charStat));
+		}
+	}
+	
+	/**
+	 * @param stats the set to add the double stats merged by this contribution to
+	 */
+	void collectStats(Set<DoubleStat> stats)
+	{
+		for (int i = 0; i < _size; i++)
+		{
+			stats.add(_stats[i]);
+		}
+	}
+	
+	/**
+	 * @param other the other contribution
+	 * @return {@code true} if both contributions merge the same values into the same double stats in the same order, {@code false} otherwise
+	 */
+	boolean hasSameDoubleStats(StatContribution other)
+	{
+		if (_size != other._size)
+		{
+			return false;
+		}
+		
+		for (int i = 0; i < _size; i++)
+		{
+			if ((_stats[i] != other._stats[i]) || (_muls[i] != other._muls[i]) || (Double.compare(_values[i], other._values[i]) != 0))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Merges the values of one double stat, the same way {@link CharStat#mergeAdd(DoubleStat, double)} and {@link CharStat#mergeMul(DoubleStat, double)} do.
+	 * @param stat the double stat
+	 * @param value the value to merge into
+	 */
+	void fold(DoubleStat stat, DoubleStatValue value)
+	{
+		for (int i = 0; i < _size; i++)
+		{
+			if (_stats[i] == stat)
+			{
+				if (_muls[i])
+				{
+					value.setMul(stat.mul(value.getMul(), _values[i]));
+				}
+				else
+				{
+					value.setAdd(stat.add(value.getAdd(), _values[i]));
+				}
+			}
+		}
+	}
+}
@@ -30,6 +30,7 @@ import org.l2junity.gameserver.model.actor.Creature;
 import org.l2junity.gameserver.model.actor.instance.PlayerInstance;
 import org.l2junity.gameserver.model.actor.stat.CharStat;
 import org.l2junity.gameserver.model.events.EventDispatcher;
+import org.l2junity.gameserver.model.events.EventType;
 import org.l2junity.gameserver.model.events.impl.character.OnCreatureHpChange;
 import org.l2junity.gameserver.model.skills.AbnormalType;
 import org.l2junity.gameserver.model.stats.DoubleStat;
@@ -169,7 +170,10 @@ public class CharStatus
 			final double oldHp = getCurrentHp();
 			final double newHp = Math.max(getCurrentHp() - value, activeChar.isUndying() ? 1 : 0);
 			setCurrentHp(newHp);
-			EventDispatcher.getInstance().notifyEventAsync(new OnCreatureHpChange(activeChar, oldHp, newHp), activeChar);
+			if (EventDispatcher.getInstance().hasListener(EventType.ON_CREATURE_HP_CHANGE, activeChar))
+			{
+				EventDispatcher.getInstance().notifyEventAsync(new OnCreatureHpChange(activeChar, oldHp, newHp), activeChar);
+			}
 		}
 		
 		if ((activeChar.getCurrentHp() < 0.5)) // Die
@@ -204,7 +208,7 @@ public class CharStatus
 			int period = Formulas.getRegeneratePeriod(getActiveChar());
 			
 			// Create the HP/MP/CP Regeneration task
-			_regTask = ThreadPool.scheduleAtFixedRate(new RegenTask(), period, period, TimeUnit.MILLISECONDS);
+			_regTask = ThreadPool.getTickScheduler().scheduleAtFixedRate(new RegenTask(), period, period, TimeUnit.MILLISECONDS);
 		}
 	}
 	
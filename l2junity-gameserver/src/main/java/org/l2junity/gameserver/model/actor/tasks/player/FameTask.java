@@ -22,7 +22,6 @@ import org.l2junity.gameserver.config.L2JModsConfig;
 import org.l2junity.gameserver.config.PlayerConfig;
 import org.l2junity.gameserver.model.actor.instance.PlayerInstance;
 import org.l2junity.gameserver.network.client.send.SystemMessage;
-import org.l2junity.gameserver.network.client.send.UserInfo;
 import org.l2junity.gameserver.network.client.send.string.SystemMessageId;
 
 /**
@@ -55,6 +54,6 @@ public class FameTask implements Runnable
 		SystemMessage sm = SystemMessage.getSystemMessage(SystemMessageId.YOU_HAVE_ACQUIRED_S1_FAME);
 		sm.addInt(_value);
 		_player.sendPacket(sm);
-		_player.sendPacket(new UserInfo(_player));
+		_player.updateUserInfo();
 	}
 }
@@ -20,7 +20,6 @@ package org.l2junity.gameserver.model.actor.tasks.player;
 
 import org.l2junity.gameserver.model.actor.instance.PlayerInstance;
 import org.l2junity.gameserver.network.client.send.SystemMessage;
-import org.l2junity.gameserver.network.client.send.UserInfo;
 import org.l2junity.gameserver.network.client.send.string.SystemMessageId;
 
 /**
@@ -55,7 +54,7 @@ public class RecoGiveTask implements Runnable
 			final SystemMessage sm = SystemMessage.getSystemMessage(SystemMessageId.YOU_OBTAINED_S1_RECOMMENDATION_S);
 			sm.addInt(recoToGive);
 			_player.sendPacket(sm);
-			_player.sendPacket(new UserInfo(_player));
+			_player.updateUserInfo();
 		}
 	}
 }
@@ -138,6 +138,15 @@ public abstract class AbstractEffect
 		
 	}
 	
+	/**
+	 * Effects whose {@link #pump(Creature, Skill)} only depends on their own parameters should override this, so their contribution to the stats is kept between recalculations instead of being pumped again.
+	 * @return {@code true} if {@link #pump(Creature, Skill)} always merges the same values into the stats, {@code false} otherwise
+	 */
+	public boolean isStaticPump()
+	{
+		return false;
+	}
+	
 	/**
 	 * @param target
 	 * @param skill
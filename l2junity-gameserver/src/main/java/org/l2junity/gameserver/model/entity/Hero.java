@@ -60,8 +60,8 @@ import org.l2junity.gameserver.network.client.send.InventoryUpdate;
 import org.l2junity.gameserver.network.client.send.NpcHtmlMessage;
 import org.l2junity.gameserver.network.client.send.SocialAction;
 import org.l2junity.gameserver.network.client.send.SystemMessage;
-import org.l2junity.gameserver.network.client.send.UserInfo;
 import org.l2junity.gameserver.network.client.send.string.SystemMessageId;
+import org.l2junity.gameserver.taskmanager.WriteBehindTaskManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -905,6 +905,8 @@ public class Hero
 	
 	private void deleteItemsInDb()
 	{
+		// The items of any owner may be deleted
+		WriteBehindTaskManager.getInstance().flush();
 		try (Connection con = DatabaseFactory.getInstance().getConnection();
 			PreparedStatement statement = con.prepareStatement(DELETE_ITEMS))
 		{
@@ -975,7 +977,6 @@ public class Hero
 		
 		player.setHero(true);
 		player.broadcastPacket(new SocialAction(player.getObjectId(), 20016)); // Hero Animation
-		player.sendPacket(new UserInfo(player));
 		player.broadcastUserInfo();
 		// Set Gained hero and reload data
 		setHeroGained(player.getObjectId());
@@ -62,7 +62,6 @@ import org.l2junity.gameserver.model.events.impl.sieges.OnCastleSiegeOwnerChange
 import org.l2junity.gameserver.model.events.impl.sieges.OnCastleSiegeStart;
 import org.l2junity.gameserver.network.client.send.SiegeInfo;
 import org.l2junity.gameserver.network.client.send.SystemMessage;
-import org.l2junity.gameserver.network.client.send.UserInfo;
 import org.l2junity.gameserver.network.client.send.string.SystemMessageId;
 import org.l2junity.gameserver.util.Broadcast;
 import org.slf4j.Logger;
@@ -596,7 +595,7 @@ public class Siege implements Siegable
 						member.startFameTask(PlayerConfig.CASTLE_ZONE_FAME_TASK_FREQUENCY * 1000, PlayerConfig.CASTLE_ZONE_FAME_AQUIRE_POINTS);
 					}
 				}
-				member.sendPacket(new UserInfo(member));
+				member.updateUserInfo();
 				member.broadcastRelationChanged();
 			}
 		}
@@ -628,7 +627,7 @@ public class Siege implements Siegable
 					}
 				}
 				
-				member.sendPacket(new UserInfo(member));
+				member.updateUserInfo();
 				member.broadcastRelationChanged();
 			}
 		}
@@ -18,7 +18,6 @@
  */
 package org.l2junity.gameserver.model.events;
 
-import java.util.Queue;
 import java.util.concurrent.TimeUnit;
 
 import org.l2junity.commons.util.concurrent.ThreadPool;
@@ -39,6 +38,17 @@ public final class EventDispatcher
 	{
 	}
 	
+	/**
+	 * Checks whether an event would be notified to any listener, callers of frequent events check this before creating the event.
+	 * @param type the type of the event
+	 * @param container the local listeners container, can be {@code null}
+	 * @return {@code true} if the global container or the local container has a listener for the event type, {@code false} otherwise
+	 */
+	public boolean hasListener(EventType type, ListenersContainer container)
+	{
+		return ListenersContainer.isRegistered(type) && (Containers.Global().hasListener(type) || ((container != null) && container.hasListener(type)));
+	}
+	
 	/**
 	 * @param <T>
 	 * @param event
@@ -82,7 +92,7 @@ public final class EventDispatcher
 	{
 		try
 		{
-			return Containers.Global().hasListener(event.getType()) || ((container != null) && container.hasListener(event.getType())) ? notifyEventImpl(event, container, callbackClass) : null;
+			return hasListener(event.getType(), container) ? notifyEventImpl(event, container, callbackClass) : null;
 		}
 		catch (Exception e)
 		{
@@ -103,6 +113,11 @@ public final class EventDispatcher
 			throw new NullPointerException("Event cannot be null!");
 		}
 		
+		if (!ListenersContainer.isRegistered(event.getType()))
+		{
+			return;
+		}
+		
 		boolean hasListeners = Containers.Global().hasListener(event.getType());
 		if (!hasListeners)
 		{
@@ -130,7 +145,7 @@ public final class EventDispatcher
 	 */
 	public void notifyEventAsyncDelayed(IBaseEvent event, ListenersContainer container, long delay)
 	{
-		if (Containers.Global().hasListener(event.getType()) || container.hasListener(event.getType()))
+		if (hasListener(event.getType(), container))
 		{
 			ThreadPool.schedule(() -> notifyEvent(event, container, null), delay, TimeUnit.MILLISECONDS);
 		}
@@ -145,7 +160,7 @@ public final class EventDispatcher
 	 */
 	public void notifyEventAsyncDelayed(IBaseEvent event, ListenersContainer container, long delay, TimeUnit unit)
 	{
-		if (Containers.Global().hasListener(event.getType()) || container.hasListener(event.getType()))
+		if (hasListener(event.getType(), container))
 		{
 			ThreadPool.schedule(() -> notifyEvent(event, container, null), delay, unit);
 		}
@@ -175,7 +190,7 @@ public final class EventDispatcher
 				{
 					if ((callback == null) || !callback.abort())
 					{
-						callback = notifyToListeners(container.getListeners(event.getType()), event, callbackClass, callback);
+						callback = notifyToListeners(container.getListenerArray(event.getType()), event, callbackClass, callback);
 					}
 				}
 			}
@@ -183,7 +198,7 @@ public final class EventDispatcher
 			// Global listener container.
 			if ((callback == null) || !callback.abort())
 			{
-				callback = notifyToListeners(Containers.Global().getListeners(event.getType()), event, callbackClass, callback);
+				callback = notifyToListeners(Containers.Global().getListenerArray(event.getType()), event, callbackClass, callback);
 			}
 			
 			return callback;
@@ -213,13 +228,13 @@ public final class EventDispatcher
 		// Local listener container first.
 		if (container != null)
 		{
-			callback = notifyToListeners(container.getListeners(event.getType()), event, callbackClass, callback);
+			callback = notifyToListeners(container.getListenerArray(event.getType()), event, callbackClass, callback);
 		}
 		
 		// Global listener container.
 		if ((callback == null) || !callback.abort())
 		{
-			callback = notifyToListeners(Containers.Global().getListeners(event.getType()), event, callbackClass, callback);
+			callback = notifyToListeners(Containers.Global().getListenerArray(event.getType()), event, callbackClass, callback);
 		}
 		
 		return callback;
@@ -233,7 +248,7 @@ public final class EventDispatcher
 	 * @param callback
 	 * @return
 	 */
-	private <T extends AbstractEventReturn> T notifyToListeners(Queue<AbstractEventListener> listeners, IBaseEvent event, Class<T> returnBackClass, T callback)
+	private <T extends AbstractEventReturn> T notifyToListeners(AbstractEventListener[] listeners, IBaseEvent event, Class<T> returnBackClass, T callback)
 	{
 		for (AbstractEventListener listener : listeners)
 		{
@@ -18,21 +18,28 @@
  */
 package org.l2junity.gameserver.model.events;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
-import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.function.Predicate;
 
-import org.l2junity.commons.util.EmptyQueue;
 import org.l2junity.gameserver.model.events.listeners.AbstractEventListener;
 
 /**
+ * Keeps an immutable array of listeners per event type, sorted by priority, which is replaced as a whole whenever a listener is added or removed.<br>
+ * Notifying an event only reads the current array, so it takes no lock and never sees a listener list that is being modified.
  * @author UnAfraid
  */
 public class ListenersContainer
 {
-	private volatile Map<EventType, Queue<AbstractEventListener>> _listeners = null;
+	private static final AbstractEventListener[] EMPTY_LISTENERS = new AbstractEventListener[0];
+	/** Amount of listeners registered on any container by event type */
+	private static final AtomicIntegerArray REGISTERED_LISTENERS = new AtomicIntegerArray(EventType.values().length);
+	
+	private volatile Map<EventType, AbstractEventListener[]> _listeners = null;
 	
 	/**
 	 * Registers listener for a callback when specified event is executed.
@@ -45,7 +52,11 @@ public class ListenersContainer
 		{
 			throw new NullPointerException("Listener cannot be null!");
 		}
-		getListeners().computeIfAbsent(listener.getType(), k -> new PriorityBlockingQueue<>()).add(listener);
+		getListeners().compute(listener.getType(), (type, listeners) ->
+		{
+			REGISTERED_LISTENERS.incrementAndGet(type.ordinal());
+			return add(listeners != null ? listeners : EMPTY_LISTENERS, listener);
+		});
 		return listener;
 	}
 	
@@ -69,7 +80,15 @@ public class ListenersContainer
 			throw new IllegalAccessError("Listeners container doesn't had " + listener.getType() + " event type added!");
 		}
 		
-		_listeners.get(listener.getType()).remove(listener);
+		_listeners.computeIfPresent(listener.getType(), (type, listeners) ->
+		{
+			final AbstractEventListener[] newListeners = remove(listeners, listener);
+			if (newListeners != listeners)
+			{
+				REGISTERED_LISTENERS.decrementAndGet(type.ordinal());
+			}
+			return newListeners;
+		});
 		return listener;
 	}
 	
@@ -77,9 +96,28 @@ public class ListenersContainer
 	 * @param type
 	 * @return {@code List} of {@link AbstractEventListener} by the specified type
 	 */
-	public Queue<AbstractEventListener> getListeners(EventType type)
+	public List<AbstractEventListener> getListeners(EventType type)
 	{
-		return (_listeners != null) && _listeners.containsKey(type) ? _listeners.get(type) : EmptyQueue.emptyQueue();
+		final AbstractEventListener[] listeners = getListenerArray(type);
+		return listeners.length > 0 ? Collections.unmodifiableList(Arrays.asList(listeners)) : Collections.emptyList();
+	}
+	
+	/**
+	 * Gets the listeners notified of an event of the specified type, in the order they are notified.<br>
+	 * The array is shared, it must not be modified.
+	 * @param type
+	 * @return the listeners, an empty array if there are none
+	 */
+	public AbstractEventListener[] getListenerArray(EventType type)
+	{
+		final Map<EventType, AbstractEventListener[]> listeners = _listeners;
+		if (listeners == null)
+		{
+			return EMPTY_LISTENERS;
+		}
+		
+		final AbstractEventListener[] array = listeners.get(type);
+		return array != null ? array : EMPTY_LISTENERS;
 	}
 	
 	public void removeListenerIf(EventType type, Predicate<? super AbstractEventListener> filter)
@@ -91,20 +129,36 @@ public class ListenersContainer
 	{
 		if (_listeners != null)
 		{
-			getListeners().values().forEach(queue -> queue.stream().filter(filter).forEach(AbstractEventListener::unregisterMe));
+			getListeners().values().forEach(listeners -> Arrays.stream(listeners).filter(filter).forEach(AbstractEventListener::unregisterMe));
 		}
 	}
 	
 	public boolean hasListener(EventType type)
 	{
-		return !getListeners(type).isEmpty();
+		final Map<EventType, AbstractEventListener[]> listeners = _listeners;
+		if (listeners == null)
+		{
+			return false;
+		}
+		
+		final AbstractEventListener[] array = listeners.get(type);
+		return (array != null) && (array.length > 0);
+	}
+	
+	/**
+	 * @param type
+	 * @return {@code true} if a listener of the specified type is registered on any container, {@code false} otherwise
+	 */
+	public static boolean isRegistered(EventType type)
+	{
+		return REGISTERED_LISTENERS.get(type.ordinal()) > 0;
 	}
 	
 	/**
 	 * Creates the listeners container map if doesn't exists.
 	 * @return the listeners container map.
 	 */
-	private Map<EventType, Queue<AbstractEventListener>> getListeners()
+	private Map<EventType, AbstractEventListener[]> getListeners()
 	{
 		if (_listeners == null)
 		{
@@ -118,4 +172,49 @@ public class ListenersContainer
 		}
 		return _listeners;
 	}
+	
+	/**
+	 * @param listeners the sorted listeners
+	 * @param listener the listener to add
+	 * @return a copy of the listeners with the listener inserted after all listeners of a higher or the same priority
+	 */
+	private static AbstractEventListener[] add(AbstractEventListener[] listeners, AbstractEventListener listener)
+	{
+		int index = listeners.length;
+		while ((index > 0) && (listeners[index - 1].compareTo(listener) > 0))
+		{
+			index--;
+		}
+		
+		final AbstractEventListener[] result = new AbstractEventListener[listeners.length + 1];
+		System.arraycopy(listeners, 0, result, 0, index);
+		result[index] = listener;
+		System.arraycopy(listeners, index, result, index + 1, listeners.length - index);
+		return result;
+	}
+	
+	/**
+	 * @param listeners the sorted listeners
+	 * @param listener the listener to remove
+	 * @return a copy of the listeners without the listener, the same array if it does not contain the listener
+	 */
+	private static AbstractEventListener[] remove(AbstractEventListener[] listeners, AbstractEventListener listener)
+	{
+		for (int i = 0; i < listeners.length; i++)
+		{
+			if (listeners[i] == listener)
+			{
+				if (listeners.length == 1)
+				{
+					return EMPTY_LISTENERS;
+				}
+				
+				final AbstractEventListener[] result = new AbstractEventListener[listeners.length - 1];
+				System.arraycopy(listeners, 0, result, 0, i);
+				System.arraycopy(listeners, i + 1, result, i, listeners.length - i - 1);
+				return result;
+			}
+		}
+		return listeners;
+	}
 }
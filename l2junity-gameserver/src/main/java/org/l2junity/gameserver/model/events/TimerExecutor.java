@@ -18,47 +18,68 @@
  */
 package org.l2junity.gameserver.model.events;
 
-import java.util.Collection;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 
+import org.l2junity.gameserver.instancemanager.TimersManager;
 import org.l2junity.gameserver.model.StatsSet;
 import org.l2junity.gameserver.model.actor.Npc;
 import org.l2junity.gameserver.model.actor.instance.PlayerInstance;
 import org.l2junity.gameserver.model.events.timers.IEventTimerCancel;
 import org.l2junity.gameserver.model.events.timers.IEventTimerEvent;
+import org.l2junity.gameserver.model.events.timers.ScriptTimerStats;
 import org.l2junity.gameserver.model.events.timers.TimerHolder;
+import org.l2junity.gameserver.model.events.timers.TimerKey;
 
 /**
+ * The event timers of a script, looked up by {@link TimerKey} and scheduled on the {@link TimersManager}.
  * @author UnAfraid
  * @param <T>
  */
 public final class TimerExecutor<T>
 {
-	private final Map<T, Set<TimerHolder<T>>> _timers = new ConcurrentHashMap<>();
+	private final Map<TimerKey<T>, TimerHolder<T>> _timers = new ConcurrentHashMap<>();
 	private final IEventTimerEvent<T> _eventListener;
 	private final IEventTimerCancel<T> _cancelListener;
+	private final ScriptTimerStats _stats;
 	
 	public TimerExecutor(IEventTimerEvent<T> eventListener, IEventTimerCancel<T> cancelListener)
 	{
 		_eventListener = eventListener;
 		_cancelListener = cancelListener;
+		_stats = TimersManager.getInstance().getScriptStats(eventListener);
 	}
 	
 	/**
-	 * Adds timer
+	 * @return the timer counters of the script
+	 */
+	public ScriptTimerStats getStats()
+	{
+		return _stats;
+	}
+	
+	/**
+	 * Adds timer, a timer with the same event, npc and player is cancelled
 	 * @param holder
 	 * @return {@code true} if timer were successfully added, {@code false} in case it exists already
 	 */
 	public boolean addTimer(TimerHolder<T> holder)
 	{
-		final Set<TimerHolder<T>> timers = _timers.computeIfAbsent(holder.getEvent(), key -> ConcurrentHashMap.newKeySet());
-		removeAndCancelTimers(timers, holder::equals);
-		return timers.add(holder);
+		final TimerHolder<T> oldHolder = _timers.put(holder.getKey(), holder);
+		if (oldHolder == holder)
+		{
+			return false;
+		}
+		
+		if (oldHolder != null)
+		{
+			oldHolder.cancelTimer();
+		}
+		holder.start();
+		return true;
 	}
 	
 	/**
@@ -166,22 +187,25 @@ public final class TimerExecutor<T>
 		// Remove non repeating timer upon execute
 		if (!holder.isRepeating())
 		{
-			// Remove the timer
-			_timers.computeIfPresent(holder.getEvent(), (t, timers) ->
-			{
-				removeAndCancelTimers(timers, holder::equals);
-				return timers.isEmpty() ? null : timers;
-			});
+			removeTimer(holder);
 		}
 	}
-
+	
+	/**
+	 * Removes the timer from the _timers map unless it was replaced already, it is not cancelled
+	 * @param holder
+	 */
+	public void removeTimer(TimerHolder<T> holder)
+	{
+		_timers.remove(holder.getKey(), holder);
+	}
+	
 	/**
 	 * Cancels and removes all timers from the _timers map
 	 */
 	public void cancelAllTimers()
 	{
-		_timers.values().stream().flatMap(Set::stream).forEach(TimerHolder::cancelTimer);
-		_timers.clear();
+		removeAndCancelTimers(timer -> true);
 	}
 	
 	/**
@@ -192,13 +216,7 @@ public final class TimerExecutor<T>
 	 */
 	public boolean hasTimer(T event, Npc npc, PlayerInstance player)
 	{
-		final Set<TimerHolder<T>> timers = _timers.get(event);
-		if ((timers == null) || timers.isEmpty())
-		{
-			return false;
-		}
-		
-		return timers.stream().anyMatch(holder -> holder.isEqual(event, npc, player));
+		return _timers.containsKey(new TimerKey<>(event, npc, player));
 	}
 	
 	/**
@@ -207,7 +225,7 @@ public final class TimerExecutor<T>
 	 */
 	public boolean hasTimers(T event)
 	{
-		return _timers.containsKey(event);
+		return _timers.keySet().stream().anyMatch(key -> key.getEvent().equals(event));
 	}
 	
 	/**
@@ -216,14 +234,7 @@ public final class TimerExecutor<T>
 	 */
 	public boolean cancelTimers(T event)
 	{
-		final Set<TimerHolder<T>> timers = _timers.remove(event);
-		if ((timers == null) || timers.isEmpty())
-		{
-			return false;
-		}
-		
-		timers.forEach(TimerHolder::cancelTimer);
-		return true;
+		return removeAndCancelTimers(timer -> timer.getEvent().equals(event));
 	}
 	
 	/**
@@ -234,14 +245,8 @@ public final class TimerExecutor<T>
 	 */
 	public boolean cancelTimer(T event, Npc npc, PlayerInstance player)
 	{
-		final Set<TimerHolder<T>> timers = _timers.get(event);
-		if ((timers == null) || timers.isEmpty())
-		{
-			return false;
-		}
-		
-		removeAndCancelTimers(timers, timer -> timer.isEqual(event, npc, player));
-		return false;
+		final TimerHolder<T> holder = _timers.remove(new TimerKey<>(event, npc, player));
+		return (holder != null) && holder.cancelTimer();
 	}
 	
 	/**
@@ -256,32 +261,24 @@ public final class TimerExecutor<T>
 	/**
 	 * Removes and Cancels all timers matching the condition
 	 * @param condition
+	 * @return {@code true} if at least one timer were stopped, {@code false} otherwise
 	 */
-	private void removeAndCancelTimers(Predicate<TimerHolder<T>> condition)
-	{
-		Objects.requireNonNull(condition);
-		final Collection<Set<TimerHolder<T>>> allTimers = _timers.values();
-		for (Set<TimerHolder<T>> timers : allTimers)
-		{
-			removeAndCancelTimers(timers, condition);
-		}
-	}
-	
-	private void removeAndCancelTimers(Set<TimerHolder<T>> timers, Predicate<TimerHolder<T>> condition)
+	private boolean removeAndCancelTimers(Predicate<TimerHolder<T>> condition)
 	{
-		Objects.requireNonNull(timers);
 		Objects.requireNonNull(condition);
 		
-		final Iterator<TimerHolder<T>> it = timers.iterator();
+		boolean cancelled = false;
+		final Iterator<TimerHolder<T>> it = _timers.values().iterator();
 		while (it.hasNext())
 		{
 			final TimerHolder<T> timer = it.next();
 			if (condition.test(timer))
 			{
 				it.remove();
-				timer.cancelTimer();
+				cancelled |= timer.cancelTimer();
 			}
 		}
+		return cancelled;
 	}
 	
 	/**
@@ -292,23 +289,7 @@ public final class TimerExecutor<T>
 	 */
 	public long getRemainingTime(T event, Npc npc, PlayerInstance player)
 	{
-		final Set<TimerHolder<T>> timers = _timers.get(event);
-		if ((timers == null) || timers.isEmpty())
-		{
-			return -1;
-		}
-		
-		final Iterator<TimerHolder<T>> holders = timers.iterator();
-		while (holders.hasNext())
-		{
-			final TimerHolder<T> holder = holders.next();
-			if (holder.isEqual(event, npc, player))
-			{
-				holders.remove();
-				return holder.getRemainingTime();
-			}
-		}
-		
-		return -1;
+		final TimerHolder<T> holder = _timers.get(new TimerKey<>(event, npc, player));
+		return holder != null ? holder.getRemainingTime() : -1;
 	}
 }
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2004-2017 L2J Unity
+ * 
+ * This file is part of L2J Unity.
+ * 
+ * L2J Unity is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Unity is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2junity.gameserver.model.events.timers;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The timer counters of one script, shared by all its quest timers and event timers.
+ */
+public final class ScriptTimerStats
+{
+	private final String _name;
+	private final LongAdder _started = new LongAdder();
+	private final LongAdder _executed = new LongAdder();
+	private final LongAdder _cancelled = new LongAdder();
+	private final AtomicInteger _active = new AtomicInteger();
+	
+	public ScriptTimerStats(String name)
+	{
+		_name = name;
+	}
+	
+	public void onStart()
+	{
+		_started.increment();
+		_active.incrementAndGet();
+	}
+	
+	/**
+	 * @param finished {@code true} if the timer does not repeat, so it is done after this run
+	 */
+	public void onExecute(boolean finished)
+	{
+		_executed.increment();
+		if (finished)
+		{
+			_active.decrementAndGet();
+		}
+	}
+	
+	public void onCancel()
+	{
+		_cancelled.increment();
+		_active.decrementAndGet();
+	}
+	
+	public String getName()
+	{
+		return _name;
+	}
+	
+	public long getStarted()
+	{
+		return _started.sum();
+	}
+	
+	public long getExecuted()
+	{
+		return _executed.sum();
+	}
+	
+	public long getCancelled()
+	{
+		return _cancelled.sum();
+	}
+	
+	public int getActive()
+	{
+		return _active.get();
+	}
+}
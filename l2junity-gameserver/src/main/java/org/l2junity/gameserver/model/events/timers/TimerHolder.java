@@ -21,8 +21,8 @@ package org.l2junity.gameserver.model.events.timers;
 import java.util.Objects;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-import org.l2junity.commons.util.concurrent.ThreadPool;
 import org.l2junity.gameserver.instancemanager.TimersManager;
 import org.l2junity.gameserver.model.StatsSet;
 import org.l2junity.gameserver.model.actor.Npc;
@@ -30,38 +30,61 @@ import org.l2junity.gameserver.model.actor.instance.PlayerInstance;
 import org.l2junity.gameserver.model.events.TimerExecutor;
 
 /**
+ * A timer of a {@link TimerExecutor}, it is scheduled on the {@link TimersManager} by {@link #start()} once it is registered.
  * @author UnAfraid
  * @param <T>
  */
 public class TimerHolder<T> implements Runnable
 {
-	private final T _event;
+	private final TimerKey<T> _key;
 	private final StatsSet _params;
 	private final long _time;
-	private final Npc _npc;
-	private final PlayerInstance _player;
 	private final boolean _isRepeating;
 	private final IEventTimerEvent<T> _eventScript;
 	private final IEventTimerCancel<T> _cancelScript;
 	private final TimerExecutor<T> _postExecutor;
-	private final ScheduledFuture<?> _task;
+	private final AtomicBoolean _active = new AtomicBoolean(true);
+	private boolean _started;
+	private volatile ScheduledFuture<?> _task;
 	
 	public TimerHolder(T event, StatsSet params, long time, Npc npc, PlayerInstance player, boolean isRepeating, IEventTimerEvent<T> eventScript, IEventTimerCancel<T> cancelScript, TimerExecutor<T> postExecutor)
 	{
 		Objects.requireNonNull(event, getClass().getSimpleName() + ": \"event\" cannot be null!");
 		Objects.requireNonNull(eventScript, getClass().getSimpleName() + ": \"script\" cannot be null!");
 		Objects.requireNonNull(postExecutor, getClass().getSimpleName() + ": \"postExecutor\" cannot be null!");
-		_event = event;
+		_key = new TimerKey<>(event, npc, player);
 		_params = params;
 		_time = time;
-		_npc = npc;
-		_player = player;
 		_isRepeating = isRepeating;
 		_eventScript = eventScript;
 		_cancelScript = cancelScript;
 		_postExecutor = postExecutor;
-		_task = isRepeating ? ThreadPool.scheduleAtFixedRate(this, _time, _time, TimeUnit.MILLISECONDS) : ThreadPool.schedule(this, _time, TimeUnit.MILLISECONDS);
-		TimersManager.getInstance().registerTimer(this);
+	}
+	
+	/**
+	 * Schedules this timer, a timer is started only once.
+	 */
+	public void start()
+	{
+		// Locked along with the cancellation, so it either sees the timer not started or the task already scheduled
+		synchronized (this)
+		{
+			if (!_started && _active.get())
+			{
+				TimersManager.getInstance().registerTimer(this);
+				_postExecutor.getStats().onStart();
+				_task = _isRepeating ? TimersManager.getInstance().scheduleAtFixedRate(this, _time) : TimersManager.getInstance().schedule(this, _time);
+				_started = true;
+			}
+		}
+	}
+	
+	/**
+	 * @return the event, npc and player this timer is looked up by
+	 */
+	public TimerKey<T> getKey()
+	{
+		return _key;
 	}
 	
 	/**
@@ -69,7 +92,7 @@ public class TimerHolder<T> implements Runnable
 	 */
 	public T getEvent()
 	{
-		return _event;
+		return _key.getEvent();
 	}
 	
 	/**
@@ -85,7 +108,7 @@ public class TimerHolder<T> implements Runnable
 	 */
 	public Npc getNpc()
 	{
-		return _npc;
+		return _key.getNpc();
 	}
 	
 	/**
@@ -93,7 +116,7 @@ public class TimerHolder<T> implements Runnable
 	 */
 	public PlayerInstance getPlayer()
 	{
-		return _player;
+		return _key.getPlayer();
 	}
 	
 	/**
@@ -109,12 +132,21 @@ public class TimerHolder<T> implements Runnable
 	 */
 	public boolean cancelTimer()
 	{
-		if (_task.isCancelled() || _task.isDone())
+		if (!_active.compareAndSet(true, false))
 		{
 			return false;
 		}
 		
-		_task.cancel(true);
+		synchronized (this)
+		{
+			if (_started)
+			{
+				_task.cancel(false);
+				_postExecutor.getStats().onCancel();
+				TimersManager.getInstance().unregisterTimer(this);
+			}
+		}
+		_postExecutor.removeTimer(this);
 		_cancelScript.onTimerCancel(this);
 		return true;
 	}
@@ -124,16 +156,12 @@ public class TimerHolder<T> implements Runnable
 	 */
 	public long getRemainingTime()
 	{
-		if (_task == null)
-		{
-			return -1;
-		}
-		
-		if (_task.isCancelled() || _task.isDone())
+		final ScheduledFuture<?> task = _task;
+		if ((task == null) || !_active.get())
 		{
 			return -1;
 		}
-		return _task.getDelay(TimeUnit.MILLISECONDS);
+		return Math.max(task.getDelay(TimeUnit.MILLISECONDS), 0);
 	}
 	
 	/**
@@ -144,12 +172,24 @@ public class TimerHolder<T> implements Runnable
 	 */
 	public boolean isEqual(T event, Npc npc, PlayerInstance player)
 	{
-		return _event.equals(event) && (_npc == npc) && (_player == player);
+		return _key.getEvent().equals(event) && (_key.getNpc() == npc) && (_key.getPlayer() == player);
 	}
 	
 	@Override
 	public void run()
 	{
+		if (_isRepeating ? !_active.get() : !_active.compareAndSet(true, false))
+		{
+			// Cancelled meanwhile
+			return;
+		}
+		
+		_postExecutor.getStats().onExecute(!_isRepeating);
+		if (!_isRepeating)
+		{
+			TimersManager.getInstance().unregisterTimer(this);
+		}
+		
 		// Notify the post executor to remove this timer from the map
 		_postExecutor.onTimerPostExecute(this);
 		
@@ -170,24 +210,18 @@ public class TimerHolder<T> implements Runnable
 			return false;
 		}
 		
-		@SuppressWarnings("unchecked")
-		final TimerHolder<T> holder = (TimerHolder<T>) obj;
-		return isEqual(holder._event, holder._npc, holder._player);
+		return _key.equals(((TimerHolder<?>) obj)._key);
 	}
 	
 	@Override
 	public int hashCode()
 	{
-		int result = _event.hashCode();
-		result = (31 * result) + ((_npc == null) ? 0 : _npc.hashCode());
-		result = (31 * result) + ((_params == null) ? 0 : _params.hashCode());
-		result = (31 * result) + ((_player == null) ? 0 : _player.hashCode());
-		return result;
+		return _key.hashCode();
 	}
 	
 	@Override
 	public String toString()
 	{
-		return "event: " + _event + " params: " + _params + " time: " + _time + " npc: " + _npc + " player: " + _player + " repeating: " + _isRepeating + " script: " + _eventScript.getClass().getSimpleName() + " postExecutor: " + _postExecutor.getClass().getSimpleName();
+		return "event: " + _key.getEvent() + " params: " + _params + " time: " + _time + " npc: " + _key.getNpc() + " player: " + _key.getPlayer() + " repeating: " + _isRepeating + " script: " + _eventScript.getClass().getSimpleName() + " postExecutor: " + _postExecutor.getClass().getSimpleName();
 	}
 }
\ No newline at end of file
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2004-2017 L2J Unity
+ * 
+ * This file is part of L2J Unity.
+ * 
+ * L2J Unity is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Unity is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2junity.gameserver.model.events.timers;
+
+import java.util.Objects;
+
+import org.l2junity.gameserver.model.actor.Npc;
+import org.l2junity.gameserver.model.actor.instance.PlayerInstance;
+
+/**
+ * The key a script timer is looked up and cancelled by, a script has at most one timer per key.<br>
+ * The npc and the player are compared by identity. A respawned npc is the same object (see L2Spawn#respawnNpc), so it still matches the timers started before it was despawned unless they were cancelled.
+ * @param <T> the type of the event
+ */
+public final class TimerKey<T>
+{
+	private final T _event;
+	private final Npc _npc;
+	private final PlayerInstance _player;
+	private final int _hashCode;
+	
+	public TimerKey(T event, Npc npc, PlayerInstance player)
+	{
+		Objects.requireNonNull(event, getClass().getSimpleName() + ": \"event\" cannot be null!");
+		_event = event;
+		_npc = npc;
+		_player = player;
+		_hashCode = (((31 * event.hashCode()) + System.identityHashCode(npc)) * 31) + System.identityHashCode(player);
+	}
+	
+	public T getEvent()
+	{
+		return _event;
+	}
+	
+	public Npc getNpc()
+	{
+		return _npc;
+	}
+	
+	public PlayerInstance getPlayer()
+	{
+		return _player;
+	}
+	
+	@Override
+	public boolean equals(Object obj)
+	{
+		if (this == obj)
+		{
+			return true;
+		}
+		
+		if (!(obj instanceof TimerKey))
+		{
+			return false;
+		}
+		
+		final TimerKey<?> key = (TimerKey<?>) obj;
+		return (_hashCode == key._hashCode) && (_npc == key._npc) && (_player == key._player) && _event.equals(key._event);
+	}
+	
+	@Override
+	public int hashCode()
+	{
+		return _hashCode;
+	}
+	
+	@Override
+	public String toString()
+	{
+		return "event: " + _event + " npc: " + _npc + " player: " + _player;
+	}
+}
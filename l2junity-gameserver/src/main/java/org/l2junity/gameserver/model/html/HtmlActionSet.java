@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2004-2017 L2J Unity
+ * 
+ * This file is part of L2J Unity.
+ * 
+ * L2J Unity is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Unity is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2junity.gameserver.model.html;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.TreeSet;
+
+import org.l2junity.gameserver.network.client.send.AbstractHtmlPacket;
+
+/**
+ * The immutable set of html actions a player may send back for one html scope.<br>
+ * Plain actions are kept sorted for a binary search, actions ending with {@link AbstractHtmlPacket#VAR_PARAM_START_CHAR} are kept as prefixes any action starting with them matches.
+ */
+public final class HtmlActionSet
+{
+	private static final String[] EMPTY_ACTIONS = new String[0];
+	
+	public static final HtmlActionSet EMPTY = new HtmlActionSet(EMPTY_ACTIONS, EMPTY_ACTIONS);
+	
+	private final String[] _actions;
+	private final String[] _prefixes;
+	
+	private HtmlActionSet(String[] actions, String[] prefixes)
+	{
+		_actions = actions;
+		_prefixes = prefixes;
+	}
+	
+	/**
+	 * @param actions the actions as they were found in the html
+	 * @return the set of the actions
+	 */
+	public static HtmlActionSet of(Collection<String> actions)
+	{
+		if (actions.isEmpty())
+		{
+			return EMPTY;
+		}
+		
+		final TreeSet<String> plain = new TreeSet<>();
+		final TreeSet<String> prefixes = new TreeSet<>();
+		for (String action : actions)
+		{
+			if (!action.isEmpty() && (action.charAt(action.length() - 1) == AbstractHtmlPacket.VAR_PARAM_START_CHAR))
+			{
+				prefixes.add(action.substring(0, action.length() - 1).trim());
+			}
+			else
+			{
+				plain.add(action);
+			}
+		}
+		return new HtmlActionSet(plain.toArray(EMPTY_ACTIONS), prefixes.toArray(EMPTY_ACTIONS));
+	}
+	
+	/**
+	 * @param action the action sent by the player
+	 * @return {@code true} if the action matches one of the actions of this set, {@code false} otherwise
+	 */
+	public boolean contains(String action)
+	{
+		if (Arrays.binarySearch(_actions, action) >= 0)
+		{
+			return true;
+		}
+		
+		for (String prefix : _prefixes)
+		{
+			if (action.startsWith(prefix))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * @return the amount of distinct actions and prefixes
+	 */
+	public int size()
+	{
+		return _actions.length + _prefixes.length;
+	}
+	
+	@Override
+	public String toString()
+	{
+		return "actions=" + Arrays.toString(_actions) + ", prefixes=" + Arrays.toString(_prefixes);
+	}
+}
@@ -55,6 +55,7 @@ import org.l2junity.gameserver.model.items.type.WeaponType;
 import org.l2junity.gameserver.model.skills.Skill;
 import org.l2junity.gameserver.network.client.send.ExUserInfoEquipSlot;
 import org.l2junity.gameserver.network.client.send.SkillCoolTime;
+import org.l2junity.gameserver.taskmanager.WriteBehindTaskManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -1646,6 +1647,9 @@ public abstract class Inventory extends ItemContainer
 	@Override
 	public void restore()
 	{
+		// Pending saves of the items have to be written before reading them back.
+		WriteBehindTaskManager.getInstance().flush(getOwnerId());
+		
 		try (Connection con = DatabaseFactory.getInstance().getConnection();
 			PreparedStatement ps = con.prepareStatement("SELECT * FROM items WHERE owner_id=? AND (loc=? OR loc=?) ORDER BY loc_data"))
 		{
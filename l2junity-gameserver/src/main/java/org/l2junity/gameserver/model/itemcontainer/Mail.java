@@ -27,6 +27,7 @@ import org.l2junity.gameserver.enums.ItemLocation;
 import org.l2junity.gameserver.model.World;
 import org.l2junity.gameserver.model.actor.instance.PlayerInstance;
 import org.l2junity.gameserver.model.items.instance.ItemInstance;
+import org.l2junity.gameserver.taskmanager.WriteBehindTaskManager;
 
 /**
  * @author DS
@@ -113,6 +114,9 @@ public class Mail extends ItemContainer
 	@Override
 	public void restore()
 	{
+		// Pending saves of the items have to be written before reading them back.
+		WriteBehindTaskManager.getInstance().flush(getOwnerId());
+		
 		try (Connection con = DatabaseFactory.getInstance().getConnection();
 			PreparedStatement statement = con.prepareStatement("SELECT * FROM items WHERE owner_id=? AND loc=? AND loc_data=?"))
 		{
@@ -93,6 +93,7 @@ import org.l2junity.gameserver.network.client.send.NpcHtmlMessage;
 import org.l2junity.gameserver.network.client.send.SpawnItem;
 import org.l2junity.gameserver.network.client.send.SystemMessage;
 import org.l2junity.gameserver.network.client.send.string.SystemMessageId;
+import org.l2junity.gameserver.taskmanager.WriteBehindTaskManager;
 import org.l2junity.gameserver.util.GMAudit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -106,6 +107,17 @@ public final class ItemInstance extends WorldObject
 	private static final Logger LOGGER = LoggerFactory.getLogger(ItemInstance.class);
 	private static final Logger LOG_ITEMS = LoggerFactory.getLogger("item");
 	
+	private static final String INSERT_ITEM = "INSERT INTO items (owner_id,item_id,count,loc,loc_data,enchant_level,object_id,custom_type1,custom_type2,mana_left,time) VALUES (?,?,?,?,?,?,?,?,?,?,?)";
+	private static final String UPDATE_ITEM = "UPDATE items SET owner_id=?,count=?,loc=?,loc_data=?,enchant_level=?,custom_type1=?,custom_type2=?,mana_left=?,time=? WHERE object_id = ?";
+	private static final String[] DELETE_ITEM =
+	{
+		"DELETE FROM items WHERE object_id = ?",
+		"DELETE FROM item_variations WHERE itemId = ?",
+		"DELETE FROM item_elementals WHERE itemId = ?",
+		"DELETE FROM item_special_abilities WHERE objectId = ?",
+		"DELETE FROM item_variables WHERE id = ?"
+	};
+	
 	/** ID of the owner */
 	private int _ownerId;
 	
@@ -169,6 +181,7 @@ public final class ItemInstance extends WorldObject
 	private int _lastChange = 2; // 1 ??, 2 modified, 3 removed
 	private boolean _existsInDb; // if a record exists in DB.
 	private boolean _storedInDb; // if DB data is up-to-date.
+	private volatile int _storedOwnerId; // the owner in DB.
 	
 	private final ReentrantLock _dbLock = new ReentrantLock();
 	
@@ -240,6 +253,7 @@ public final class ItemInstance extends WorldObject
 		this(rs.getInt("object_id"), ItemTable.getInstance().getTemplate(rs.getInt("item_id")));
 		_count = rs.getLong("count");
 		_ownerId = rs.getInt("owner_id");
+		_storedOwnerId = _ownerId;
 		_loc = ItemLocation.valueOf(rs.getString("loc"));
 		_locData = rs.getInt("loc_data");
 		_enchantLevel = rs.getInt("enchant_level");
@@ -398,6 +412,22 @@ public final class ItemInstance extends WorldObject
 		return _ownerId;
 	}
 	
+	/**
+	 * @return {@code true} if a record of the item exists in the database
+	 */
+	public boolean existsInDb()
+	{
+		return _existsInDb;
+	}
+	
+	/**
+	 * @return the owner of the item as last written to the database, which may differ from {@link #getOwnerId()} while a save is pending
+	 */
+	public int getStoredOwnerId()
+	{
+		return _storedOwnerId;
+	}
+	
 	/**
 	 * Sets the location of the item
 	 * @param loc : ItemLocation (enumeration)
@@ -914,9 +944,25 @@ public final class ItemInstance extends WorldObject
 		clearEnchantStats();
 		_enchantLevel = enchantLevel;
 		applyEnchantStats();
+		invalidateOwnerStats();
 		_storedInDb = false;
 	}
 	
+	/**
+	 * Drops the cached stat values of the owner, they read the enchant and attributes of equipped items.
+	 */
+	private void invalidateOwnerStats()
+	{
+		if (isEquipped())
+		{
+			final PlayerInstance player = getActingPlayer();
+			if (player != null)
+			{
+				player.getStat().invalidateValues();
+			}
+		}
+	}
+	
 	/**
 	 * Returns whether this item is augmented or not
 	 * @return true if augmented
@@ -1199,6 +1245,7 @@ public final class ItemInstance extends WorldObject
 	public void setAttribute(AttributeHolder holder, boolean updateDatabase)
 	{
 		applyAttribute(holder);
+		invalidateOwnerStats();
 		if (updateDatabase)
 		{
 			updateItemElementals();
@@ -1220,6 +1267,7 @@ public final class ItemInstance extends WorldObject
 		{
 			_elementals.remove(type);
 		}
+		invalidateOwnerStats();
 		
 		try (Connection con = DatabaseFactory.getInstance().getConnection();
 			PreparedStatement ps = con.prepareStatement("DELETE FROM item_elementals WHERE itemId = ? AND elemType = ?"))
@@ -1245,6 +1293,7 @@ public final class ItemInstance extends WorldObject
 		{
 			_elementals.clear();
 		}
+		invalidateOwnerStats();
 		
 		try (Connection con = DatabaseFactory.getInstance().getConnection();
 			PreparedStatement ps = con.prepareStatement("DELETE FROM item_elementals WHERE itemId = ?"))
@@ -1419,17 +1468,25 @@ public final class ItemInstance extends WorldObject
 	
 	/**
 	 * Updates the database.<BR>
+	 * The update is delayed by {@link WriteBehindTaskManager} when it is enabled, removals are always done right away because the object id of the item may be reused afterwards.<br>
+	 * A write done right away waits for a running flush writing the item, so it is never overwritten by an older state of the item.
 	 * @param force if the update should necessarilly be done.
 	 */
 	public void updateDatabase(boolean force)
 	{
+		if (isStorable() && WriteBehindTaskManager.getInstance().add(this, force))
+		{
+			return;
+		}
+		
+		WriteBehindTaskManager.getInstance().remove(this);
 		_dbLock.lock();
 		
 		try
 		{
 			if (_existsInDb)
 			{
-				if ((_ownerId == 0) || (_loc == ItemLocation.VOID) || (_loc == ItemLocation.REFUND) || ((_count == 0) && (_loc != ItemLocation.LEASE)))
+				if (!isStorable())
 				{
 					removeFromDb();
 				}
@@ -1440,7 +1497,7 @@ public final class ItemInstance extends WorldObject
 			}
 			else
 			{
-				if ((_ownerId == 0) || (_loc == ItemLocation.VOID) || (_loc == ItemLocation.REFUND) || ((_count == 0) && (_loc != ItemLocation.LEASE)))
+				if (!isStorable())
 				{
 					return;
 				}
@@ -1453,6 +1510,14 @@ public final class ItemInstance extends WorldObject
 		}
 	}
 	
+	/**
+	 * @return {@code true} if the item has to have a record in DB, {@code false} if its record has to be removed
+	 */
+	private boolean isStorable()
+	{
+		return (_ownerId != 0) && (_loc != ItemLocation.VOID) && (_loc != ItemLocation.REFUND) && ((_count != 0) || (_loc == ItemLocation.LEASE));
+	}
+	
 	/**
 	 * Init a dropped L2ItemInstance and add it in the world as a visible object.<BR>
 	 * <BR>
@@ -1555,18 +1620,9 @@ public final class ItemInstance extends WorldObject
 		}
 		
 		try (Connection con = DatabaseFactory.getInstance().getConnection();
-			PreparedStatement ps = con.prepareStatement("UPDATE items SET owner_id=?,count=?,loc=?,loc_data=?,enchant_level=?,custom_type1=?,custom_type2=?,mana_left=?,time=? " + "WHERE object_id = ?"))
-		{
-			ps.setInt(1, _ownerId);
-			ps.setLong(2, _count);
-			ps.setString(3, _loc.name());
-			ps.setInt(4, _locData);
-			ps.setInt(5, getEnchantLevel());
-			ps.setInt(6, getCustomType1());
-			ps.setInt(7, getCustomType2());
-			ps.setInt(8, getMana());
-			ps.setLong(9, getTime());
-			ps.setInt(10, getObjectId());
+			PreparedStatement ps = con.prepareStatement(UPDATE_ITEM))
+		{
+			setUpdateParameters(ps);
 			ps.executeUpdate();
 			_existsInDb = true;
 			_storedInDb = true;
@@ -1577,6 +1633,21 @@ public final class ItemInstance extends WorldObject
 		}
 	}
 	
+	private void setUpdateParameters(PreparedStatement ps) throws SQLException
+	{
+		_storedOwnerId = _ownerId;
+		ps.setInt(1, _ownerId);
+		ps.setLong(2, _count);
+		ps.setString(3, _loc.name());
+		ps.setInt(4, _locData);
+		ps.setInt(5, getEnchantLevel());
+		ps.setInt(6, getCustomType1());
+		ps.setInt(7, getCustomType2());
+		ps.setInt(8, getMana());
+		ps.setLong(9, getTime());
+		ps.setInt(10, getObjectId());
+	}
+	
 	/**
 	 * Insert the item in database
 	 */
@@ -1590,36 +1661,14 @@ public final class ItemInstance extends WorldObject
 		}
 		
 		try (Connection con = DatabaseFactory.getInstance().getConnection();
-			PreparedStatement ps = con.prepareStatement("INSERT INTO items (owner_id,item_id,count,loc,loc_data,enchant_level,object_id,custom_type1,custom_type2,mana_left,time) " + "VALUES (?,?,?,?,?,?,?,?,?,?,?)"))
-		{
-			ps.setInt(1, _ownerId);
-			ps.setInt(2, _itemId);
-			ps.setLong(3, _count);
-			ps.setString(4, _loc.name());
-			ps.setInt(5, _locData);
-			ps.setInt(6, getEnchantLevel());
-			ps.setInt(7, getObjectId());
-			ps.setInt(8, _type1);
-			ps.setInt(9, _type2);
-			ps.setInt(10, getMana());
-			ps.setLong(11, getTime());
-			
+			PreparedStatement ps = con.prepareStatement(INSERT_ITEM))
+		{
+			setInsertParameters(ps);
 			ps.executeUpdate();
 			_existsInDb = true;
 			_storedInDb = true;
 			
-			if (_augmentation != null)
-			{
-				updateItemOptions(con);
-			}
-			if (_elementals != null)
-			{
-				updateItemElements(con);
-			}
-			if ((_ensoulOptions != null) || (_ensoulSpecialOptions != null))
-			{
-				updateSpecialAbilities(con);
-			}
+			insertItemOptions(con);
 		}
 		catch (Exception e)
 		{
@@ -1627,6 +1676,38 @@ public final class ItemInstance extends WorldObject
 		}
 	}
 	
+	private void setInsertParameters(PreparedStatement ps) throws SQLException
+	{
+		_storedOwnerId = _ownerId;
+		ps.setInt(1, _ownerId);
+		ps.setInt(2, _itemId);
+		ps.setLong(3, _count);
+		ps.setString(4, _loc.name());
+		ps.setInt(5, _locData);
+		ps.setInt(6, getEnchantLevel());
+		ps.setInt(7, getObjectId());
+		ps.setInt(8, _type1);
+		ps.setInt(9, _type2);
+		ps.setInt(10, getMana());
+		ps.setLong(11, getTime());
+	}
+	
+	private void insertItemOptions(Connection con)
+	{
+		if (_augmentation != null)
+		{
+			updateItemOptions(con);
+		}
+		if (_elementals != null)
+		{
+			updateItemElements(con);
+		}
+		if ((_ensoulOptions != null) || (_ensoulSpecialOptions != null))
+		{
+			updateSpecialAbilities(con);
+		}
+	}
+	
 	/**
 	 * Delete item from database
 	 */
@@ -1641,34 +1722,13 @@ public final class ItemInstance extends WorldObject
 		
 		try (Connection con = DatabaseFactory.getInstance().getConnection())
 		{
-			try (PreparedStatement ps = con.prepareStatement("DELETE FROM items WHERE object_id = ?"))
-			{
-				ps.setInt(1, getObjectId());
-				ps.executeUpdate();
-			}
-			
-			try (PreparedStatement ps = con.prepareStatement("DELETE FROM item_variations WHERE itemId = ?"))
+			for (String query : DELETE_ITEM)
 			{
-				ps.setInt(1, getObjectId());
-				ps.executeUpdate();
-			}
-			
-			try (PreparedStatement ps = con.prepareStatement("DELETE FROM item_elementals WHERE itemId = ?"))
-			{
-				ps.setInt(1, getObjectId());
-				ps.executeUpdate();
-			}
-			
-			try (PreparedStatement ps = con.prepareStatement("DELETE FROM item_special_abilities WHERE objectId = ?"))
-			{
-				ps.setInt(1, getObjectId());
-				ps.executeUpdate();
-			}
-			
-			try (PreparedStatement ps = con.prepareStatement("DELETE FROM item_variables WHERE id = ?"))
-			{
-				ps.setInt(1, getObjectId());
-				ps.executeUpdate();
+				try (PreparedStatement ps = con.prepareStatement(query))
+				{
+					ps.setInt(1, getObjectId());
+					ps.executeUpdate();
+				}
 			}
 		}
 		catch (Exception e)
@@ -2411,4 +2471,202 @@ public final class ItemInstance extends WorldObject
 			}
 		}
 	}
+	
+	/**
+	 * Collects the database changes of many items into JDBC batches, used by {@link WriteBehindTaskManager}.<br>
+	 * The state of an item is taken when it is added, items changed afterwards are just written again by the next batch.
+	 */
+	public static final class DatabaseBatch implements AutoCloseable
+	{
+		private final Connection _con;
+		private final PreparedStatement _insert;
+		private final PreparedStatement _update;
+		private final PreparedStatement[] _deletes = new PreparedStatement[DELETE_ITEM.length];
+		private final List<ItemInstance> _inserted = new ArrayList<>();
+		private final List<StoredState> _states = new ArrayList<>();
+		private int _deleted;
+		private int _updated;
+		
+		public DatabaseBatch(Connection con) throws SQLException
+		{
+			_con = con;
+			_insert = con.prepareStatement(INSERT_ITEM);
+			_update = con.prepareStatement(UPDATE_ITEM);
+			for (int i = 0; i < DELETE_ITEM.length; i++)
+			{
+				_deletes[i] = con.prepareStatement(DELETE_ITEM[i]);
+			}
+		}
+		
+		/**
+		 * Adds the database change of an item, if it has one.
+		 * @param item the item
+		 * @param force if the update should necessarilly be done.
+		 * @throws SQLException
+		 */
+		public void add(ItemInstance item, boolean force) throws SQLException
+		{
+			item._dbLock.lock();
+			try
+			{
+				if (item._wear)
+				{
+					return;
+				}
+				
+				final StoredState state = new StoredState(item);
+				if (item._existsInDb)
+				{
+					if (!item.isStorable())
+					{
+						for (PreparedStatement delete : _deletes)
+						{
+							delete.setInt(1, item.getObjectId());
+							delete.addBatch();
+						}
+						item._existsInDb = false;
+						item._storedInDb = false;
+						_states.add(state);
+						_deleted++;
+					}
+					else if ((!GeneralConfig.LAZY_ITEMS_UPDATE || force) && !item._storedInDb)
+					{
+						item.setUpdateParameters(_update);
+						_update.addBatch();
+						item._storedInDb = true;
+						_states.add(state);
+						_updated++;
+					}
+				}
+				else if (item.isStorable())
+				{
+					item.setInsertParameters(_insert);
+					_insert.addBatch();
+					item._existsInDb = true;
+					item._storedInDb = true;
+					_states.add(state);
+					_inserted.add(item);
+				}
+			}
+			finally
+			{
+				item._dbLock.unlock();
+			}
+		}
+		
+		/**
+		 * Executes the batches in one transaction, removals first, then inserts and updates.<br>
+		 * When the transaction fails, it is rolled back and all items get back the state they had before they were added.
+		 * @return the amount of written items
+		 * @throws SQLException
+		 */
+		public int execute() throws SQLException
+		{
+			if (_states.isEmpty())
+			{
+				return 0;
+			}
+			
+			final boolean autoCommit = _con.getAutoCommit();
+			_con.setAutoCommit(false);
+			try
+			{
+				if (_deleted > 0)
+				{
+					for (PreparedStatement delete : _deletes)
+					{
+						delete.executeBatch();
+					}
+				}
+				
+				if (!_inserted.isEmpty())
+				{
+					_insert.executeBatch();
+					for (ItemInstance item : _inserted)
+					{
+						item.insertItemOptions(_con);
+					}
+				}
+				
+				if (_updated > 0)
+				{
+					_update.executeBatch();
+				}
+				_con.commit();
+				return _states.size();
+			}
+			catch (SQLException e)
+			{
+				try
+				{
+					_con.rollback();
+				}
+				catch (SQLException e2)
+				{
+					e.addSuppressed(e2);
+				}
+				revert();
+				throw e;
+			}
+			finally
+			{
+				_con.setAutoCommit(autoCommit);
+			}
+		}
+		
+		/**
+		 * Gives all added items back the state they had before they were added, so they are written again on their next update.<br>
+		 * Has to be called when the batch is not executed after items were added.
+		 */
+		public void revert()
+		{
+			_states.forEach(StoredState::restore);
+			_states.clear();
+		}
+		
+		@Override
+		public void close() throws SQLException
+		{
+			_insert.close();
+			_update.close();
+			for (PreparedStatement delete : _deletes)
+			{
+				delete.close();
+			}
+		}
+	}
+	
+	/**
+	 * The database state of an item before it was added to a {@link DatabaseBatch}.
+	 */
+	private static final class StoredState
+	{
+		private final ItemInstance _item;
+		private final boolean _existsInDb;
+		private final boolean _storedInDb;
+		private final int _storedOwnerId;
+		
+		protected StoredState(ItemInstance item)
+		{
+			_item = item;
+			_existsInDb = item._existsInDb;
+			_storedInDb = item._storedInDb;
+			_storedOwnerId = item._storedOwnerId;
+		}
+		
+		protected void restore()
+		{
+			_item._dbLock.lock();
+			try
+			{
+				_item._existsInDb = _existsInDb;
+				_item._storedInDb = _storedInDb;
+				_item._storedOwnerId = _storedOwnerId;
+			}
+			finally
+			{
+				_item._dbLock.unlock();
+			}
+		}
+	}
 }
@@ -41,6 +41,7 @@ import java.util.concurrent.TimeUnit;
 import org.l2junity.commons.loader.annotations.Dependency;
 import org.l2junity.commons.loader.annotations.InstanceGetter;
 import org.l2junity.commons.loader.annotations.Load;
+import org.l2junity.commons.sql.AsyncQueryExecutor;
 import org.l2junity.commons.sql.DatabaseFactory;
 import org.l2junity.commons.util.concurrent.ThreadPool;
 import org.l2junity.gameserver.config.OlympiadConfig;
@@ -72,7 +73,8 @@ public class Olympiad
 	public static final String OLYMPIAD_CONFIG_FILE = "./config/Olympiad.properties"; // FIXME is it still in function?
 	
 	private static final Map<Integer, StatsSet> _nobles = new ConcurrentHashMap<>();
-	private static final Map<Integer, Integer> _noblesRank = new HashMap<>();
+	/** Replaced as a whole once the ranking is read */
+	private static volatile Map<Integer, Integer> _noblesRank = Collections.emptyMap();
 	
 	public static final String OLYMPIAD_HTML_PATH = "data/html/olympiad/";
 	private static final String OLYMPIAD_LOAD_DATA = "SELECT current_cycle, period, olympiad_end, validation_end, " + "next_weekly_change FROM olympiad_data WHERE id = 0";
@@ -87,8 +89,10 @@ public class Olympiad
 	private static final String GET_EACH_CLASS_LEADER_SOULHOUND = "SELECT characters.char_name from olympiad_nobles_eom, characters " + "WHERE characters.charId = olympiad_nobles_eom.charId AND (olympiad_nobles_eom.class_id = ? OR olympiad_nobles_eom.class_id = 133) " + "AND olympiad_nobles_eom.competitions_done >= " + OlympiadConfig.ALT_OLY_MIN_MATCHES + " " + "ORDER BY olympiad_nobles_eom.olympiad_points DESC, olympiad_nobles_eom.competitions_done DESC, olympiad_nobles_eom.competitions_won DESC LIMIT 10";
 	private static final String GET_EACH_CLASS_LEADER_CURRENT_SOULHOUND = "SELECT characters.char_name from olympiad_nobles, characters " + "WHERE characters.charId = olympiad_nobles.charId AND (olympiad_nobles.class_id = ? OR olympiad_nobles.class_id = 133) " + "AND olympiad_nobles.competitions_done >= " + OlympiadConfig.ALT_OLY_MIN_MATCHES + " " + "ORDER BY olympiad_nobles.olympiad_points DESC, olympiad_nobles.competitions_done DESC, olympiad_nobles.competitions_won DESC LIMIT 10";
 	
+	/** Keeps the saves of the noblesse table in order */
+	private static final int NOBLES_QUERY_KEY = "olympiad_nobles".hashCode();
 	private static final String OLYMPIAD_DELETE_ALL = "TRUNCATE olympiad_nobles";
-	private static final String OLYMPIAD_MONTH_CLEAR = "TRUNCATE olympiad_nobles_eom";
+	private static final String OLYMPIAD_MONTH_CLEAR = "DELETE FROM olympiad_nobles_eom";
 	private static final String OLYMPIAD_MONTH_CREATE = "INSERT INTO olympiad_nobles_eom SELECT charId, class_id, olympiad_points, competitions_done, competitions_won, competitions_lost, competitions_drawn FROM olympiad_nobles";
 	
 	private static final Set<Integer> HERO_IDS = CategoryData.getInstance().getCategoryByType(CategoryType.SIXTH_CLASS_GROUP);
@@ -301,29 +305,32 @@ public class Olympiad
 		return _noblesRank.getOrDefault(player.getObjectId(), 0);
 	}
 	
+	/**
+	 * Reads the ranking of the last month on a database thread, after the pending saves of the noblesse table.
+	 */
 	public void loadNoblesRank()
 	{
-		_noblesRank.clear();
-		Map<Integer, Integer> tmpPlace = new HashMap<>();
-		try (Connection con = DatabaseFactory.getInstance().getConnection();
-			PreparedStatement statement = con.prepareStatement(GET_ALL_CLASSIFIED_NOBLESS);
-			ResultSet rset = statement.executeQuery())
+		_noblesRank = Collections.emptyMap();
+		AsyncQueryExecutor.getInstance().query(NOBLES_QUERY_KEY, GET_ALL_CLASSIFIED_NOBLESS, null, rset ->
 		{
-			int place = 1;
+			final List<Integer> charIds = new ArrayList<>();
 			while (rset.next())
 			{
-				tmpPlace.put(rset.getInt(CHAR_ID), place++);
+				charIds.add(rset.getInt(CHAR_ID));
 			}
-		}
-		catch (Exception e)
-		{
-			LOGGER.warn("Error loading noblesse data from database for Ranking: ", e);
-		}
-		
-		int rank1 = (int) Math.round(tmpPlace.size() * 0.01);
-		int rank2 = (int) Math.round(tmpPlace.size() * 0.10);
-		int rank3 = (int) Math.round(tmpPlace.size() * 0.25);
-		int rank4 = (int) Math.round(tmpPlace.size() * 0.50);
+			return charIds;
+		}, Olympiad::setNoblesRank);
+	}
+	
+	/**
+	 * @param charIds the classified nobles, best first
+	 */
+	private static void setNoblesRank(List<Integer> charIds)
+	{
+		int rank1 = (int) Math.round(charIds.size() * 0.01);
+		int rank2 = (int) Math.round(charIds.size() * 0.10);
+		int rank3 = (int) Math.round(charIds.size() * 0.25);
+		int rank4 = (int) Math.round(charIds.size() * 0.50);
 		if (rank1 == 0)
 		{
 			rank1 = 1;
@@ -331,29 +338,34 @@ public class Olympiad
 			rank3++;
 			rank4++;
 		}
-		for (Entry<Integer, Integer> chr : tmpPlace.entrySet())
+		
+		final Map<Integer, Integer> noblesRank = new HashMap<>();
+		int place = 1;
+		for (int charId : charIds)
 		{
-			if (chr.getValue() <= rank1)
+			if (place <= rank1)
 			{
-				_noblesRank.put(chr.getKey(), 1);
+				noblesRank.put(charId, 1);
 			}
-			else if (tmpPlace.get(chr.getKey()) <= rank2)
+			else if (place <= rank2)
 			{
-				_noblesRank.put(chr.getKey(), 2);
+				noblesRank.put(charId, 2);
 			}
-			else if (tmpPlace.get(chr.getKey()) <= rank3)
+			else if (place <= rank3)
 			{
-				_noblesRank.put(chr.getKey(), 3);
+				noblesRank.put(charId, 3);
 			}
-			else if (tmpPlace.get(chr.getKey()) <= rank4)
+			else if (place <= rank4)
 			{
-				_noblesRank.put(chr.getKey(), 4);
+				noblesRank.put(charId, 4);
 			}
 			else
 			{
-				_noblesRank.put(chr.getKey(), 5);
+				noblesRank.put(charId, 5);
 			}
+			place++;
 		}
+		_noblesRank = noblesRank;
 	}
 	
 	protected void init()
@@ -700,7 +712,8 @@ public class Olympiad
 	}
 	
 	/**
-	 * Save noblesse data to database
+	 * Save noblesse data to database, on a database thread.<br>
+	 * Reads of the noblesse table on another connection have to wait for the saves with {@link AsyncQueryExecutor#await(int)} of {@link #NOBLES_QUERY_KEY}.
 	 */
 	protected synchronized void saveNobleData()
 	{
@@ -709,68 +722,36 @@ public class Olympiad
 			return;
 		}
 		
-		try (Connection con = DatabaseFactory.getInstance().getConnection())
+		for (Entry<Integer, StatsSet> entry : _nobles.entrySet())
 		{
-			for (Entry<Integer, StatsSet> entry : _nobles.entrySet())
+			StatsSet nobleInfo = entry.getValue();
+			
+			if (nobleInfo == null)
 			{
-				StatsSet nobleInfo = entry.getValue();
-				
-				if (nobleInfo == null)
-				{
-					continue;
-				}
-				
-				int charId = entry.getKey();
-				int classId = nobleInfo.getInt(CLASS_ID);
-				int points = nobleInfo.getInt(POINTS);
-				int compDone = nobleInfo.getInt(COMP_DONE);
-				int compWon = nobleInfo.getInt(COMP_WON);
-				int compLost = nobleInfo.getInt(COMP_LOST);
-				int compDrawn = nobleInfo.getInt(COMP_DRAWN);
-				int compDoneWeek = nobleInfo.getInt(COMP_DONE_WEEK);
-				int compDoneWeekClassed = nobleInfo.getInt(COMP_DONE_WEEK_CLASSED);
-				int compDoneWeekNonClassed = nobleInfo.getInt(COMP_DONE_WEEK_NON_CLASSED);
-				int compDoneWeekTeam = nobleInfo.getInt(COMP_DONE_WEEK_TEAM);
-				boolean toSave = nobleInfo.getBoolean("to_save");
-				
-				try (PreparedStatement statement = con.prepareStatement(toSave ? OLYMPIAD_SAVE_NOBLES : OLYMPIAD_UPDATE_NOBLES))
-				{
-					if (toSave)
-					{
-						statement.setInt(1, charId);
-						statement.setInt(2, classId);
-						statement.setInt(3, points);
-						statement.setInt(4, compDone);
-						statement.setInt(5, compWon);
-						statement.setInt(6, compLost);
-						statement.setInt(7, compDrawn);
-						statement.setInt(8, compDoneWeek);
-						statement.setInt(9, compDoneWeekClassed);
-						statement.setInt(10, compDoneWeekNonClassed);
-						statement.setInt(11, compDoneWeekTeam);
-						
-						nobleInfo.set("to_save", false);
-					}
-					else
-					{
-						statement.setInt(1, points);
-						statement.setInt(2, compDone);
-						statement.setInt(3, compWon);
-						statement.setInt(4, compLost);
-						statement.setInt(5, compDrawn);
-						statement.setInt(6, compDoneWeek);
-						statement.setInt(7, compDoneWeekClassed);
-						statement.setInt(8, compDoneWeekNonClassed);
-						statement.setInt(9, compDoneWeekTeam);
-						statement.setInt(10, charId);
-					}
-					statement.execute();
-				}
+				continue;
+			}
+			
+			int charId = entry.getKey();
+			int classId = nobleInfo.getInt(CLASS_ID);
+			int points = nobleInfo.getInt(POINTS);
+			int compDone = nobleInfo.getInt(COMP_DONE);
+			int compWon = nobleInfo.getInt(COMP_WON);
+			int compLost = nobleInfo.getInt(COMP_LOST);
+			int compDrawn = nobleInfo.getInt(COMP_DRAWN);
+			int compDoneWeek = nobleInfo.getInt(COMP_DONE_WEEK);
+			int compDoneWeekClassed = nobleInfo.getInt(COMP_DONE_WEEK_CLASSED);
+			int compDoneWeekNonClassed = nobleInfo.getInt(COMP_DONE_WEEK_NON_CLASSED);
+			int compDoneWeekTeam = nobleInfo.getInt(COMP_DONE_WEEK_TEAM);
+			
+			if (nobleInfo.getBoolean("to_save"))
+			{
+				AsyncQueryExecutor.getInstance().execute(NOBLES_QUERY_KEY, OLYMPIAD_SAVE_NOBLES, charId, classId, points, compDone, compWon, compLost, compDrawn, compDoneWeek, compDoneWeekClassed, compDoneWeekNonClassed, compDoneWeekTeam);
+				nobleInfo.set("to_save", false);
+			}
+			else
+			{
+				AsyncQueryExecutor.getInstance().execute(NOBLES_QUERY_KEY, OLYMPIAD_UPDATE_NOBLES, points, compDone, compWon, compLost, compDrawn, compDoneWeek, compDoneWeekClassed, compDoneWeekNonClassed, compDoneWeekTeam, charId);
 			}
-		}
-		catch (SQLException e)
-		{
-			LOGGER.error("Failed to save noblesse data to database: ", e);
 		}
 	}
 	
@@ -820,19 +801,13 @@ public class Olympiad
 		//@formatter:on
 	}
 	
+	/**
+	 * Copies the noblesse table into the one of the last month on a database thread, after the pending saves of the noblesse table.
+	 */
 	protected void updateMonthlyData()
 	{
-		try (Connection con = DatabaseFactory.getInstance().getConnection();
-			PreparedStatement ps1 = con.prepareStatement(OLYMPIAD_MONTH_CLEAR);
-			PreparedStatement ps2 = con.prepareStatement(OLYMPIAD_MONTH_CREATE))
-		{
-			ps1.execute();
-			ps2.execute();
-		}
-		catch (SQLException e)
-		{
-			LOGGER.error("Failed to update monthly noblese data: ", e);
-		}
+		AsyncQueryExecutor.getInstance().execute(NOBLES_QUERY_KEY, OLYMPIAD_MONTH_CLEAR);
+		AsyncQueryExecutor.getInstance().execute(NOBLES_QUERY_KEY, OLYMPIAD_MONTH_CREATE);
 	}
 	
 	protected List<StatsSet> sortHerosToBe()
@@ -866,6 +841,7 @@ public class Olympiad
 		
 		List<StatsSet> heroesToBe = new LinkedList<>();
 		
+		AsyncQueryExecutor.getInstance().await(NOBLES_QUERY_KEY);
 		try (Connection con = DatabaseFactory.getInstance().getConnection();
 			PreparedStatement statement = con.prepareStatement(OLYMPIAD_GET_HEROS))
 		{
@@ -922,13 +898,14 @@ public class Olympiad
 	
 	public int getOlympiadTradePoint(PlayerInstance player, boolean clear)
 	{
-		if ((player == null) || (_period != 1) || _noblesRank.isEmpty())
+		final Map<Integer, Integer> noblesRank = _noblesRank;
+		if ((player == null) || (_period != 1) || noblesRank.isEmpty())
 		{
 			return 0;
 		}
 		
 		final int objId = player.getObjectId();
-		if (!_noblesRank.containsKey(objId))
+		if (!noblesRank.containsKey(objId))
 		{
 			return 0;
 		}
@@ -948,7 +925,7 @@ public class Olympiad
 		}
 		
 		// Rank point bonus
-		switch (_noblesRank.get(objId))
+		switch (noblesRank.get(objId))
 		{
 			case 1:
 				points += OlympiadConfig.ALT_OLY_RANK1_POINTS;
@@ -1145,6 +1122,7 @@ public class Olympiad
 	
 	protected void deleteNobles()
 	{
+		AsyncQueryExecutor.getInstance().await(NOBLES_QUERY_KEY);
 		try (Connection con = DatabaseFactory.getInstance().getConnection();
 			PreparedStatement statement = con.prepareStatement(OLYMPIAD_DELETE_ALL))
 		{
@@ -25,9 +25,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock.ReadLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -56,6 +53,7 @@ import org.l2junity.gameserver.model.events.AbstractScript;
 import org.l2junity.gameserver.model.events.EventType;
 import org.l2junity.gameserver.model.events.listeners.AbstractEventListener;
 import org.l2junity.gameserver.model.events.returns.TerminateReturn;
+import org.l2junity.gameserver.model.events.timers.TimerKey;
 import org.l2junity.gameserver.model.holders.FactionHolder;
 import org.l2junity.gameserver.model.holders.NpcLogListHolder;
 import org.l2junity.gameserver.model.holders.SkillHolder;
@@ -83,11 +81,8 @@ public class Quest extends AbstractScript implements IIdentifiable
 {
 	public static final Logger LOGGER = LoggerFactory.getLogger(Quest.class);
 	
-	/** Map containing lists of timers from the name of the timer. */
-	private volatile Map<String, List<QuestTimer>> _questTimers = null;
-	private final ReentrantReadWriteLock _rwLock = new ReentrantReadWriteLock();
-	private final WriteLock _writeLock = _rwLock.writeLock();
-	private final ReadLock _readLock = _rwLock.readLock();
+	/** Map containing the timers from their name, npc and player. */
+	private volatile Map<TimerKey<String>, QuestTimer> _questTimers = null;
 	/** Map containing all the start conditions. */
 	private volatile Set<QuestCondition> _startCondition = null;
 	
@@ -239,7 +234,7 @@ public class Quest extends AbstractScript implements IIdentifiable
 	 * Gets the quest timers.
 	 * @return the quest timers
 	 */
-	public final Map<String, List<QuestTimer>> getQuestTimers()
+	public final Map<TimerKey<String>, QuestTimer> getQuestTimers()
 	{
 		if (_questTimers == null)
 		{
@@ -265,20 +260,12 @@ public class Quest extends AbstractScript implements IIdentifiable
 	 */
 	public void startQuestTimer(String name, long time, Npc npc, PlayerInstance player, boolean repeating)
 	{
-		final List<QuestTimer> timers = getQuestTimers().computeIfAbsent(name, k -> new ArrayList<>(1));
 		// if there exists a timer with this name, allow the timer only if the [npc, player] set is unique
-		// nulls act as wildcards
-		if (getQuestTimer(name, npc, player) == null)
+		final QuestTimer timer = new QuestTimer(this, name, time, npc, player, repeating);
+		final QuestTimer oldTimer = getQuestTimers().putIfAbsent(timer.getKey(), timer);
+		if ((oldTimer == null) || (!oldTimer.getIsActive() && getQuestTimers().replace(timer.getKey(), oldTimer, timer)))
 		{
-			_writeLock.lock();
-			try
-			{
-				timers.add(new QuestTimer(this, name, time, npc, player, repeating));
-			}
-			finally
-			{
-				_writeLock.unlock();
-			}
+			timer.start();
 		}
 	}
 	
@@ -291,34 +278,11 @@ public class Quest extends AbstractScript implements IIdentifiable
 	 */
 	public QuestTimer getQuestTimer(String name, Npc npc, PlayerInstance player)
 	{
-		if (_questTimers == null)
+		if ((_questTimers == null) || (name == null))
 		{
 			return null;
 		}
-		
-		final List<QuestTimer> timers = getQuestTimers().get(name);
-		if (timers != null)
-		{
-			_readLock.lock();
-			try
-			{
-				for (QuestTimer timer : timers)
-				{
-					if (timer != null)
-					{
-						if (timer.isMatch(this, name, npc, player))
-						{
-							return timer;
-						}
-					}
-				}
-			}
-			finally
-			{
-				_readLock.unlock();
-			}
-		}
-		return null;
+		return getQuestTimers().get(new TimerKey<>(name, npc, player));
 	}
 	
 	/**
@@ -332,24 +296,11 @@ public class Quest extends AbstractScript implements IIdentifiable
 			return;
 		}
 		
-		final List<QuestTimer> timers = getQuestTimers().get(name);
-		if (timers != null)
+		for (QuestTimer timer : getQuestTimers().values())
 		{
-			_writeLock.lock();
-			try
+			if (timer.getName().equals(name))
 			{
-				for (QuestTimer timer : timers)
-				{
-					if (timer != null)
-					{
-						timer.cancel();
-					}
-				}
-				timers.clear();
-			}
-			finally
-			{
-				_writeLock.unlock();
+				timer.cancelAndRemove();
 			}
 		}
 	}
@@ -378,19 +329,7 @@ public class Quest extends AbstractScript implements IIdentifiable
 	{
 		if ((timer != null) && (_questTimers != null))
 		{
-			final List<QuestTimer> timers = getQuestTimers().get(timer.getName());
-			if (timers != null)
-			{
-				_writeLock.lock();
-				try
-				{
-					timers.remove(timer);
-				}
-				finally
-				{
-					_writeLock.unlock();
-				}
-			}
+			getQuestTimers().remove(timer.getKey(), timer);
 		}
 	}
 	
@@ -2469,22 +2408,7 @@ public class Quest extends AbstractScript implements IIdentifiable
 		// with its code (example: save global data indicating what timer must be restarted).
 		if (_questTimers != null)
 		{
-			for (List<QuestTimer> timers : getQuestTimers().values())
-			{
-				_readLock.lock();
-				try
-				{
-					for (QuestTimer timer : timers)
-					{
-						timer.cancel();
-					}
-				}
-				finally
-				{
-					_readLock.unlock();
-				}
-				timers.clear();
-			}
+			getQuestTimers().values().forEach(QuestTimer::cancel);
 			getQuestTimers().clear();
 		}
 		
@@ -19,14 +19,19 @@
 package org.l2junity.gameserver.model.quest;
 
 import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-import org.l2junity.commons.util.concurrent.ThreadPool;
+import org.l2junity.gameserver.instancemanager.TimersManager;
 import org.l2junity.gameserver.model.actor.Npc;
 import org.l2junity.gameserver.model.actor.instance.PlayerInstance;
+import org.l2junity.gameserver.model.events.timers.ScriptTimerStats;
+import org.l2junity.gameserver.model.events.timers.TimerKey;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * A timer of a {@link Quest}, it is scheduled on the {@link TimersManager} by {@link #start()} once the quest registered it.
+ */
 public class QuestTimer
 {
 	protected static final Logger LOGGER = LoggerFactory.getLogger(QuestTimer.class);
@@ -36,16 +41,17 @@ public class QuestTimer
 		@Override
 		public void run()
 		{
-			if (!getIsActive())
+			if (getIsRepeating() ? !getIsActive() : !_isActive.compareAndSet(true, false))
 			{
 				return;
 			}
 			
 			try
 			{
+				_stats.onExecute(!getIsRepeating());
 				if (!getIsRepeating())
 				{
-					cancelAndRemove();
+					_quest.removeQuestTimer(QuestTimer.this);
 				}
 				getQuest().notifyEvent(getName(), getNpc(), getPlayer());
 			}
@@ -56,29 +62,22 @@ public class QuestTimer
 		}
 	}
 	
-	private boolean _isActive = true;
-	private final String _name;
+	private final AtomicBoolean _isActive = new AtomicBoolean(true);
+	private final TimerKey<String> _key;
 	private final Quest _quest;
-	private final Npc _npc;
-	private final PlayerInstance _player;
+	private final long _time;
 	private final boolean _isRepeating;
-	private ScheduledFuture<?> _schedular;
+	private final ScriptTimerStats _stats;
+	private boolean _started;
+	private volatile ScheduledFuture<?> _schedular;
 	
 	public QuestTimer(Quest quest, String name, long time, Npc npc, PlayerInstance player, boolean repeating)
 	{
-		_name = name;
+		_key = new TimerKey<>(name, npc, player);
 		_quest = quest;
-		_player = player;
-		_npc = npc;
+		_time = time;
 		_isRepeating = repeating;
-		if (repeating)
-		{
-			_schedular = ThreadPool.scheduleAtFixedRate(new ScheduleTimerTask(), time, time, TimeUnit.MILLISECONDS); // Prepare auto end task
-		}
-		else
-		{
-			_schedular = ThreadPool.schedule(new ScheduleTimerTask(), time, TimeUnit.MILLISECONDS); // Prepare auto end task
-		}
+		_stats = TimersManager.getInstance().getScriptStats(quest);
 	}
 	
 	public QuestTimer(Quest quest, String name, long time, Npc npc, PlayerInstance player)
@@ -91,15 +90,40 @@ public class QuestTimer
 		this(qs.getQuest(), name, time, null, qs.getPlayer(), false);
 	}
 	
+	/**
+	 * Schedules this quest timer, a timer is started only once.
+	 */
+	public void start()
+	{
+		// Locked along with the cancellation, so it either sees the timer not started or the task already scheduled
+		synchronized (this)
+		{
+			if (!_started && getIsActive())
+			{
+				_stats.onStart();
+				_schedular = _isRepeating ? TimersManager.getInstance().scheduleAtFixedRate(new ScheduleTimerTask(), _time) : TimersManager.getInstance().schedule(new ScheduleTimerTask(), _time);
+				_started = true;
+			}
+		}
+	}
+	
 	/**
 	 * Cancel this quest timer.
 	 */
 	public void cancel()
 	{
-		_isActive = false;
-		if (_schedular != null)
+		if (!_isActive.compareAndSet(true, false))
+		{
+			return;
+		}
+		
+		synchronized (this)
 		{
-			_schedular.cancel(false);
+			if (_started)
+			{
+				_schedular.cancel(false);
+				_stats.onCancel();
+			}
 		}
 	}
 	
@@ -130,12 +154,20 @@ public class QuestTimer
 		{
 			return false;
 		}
-		return ((npc == _npc) && (player == _player));
+		return ((npc == getNpc()) && (player == getPlayer()));
+	}
+	
+	/**
+	 * @return the name, npc and player this timer is looked up by
+	 */
+	public final TimerKey<String> getKey()
+	{
+		return _key;
 	}
 	
 	public final boolean getIsActive()
 	{
-		return _isActive;
+		return _isActive.get();
 	}
 	
 	public final boolean getIsRepeating()
@@ -150,22 +182,22 @@ public class QuestTimer
 	
 	public final String getName()
 	{
-		return _name;
+		return _key.getEvent();
 	}
 	
 	public final Npc getNpc()
 	{
-		return _npc;
+		return _key.getNpc();
 	}
 	
 	public final PlayerInstance getPlayer()
 	{
-		return _player;
+		return _key.getPlayer();
 	}
 	
 	@Override
 	public final String toString()
 	{
-		return _name;
+		return getName();
 	}
 }
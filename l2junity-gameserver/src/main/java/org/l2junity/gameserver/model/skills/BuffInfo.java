@@ -20,12 +20,7 @@ package org.l2junity.gameserver.model.skills;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 
-import org.l2junity.commons.util.concurrent.ThreadPool;
 import org.l2junity.gameserver.config.PlayerConfig;
 import org.l2junity.gameserver.instancemanager.GameTimeManager;
 import org.l2junity.gameserver.model.CharEffectList;
@@ -52,11 +47,6 @@ public final class BuffInfo
 	private final Skill _skill;
 	/** The effects. */
 	private final List<AbstractEffect> _effects = new ArrayList<>(1);
-	// Tasks
-	/** Effect tasks for ticks. */
-	private volatile Map<AbstractEffect, ScheduledFuture<?>> _tasks;
-	/** Scheduled future. */
-	private ScheduledFuture<?> _scheduledFutureTimeTask;
 	// Time and ticks
 	/** Abnormal time. */
 	private int _abnormalTime;
@@ -111,37 +101,6 @@ public final class BuffInfo
 		_effects.add(effect);
 	}
 	
-	/**
-	 * Adds an effect task to this buff info.<br>
-	 * Uses double-checked locking to initialize the map if it's necessary.
-	 * @param effect the effect that owns the task
-	 * @param scheduledFuture the task
-	 */
-	private void addEffectTask(AbstractEffect effect, ScheduledFuture<?> scheduledFuture)
-	{
-		if (_tasks == null)
-		{
-			synchronized (this)
-			{
-				if (_tasks == null)
-				{
-					_tasks = new ConcurrentHashMap<>();
-				}
-			}
-		}
-		_tasks.put(effect, scheduledFuture);
-	}
-	
-	/**
-	 * Gets the task for the given effect.
-	 * @param effect the effect
-	 * @return the task
-	 */
-	private ScheduledFuture<?> getEffectTask(AbstractEffect effect)
-	{
-		return (_tasks == null) ? null : _tasks.get(effect);
-	}
-	
 	/**
 	 * Gets the skill that created this buff info.
 	 * @return the skill
@@ -203,6 +162,15 @@ public final class BuffInfo
 		return _abnormalTime - ((GameTimeManager.getInstance().getGameTicks() - _periodStartTicks) / GameTimeManager.TICKS_PER_SECOND);
 	}
 	
+	/**
+	 * Get the remaining time in milliseconds for this buff info, exact to one game tick.
+	 * @return the remaining time
+	 */
+	public long getRemainingMillis()
+	{
+		return (_abnormalTime * 1000L) - ((GameTimeManager.getInstance().getGameTicks() - _periodStartTicks) * (long) GameTimeManager.MILLIS_IN_TICK);
+	}
+	
 	/**
 	 * Verify if this buff info has been cancelled.
 	 * @return {@code true} if this buff info has been cancelled, {@code false} otherwise
@@ -290,17 +258,12 @@ public final class BuffInfo
 	 * Stops all the effects for this buff info.<br>
 	 * Removes effects stats.<br>
 	 * <b>It will not remove the buff info from the effect list</b>.<br>
-	 * Instead call {@link CharEffectList#stopSkillEffects(boolean, Skill)}
+	 * Instead call {@link CharEffectList#stopSkillEffects(boolean, Skill)}, which also cancels the pending expiry and ticks of this buff info.
 	 * @param removed if {@code true} the skill will be handled as removed
 	 */
 	public void stopAllEffects(boolean removed)
 	{
 		setRemoved(removed);
-		// Cancels the task that will end this buff info
-		if ((_scheduledFutureTimeTask != null) && !_scheduledFutureTimeTask.isCancelled())
-		{
-			_scheduledFutureTimeTask.cancel(true);
-		}
 		finishEffects();
 	}
 	
@@ -319,10 +282,10 @@ public final class BuffInfo
 			_effected.sendPacket(sm);
 		}
 		
-		// Creates a task that will stop all the effects.
+		// Schedules the expiry that will stop all the effects.
 		if (_abnormalTime > 0)
 		{
-			_scheduledFutureTimeTask = ThreadPool.scheduleAtFixedRate(new BuffTimeTask(this), 0, 1000L, TimeUnit.MILLISECONDS);
+			_effected.getEffectList().scheduleExpiry(this);
 		}
 		
 		for (AbstractEffect effect : _effects)
@@ -335,20 +298,17 @@ public final class BuffInfo
 			// Call on start.
 			effect.pumpStart(getEffector(), getEffected(), getSkill());
 			
-			// If it's a continuous effect, if has ticks schedule a task with period, otherwise schedule a simple task to end it.
+			// If it's a continuous effect with ticks, schedule its ticks along with the other deadlines of the effect list.
 			if (effect.getTicks() > 0)
 			{
-				// The task for the effect ticks.
-				final ScheduledFuture<?> effectTask = ThreadPool.scheduleAtFixedRate(() -> onTick(effect), effect.getTicks() * PlayerConfig.EFFECT_TICK_RATIO, effect.getTicks() * PlayerConfig.EFFECT_TICK_RATIO, TimeUnit.MILLISECONDS);
-				// Adds the task for ticking.
-				addEffectTask(effect, effectTask);
+				_effected.getEffectList().scheduleTicks(this, effect, effect.getTicks() * PlayerConfig.EFFECT_TICK_RATIO);
 			}
 		}
 	}
 	
 	/**
 	 * Called on each tick.<br>
-	 * Verify if the effect should end and the effect task should be cancelled.
+	 * Verify if the effect should end, which also stops its ticks.
 	 * @param effect the effect that is ticking
 	 */
 	public void onTick(AbstractEffect effect)
@@ -359,27 +319,13 @@ public final class BuffInfo
 			
 			if (_skill.isToggle() && !effect.consume(getEffected(), getSkill()))
 			{
-				final ScheduledFuture<?> effectTask = getEffectTask(effect);
-				if (effectTask != null)
-				{
-					effectTask.cancel(false);
-					_effected.getEffectList().stopSkillEffects(true, getSkill()); // Remove the buff from the effect list.
-				}
+				_effected.getEffectList().stopSkillEffects(true, getSkill()); // Remove the buff from the effect list.
 			}
 		}
 	}
 	
 	public void finishEffects()
 	{
-		// Cancels the ticking task.
-		if (_tasks != null)
-		{
-			for (ScheduledFuture<?> effectTask : _tasks.values())
-			{
-				effectTask.cancel(false);
-			}
-		}
-		
 		// Notify on exit.
 		for (AbstractEffect effect : _effects)
 		{
@@ -418,11 +364,7 @@ public final class BuffInfo
 		{
 			_periodStartTicks = GameTimeManager.getInstance().getGameTicks();
 			_abnormalTime = abnormalTime;
-			if ((_scheduledFutureTimeTask != null) && !_scheduledFutureTimeTask.isCancelled())
-			{
-				_scheduledFutureTimeTask.cancel(true);
-			}
-			_scheduledFutureTimeTask = ThreadPool.scheduleAtFixedRate(new BuffTimeTask(this), 0, 1000L, TimeUnit.MILLISECONDS);
+			_effected.getEffectList().scheduleExpiry(this);
 		}
 	}
 	
@@ -18,8 +18,14 @@
  */
 package org.l2junity.gameserver.model.stats;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.OptionalDouble;
+import java.util.Set;
 import java.util.function.DoubleBinaryOperator;
 
 import org.l2junity.commons.util.MathUtil;
@@ -297,6 +303,80 @@ public enum DoubleStat
 	private final double _resetAddValue;
 	private final double _resetMulValue;
 	
+	/** The stats read by the finalizer of this stat */
+	private Set<DoubleStat> _dependencies;
+	/** The stats whose finalized values read this one, directly or through other stats */
+	private DoubleStat[] _dependents;
+	/** Set if the finalizer reads state changing without any notification, such values are never cached */
+	private boolean _volatile;
+	
+	private static final Map<StatInput, DoubleStat[]> STATS_BY_INPUT = new EnumMap<>(StatInput.class);
+	
+	static
+	{
+		for (DoubleStat stat : values())
+		{
+			stat._dependencies = EnumSet.noneOf(DoubleStat.class);
+		}
+		
+		// The stats read by the finalizers
+		dependsOn(MAX_HP, STAT_CON, STAT_CHA);
+		dependsOn(MAX_MP, MAX_MP_ADD, STAT_MEN, STAT_CHA);
+		dependsOn(MAX_CP, STAT_CON, STAT_CHA);
+		dependsOn(REGENERATE_HP_RATE, STAT_CON);
+		dependsOn(REGENERATE_CP_RATE, STAT_CON);
+		dependsOn(REGENERATE_MP_RATE, REGENERATE_MP_RATE_ADD, STAT_MEN);
+		dependsOn(PHYSICAL_DEFENCE, STAT_CHA);
+		dependsOn(MAGICAL_DEFENCE, STAT_MEN, STAT_CHA);
+		dependsOn(PHYSICAL_ATTACK, STAT_STR, STAT_CHA);
+		dependsOn(MAGIC_ATTACK, MAGIC_ATTACK_ADD, STAT_INT, STAT_CHA);
+		dependsOn(PHYSICAL_ATTACK_SPEED, STAT_DEX, STAT_CHA);
+		dependsOn(MAGIC_ATTACK_SPEED, STAT_WIT, STAT_CHA);
+		dependsOn(SHIELD_DEFENCE_RATE, STAT_CON);
+		dependsOn(CRITICAL_RATE, STAT_DEX);
+		dependsOn(MAGIC_CRITICAL_RATE, STAT_WIT);
+		dependsOn(ACCURACY_COMBAT, STAT_DEX);
+		dependsOn(ACCURACY_MAGIC, STAT_WIT);
+		dependsOn(EVASION_RATE, STAT_DEX);
+		dependsOn(MAGIC_EVASION_RATE, STAT_WIT);
+		dependsOn(ABSORB_DAMAGE_CHANCE, ABSORB_DAMAGE_PERCENT);
+		for (DoubleStat speed : new DoubleStat[]
+		{
+			RUN_SPEED,
+			WALK_SPEED,
+			SWIM_RUN_SPEED,
+			SWIM_WALK_SPEED,
+			FLY_RUN_SPEED,
+			FLY_WALK_SPEED
+		})
+		{
+			// The base stat added to the speed is chosen by STAT_BONUS_SPEED
+			dependsOn(speed, STAT_STR, STAT_CON, STAT_DEX, STAT_INT, STAT_WIT, STAT_MEN, STAT_LUC, STAT_CHA);
+		}
+		
+		// Sitting, moving, running, zones and clan residences
+		REGENERATE_HP_RATE._volatile = true;
+		REGENERATE_CP_RATE._volatile = true;
+		REGENERATE_MP_RATE._volatile = true;
+		
+		// State changing without a recalculation
+		dependsOn(StatInput.ZONE, RUN_SPEED, WALK_SPEED, SWIM_RUN_SPEED, SWIM_WALK_SPEED, FLY_RUN_SPEED, FLY_WALK_SPEED);
+		dependsOn(StatInput.MOUNT, RUN_SPEED, WALK_SPEED, SWIM_RUN_SPEED, SWIM_WALK_SPEED, FLY_RUN_SPEED, FLY_WALK_SPEED);
+		
+		for (DoubleStat stat : values())
+		{
+			final Set<DoubleStat> dependents = withDependents(stat);
+			dependents.remove(stat);
+			stat._dependents = dependents.toArray(new DoubleStat[dependents.size()]);
+			
+			// A value reading a volatile one is volatile too
+			for (DoubleStat dependent : stat._dependents)
+			{
+				dependent._volatile |= stat._volatile;
+			}
+		}
+	}
+	
 	public String getValue()
 	{
 		return _value;
@@ -375,6 +455,72 @@ public enum DoubleStat
 		return _resetMulValue;
 	}
 	
+	/**
+	 * @return {@code true} if the finalized value of this stat can be cached until something it depends on changes, {@code false} if it has to be finalized on every read
+	 */
+	public boolean isCacheable()
+	{
+		return !_volatile;
+	}
+	
+	/**
+	 * @return the stats whose finalized values read this one, directly or through other stats
+	 */
+	public DoubleStat[] getDependents()
+	{
+		return _dependents;
+	}
+	
+	/**
+	 * @param input the input
+	 * @return the stats whose finalized values read the given input, directly or through other stats
+	 */
+	public static DoubleStat[] getStatsDependingOn(StatInput input)
+	{
+		return STATS_BY_INPUT.get(input);
+	}
+	
+	private static void dependsOn(DoubleStat stat, DoubleStat... dependencies)
+	{
+		for (DoubleStat dependency : dependencies)
+		{
+			stat._dependencies.add(dependency);
+		}
+	}
+	
+	private static void dependsOn(StatInput input, DoubleStat... stats)
+	{
+		final Set<DoubleStat> dependents = EnumSet.noneOf(DoubleStat.class);
+		for (DoubleStat stat : stats)
+		{
+			dependents.addAll(withDependents(stat));
+		}
+		STATS_BY_INPUT.put(input, dependents.toArray(new DoubleStat[dependents.size()]));
+	}
+	
+	/**
+	 * @param stat the stat
+	 * @return the stat and every stat depending on it, directly or through other stats
+	 */
+	private static Set<DoubleStat> withDependents(DoubleStat stat)
+	{
+		final Set<DoubleStat> result = EnumSet.of(stat);
+		final Deque<DoubleStat> queue = new ArrayDeque<>();
+		queue.add(stat);
+		while (!queue.isEmpty())
+		{
+			final DoubleStat current = queue.poll();
+			for (DoubleStat other : values())
+			{
+				if (other._dependencies.contains(current) && result.add(other))
+				{
+					queue.add(other);
+				}
+			}
+		}
+		return result;
+	}
+	
 	public static double weaponBaseValue(Creature creature, DoubleStat stat)
 	{
 		return stat._valueFinalizer.calcWeaponBaseValue(creature, stat);
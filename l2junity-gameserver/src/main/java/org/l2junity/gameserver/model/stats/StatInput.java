@@ -0,0 +1,31 @@
+/*
+ * Copyright (C) 2004-2017 L2J Unity
+ * 
+ * This file is part of L2J Unity.
+ * 
+ * L2J Unity is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Unity is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2junity.gameserver.model.stats;
+
+/**
+ * State read by the finalizers of some double stats, which changes without a stat recalculation.<br>
+ * Only the stats declared to depend on an input are finalized again when it changes, see {@link DoubleStat#getStatsDependingOn(StatInput)}.
+ */
+public enum StatInput
+{
+	/** The zones the creature is inside */
+	ZONE,
+	/** The mount of a player and how hungry it is */
+	MOUNT,
+}
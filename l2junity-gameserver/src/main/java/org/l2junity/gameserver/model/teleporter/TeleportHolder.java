@@ -182,8 +182,8 @@ public final class TeleportHolder
 		
 		// Send html message
 		final NpcHtmlMessage msg = new NpcHtmlMessage(npc.getObjectId());
-		msg.setFile(player.getHtmlPrefix(), "data/html/teleporter/teleports.htm");
-		msg.replace("%locations%", sb_f.toString());
+		msg.setTemplate(player.getHtmlPrefix(), "data/html/teleporter/teleports.htm");
+		msg.bind("%locations%", sb_f);
 		player.sendPacket(msg);
 	}
 	
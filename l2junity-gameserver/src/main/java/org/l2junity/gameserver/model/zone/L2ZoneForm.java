@@ -18,6 +18,7 @@
  */
 package org.l2junity.gameserver.model.zone;
 
+import java.awt.Rectangle;
 import java.awt.geom.Line2D;
 
 import org.l2junity.gameserver.idfactory.IdFactory;
@@ -43,6 +44,11 @@ public abstract class L2ZoneForm
 	
 	public abstract int getHighZ(); // New fishing patch makes use of that to get the Z for the hook
 	
+	/**
+	 * @return the smallest rectangle containing this zone form on the plane, used to look up the zones of a position
+	 */
+	public abstract Rectangle getBounds();
+	
 	// landing coordinates.
 	
 	protected boolean lineSegmentsIntersect(double ax1, double ay1, double ax2, double ay2, double bx1, double by1, double bx2, double by2)
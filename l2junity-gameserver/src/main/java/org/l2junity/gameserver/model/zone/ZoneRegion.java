@@ -18,21 +18,38 @@
  */
 package org.l2junity.gameserver.model.zone;
 
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
+import org.l2junity.gameserver.instancemanager.ZoneManager;
 import org.l2junity.gameserver.model.actor.Creature;
 import org.l2junity.gameserver.model.skills.Skill;
 import org.l2junity.gameserver.model.zone.type.PeaceZone;
 
 /**
+ * The zones intersecting one region of the world.<br>
+ * The region is divided into cells, every cell knows the zones whose bounding box overlaps it, so a position is only tested against the zones of its cell.<br>
+ * Cells with the same zones share one array, a creature remembers the array of the cell it was last revalidated in to leave the zones that are no longer around it.
  * @author Nos
  */
 public class ZoneRegion
 {
+	/** Cells per side of a region, as a shift */
+	private static final int CELLS_SHIFT = 5;
+	private static final int CELL_SHIFT = ZoneManager.SHIFT_BY - CELLS_SHIFT;
+	private static final int CELL_MASK = (1 << CELLS_SHIFT) - 1;
+	private static final ZoneType[] EMPTY_ZONES = new ZoneType[0];
+	
 	private final int _regionX;
 	private final int _regionY;
 	private final Map<Integer, ZoneType> _zones = new ConcurrentHashMap<>();
+	/** The zones of every cell, {@code null} until the first lookup after the zones changed */
+	private volatile ZoneType[][] _cells;
 	
 	public ZoneRegion(int regionX, int regionY)
 	{
@@ -42,7 +59,80 @@ public class ZoneRegion
 	
 	public Map<Integer, ZoneType> getZones()
 	{
-		return _zones;
+		return Collections.unmodifiableMap(_zones);
+	}
+	
+	public synchronized void addZone(ZoneType zone)
+	{
+		_zones.put(zone.getId(), zone);
+		_cells = null;
+	}
+	
+	public synchronized void clearZones()
+	{
+		_zones.clear();
+		_cells = null;
+	}
+	
+	/**
+	 * Gets the zones which may contain a position of this region.<br>
+	 * The array is shared, it must not be modified.
+	 * @param x the x
+	 * @param y the y
+	 * @return the zones of the cell of the position, in the order of {@link #getZones()}
+	 */
+	public ZoneType[] getZones(double x, double y)
+	{
+		ZoneType[][] cells = _cells;
+		if (cells == null)
+		{
+			cells = buildCells();
+		}
+		return cells[((((int) y) >> CELL_SHIFT) & CELL_MASK) | (((((int) x) >> CELL_SHIFT) & CELL_MASK) << CELLS_SHIFT)];
+	}
+	
+	private synchronized ZoneType[][] buildCells()
+	{
+		if (_cells != null)
+		{
+			return _cells;
+		}
+		
+		final ZoneType[] zones = _zones.values().toArray(EMPTY_ZONES);
+		final Rectangle[] bounds = new Rectangle[zones.length];
+		for (int i = 0; i < zones.length; i++)
+		{
+			bounds[i] = zones[i].getZone().getBounds();
+		}
+		
+		final int minX = (_regionX - ZoneManager.OFFSET_X) << ZoneManager.SHIFT_BY;
+		final int minY = (_regionY - ZoneManager.OFFSET_Y) << ZoneManager.SHIFT_BY;
+		final ZoneType[][] cells = new ZoneType[1 << (CELLS_SHIFT * 2)][];
+		final Map<List<ZoneType>, ZoneType[]> sharedZones = new HashMap<>();
+		final List<ZoneType> cellZones = new ArrayList<>();
+		for (int cellX = 0; cellX <= CELL_MASK; cellX++)
+		{
+			for (int cellY = 0; cellY <= CELL_MASK; cellY++)
+			{
+				// A margin of one, positions are truncated to the cell of the nearest integer towards zero
+				final int cellMinX = (minX + (cellX << CELL_SHIFT)) - 1;
+				final int cellMinY = (minY + (cellY << CELL_SHIFT)) - 1;
+				final int cellMaxX = cellMinX + (1 << CELL_SHIFT) + 1;
+				final int cellMaxY = cellMinY + (1 << CELL_SHIFT) + 1;
+				cellZones.clear();
+				for (int i = 0; i < zones.length; i++)
+				{
+					final Rectangle zoneBounds = bounds[i];
+					if ((zoneBounds.x <= cellMaxX) && ((zoneBounds.x + zoneBounds.width) >= cellMinX) && (zoneBounds.y <= cellMaxY) && ((zoneBounds.y + zoneBounds.height) >= cellMinY))
+					{
+						cellZones.add(zones[i]);
+					}
+				}
+				cells[cellY | (cellX << CELLS_SHIFT)] = cellZones.isEmpty() ? EMPTY_ZONES : sharedZones.computeIfAbsent(new ArrayList<>(cellZones), k -> k.toArray(EMPTY_ZONES));
+			}
+		}
+		_cells = cells;
+		return cells;
 	}
 	
 	public int getRegionX()
@@ -65,7 +155,30 @@ public class ZoneRegion
 			return;
 		}
 		
-		for (ZoneType z : getZones().values())
+		final ZoneType[] zones = getZones(character.getX(), character.getY());
+		final ZoneType[] lastZones = character.getLastZones();
+		if (lastZones != zones)
+		{
+			// Leave the zones of the last cell which are not around anymore
+			if (lastZones != null)
+			{
+				for (ZoneType z : lastZones)
+				{
+					if (!contains(zones, z))
+					{
+						z.removeCharacter(character, false);
+					}
+				}
+			}
+			character.setLastZones(zones);
+		}
+		else if (zones.length == 0)
+		{
+			// Still in a cell without zones
+			return;
+		}
+		
+		for (ZoneType z : zones)
 		{
 			z.revalidateInZone(character);
 		}
@@ -73,12 +186,25 @@ public class ZoneRegion
 	
 	public void removeFromZones(Creature character, boolean isLogout)
 	{
-		for (ZoneType z : getZones().values())
+		character.setLastZones(null);
+		for (ZoneType z : _zones.values())
 		{
 			z.removeCharacter(character, isLogout);
 		}
 	}
 	
+	private static boolean contains(ZoneType[] zones, ZoneType zone)
+	{
+		for (ZoneType z : zones)
+		{
+			if (z == zone)
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+	
 	public boolean checkEffectRangeInsidePeaceZone(Skill skill, final double x, final double y, final double z)
 	{
 		final int range = skill.getEffectRange();
@@ -87,7 +213,7 @@ public class ZoneRegion
 		final double left = x + range;
 		final double right = x - range;
 		
-		for (ZoneType e : getZones().values())
+		for (ZoneType e : _zones.values())
 		{
 			if (e instanceof PeaceZone)
 			{
@@ -122,7 +248,7 @@ public class ZoneRegion
 	
 	public void onDeath(Creature character)
 	{
-		for (ZoneType z : getZones().values())
+		for (ZoneType z : getZones(character.getX(), character.getY()))
 		{
 			if (z.isInsideZone(character))
 			{
@@ -133,7 +259,7 @@ public class ZoneRegion
 	
 	public void onRevive(Creature character)
 	{
-		for (ZoneType z : getZones().values())
+		for (ZoneType z : getZones(character.getX(), character.getY()))
 		{
 			if (z.isInsideZone(character))
 			{
@@ -54,6 +54,12 @@ public class ZoneCuboid extends L2ZoneForm
 		return (_r.contains(x, y) && (z >= _z1) && (z <= _z2));
 	}
 	
+	@Override
+	public Rectangle getBounds()
+	{
+		return _r.getBounds();
+	}
+	
 	@Override
 	public boolean intersectsRectangle(double ax1, double ax2, double ay1, double ay2)
 	{
@@ -18,6 +18,8 @@
  */
 package org.l2junity.gameserver.model.zone.form;
 
+import java.awt.Rectangle;
+
 import org.l2junity.commons.util.Rnd;
 import org.l2junity.gameserver.geodata.GeoData;
 import org.l2junity.gameserver.model.Location;
@@ -45,13 +47,21 @@ public class ZoneCylinder extends L2ZoneForm
 	@Override
 	public boolean isInsideZone(double x, double y, double z)
 	{
-		if (((Math.pow(_x - x, 2) + Math.pow(_y - y, 2)) > _radS) || (z < _z1) || (z > _z2))
+		final double dx = _x - x;
+		final double dy = _y - y;
+		if ((Math.abs(dx) > _rad) || (Math.abs(dy) > _rad) || (((dx * dx) + (dy * dy)) > _radS) || (z < _z1) || (z > _z2))
 		{
 			return false;
 		}
 		return true;
 	}
 	
+	@Override
+	public Rectangle getBounds()
+	{
+		return new Rectangle(_x - _rad, _y - _rad, _rad * 2, _rad * 2);
+	}
+	
 	@Override
 	public boolean intersectsRectangle(double ax1, double ax2, double ay1, double ay2)
 	{
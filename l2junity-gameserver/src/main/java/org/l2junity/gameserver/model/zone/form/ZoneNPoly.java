@@ -19,6 +19,8 @@
 package org.l2junity.gameserver.model.zone.form;
 
 import java.awt.Polygon;
+import java.awt.Rectangle;
+import java.util.Arrays;
 
 import org.l2junity.commons.util.Rnd;
 import org.l2junity.gameserver.geodata.GeoData;
@@ -27,15 +29,37 @@ import org.l2junity.gameserver.model.itemcontainer.Inventory;
 import org.l2junity.gameserver.model.zone.L2ZoneForm;
 
 /**
- * A not so primitive npoly zone
+ * A not so primitive npoly zone<br>
+ * The containment test is the one of {@link Polygon#contains(double, double)}, with the edges that are not horizontal prepared once and sorted into horizontal bands, so a point is only tested against the edges of its band.
  * @author durgus
  */
 public class ZoneNPoly extends L2ZoneForm
 {
+	/** Maximum amount of horizontal bands of the edge table */
+	private static final int MAX_BANDS = 32;
+	
 	private final Polygon _p;
 	private final int _z1;
 	private final int _z2;
 	
+	// Bounding box, the maximum is exclusive
+	private final int _minX;
+	private final int _minY;
+	private final int _maxX;
+	private final int _maxY;
+	
+	// Edge table, edges cover y from their low y (inclusive) to their high y (exclusive)
+	private final int[] _edgeLowY;
+	private final int[] _edgeHighY;
+	private final int[] _edgeLeftX;
+	private final int[] _edgeRightX;
+	private final int[] _edgeOriginX;
+	private final int[] _edgeOriginY;
+	private final double[] _edgeDx;
+	private final double[] _edgeDy;
+	private final int _bandHeight;
+	private final int[][] _bands;
+	
 	/**
 	 * @param x
 	 * @param y
@@ -48,12 +72,121 @@ public class ZoneNPoly extends L2ZoneForm
 		
 		_z1 = Math.min(z1, z2);
 		_z2 = Math.max(z1, z2);
+		
+		final Rectangle bounds = _p.getBounds();
+		_minX = bounds.x;
+		_minY = bounds.y;
+		_maxX = bounds.x + bounds.width;
+		_maxY = bounds.y + bounds.height;
+		
+		final int npoints = _p.npoints;
+		_edgeLowY = new int[npoints];
+		_edgeHighY = new int[npoints];
+		_edgeLeftX = new int[npoints];
+		_edgeRightX = new int[npoints];
+		_edgeOriginX = new int[npoints];
+		_edgeOriginY = new int[npoints];
+		_edgeDx = new double[npoints];
+		_edgeDy = new double[npoints];
+		int edges = 0;
+		for (int i = 0; i < npoints; i++)
+		{
+			final int lastX = _p.xpoints[i > 0 ? i - 1 : npoints - 1];
+			final int lastY = _p.ypoints[i > 0 ? i - 1 : npoints - 1];
+			final int curX = _p.xpoints[i];
+			final int curY = _p.ypoints[i];
+			if (curY == lastY)
+			{
+				continue;
+			}
+			
+			_edgeLeftX[edges] = Math.min(curX, lastX);
+			_edgeRightX[edges] = Math.max(curX, lastX);
+			_edgeLowY[edges] = Math.min(curY, lastY);
+			_edgeHighY[edges] = Math.max(curY, lastY);
+			_edgeOriginX[edges] = curY < lastY ? curX : lastX;
+			_edgeOriginY[edges] = curY < lastY ? curY : lastY;
+			_edgeDx[edges] = lastX - curX;
+			_edgeDy[edges] = lastY - curY;
+			edges++;
+		}
+		
+		final int bandCount = Math.max(1, Math.min(edges, MAX_BANDS));
+		_bandHeight = Math.max(1, ((_maxY - _minY) + bandCount) / bandCount);
+		_bands = new int[((_maxY - _minY) / _bandHeight) + 1][];
+		final int[] sizes = new int[_bands.length];
+		for (int pass = 0; pass < 2; pass++)
+		{
+			for (int edge = 0; edge < edges; edge++)
+			{
+				final int lastBand = Math.min(((_edgeHighY[edge] - 1) - _minY) / _bandHeight, _bands.length - 1);
+				for (int band = (_edgeLowY[edge] - _minY) / _bandHeight; band <= lastBand; band++)
+				{
+					if (pass == 0)
+					{
+						sizes[band]++;
+					}
+					else
+					{
+						_bands[band][sizes[band]++] = edge;
+					}
+				}
+			}
+			
+			if (pass == 0)
+			{
+				for (int band = 0; band < _bands.length; band++)
+				{
+					_bands[band] = new int[sizes[band]];
+				}
+				Arrays.fill(sizes, 0);
+			}
+		}
 	}
 	
 	@Override
 	public boolean isInsideZone(double x, double y, double z)
 	{
-		return (_p.contains(x, y) && (z >= _z1) && (z <= _z2));
+		return (z >= _z1) && (z <= _z2) && contains(x, y);
+	}
+	
+	/**
+	 * Gives exactly the result of {@link Polygon#contains(double, double)}.
+	 * @param x the x
+	 * @param y the y
+	 * @return {@code true} if the point is inside the polygon, {@code false} otherwise
+	 */
+	private boolean contains(double x, double y)
+	{
+		if ((_p.npoints <= 2) || (x < _minX) || (y < _minY) || (x >= _maxX) || (y >= _maxY))
+		{
+			return false;
+		}
+		
+		int hits = 0;
+		for (int edge : _bands[(int) (y - _minY) / _bandHeight])
+		{
+			if ((x >= _edgeRightX[edge]) || (y < _edgeLowY[edge]) || (y >= _edgeHighY[edge]))
+			{
+				continue;
+			}
+			
+			if (x < _edgeLeftX[edge])
+			{
+				hits++;
+			}
+			else if ((x - _edgeOriginX[edge]) < (((y - _edgeOriginY[edge]) / _edgeDy[edge]) * _edgeDx[edge]))
+			{
+				hits++;
+			}
+		}
+		return (hits & 1) != 0;
+	}
+	
+	@Override
+	public Rectangle getBounds()
+	{
+		return _p.getBounds();
 	}
 	
 	@Override
@@ -48,10 +48,12 @@ import org.l2junity.gameserver.network.client.send.ServerClose;
 import org.l2junity.gameserver.network.client.send.SystemMessage;
 import org.l2junity.gameserver.network.client.send.string.SystemMessageId;
 import org.l2junity.gameserver.security.SecondaryPasswordAuth;
+import org.l2junity.gameserver.taskmanager.WriteBehindTaskManager;
 import org.l2junity.gameserver.util.FloodProtectors;
 import org.l2junity.network.ChannelInboundHandler;
 import org.l2junity.network.ICrypt;
 import org.l2junity.network.IIncomingPacket;
+import org.l2junity.network.SharedPacket;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -256,6 +258,25 @@ public final class L2GameClient extends ChannelInboundHandler<L2GameClient>
 		packet.runImpl(getActiveChar());
 	}
 	
+	/**
+	 * Sends an already written packet payload, shared with other clients, to this client.
+	 * @param packet the packet the payload was written from
+	 * @param sharedPacket the shared payload, it is retained for this client and the caller keeps its own reference
+	 */
+	public void sendPacket(IClientOutgoingPacket packet, SharedPacket sharedPacket)
+	{
+		if (_isDetached || (packet == null))
+		{
+			return;
+		}
+		
+		// Write into the channel.
+		_channel.writeAndFlush(sharedPacket.retainedDuplicate());
+		
+		// Run packet implementation.
+		packet.runImpl(getActiveChar());
+	}
+	
 	public void sendPacket(SystemMessageId smId)
 	{
 		sendPacket(SystemMessage.getSystemMessage(smId));
@@ -375,6 +396,9 @@ public final class L2GameClient extends ChannelInboundHandler<L2GameClient>
 		
 		CharNameTable.getInstance().removeName(objectId);
 		
+		// Item saves queued at logout must not insert the items again after they are deleted
+		WriteBehindTaskManager.getInstance().flush(objectId);
+		
 		try (Connection con = DatabaseFactory.getInstance().getConnection())
 		{
 			try (PreparedStatement ps = con.prepareStatement("DELETE FROM character_contacts WHERE charId=? OR contactId=?"))
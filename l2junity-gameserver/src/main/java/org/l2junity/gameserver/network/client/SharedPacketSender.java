@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2004-2017 L2J Unity
+ * 
+ * This file is part of L2J Unity.
+ * 
+ * L2J Unity is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Unity is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2junity.gameserver.network.client;
+
+import java.util.function.Consumer;
+
+import org.l2junity.gameserver.config.ServerConfig;
+import org.l2junity.gameserver.model.actor.instance.PlayerInstance;
+import org.l2junity.gameserver.network.client.send.IClientOutgoingPacket;
+import org.l2junity.network.SharedPacket;
+
+import io.netty.buffer.PooledByteBufAllocator;
+
+/**
+ * Sends one packet to many players while writing it only once.<br>
+ * The first recipient gets the packet the usual way, starting from the second one the packet is written into a pooled buffer which is then shared by all remaining recipients.<br>
+ * Instances are meant to be used by a single thread in a try-with-resources block, closing releases the shared payload.
+ * @author Nos
+ */
+public final class SharedPacketSender implements Consumer<PlayerInstance>, AutoCloseable
+{
+	private final IClientOutgoingPacket _packet;
+	private SharedPacket _sharedPacket;
+	private boolean _writeFailed;
+	private int _recipients;
+	
+	public SharedPacketSender(IClientOutgoingPacket packet)
+	{
+		_packet = packet;
+	}
+	
+	@Override
+	public void accept(PlayerInstance player)
+	{
+		if (!ServerConfig.SHARED_BROADCAST_PACKETS || (_recipients++ == 0))
+		{
+			player.sendPacket(_packet);
+			return;
+		}
+		
+		if ((_sharedPacket == null) && !_writeFailed)
+		{
+			_sharedPacket = SharedPacket.write(_packet, PooledByteBufAllocator.DEFAULT);
+			_writeFailed = _sharedPacket == null;
+		}
+		
+		if (_sharedPacket != null)
+		{
+			player.sendPacket(_packet, _sharedPacket);
+		}
+		else
+		{
+			player.sendPacket(_packet);
+		}
+	}
+	
+	@Override
+	public void close()
+	{
+		if (_sharedPacket != null)
+		{
+			_sharedPacket.release();
+			_sharedPacket = null;
+		}
+	}
+}
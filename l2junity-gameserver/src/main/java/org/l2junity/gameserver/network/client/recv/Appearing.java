@@ -20,7 +20,6 @@ package org.l2junity.gameserver.network.client.recv;
 
 import org.l2junity.gameserver.model.actor.instance.PlayerInstance;
 import org.l2junity.gameserver.network.client.L2GameClient;
-import org.l2junity.gameserver.network.client.send.UserInfo;
 import org.l2junity.network.PacketReader;
 
 /**
@@ -53,6 +52,6 @@ public final class Appearing implements IClientIncomingPacket
 			activeChar.onTeleported();
 		}
 		
-		client.sendPacket(new UserInfo(activeChar));
+		activeChar.updateUserInfo();
 	}
 }
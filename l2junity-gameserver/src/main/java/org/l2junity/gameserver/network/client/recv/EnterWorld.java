@@ -63,6 +63,7 @@ import org.l2junity.gameserver.network.client.send.ExAdenaInvenCount;
 import org.l2junity.gameserver.network.client.send.ExAutoSoulShot;
 import org.l2junity.gameserver.network.client.send.ExBasicActionList;
 import org.l2junity.gameserver.network.client.send.ExBeautyItemList;
+import org.l2junity.gameserver.network.client.send.ExBrPremiumState;
 import org.l2junity.gameserver.network.client.send.ExCastleState;
 import org.l2junity.gameserver.network.client.send.ExConnectedTimeAndGettableReward;
 import org.l2junity.gameserver.network.client.send.ExGetBookMarkInfoPacket;
@@ -93,6 +94,7 @@ import org.l2junity.gameserver.network.client.send.ShortCutInit;
 import org.l2junity.gameserver.network.client.send.SkillCoolTime;
 import org.l2junity.gameserver.network.client.send.SkillList;
 import org.l2junity.gameserver.network.client.send.SystemMessage;
+import org.l2junity.gameserver.network.client.send.UserInfo;
 import org.l2junity.gameserver.network.client.send.ability.ExAcquireAPSkillList;
 import org.l2junity.gameserver.network.client.send.friend.L2FriendList;
 import org.l2junity.gameserver.network.client.send.onedayreward.ExOneDayReceiveRewardList;
@@ -153,7 +155,10 @@ public class EnterWorld implements IClientIncomingPacket
 		
 		client.setClientTracert(tracert);
 		
-		activeChar.broadcastUserInfo();
+		// The first UserInfo is sent right away, the login packets below expect the client to know the player already.
+		activeChar.sendPacket(new UserInfo(activeChar));
+		activeChar.sendPacket(new ExBrPremiumState(activeChar));
+		activeChar.broadcastCharInfo();
 		
 		// Restore to instanced area if enabled
 		if (GeneralConfig.RESTORE_PLAYER_INSTANCE)
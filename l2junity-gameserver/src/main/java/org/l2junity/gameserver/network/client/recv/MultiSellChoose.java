@@ -49,7 +49,6 @@ import org.l2junity.gameserver.model.items.instance.ItemInstance;
 import org.l2junity.gameserver.network.client.L2GameClient;
 import org.l2junity.gameserver.network.client.send.InventoryUpdate;
 import org.l2junity.gameserver.network.client.send.SystemMessage;
-import org.l2junity.gameserver.network.client.send.UserInfo;
 import org.l2junity.gameserver.network.client.send.string.SystemMessageId;
 import org.l2junity.network.PacketReader;
 
@@ -314,14 +313,14 @@ public class MultiSellChoose implements IClientIncomingPacket
 						case FAME:
 						{
 							player.setFame(player.getFame() - (int) totalCount);
-							player.sendPacket(new UserInfo(player));
+							player.updateUserInfo();
 							// player.sendPacket(new ExBrExtraUserInfo(player));
 							break;
 						}
 						case RAIDBOSS_POINTS:
 						{
 							player.setRaidbossPoints(player.getRaidbossPoints() - (int) totalCount);
-							player.sendPacket(new UserInfo(player));
+							player.updateUserInfo();
 							player.sendPacket(SystemMessage.getSystemMessage(SystemMessageId.YOU_CONSUMED_S1_RAID_POINTS).addLong(totalCount));
 							break;
 						}
@@ -401,14 +400,14 @@ public class MultiSellChoose implements IClientIncomingPacket
 						case FAME:
 						{
 							player.setFame((int) (player.getFame() + totalCount));
-							player.sendPacket(new UserInfo(player));
+							player.updateUserInfo();
 							// player.sendPacket(new ExBrExtraUserInfo(player));
 							break;
 						}
 						case RAIDBOSS_POINTS:
 						{
 							player.increaseRaidbossPoints((int) totalCount);
-							player.sendPacket(new UserInfo(player));
+							player.updateUserInfo();
 							break;
 						}
 						default:
@@ -44,8 +44,7 @@ public class NotifyExitBeautyShop implements IClientIncomingPacket
 			return;
 		}
 		
-		final UserInfo userInfo = new UserInfo(activeChar, false);
-		userInfo.addComponentType(UserInfoType.APPAREANCE);
+		final UserInfo userInfo = new UserInfo(activeChar, UserInfoType.APPAREANCE);
 		client.sendPacket(userInfo);
 	}
 }
@@ -27,7 +27,6 @@ import org.l2junity.gameserver.data.xml.impl.SkillTreesData;
 import org.l2junity.gameserver.enums.IllegalActionPunishmentType;
 import org.l2junity.gameserver.enums.Race;
 import org.l2junity.gameserver.enums.SubclassType;
-import org.l2junity.gameserver.enums.UserInfoType;
 import org.l2junity.gameserver.model.ClanPrivilege;
 import org.l2junity.gameserver.model.L2Clan;
 import org.l2junity.gameserver.model.SkillLearn;
@@ -56,7 +55,6 @@ import org.l2junity.gameserver.network.client.send.ExStorageMaxCount;
 import org.l2junity.gameserver.network.client.send.PledgeSkillList;
 import org.l2junity.gameserver.network.client.send.ShortCutInit;
 import org.l2junity.gameserver.network.client.send.SystemMessage;
-import org.l2junity.gameserver.network.client.send.UserInfo;
 import org.l2junity.gameserver.network.client.send.string.SystemMessageId;
 import org.l2junity.gameserver.util.Util;
 import org.l2junity.network.PacketReader;
@@ -682,9 +680,7 @@ public final class RequestAcquireSkill implements IClientIncomingPacket
 				if (levelUpSp > 0)
 				{
 					player.setSp(player.getSp() - levelUpSp);
-					UserInfo ui = new UserInfo(player);
-					ui.addComponentType(UserInfoType.CURRENT_HPMPCP_EXP_SP);
-					player.sendPacket(ui);
+					player.updateUserInfo();
 				}
 				return true;
 			}
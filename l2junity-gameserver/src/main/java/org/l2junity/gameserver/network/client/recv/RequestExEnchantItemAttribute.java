@@ -31,7 +31,6 @@ import org.l2junity.gameserver.network.client.L2GameClient;
 import org.l2junity.gameserver.network.client.send.ExAttributeEnchantResult;
 import org.l2junity.gameserver.network.client.send.InventoryUpdate;
 import org.l2junity.gameserver.network.client.send.SystemMessage;
-import org.l2junity.gameserver.network.client.send.UserInfo;
 import org.l2junity.gameserver.network.client.send.string.SystemMessageId;
 import org.l2junity.gameserver.util.Util;
 import org.l2junity.network.PacketReader;
@@ -288,7 +287,7 @@ public class RequestExEnchantItemAttribute implements IClientIncomingPacket
 		
 		player.removeRequest(request.getClass());
 		client.sendPacket(new ExAttributeEnchantResult(result, item.isWeapon(), elementToAdd, elementValue, newValue, successfulAttempts, failedAttempts));
-		client.sendPacket(new UserInfo(player));
+		player.updateUserInfo();
 		player.sendInventoryUpdate(iu);
 	}
 	
@@ -23,7 +23,6 @@ import org.l2junity.gameserver.model.actor.instance.PlayerInstance;
 import org.l2junity.gameserver.model.clan.entry.PledgeRecruitInfo;
 import org.l2junity.gameserver.network.client.L2GameClient;
 import org.l2junity.gameserver.network.client.send.JoinPledge;
-import org.l2junity.gameserver.network.client.send.UserInfo;
 import org.l2junity.network.PacketReader;
 
 /**
@@ -60,7 +59,7 @@ public class RequestPledgeSignInForOpenJoiningMethod implements IClientIncomingP
 		{
 			pledgeRecruitInfo.getClan().addClanMember(activeChar);
 			activeChar.sendPacket(new JoinPledge(_clanId));
-			activeChar.sendPacket(new UserInfo(activeChar));
+			activeChar.updateUserInfo();
 			activeChar.broadcastInfo();
 			return;
 		}
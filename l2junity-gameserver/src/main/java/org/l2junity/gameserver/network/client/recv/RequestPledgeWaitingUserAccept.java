@@ -18,14 +18,12 @@
  */
 package org.l2junity.gameserver.network.client.recv;
 
-import org.l2junity.gameserver.enums.UserInfoType;
 import org.l2junity.gameserver.instancemanager.ClanEntryManager;
 import org.l2junity.gameserver.model.L2Clan;
 import org.l2junity.gameserver.model.World;
 import org.l2junity.gameserver.model.actor.instance.PlayerInstance;
 import org.l2junity.gameserver.network.client.L2GameClient;
 import org.l2junity.gameserver.network.client.send.JoinPledge;
-import org.l2junity.gameserver.network.client.send.UserInfo;
 import org.l2junity.network.PacketReader;
 
 /**
@@ -63,9 +61,7 @@ public class RequestPledgeWaitingUserAccept implements IClientIncomingPacket
 				final L2Clan clan = activeChar.getClan();
 				clan.addClanMember(player);
 				player.sendPacket(new JoinPledge(_clanId));
-				final UserInfo ui = new UserInfo(player);
-				ui.addComponentType(UserInfoType.CLAN);
-				player.sendPacket(ui);
+				player.updateUserInfo();
 				player.broadcastInfo();
 				
 				ClanEntryManager.getInstance().removePlayerApplication(clan.getId(), _playerId);
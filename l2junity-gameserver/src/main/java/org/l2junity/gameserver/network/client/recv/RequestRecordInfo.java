@@ -43,7 +43,8 @@ public class RequestRecordInfo implements IClientIncomingPacket
 			return;
 		}
 		
-		client.sendPacket(new UserInfo(activeChar));
+		// Sent in full right away, the client asks for everything again and expects its own info before the one of the objects around
+		activeChar.sendPacket(new UserInfo(activeChar));
 		
 		World.getInstance().forEachVisibleObject(activeChar, WorldObject.class, object ->
 		{
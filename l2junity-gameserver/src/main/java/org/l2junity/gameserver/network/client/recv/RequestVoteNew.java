@@ -23,7 +23,6 @@ import org.l2junity.gameserver.model.actor.instance.PlayerInstance;
 import org.l2junity.gameserver.network.client.L2GameClient;
 import org.l2junity.gameserver.network.client.send.ExVoteSystemInfo;
 import org.l2junity.gameserver.network.client.send.SystemMessage;
-import org.l2junity.gameserver.network.client.send.UserInfo;
 import org.l2junity.gameserver.network.client.send.string.SystemMessageId;
 import org.l2junity.network.PacketReader;
 
@@ -98,7 +97,7 @@ public final class RequestVoteNew implements IClientIncomingPacket
 		sm.addPcName(activeChar);
 		target.sendPacket(sm);
 		
-		client.sendPacket(new UserInfo(activeChar));
+		activeChar.updateUserInfo();
 		target.broadcastUserInfo();
 		
 		client.sendPacket(new ExVoteSystemInfo(activeChar));
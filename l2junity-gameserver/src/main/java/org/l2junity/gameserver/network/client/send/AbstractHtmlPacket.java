@@ -19,10 +19,12 @@
 package org.l2junity.gameserver.network.client.send;
 
 import org.l2junity.gameserver.cache.HtmCache;
+import org.l2junity.gameserver.cache.HtmlTemplate;
 import org.l2junity.gameserver.enums.ChatType;
 import org.l2junity.gameserver.enums.HtmlActionScope;
 import org.l2junity.gameserver.model.actor.instance.PlayerInstance;
 import org.l2junity.gameserver.util.Util;
+import org.l2junity.network.PacketWriter;
 
 /**
  * @author HorridoJoho
@@ -30,9 +32,13 @@ import org.l2junity.gameserver.util.Util;
 public abstract class AbstractHtmlPacket implements IClientOutgoingPacket
 {
 	public static final char VAR_PARAM_START_CHAR = '$';
+	private static final int MAX_HTML_LENGTH = 17200;
 	
 	private final int _npcObjId;
 	private String _html = null;
+	/** The template of the page set by {@link #setTemplate(String, String)} until it is rendered */
+	private HtmlTemplate _template = null;
+	private String[] _values = null;
 	private String _path = null;
 	private boolean _disabledValidation = false;
 	
@@ -80,10 +86,13 @@ public abstract class AbstractHtmlPacket implements IClientOutgoingPacket
 	
 	public final void setHtml(String html)
 	{
-		if (html.length() > 17200)
+		_template = null;
+		_values = null;
+		
+		if (html.length() > MAX_HTML_LENGTH)
 		{
 			LOGGER.warn("Html is too long! this will crash the client!", new Throwable());
-			_html = html.substring(0, 17200);
+			_html = html.substring(0, MAX_HTML_LENGTH);
 		}
 		
 		if (!html.contains("<html") && !html.startsWith("..\\L2"))
@@ -110,8 +119,89 @@ public abstract class AbstractHtmlPacket implements IClientOutgoingPacket
 		return true;
 	}
 	
+	/**
+	 * Sets the page the same way {@link #setFile(String, String)} does, but keeps it as a template.<br>
+	 * Its placeholders are set by {@link #bind(String, String)} and rendered while the packet is written, without any intermediate string.
+	 * @param prefix the language prefix
+	 * @param path the path of the page
+	 * @return {@code true} if the page exists, {@code false} otherwise
+	 */
+	public final boolean setTemplate(String prefix, String path)
+	{
+		final HtmlTemplate template = HtmCache.getInstance().getTemplate(prefix, path);
+		if (template == null)
+		{
+			return setFile(prefix, path);
+		}
+		
+		setPath(path);
+		setHtml(template.getSource());
+		if (_html == template.getSource())
+		{
+			// Neither truncated nor wrapped, so the template renders exactly the page
+			_template = template;
+			_values = template.newValues();
+		}
+		return true;
+	}
+	
+	/**
+	 * Sets the value of a placeholder of the page.<br>
+	 * Unlike {@link #replace(String, String)} the placeholder is no regular expression, and placeholders inside values bound before are not replaced.
+	 * @param placeholder the placeholder including the percent signs, for example {@code %objectId%}
+	 * @param value the value
+	 */
+	public final void bind(String placeholder, String value)
+	{
+		if (_template != null)
+		{
+			_template.bind(_values, placeholder, value);
+		}
+		else
+		{
+			_html = _html.replace(placeholder, value);
+		}
+	}
+	
+	public final void bind(String placeholder, CharSequence value)
+	{
+		bind(placeholder, String.valueOf(value));
+	}
+	
+	public final void bind(String placeholder, boolean val)
+	{
+		bind(placeholder, String.valueOf(val));
+	}
+	
+	public final void bind(String placeholder, int val)
+	{
+		bind(placeholder, String.valueOf(val));
+	}
+	
+	public final void bind(String placeholder, long val)
+	{
+		bind(placeholder, String.valueOf(val));
+	}
+	
+	public final void bind(String placeholder, double val)
+	{
+		bind(placeholder, String.valueOf(val));
+	}
+	
+	/**
+	 * Renders the template into the page, so the page can be modified as a string.
+	 */
+	private void renderTemplate()
+	{
+		if (_template != null)
+		{
+			setHtml(_template.render(_values));
+		}
+	}
+	
 	public final void replace(String pattern, String value)
 	{
+		renderTemplate();
 		_html = _html.replaceAll(pattern, value.replaceAll("\\$", "\\\\\\$"));
 	}
 	
@@ -150,8 +240,15 @@ public abstract class AbstractHtmlPacket implements IClientOutgoingPacket
 		
 		if (!_disabledValidation)
 		{
-			player.clearHtmlActions(getScope());
-			Util.buildHtmlActionCache(player, getScope(), _npcObjId, _html);
+			final HtmlTemplate template = _template;
+			if (template != null)
+			{
+				Util.buildHtmlActionCache(player, getScope(), _npcObjId, template, _values);
+			}
+			else
+			{
+				Util.buildHtmlActionCache(player, getScope(), _npcObjId, getHtml());
+			}
 		}
 		
 		if (player.isGM() && player.isDebug() && (_path != null) && !_path.isEmpty())
@@ -167,9 +264,28 @@ public abstract class AbstractHtmlPacket implements IClientOutgoingPacket
 	
 	public final String getHtml()
 	{
+		renderTemplate();
 		return _html;
 	}
 	
+	/**
+	 * Writes the page as a string, a template is rendered straight into the packet.
+	 * @param packet the packet to write to
+	 */
+	protected final void writeHtml(PacketWriter packet)
+	{
+		final HtmlTemplate template = _template;
+		if ((template != null) && (template.length(_values) <= MAX_HTML_LENGTH))
+		{
+			template.write(packet, _values);
+			packet.writeS(null);
+		}
+		else
+		{
+			packet.writeS(getHtml());
+		}
+	}
+	
 	protected abstract String getChatName();
 	
 	public abstract HtmlActionScope getScope();
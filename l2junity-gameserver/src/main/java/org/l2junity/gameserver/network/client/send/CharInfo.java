@@ -18,42 +18,21 @@
  */
 package org.l2junity.gameserver.network.client.send;
 
-import java.util.Set;
-
-import org.l2junity.gameserver.config.AdminConfig;
-import org.l2junity.gameserver.instancemanager.CursedWeaponsManager;
-import org.l2junity.gameserver.model.VariationInstance;
 import org.l2junity.gameserver.model.actor.instance.L2DecoyInstance;
 import org.l2junity.gameserver.model.actor.instance.PlayerInstance;
-import org.l2junity.gameserver.model.ceremonyofchaos.CeremonyOfChaosEvent;
-import org.l2junity.gameserver.model.ceremonyofchaos.CeremonyOfChaosMember;
-import org.l2junity.gameserver.model.interfaces.ILocational;
 import org.l2junity.gameserver.model.itemcontainer.Inventory;
 import org.l2junity.gameserver.model.skills.AbnormalVisualEffect;
-import org.l2junity.gameserver.model.zone.ZoneId;
 import org.l2junity.gameserver.network.client.OutgoingPackets;
 import org.l2junity.network.PacketWriter;
 
 public class CharInfo implements IClientOutgoingPacket
 {
-	private final PlayerInstance _activeChar;
-	private int _objId;
-	private int _x, _y, _z, _heading;
-	private final int _mAtkSpd, _pAtkSpd;
-	
-	private final int _runSpd, _walkSpd;
-	private final int _swimRunSpd;
-	private final int _swimWalkSpd;
-	private final int _flyRunSpd;
-	private final int _flyWalkSpd;
-	private final double _moveMultiplier;
-	private final float _attackSpeedMultiplier;
-	private int _enchantLevel = 0;
-	private int _armorEnchant = 0;
-	private int _vehicleId = 0;
+	private final PlayerInfoSnapshot _activeChar;
+	private final int _objId;
+	private final int _x, _y, _z, _heading;
 	private final boolean _gmSeeInvis;
 	
-	private static final int[] PAPERDOLL_ORDER = new int[]
+	static final int[] PAPERDOLL_ORDER = new int[]
 	{
 		Inventory.PAPERDOLL_UNDER,
 		Inventory.PAPERDOLL_HEAD,
@@ -70,190 +49,171 @@ public class CharInfo implements IClientOutgoingPacket
 	};
 	
 	public CharInfo(PlayerInstance cha, boolean gmSeeInvis)
+	{
+		this(cha.updateInfoSnapshot(), gmSeeInvis);
+	}
+	
+	public CharInfo(PlayerInfoSnapshot cha, boolean gmSeeInvis)
 	{
 		_activeChar = cha;
-		_objId = cha.getObjectId();
-		if ((_activeChar.getVehicle() != null) && (_activeChar.getInVehiclePosition() != null))
-		{
-			_x = (int) _activeChar.getInVehiclePosition().getX();
-			_y = (int) _activeChar.getInVehiclePosition().getY();
-			_z = (int) _activeChar.getInVehiclePosition().getZ();
-			_vehicleId = _activeChar.getVehicle().getObjectId();
-		}
-		else
-		{
-			_x = (int) _activeChar.getX();
-			_y = (int) _activeChar.getY();
-			_z = (int) _activeChar.getZ();
-		}
-		_heading = _activeChar.getHeading();
-		_mAtkSpd = _activeChar.getMAtkSpd();
-		_pAtkSpd = _activeChar.getPAtkSpd();
-		_attackSpeedMultiplier = (float) _activeChar.getAttackSpeedMultiplier();
-		_moveMultiplier = cha.getMovementSpeedMultiplier();
-		_runSpd = (int) Math.round(cha.getRunSpeed() / _moveMultiplier);
-		_walkSpd = (int) Math.round(cha.getWalkSpeed() / _moveMultiplier);
-		_swimRunSpd = (int) Math.round(cha.getSwimRunSpeed() / _moveMultiplier);
-		_swimWalkSpd = (int) Math.round(cha.getSwimWalkSpeed() / _moveMultiplier);
-		_flyRunSpd = cha.isFlying() ? _runSpd : 0;
-		_flyWalkSpd = cha.isFlying() ? _walkSpd : 0;
-		_enchantLevel = cha.getInventory().getWeaponEnchant();
-		_armorEnchant = cha.getInventory().getArmorMinEnchant();
+		_objId = cha._objectId;
+		_x = cha._vehicleX;
+		_y = cha._vehicleY;
+		_z = cha._vehicleZ;
+		_heading = cha._heading;
 		_gmSeeInvis = gmSeeInvis;
 	}
 	
 	public CharInfo(L2DecoyInstance decoy, boolean gmSeeInvis)
 	{
-		this(decoy.getActingPlayer(), gmSeeInvis); // init
+		_activeChar = decoy.getActingPlayer().updateInfoSnapshot();
 		_objId = decoy.getObjectId();
 		_x = (int) decoy.getX();
 		_y = (int) decoy.getY();
 		_z = (int) decoy.getZ();
 		_heading = decoy.getHeading();
+		_gmSeeInvis = gmSeeInvis;
 	}
 	
 	@Override
 	public boolean write(PacketWriter packet)
 	{
 		OutgoingPackets.CHAR_INFO.writeId(packet);
-		final CeremonyOfChaosEvent event = _activeChar.getEvent(CeremonyOfChaosEvent.class);
-		final CeremonyOfChaosMember cocPlayer = event != null ? event.getMember(_activeChar.getObjectId()) : null;
 		packet.writeC(0x00); // if 1, character is deleted for the player
 		packet.writeD(_x); // Confirmed
 		packet.writeD(_y); // Confirmed
 		packet.writeD(_z); // Confirmed
-		packet.writeD(_vehicleId); // Confirmed
+		packet.writeD(_activeChar._hasInVehiclePosition ? _activeChar._vehicleId : 0); // Confirmed
 		packet.writeD(_objId); // Confirmed
-		packet.writeS(_activeChar.getAppearance().getVisibleName()); // Confirmed
+		packet.writeS(_activeChar._visibleName); // Confirmed
 		
-		packet.writeH(_activeChar.getRace().ordinal()); // Confirmed
-		packet.writeC(_activeChar.getAppearance().getSex() ? 0x01 : 0x00); // Confirmed
-		packet.writeD(_activeChar.getBaseClass()); // Confirmed
+		packet.writeH(_activeChar._race); // Confirmed
+		packet.writeC(_activeChar._sex ? 0x01 : 0x00); // Confirmed
+		packet.writeD(_activeChar._baseClass); // Confirmed
 		
-		for (int slot : getPaperdollOrder())
+		for (int displayId : _activeChar._paperdollDisplayIds)
 		{
-			packet.writeD(_activeChar.getInventory().getPaperdollItemDisplayId(slot)); // Confirmed
+			packet.writeD(displayId); // Confirmed
 		}
 		
-		for (int slot : getPaperdollOrderAugument())
+		for (int option : _activeChar._paperdollAugmentations)
 		{
-			final VariationInstance augment = _activeChar.getInventory().getPaperdollAugmentation(slot);
-			packet.writeD(augment != null ? augment.getOption1Id() : 0); // Confirmed
-			packet.writeD(augment != null ? augment.getOption2Id() : 0); // Confirmed
+			packet.writeD(option); // Confirmed
 		}
 		
-		packet.writeC(_armorEnchant);
+		packet.writeC(_activeChar._armorEnchant);
 		
-		for (int slot : getPaperdollOrderVisualId())
+		for (int visualId : _activeChar._paperdollVisualIds)
 		{
-			packet.writeD(_activeChar.getInventory().getPaperdollItemVisualId(slot));
+			packet.writeD(visualId);
 		}
 		
-		packet.writeC(_activeChar.getPvpFlag());
-		packet.writeD(_activeChar.getReputation());
+		packet.writeC(_activeChar._pvpFlag);
+		packet.writeD(_activeChar._reputation);
 		
-		packet.writeD(_mAtkSpd);
-		packet.writeD(_pAtkSpd);
+		packet.writeD(_activeChar._mAtkSpd);
+		packet.writeD(_activeChar._pAtkSpd);
 		
-		packet.writeH(_runSpd);
-		packet.writeH(_walkSpd);
-		packet.writeH(_swimRunSpd);
-		packet.writeH(_swimWalkSpd);
-		packet.writeH(_flyRunSpd);
-		packet.writeH(_flyWalkSpd);
-		packet.writeH(_flyRunSpd);
-		packet.writeH(_flyWalkSpd);
-		packet.writeF(_moveMultiplier);
-		packet.writeF(_attackSpeedMultiplier);
+		packet.writeH(_activeChar._runSpd);
+		packet.writeH(_activeChar._walkSpd);
+		packet.writeH(_activeChar._swimRunSpd);
+		packet.writeH(_activeChar._swimWalkSpd);
+		packet.writeH(_activeChar._flyRunSpd);
+		packet.writeH(_activeChar._flyWalkSpd);
+		packet.writeH(_activeChar._flyRunSpd);
+		packet.writeH(_activeChar._flyWalkSpd);
+		packet.writeF(_activeChar._moveMultiplier);
+		packet.writeF((float) _activeChar._attackSpeedMultiplier);
 		
-		packet.writeF(_activeChar.getCollisionRadius());
-		packet.writeF(_activeChar.getCollisionHeight());
+		packet.writeF(_activeChar._collisionRadius);
+		packet.writeF(_activeChar._collisionHeight);
 		
-		packet.writeD(_activeChar.getVisualHair());
-		packet.writeD(_activeChar.getVisualHairColor());
-		packet.writeD(_activeChar.getVisualFace());
+		packet.writeD(_activeChar._hair);
+		packet.writeD(_activeChar._hairColor);
+		packet.writeD(_activeChar._face);
 		
-		packet.writeS(_gmSeeInvis ? "Invisible" : _activeChar.getAppearance().getVisibleTitle());
+		packet.writeS(_gmSeeInvis ? "Invisible" : _activeChar._visibleTitle);
 		
-		packet.writeD(_activeChar.getAppearance().getVisibleClanId());
-		packet.writeD(_activeChar.getAppearance().getVisibleClanCrestId());
-		packet.writeD(_activeChar.getAppearance().getVisibleAllyId());
-		packet.writeD(_activeChar.getAppearance().getVisibleAllyCrestId());
+		packet.writeD(_activeChar._visibleClanId);
+		packet.writeD(_activeChar._visibleClanCrestId);
+		packet.writeD(_activeChar._visibleAllyId);
+		packet.writeD(_activeChar._visibleAllyCrestId);
 		
-		packet.writeC(_activeChar.isSitting() ? 0x00 : 0x01); // Confirmed
-		packet.writeC(_activeChar.isRunning() ? 0x01 : 0x00); // Confirmed
-		packet.writeC(_activeChar.isInCombat() ? 0x01 : 0x00); // Confirmed
+		packet.writeC(_activeChar._isSitting ? 0x00 : 0x01); // Confirmed
+		packet.writeC(_activeChar._isRunning ? 0x01 : 0x00); // Confirmed
+		packet.writeC(_activeChar._isInCombat ? 0x01 : 0x00); // Confirmed
 		
-		packet.writeC(!_activeChar.isInOlympiadMode() && _activeChar.isAlikeDead() ? 0x01 : 0x00); // Confirmed
+		packet.writeC(!_activeChar._isInOlympiadMode && _activeChar._isAlikeDead ? 0x01 : 0x00); // Confirmed
 		
-		packet.writeC(_activeChar.isInvisible() ? 0x01 : 0x00);
+		packet.writeC(_activeChar._isInvisible ? 0x01 : 0x00);
 		
-		packet.writeC(_activeChar.getMountType().ordinal()); // 1-on Strider, 2-on Wyvern, 3-on Great Wolf, 0-no mount
-		packet.writeC(_activeChar.getPrivateStoreType().getId()); // Confirmed
+		packet.writeC(_activeChar._mountType); // 1-on Strider, 2-on Wyvern, 3-on Great Wolf, 0-no mount
+		packet.writeC(_activeChar._privateStoreType); // Confirmed
 		
-		packet.writeH(_activeChar.getCubics().size()); // Confirmed
-		_activeChar.getCubics().keySet().forEach(packet::writeH);
+		packet.writeH(_activeChar._cubicIds.length); // Confirmed
+		for (int cubicId : _activeChar._cubicIds)
+		{
+			packet.writeH(cubicId);
+		}
 		
-		packet.writeC(_activeChar.isInMatchingRoom() ? 0x01 : 0x00); // Confirmed
+		packet.writeC(_activeChar._isInMatchingRoom ? 0x01 : 0x00); // Confirmed
 		
-		packet.writeC(_activeChar.isInsideZone(ZoneId.WATER) ? 1 : _activeChar.isFlyingMounted() ? 2 : 0);
-		packet.writeH(_activeChar.getRecomHave()); // Confirmed
-		packet.writeD(_activeChar.getMountNpcId() == 0 ? 0 : _activeChar.getMountNpcId() + 1000000);
+		packet.writeC(_activeChar._waterOrFlying);
+		packet.writeH(_activeChar._recomHave); // Confirmed
+		packet.writeD(_activeChar._mountNpcId == 0 ? 0 : _activeChar._mountNpcId + 1000000);
 		
-		packet.writeD(_activeChar.getClassId().getId()); // Confirmed
+		packet.writeD(_activeChar._classId); // Confirmed
 		packet.writeD(0x00); // TODO: Find me!
-		packet.writeC(_activeChar.isMounted() ? 0 : _enchantLevel); // Confirmed
+		packet.writeC(_activeChar._isMounted ? 0 : _activeChar._enchantLevel); // Confirmed
 		
-		packet.writeC(_activeChar.getTeam().getId()); // Confirmed
+		packet.writeC(_activeChar._team); // Confirmed
 		
-		packet.writeD(_activeChar.getClanCrestLargeId());
-		packet.writeC(_activeChar.getNobleStatus().getClientId()); // Confirmed
-		packet.writeC(_activeChar.isHero() || (_activeChar.isGM() && AdminConfig.GM_HERO_AURA) ? 1 : 0); // Confirmed
+		packet.writeD(_activeChar._clanCrestLargeId);
+		packet.writeC(_activeChar._nobleStatus); // Confirmed
+		packet.writeC(_activeChar._hasHeroAura ? 1 : 0); // Confirmed
 		
-		packet.writeC(_activeChar.isFishing() ? 1 : 0); // Confirmed
+		packet.writeC(_activeChar._isFishing ? 1 : 0); // Confirmed
 		
-		final ILocational baitLocation = _activeChar.getFishing().getBaitLocation();
-		packet.writeD((int) baitLocation.getX()); // Confirmed
-		packet.writeD((int) baitLocation.getY()); // Confirmed
-		packet.writeD((int) baitLocation.getZ()); // Confirmed
+		packet.writeD(_activeChar._baitX); // Confirmed
+		packet.writeD(_activeChar._baitY); // Confirmed
+		packet.writeD(_activeChar._baitZ); // Confirmed
 		
-		packet.writeD(_activeChar.getAppearance().getNameColor()); // Confirmed
+		packet.writeD(_activeChar._nameColor); // Confirmed
 		
 		packet.writeD(_heading); // Confirmed
 		
-		packet.writeC(_activeChar.getPledgeClass());
-		packet.writeH(_activeChar.getPledgeType());
+		packet.writeC(_activeChar._pledgeClass);
+		packet.writeH(_activeChar._pledgeType);
 		
-		packet.writeD(_activeChar.getAppearance().getTitleColor()); // Confirmed
+		packet.writeD(_activeChar._titleColor); // Confirmed
 		
-		packet.writeC(_activeChar.isCursedWeaponEquipped() ? CursedWeaponsManager.getInstance().getLevel(_activeChar.getCursedWeaponEquippedId()) : 0);
+		packet.writeC(_activeChar._cursedWeaponLevel);
 		
-		packet.writeD(_activeChar.getAppearance().getVisibleClanId() > 0 ? _activeChar.getClan().getReputationScore() : 0);
-		packet.writeD(_activeChar.getTransformationDisplayId()); // Confirmed
-		packet.writeD(_activeChar.getAgathionId()); // Confirmed
+		packet.writeD(_activeChar._visibleClanReputation);
+		packet.writeD(_activeChar._transformationDisplayId); // Confirmed
+		packet.writeD(_activeChar._agathionId); // Confirmed
 		
 		packet.writeC(0x00); // TODO: Find me!
 		
-		packet.writeD((int) Math.round(_activeChar.getCurrentCp())); // Confirmed
-		packet.writeD(_activeChar.getMaxHp()); // Confirmed
-		packet.writeD((int) Math.round(_activeChar.getCurrentHp())); // Confirmed
-		packet.writeD(_activeChar.getMaxMp()); // Confirmed
-		packet.writeD((int) Math.round(_activeChar.getCurrentMp())); // Confirmed
+		packet.writeD(_activeChar._currentCp); // Confirmed
+		packet.writeD(_activeChar._maxHp); // Confirmed
+		packet.writeD(_activeChar._currentHp); // Confirmed
+		packet.writeD(_activeChar._maxMp); // Confirmed
+		packet.writeD(_activeChar._currentMp); // Confirmed
 		
 		packet.writeC(0x00); // TODO: Find me!
-		final Set<AbnormalVisualEffect> abnormalVisualEffects = _activeChar.getEffectList().getCurrentAbnormalVisualEffects();
-		packet.writeD(abnormalVisualEffects.size() + (_gmSeeInvis ? 1 : 0)); // Confirmed
-		for (AbnormalVisualEffect abnormalVisualEffect : abnormalVisualEffects)
+		packet.writeD(_activeChar._abnormalVisualEffects.length + (_gmSeeInvis ? 1 : 0)); // Confirmed
+		for (int abnormalVisualEffect : _activeChar._abnormalVisualEffects)
 		{
-			packet.writeH(abnormalVisualEffect.getClientId()); // Confirmed
+			packet.writeH(abnormalVisualEffect); // Confirmed
 		}
 		if (_gmSeeInvis)
 		{
 			packet.writeH(AbnormalVisualEffect.STEALTH.getClientId());
 		}
-		packet.writeC(cocPlayer != null ? cocPlayer.getPosition() : 0);
-		packet.writeC(_activeChar.isHairAccessoryEnabled() ? 0x01 : 0x00); // Hair accessory
-		packet.writeC(_activeChar.getAbilityPointsUsed()); // Used Ability Points
+		packet.writeC(_activeChar._cocPosition);
+		packet.writeC(_activeChar._hairAccessoryEnabled ? 0x01 : 0x00); // Hair accessory
+		packet.writeC(_activeChar._abilityPointsUsed); // Used Ability Points
 		return true;
 	}
 	
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2004-2017 L2J Unity
+ * 
+ * This file is part of L2J Unity.
+ * 
+ * L2J Unity is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Unity is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2junity.gameserver.network.client.send;
+
+import java.util.Arrays;
+import java.util.Set;
+
+import org.l2junity.gameserver.instancemanager.GameTimeManager;
+import org.l2junity.gameserver.model.actor.Creature;
+import org.l2junity.gameserver.model.skills.AbnormalVisualEffect;
+
+/**
+ * The immutable state of a creature as the info packets show it, taken at once on the thread changing the creature.<br>
+ * A snapshot is shared by all the recipients of an info packet, the packets only read the snapshot while they are written, never the creature.<br>
+ * A creature keeps its last snapshot for reuse as long as its info version did not change and the game tick it was taken in is not over, see {@link Creature#invalidateInfo()}.
+ */
+public abstract class CreatureInfoSnapshot
+{
+	private final int _version;
+	private final int _gameTick;
+	
+	protected CreatureInfoSnapshot(Creature creature)
+	{
+		// Read before the state, so a change made while taking the snapshot invalidates it.
+		_version = creature.getInfoVersion();
+		_gameTick = GameTimeManager.getInstance().getGameTicks();
+	}
+	
+	/**
+	 * @param creature the creature this snapshot was taken from
+	 * @return {@code true} if this snapshot may still be reused for the creature, {@code false} if a new one has to be taken
+	 */
+	public boolean isCurrent(Creature creature)
+	{
+		return (_version == creature.getInfoVersion()) && (_gameTick == GameTimeManager.getInstance().getGameTicks());
+	}
+	
+	/**
+	 * @param abnormalVisualEffects the abnormal visual effects
+	 * @return the client IDs of the abnormal visual effects
+	 */
+	protected static int[] toClientIds(Set<AbnormalVisualEffect> abnormalVisualEffects)
+	{
+		final int[] clientIds = new int[abnormalVisualEffects.size()];
+		int i = 0;
+		for (AbnormalVisualEffect abnormalVisualEffect : abnormalVisualEffects)
+		{
+			if (i == clientIds.length)
+			{
+				break;
+			}
+			clientIds[i++] = abnormalVisualEffect.getClientId();
+		}
+		return i == clientIds.length ? clientIds : Arrays.copyOf(clientIds, i);
+	}
+}
@@ -83,7 +83,7 @@ public final class NpcHtmlMessage extends AbstractHtmlPacket
 		OutgoingPackets.NPC_HTML_MESSAGE.writeId(packet);
 		
 		packet.writeD(getNpcObjId());
-		packet.writeS(getHtml());
+		writeHtml(packet);
 		packet.writeD(_itemId);
 		packet.writeD(0x00); // TODO: Find me!
 		return true;
@@ -18,20 +18,10 @@
  */
 package org.l2junity.gameserver.network.client.send;
 
-import java.util.Set;
-
-import org.l2junity.gameserver.config.L2JModsConfig;
-import org.l2junity.gameserver.config.NpcConfig;
-import org.l2junity.gameserver.data.sql.impl.ClanTable;
 import org.l2junity.gameserver.enums.NpcInfoType;
-import org.l2junity.gameserver.enums.Team;
-import org.l2junity.gameserver.model.L2Clan;
 import org.l2junity.gameserver.model.actor.Npc;
-import org.l2junity.gameserver.model.actor.instance.L2GuardInstance;
 import org.l2junity.gameserver.model.skills.AbnormalVisualEffect;
-import org.l2junity.gameserver.model.zone.ZoneId;
 import org.l2junity.gameserver.network.client.OutgoingPackets;
-import org.l2junity.gameserver.network.client.send.string.NpcStringId;
 import org.l2junity.network.PacketWriter;
 
 /**
@@ -39,7 +29,7 @@ import org.l2junity.network.PacketWriter;
  */
 public class NpcInfo extends AbstractMaskPacket<NpcInfoType>
 {
-	private final Npc _npc;
+	private final NpcInfoSnapshot _npc;
 	private final byte[] _masks = new byte[]
 	{
 		(byte) 0x00,
@@ -52,211 +42,15 @@ public class NpcInfo extends AbstractMaskPacket<NpcInfoType>
 	private int _initSize = 0;
 	private int _blockSize = 0;
 	
-	private int _clanCrest = 0;
-	private int _clanLargeCrest = 0;
-	private int _allyCrest = 0;
-	private int _allyId = 0;
-	private int _clanId = 0;
-	private int _statusMask = 0;
-	private final Set<AbnormalVisualEffect> _abnormalVisualEffects;
-	private String _name;
-	private String _title;
-	
 	public NpcInfo(Npc npc)
+	{
+		this(npc.updateInfoSnapshot());
+	}
+	
+	public NpcInfo(NpcInfoSnapshot npc)
 	{
 		_npc = npc;
-		_abnormalVisualEffects = npc.getEffectList().getCurrentAbnormalVisualEffects();
-		
-		if (npc.getNameParam() != null)
-		{
-			_name = npc.getNameParam();
-		}
-		else
-		{
-			_name = npc.getName();
-		}
-		
-		if (npc.getTitleParam() != null)
-		{
-			_title = npc.getTitleParam();
-		}
-		else if (_npc.isInvisible())
-		{
-			_title = "Invisible";
-		}
-		else if (L2JModsConfig.L2JMOD_CHAMPION_ENABLE && npc.isChampion())
-		{
-			_title = (L2JModsConfig.L2JMOD_CHAMP_TITLE);
-		}
-		else if (npc.isTrap() && (npc.asTrap().getOwner() != null))
-		{
-			_title = npc.asTrap().getOwner().getName();
-		}
-		else if (npc.getTemplate().isUsingServerSideTitle())
-		{
-			_title = npc.getTemplate().getTitle();
-		}
-		else
-		{
-			_title = npc.getTitle();
-		}
-		
-		if ((npc.getTitleParam() == null) && NpcConfig.SHOW_NPC_LVL && npc.isMonster())
-		{
-			String t = "Lv " + npc.getLevel() + (npc.isAggressive() ? "*" : "");
-			if (_title != null)
-			{
-				t += " " + _title;
-			}
-			_title = t;
-		}
-		
-		addComponentType(NpcInfoType.ATTACKABLE, NpcInfoType.UNKNOWN1, NpcInfoType.TITLE, NpcInfoType.ID, NpcInfoType.POSITION, NpcInfoType.ALIVE, NpcInfoType.RUNNING, NpcInfoType.HEADING);
-		
-		if ((npc.getStat().getPAtkSpd() > 0) || (npc.getStat().getMAtkSpd() > 0))
-		{
-			addComponentType(NpcInfoType.ATK_CAST_SPEED);
-		}
-		
-		if (npc.getRunSpeed() > 0)
-		{
-			addComponentType(NpcInfoType.SPEED_MULTIPLIER);
-		}
-		
-		if ((npc.getLeftHandItem() > 0) || (npc.getRightHandItem() > 0))
-		{
-			addComponentType(NpcInfoType.EQUIPPED);
-		}
-		
-		if (npc.getTeam() != Team.NONE)
-		{
-			addComponentType(NpcInfoType.TEAM);
-		}
-		
-		if (npc.getState() > 0)
-		{
-			addComponentType(NpcInfoType.DISPLAY_EFFECT);
-		}
-		
-		if (npc.isInsideZone(ZoneId.WATER) || npc.isFlying())
-		{
-			addComponentType(NpcInfoType.SWIM_OR_FLY);
-		}
-		
-		if (npc.isFlying())
-		{
-			addComponentType(NpcInfoType.FLYING);
-		}
-		
-		if (npc.getCloneObjId() > 0)
-		{
-			addComponentType(NpcInfoType.CLONE);
-		}
-		
-		if (npc.getMaxHp() > 0)
-		{
-			addComponentType(NpcInfoType.MAX_HP);
-		}
-		
-		if (npc.getMaxMp() > 0)
-		{
-			addComponentType(NpcInfoType.MAX_MP);
-		}
-		
-		if (npc.getCurrentHp() <= npc.getMaxHp())
-		{
-			addComponentType(NpcInfoType.CURRENT_HP);
-		}
-		
-		if (npc.getCurrentMp() <= npc.getMaxMp())
-		{
-			addComponentType(NpcInfoType.CURRENT_MP);
-		}
-		
-		if ((npc.getNameParam() != null) || npc.getTemplate().isUsingServerSideName())
-		{
-			addComponentType(NpcInfoType.NAME);
-		}
-		
-		if (npc.getNameString() != null)
-		{
-			addComponentType(NpcInfoType.NAME_NPCSTRINGID);
-		}
-		
-		if (npc.getTitleString() != null)
-		{
-			addComponentType(NpcInfoType.TITLE_NPCSTRINGID);
-		}
-		
-		if (_npc.getReputation() != 0)
-		{
-			addComponentType(NpcInfoType.REPUTATION);
-		}
-		
-		if (!_abnormalVisualEffects.isEmpty() || npc.isInvisible())
-		{
-			addComponentType(NpcInfoType.ABNORMALS);
-		}
-		
-		if (npc.getEnchantEffect() > 0)
-		{
-			addComponentType(NpcInfoType.ENCHANT);
-		}
-		
-		if (npc.getTransformationDisplayId() > 0)
-		{
-			addComponentType(NpcInfoType.TRANSFORMATION);
-		}
-		
-		if (npc.isShowSummonAnimation())
-		{
-			addComponentType(NpcInfoType.SUMMONED);
-		}
-		
-		if (npc.getClanId() > 0)
-		{
-			L2Clan clan = ClanTable.getInstance().getClan(npc.getClanId());
-			if (clan != null)
-			{
-				_clanId = clan.getId();
-				_clanCrest = clan.getCrestId();
-				_clanLargeCrest = clan.getCrestLargeId();
-				_allyCrest = clan.getAllyCrestId();
-				_allyId = clan.getAllyId();
-				
-				addComponentType(NpcInfoType.CLAN);
-			}
-		}
-		
-		addComponentType(NpcInfoType.UNKNOWN8);
-		
-		if (npc.getPvpFlag() > 0)
-		{
-			addComponentType(NpcInfoType.PVP_FLAG);
-		}
-		
-		// TODO: Confirm me
-		if (npc.isInCombat())
-		{
-			_statusMask |= 0x01;
-		}
-		if (npc.isDead())
-		{
-			_statusMask |= 0x02;
-		}
-		if (npc.isTargetable())
-		{
-			_statusMask |= 0x04;
-		}
-		if (npc.isShowName())
-		{
-			_statusMask |= 0x08;
-		}
-		
-		if (_statusMask != 0)
-		{
-			addComponentType(NpcInfoType.VISUAL_STATE);
-		}
+		addComponentType(npc._components);
 	}
 	
 	@Override
@@ -268,10 +62,10 @@ public class NpcInfo extends AbstractMaskPacket<NpcInfoType>
 	@Override
 	protected void onNewMaskAdded(NpcInfoType component)
 	{
-		calcBlockSize(_npc, component);
+		calcBlockSize(component);
 	}
 	
-	private void calcBlockSize(Npc npc, NpcInfoType type)
+	private void calcBlockSize(NpcInfoType type)
 	{
 		switch (type)
 		{
@@ -283,12 +77,12 @@ public class NpcInfo extends AbstractMaskPacket<NpcInfoType>
 			}
 			case TITLE:
 			{
-				_initSize += type.getBlockLength() + (_title.length() * 2);
+				_initSize += type.getBlockLength() + (_npc._title.length() * 2);
 				break;
 			}
 			case NAME:
 			{
-				_blockSize += type.getBlockLength() + (_name.length() * 2);
+				_blockSize += type.getBlockLength() + (_npc._name.length() * 2);
 				break;
 			}
 			default:
@@ -304,8 +98,8 @@ public class NpcInfo extends AbstractMaskPacket<NpcInfoType>
 	{
 		OutgoingPackets.NPC_INFO.writeId(packet);
 		
-		packet.writeD(_npc.getObjectId());
-		packet.writeC(_npc.isShowSummonAnimation() ? 0x02 : 0x00); // // 0=teleported 1=default 2=summoned
+		packet.writeD(_npc._objectId);
+		packet.writeC(_npc._isShowSummonAnimation ? 0x02 : 0x00); // // 0=teleported 1=default 2=summoned
 		packet.writeH(37); // mask_bits_37
 		packet.writeB(_masks);
 		
@@ -314,7 +108,7 @@ public class NpcInfo extends AbstractMaskPacket<NpcInfoType>
 		
 		if (containsMask(NpcInfoType.ATTACKABLE))
 		{
-			packet.writeC(_npc.isAttackable() && !(_npc instanceof L2GuardInstance) ? 0x01 : 0x00);
+			packet.writeC(_npc._isAttackable ? 0x01 : 0x00);
 		}
 		if (containsMask(NpcInfoType.UNKNOWN1))
 		{
@@ -322,24 +116,24 @@ public class NpcInfo extends AbstractMaskPacket<NpcInfoType>
 		}
 		if (containsMask(NpcInfoType.TITLE))
 		{
-			packet.writeS(_title);
+			packet.writeS(_npc._title);
 		}
 		
 		// Block 2
 		packet.writeH(_blockSize);
 		if (containsMask(NpcInfoType.ID))
 		{
-			packet.writeD(_npc.getTemplate().getDisplayId() + 1000000);
+			packet.writeD(_npc._displayId + 1000000);
 		}
 		if (containsMask(NpcInfoType.POSITION))
 		{
-			packet.writeD((int) _npc.getX());
-			packet.writeD((int) _npc.getY());
-			packet.writeD((int) _npc.getZ());
+			packet.writeD(_npc._x);
+			packet.writeD(_npc._y);
+			packet.writeD(_npc._z);
 		}
 		if (containsMask(NpcInfoType.HEADING))
 		{
-			packet.writeD(_npc.getHeading());
+			packet.writeD(_npc._heading);
 		}
 		if (containsMask(NpcInfoType.UNKNOWN2))
 		{
@@ -347,47 +141,47 @@ public class NpcInfo extends AbstractMaskPacket<NpcInfoType>
 		}
 		if (containsMask(NpcInfoType.ATK_CAST_SPEED))
 		{
-			packet.writeD(_npc.getPAtkSpd());
-			packet.writeD(_npc.getMAtkSpd());
+			packet.writeD(_npc._pAtkSpd);
+			packet.writeD(_npc._mAtkSpd);
 		}
 		if (containsMask(NpcInfoType.SPEED_MULTIPLIER))
 		{
-			packet.writeE((float) _npc.getStat().getMovementSpeedMultiplier());
-			packet.writeE((float) _npc.getStat().getAttackSpeedMultiplier());
+			packet.writeE(_npc._moveMultiplier);
+			packet.writeE(_npc._attackSpeedMultiplier);
 		}
 		if (containsMask(NpcInfoType.EQUIPPED))
 		{
-			packet.writeD(_npc.getRightHandItem());
+			packet.writeD(_npc._rightHandItem);
 			packet.writeD(0x00); // Armor id?
-			packet.writeD(_npc.getLeftHandItem());
+			packet.writeD(_npc._leftHandItem);
 		}
 		if (containsMask(NpcInfoType.ALIVE))
 		{
-			packet.writeC(_npc.isDead() ? 0x00 : 0x01);
+			packet.writeC(_npc._isDead ? 0x00 : 0x01);
 		}
 		if (containsMask(NpcInfoType.RUNNING))
 		{
-			packet.writeC(_npc.isRunning() ? 0x01 : 0x00);
+			packet.writeC(_npc._isRunning ? 0x01 : 0x00);
 		}
 		if (containsMask(NpcInfoType.SWIM_OR_FLY))
 		{
-			packet.writeC(_npc.isInsideZone(ZoneId.WATER) ? 0x01 : _npc.isFlying() ? 0x02 : 0x00);
+			packet.writeC(_npc._waterOrFlying);
 		}
 		if (containsMask(NpcInfoType.TEAM))
 		{
-			packet.writeC(_npc.getTeam().getId());
+			packet.writeC(_npc._team);
 		}
 		if (containsMask(NpcInfoType.ENCHANT))
 		{
-			packet.writeD(_npc.getEnchantEffect());
+			packet.writeD(_npc._enchantEffect);
 		}
 		if (containsMask(NpcInfoType.FLYING))
 		{
-			packet.writeD(_npc.isFlying() ? 0x01 : 00);
+			packet.writeD(_npc._isFlying ? 0x01 : 00);
 		}
 		if (containsMask(NpcInfoType.CLONE))
 		{
-			packet.writeD(_npc.getCloneObjId()); // Player ObjectId with Decoy
+			packet.writeD(_npc._cloneObjId); // Player ObjectId with Decoy
 		}
 		if (containsMask(NpcInfoType.UNKNOWN8))
 		{
@@ -396,27 +190,27 @@ public class NpcInfo extends AbstractMaskPacket<NpcInfoType>
 		}
 		if (containsMask(NpcInfoType.DISPLAY_EFFECT))
 		{
-			packet.writeD(_npc.getState());
+			packet.writeD(_npc._state);
 		}
 		if (containsMask(NpcInfoType.TRANSFORMATION))
 		{
-			packet.writeD(_npc.getTransformationDisplayId()); // Transformation ID
+			packet.writeD(_npc._transformationDisplayId); // Transformation ID
 		}
 		if (containsMask(NpcInfoType.CURRENT_HP))
 		{
-			packet.writeD((int) _npc.getCurrentHp());
+			packet.writeD(_npc._currentHp);
 		}
 		if (containsMask(NpcInfoType.CURRENT_MP))
 		{
-			packet.writeD((int) _npc.getCurrentMp());
+			packet.writeD(_npc._currentMp);
 		}
 		if (containsMask(NpcInfoType.MAX_HP))
 		{
-			packet.writeD(_npc.getMaxHp());
+			packet.writeD(_npc._maxHp);
 		}
 		if (containsMask(NpcInfoType.MAX_MP))
 		{
-			packet.writeD(_npc.getMaxMp());
+			packet.writeD(_npc._maxMp);
 		}
 		if (containsMask(NpcInfoType.SUMMONED))
 		{
@@ -429,52 +223,50 @@ public class NpcInfo extends AbstractMaskPacket<NpcInfoType>
 		}
 		if (containsMask(NpcInfoType.NAME))
 		{
-			packet.writeS(_name);
+			packet.writeS(_npc._name);
 		}
 		if (containsMask(NpcInfoType.NAME_NPCSTRINGID))
 		{
-			final NpcStringId nameString = _npc.getNameString();
-			packet.writeD(nameString != null ? nameString.getId() : -1); // NPCStringId for name
+			packet.writeD(_npc._nameStringId); // NPCStringId for name
 		}
 		if (containsMask(NpcInfoType.TITLE_NPCSTRINGID))
 		{
-			final NpcStringId titleString = _npc.getTitleString();
-			packet.writeD(titleString != null ? titleString.getId() : -1); // NPCStringId for title
+			packet.writeD(_npc._titleStringId); // NPCStringId for title
 		}
 		if (containsMask(NpcInfoType.PVP_FLAG))
 		{
-			packet.writeC(_npc.getPvpFlag()); // PVP flag
+			packet.writeC(_npc._pvpFlag); // PVP flag
 		}
 		if (containsMask(NpcInfoType.REPUTATION))
 		{
-			packet.writeD(_npc.getReputation()); // Reputation
+			packet.writeD(_npc._reputation); // Reputation
 		}
 		if (containsMask(NpcInfoType.CLAN))
 		{
-			packet.writeD(_clanId);
-			packet.writeD(_clanCrest);
-			packet.writeD(_clanLargeCrest);
-			packet.writeD(_allyId);
-			packet.writeD(_allyCrest);
+			packet.writeD(_npc._clanId);
+			packet.writeD(_npc._clanCrest);
+			packet.writeD(_npc._clanLargeCrest);
+			packet.writeD(_npc._allyId);
+			packet.writeD(_npc._allyCrest);
 		}
 		
 		if (containsMask(NpcInfoType.VISUAL_STATE))
 		{
-			packet.writeC(_statusMask);
+			packet.writeC(_npc._statusMask);
 		}
 		
 		if (containsMask(NpcInfoType.ABNORMALS))
 		{
-			packet.writeH(_abnormalVisualEffects.size() + (_npc.isInvisible() ? 1 : 0));
-			for (AbnormalVisualEffect abnormalVisualEffect : _abnormalVisualEffects)
+			packet.writeH(_npc._abnormalVisualEffects.length + (_npc._isInvisible ? 1 : 0));
+			for (int abnormalVisualEffect : _npc._abnormalVisualEffects)
 			{
-				packet.writeH(abnormalVisualEffect.getClientId());
+				packet.writeH(abnormalVisualEffect);
 			}
-			if (_npc.isInvisible())
+			if (_npc._isInvisible)
 			{
 				packet.writeH(AbnormalVisualEffect.STEALTH.getClientId());
 			}
 		}
 		return true;
 	}
-}
\ No newline at end of file
+}
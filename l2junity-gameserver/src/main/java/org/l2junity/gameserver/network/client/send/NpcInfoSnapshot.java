@@ -0,0 +1,319 @@
+/*
+ * Copyright (C) 2004-2017 L2J Unity
+ * 
+ * This file is part of L2J Unity.
+ * 
+ * L2J Unity is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Unity is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2junity.gameserver.network.client.send;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.l2junity.gameserver.config.L2JModsConfig;
+import org.l2junity.gameserver.config.NpcConfig;
+import org.l2junity.gameserver.data.sql.impl.ClanTable;
+import org.l2junity.gameserver.enums.NpcInfoType;
+import org.l2junity.gameserver.enums.Team;
+import org.l2junity.gameserver.model.L2Clan;
+import org.l2junity.gameserver.model.actor.Npc;
+import org.l2junity.gameserver.model.actor.instance.L2GuardInstance;
+import org.l2junity.gameserver.model.zone.ZoneId;
+import org.l2junity.gameserver.network.client.send.string.NpcStringId;
+
+/**
+ * The state of a npc as {@link NpcInfo} shows it.
+ */
+public final class NpcInfoSnapshot extends CreatureInfoSnapshot
+{
+	final NpcInfoType[] _components;
+	final int _objectId;
+	final String _name;
+	final String _title;
+	final boolean _isShowSummonAnimation;
+	final boolean _isAttackable;
+	final int _displayId;
+	final int _x;
+	final int _y;
+	final int _z;
+	final int _heading;
+	final int _pAtkSpd;
+	final int _mAtkSpd;
+	final float _moveMultiplier;
+	final float _attackSpeedMultiplier;
+	final int _rightHandItem;
+	final int _leftHandItem;
+	final boolean _isDead;
+	final boolean _isRunning;
+	final int _waterOrFlying;
+	final boolean _isFlying;
+	final int _team;
+	final int _enchantEffect;
+	final int _cloneObjId;
+	final int _state;
+	final int _transformationDisplayId;
+	final int _currentHp;
+	final int _currentMp;
+	final int _maxHp;
+	final int _maxMp;
+	final int _nameStringId;
+	final int _titleStringId;
+	final int _pvpFlag;
+	final int _reputation;
+	final int _clanId;
+	final int _clanCrest;
+	final int _clanLargeCrest;
+	final int _allyId;
+	final int _allyCrest;
+	final int _statusMask;
+	final boolean _isInvisible;
+	final int[] _abnormalVisualEffects;
+	
+	public NpcInfoSnapshot(Npc npc)
+	{
+		super(npc);
+		
+		_objectId = npc.getObjectId();
+		_name = npc.getNameParam() != null ? npc.getNameParam() : npc.getName();
+		_isInvisible = npc.isInvisible();
+		_abnormalVisualEffects = toClientIds(npc.getEffectList().getCurrentAbnormalVisualEffects());
+		
+		String title;
+		if (npc.getTitleParam() != null)
+		{
+			title = npc.getTitleParam();
+		}
+		else if (_isInvisible)
+		{
+			title = "Invisible";
+		}
+		else if (L2JModsConfig.L2JMOD_CHAMPION_ENABLE && npc.isChampion())
+		{
+			title = (L2JModsConfig.L2JMOD_CHAMP_TITLE);
+		}
+		else if (npc.isTrap() && (npc.asTrap().getOwner() != null))
+		{
+			title = npc.asTrap().getOwner().getName();
+		}
+		else if (npc.getTemplate().isUsingServerSideTitle())
+		{
+			title = npc.getTemplate().getTitle();
+		}
+		else
+		{
+			title = npc.getTitle();
+		}
+		
+		if ((npc.getTitleParam() == null) && NpcConfig.SHOW_NPC_LVL && npc.isMonster())
+		{
+			String t = "Lv " + npc.getLevel() + (npc.isAggressive() ? "*" : "");
+			if (title != null)
+			{
+				t += " " + title;
+			}
+			title = t;
+		}
+		_title = title;
+		
+		_isShowSummonAnimation = npc.isShowSummonAnimation();
+		_isAttackable = npc.isAttackable() && !(npc instanceof L2GuardInstance);
+		_displayId = npc.getTemplate().getDisplayId();
+		_x = (int) npc.getX();
+		_y = (int) npc.getY();
+		_z = (int) npc.getZ();
+		_heading = npc.getHeading();
+		_pAtkSpd = npc.getPAtkSpd();
+		_mAtkSpd = npc.getMAtkSpd();
+		_moveMultiplier = (float) npc.getStat().getMovementSpeedMultiplier();
+		_attackSpeedMultiplier = (float) npc.getStat().getAttackSpeedMultiplier();
+		_rightHandItem = npc.getRightHandItem();
+		_leftHandItem = npc.getLeftHandItem();
+		_isDead = npc.isDead();
+		_isRunning = npc.isRunning();
+		_isFlying = npc.isFlying();
+		_waterOrFlying = npc.isInsideZone(ZoneId.WATER) ? 0x01 : _isFlying ? 0x02 : 0x00;
+		_team = npc.getTeam().getId();
+		_enchantEffect = npc.getEnchantEffect();
+		_cloneObjId = npc.getCloneObjId();
+		_state = npc.getState();
+		_transformationDisplayId = npc.getTransformationDisplayId();
+		_currentHp = (int) npc.getCurrentHp();
+		_currentMp = (int) npc.getCurrentMp();
+		_maxHp = npc.getMaxHp();
+		_maxMp = npc.getMaxMp();
+		final NpcStringId nameString = npc.getNameString();
+		_nameStringId = nameString != null ? nameString.getId() : -1;
+		final NpcStringId titleString = npc.getTitleString();
+		_titleStringId = titleString != null ? titleString.getId() : -1;
+		_pvpFlag = npc.getPvpFlag();
+		_reputation = npc.getReputation();
+		
+		final List<NpcInfoType> components = new ArrayList<>();
+		Collections.addAll(components, NpcInfoType.ATTACKABLE, NpcInfoType.UNKNOWN1, NpcInfoType.TITLE, NpcInfoType.ID, NpcInfoType.POSITION, NpcInfoType.ALIVE, NpcInfoType.RUNNING, NpcInfoType.HEADING);
+		
+		if ((npc.getStat().getPAtkSpd() > 0) || (npc.getStat().getMAtkSpd() > 0))
+		{
+			components.add(NpcInfoType.ATK_CAST_SPEED);
+		}
+		
+		if (npc.getRunSpeed() > 0)
+		{
+			components.add(NpcInfoType.SPEED_MULTIPLIER);
+		}
+		
+		if ((_leftHandItem > 0) || (_rightHandItem > 0))
+		{
+			components.add(NpcInfoType.EQUIPPED);
+		}
+		
+		if (npc.getTeam() != Team.NONE)
+		{
+			components.add(NpcInfoType.TEAM);
+		}
+		
+		if (_state > 0)
+		{
+			components.add(NpcInfoType.DISPLAY_EFFECT);
+		}
+		
+		if (_waterOrFlying != 0x00)
+		{
+			components.add(NpcInfoType.SWIM_OR_FLY);
+		}
+		
+		if (_isFlying)
+		{
+			components.add(NpcInfoType.FLYING);
+		}
+		
+		if (_cloneObjId > 0)
+		{
+			components.add(NpcInfoType.CLONE);
+		}
+		
+		if (_maxHp > 0)
+		{
+			components.add(NpcInfoType.MAX_HP);
+		}
+		
+		if (_maxMp > 0)
+		{
+			components.add(NpcInfoType.MAX_MP);
+		}
+		
+		if (npc.getCurrentHp() <= _maxHp)
+		{
+			components.add(NpcInfoType.CURRENT_HP);
+		}
+		
+		if (npc.getCurrentMp() <= _maxMp)
+		{
+			components.add(NpcInfoType.CURRENT_MP);
+		}
+		
+		if ((npc.getNameParam() != null) || npc.getTemplate().isUsingServerSideName())
+		{
+			components.add(NpcInfoType.NAME);
+		}
+		
+		if (nameString != null)
+		{
+			components.add(NpcInfoType.NAME_NPCSTRINGID);
+		}
+		
+		if (titleString != null)
+		{
+			components.add(NpcInfoType.TITLE_NPCSTRINGID);
+		}
+		
+		if (_reputation != 0)
+		{
+			components.add(NpcInfoType.REPUTATION);
+		}
+		
+		if ((_abnormalVisualEffects.length > 0) || _isInvisible)
+		{
+			components.add(NpcInfoType.ABNORMALS);
+		}
+		
+		if (_enchantEffect > 0)
+		{
+			components.add(NpcInfoType.ENCHANT);
+		}
+		
+		if (_transformationDisplayId > 0)
+		{
+			components.add(NpcInfoType.TRANSFORMATION);
+		}
+		
+		if (_isShowSummonAnimation)
+		{
+			components.add(NpcInfoType.SUMMONED);
+		}
+		
+		final L2Clan clan = npc.getClanId() > 0 ? ClanTable.getInstance().getClan(npc.getClanId()) : null;
+		if (clan != null)
+		{
+			_clanId = clan.getId();
+			_clanCrest = clan.getCrestId();
+			_clanLargeCrest = clan.getCrestLargeId();
+			_allyCrest = clan.getAllyCrestId();
+			_allyId = clan.getAllyId();
+			
+			components.add(NpcInfoType.CLAN);
+		}
+		else
+		{
+			_clanId = 0;
+			_clanCrest = 0;
+			_clanLargeCrest = 0;
+			_allyCrest = 0;
+			_allyId = 0;
+		}
+		
+		components.add(NpcInfoType.UNKNOWN8);
+		
+		if (_pvpFlag > 0)
+		{
+			components.add(NpcInfoType.PVP_FLAG);
+		}
+		
+		// TODO: Confirm me
+		int statusMask = 0;
+		if (npc.isInCombat())
+		{
+			statusMask |= 0x01;
+		}
+		if (_isDead)
+		{
+			statusMask |= 0x02;
+		}
+		if (npc.isTargetable())
+		{
+			statusMask |= 0x04;
+		}
+		if (npc.isShowName())
+		{
+			statusMask |= 0x08;
+		}
+		_statusMask = statusMask;
+		
+		if (_statusMask != 0)
+		{
+			components.add(NpcInfoType.VISUAL_STATE);
+		}
+		_components = components.toArray(new NpcInfoType[components.size()]);
+	}
+}
@@ -42,7 +42,7 @@ public final class NpcQuestHtmlMessage extends AbstractHtmlPacket
 		OutgoingPackets.EX_NPC_QUEST_HTML_MESSAGE.writeId(packet);
 		
 		packet.writeD(getNpcObjId());
-		packet.writeS(getHtml());
+		writeHtml(packet);
 		packet.writeD(_questId);
 		return true;
 	}
@@ -0,0 +1,621 @@
+/*
+ * Copyright (C) 2004-2017 L2J Unity
+ * 
+ * This file is part of L2J Unity.
+ * 
+ * L2J Unity is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Unity is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2junity.gameserver.network.client.send;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+
+import org.l2junity.gameserver.config.AdminConfig;
+import org.l2junity.gameserver.data.xml.impl.ExperienceData;
+import org.l2junity.gameserver.enums.AttributeType;
+import org.l2junity.gameserver.enums.ItemGrade;
+import org.l2junity.gameserver.enums.UserInfoType;
+import org.l2junity.gameserver.instancemanager.CursedWeaponsManager;
+import org.l2junity.gameserver.model.L2Clan;
+import org.l2junity.gameserver.model.Party;
+import org.l2junity.gameserver.model.VariationInstance;
+import org.l2junity.gameserver.model.actor.appearance.PcAppearance;
+import org.l2junity.gameserver.model.actor.instance.PlayerInstance;
+import org.l2junity.gameserver.model.base.ClassId;
+import org.l2junity.gameserver.model.ceremonyofchaos.CeremonyOfChaosEvent;
+import org.l2junity.gameserver.model.ceremonyofchaos.CeremonyOfChaosMember;
+import org.l2junity.gameserver.model.interfaces.ILocational;
+import org.l2junity.gameserver.model.itemcontainer.PcInventory;
+import org.l2junity.gameserver.model.zone.ZoneId;
+
+/**
+ * The state of a player as {@link UserInfo} and {@link CharInfo} show it, a partial UserInfo only takes the state of its components.
+ */
+public final class PlayerInfoSnapshot extends CreatureInfoSnapshot
+{
+	private static final AttributeType[] DEFENSE_ATTRIBUTES =
+	{
+		AttributeType.FIRE,
+		AttributeType.WATER,
+		AttributeType.WIND,
+		AttributeType.EARTH,
+		AttributeType.HOLY,
+		AttributeType.DARK
+	};
+	
+	/** The UserInfo components taken, {@code null} when the whole state is taken */
+	private final Set<UserInfoType> _components;
+	
+	// Identity
+	final int _objectId;
+	String _name;
+	String _visibleName;
+	boolean _isGM;
+	int _race;
+	boolean _sex;
+	int _baseClass;
+	int _rootClassId;
+	int _classId;
+	int _level;
+	int _relation;
+	
+	// Base stats
+	int _str;
+	int _dex;
+	int _con;
+	int _int;
+	int _wit;
+	int _men;
+	int _luc;
+	int _cha;
+	
+	// Points
+	int _maxHp;
+	int _maxMp;
+	int _maxCp;
+	int _currentHp;
+	int _currentMp;
+	int _currentCp;
+	long _sp;
+	long _exp;
+	double _expPercent;
+	
+	// Equipment
+	int _enchantLevel;
+	int _armorEnchant;
+	int[] _paperdollDisplayIds;
+	int[] _paperdollAugmentations;
+	int[] _paperdollVisualIds;
+	int _talismanSlots;
+	int _broochJewelSlots;
+	int _inventoryLimit;
+	
+	// Appearance
+	int _hair;
+	int _hairColor;
+	int _face;
+	boolean _hairAccessoryEnabled;
+	double _collisionRadius;
+	double _collisionHeight;
+	int _nameColor;
+	int _titleColor;
+	int[] _abnormalVisualEffects;
+	int _transformationDisplayId;
+	int _agathionId;
+	int[] _cubicIds;
+	
+	// Status
+	int _mountType;
+	int _mountNpcId;
+	boolean _isMounted;
+	int _privateStoreType;
+	boolean _canCrystallize;
+	int _abilityPoints;
+	int _abilityPointsUsed;
+	boolean _isSitting;
+	boolean _isRunning;
+	boolean _isInCombat;
+	boolean _isAlikeDead;
+	boolean _isInOlympiadMode;
+	boolean _isInvisible;
+	boolean _isInMatchingRoom;
+	int _waterOrFlying;
+	int _team;
+	int _cursedWeaponLevel;
+	int _cocPosition;
+	boolean _isFishing;
+	int _baitX;
+	int _baitY;
+	int _baitZ;
+	
+	// Combat stats
+	boolean _hasWeapon;
+	int _pAtk;
+	int _pAtkSpd;
+	int _pDef;
+	int _evasionRate;
+	int _accuracy;
+	int _criticalHit;
+	int _mAtk;
+	int _mAtkSpd;
+	int _magicEvasionRate;
+	int _mDef;
+	int _magicAccuracy;
+	int _mCriticalHit;
+	int[] _defenseElements;
+	int _attackElement;
+	int _attackElementValue;
+	
+	// Position and speed
+	int _x;
+	int _y;
+	int _z;
+	int _vehicleX;
+	int _vehicleY;
+	int _vehicleZ;
+	int _vehicleId;
+	boolean _hasInVehiclePosition;
+	int _heading;
+	int _runSpd;
+	int _walkSpd;
+	int _swimRunSpd;
+	int _swimWalkSpd;
+	int _flyRunSpd;
+	int _flyWalkSpd;
+	double _moveMultiplier;
+	double _attackSpeedMultiplier;
+	
+	// Clan and social
+	String _visibleTitle;
+	int _pledgeType;
+	int _pledgeClass;
+	int _clanId;
+	int _clanCrestId;
+	int _clanCrestLargeId;
+	int _clanPrivileges;
+	boolean _isClanLeader;
+	int _allyId;
+	int _allyCrestId;
+	int _visibleClanId;
+	int _visibleClanCrestId;
+	int _visibleAllyId;
+	int _visibleAllyCrestId;
+	int _visibleClanReputation;
+	int _pvpFlag;
+	int _reputation;
+	int _nobleStatus;
+	boolean _isHero;
+	boolean _hasHeroAura;
+	boolean _isTrueHero;
+	int _pkKills;
+	int _pvpKills;
+	int _recomLeft;
+	int _recomHave;
+	int _vitalityPoints;
+	int _fame;
+	int _raidbossPoints;
+	
+	/**
+	 * Takes the whole state, as a full UserInfo and CharInfo show it.
+	 * @param player the player
+	 */
+	public PlayerInfoSnapshot(PlayerInstance player)
+	{
+		super(player);
+		
+		_components = null;
+		_objectId = player.getObjectId();
+		for (UserInfoType type : UserInfoType.values())
+		{
+			take(player, type);
+		}
+		
+		final PcInventory inventory = player.getInventory();
+		final int[] paperdollOrder = CharInfo.PAPERDOLL_ORDER;
+		_paperdollDisplayIds = new int[paperdollOrder.length];
+		for (int i = 0; i < paperdollOrder.length; i++)
+		{
+			_paperdollDisplayIds[i] = inventory.getPaperdollItemDisplayId(paperdollOrder[i]);
+		}
+		final int[] augmentOrder = IClientOutgoingPacket.PAPERDOLL_ORDER_AUGMENT;
+		_paperdollAugmentations = new int[augmentOrder.length * 2];
+		for (int i = 0; i < augmentOrder.length; i++)
+		{
+			final VariationInstance augment = inventory.getPaperdollAugmentation(augmentOrder[i]);
+			_paperdollAugmentations[i * 2] = augment != null ? augment.getOption1Id() : 0;
+			_paperdollAugmentations[(i * 2) + 1] = augment != null ? augment.getOption2Id() : 0;
+		}
+		final int[] visualIdOrder = IClientOutgoingPacket.PAPERDOLL_ORDER_VISUAL_ID;
+		_paperdollVisualIds = new int[visualIdOrder.length];
+		for (int i = 0; i < visualIdOrder.length; i++)
+		{
+			_paperdollVisualIds[i] = inventory.getPaperdollItemVisualId(visualIdOrder[i]);
+		}
+		
+		_abnormalVisualEffects = toClientIds(player.getEffectList().getCurrentAbnormalVisualEffects());
+		_transformationDisplayId = player.getTransformationDisplayId();
+		_agathionId = player.getAgathionId();
+		_cubicIds = player.getCubics().keySet().stream().mapToInt(Integer::intValue).toArray();
+		
+		_mountNpcId = player.getMountNpcId();
+		_isMounted = player.isMounted();
+		_isSitting = player.isSitting();
+		_isInCombat = player.isInCombat();
+		_isAlikeDead = player.isAlikeDead();
+		_isInOlympiadMode = player.isInOlympiadMode();
+		_cursedWeaponLevel = player.isCursedWeaponEquipped() ? CursedWeaponsManager.getInstance().getLevel(player.getCursedWeaponEquippedId()) : 0;
+		final CeremonyOfChaosEvent event = player.getEvent(CeremonyOfChaosEvent.class);
+		final CeremonyOfChaosMember cocPlayer = event != null ? event.getMember(_objectId) : null;
+		_cocPosition = cocPlayer != null ? cocPlayer.getPosition() : 0;
+		_isFishing = player.isFishing();
+		final ILocational baitLocation = player.getFishing().getBaitLocation();
+		_baitX = (int) baitLocation.getX();
+		_baitY = (int) baitLocation.getY();
+		_baitZ = (int) baitLocation.getZ();
+		
+		if ((player.getVehicle() != null) && (player.getInVehiclePosition() != null))
+		{
+			_vehicleX = (int) player.getInVehiclePosition().getX();
+			_vehicleY = (int) player.getInVehiclePosition().getY();
+			_vehicleZ = (int) player.getInVehiclePosition().getZ();
+			_hasInVehiclePosition = true;
+		}
+		else
+		{
+			_vehicleX = _x;
+			_vehicleY = _y;
+			_vehicleZ = _z;
+			_hasInVehiclePosition = false;
+		}
+		_heading = player.getHeading();
+		
+		final PcAppearance appearance = player.getAppearance();
+		_visibleClanId = appearance.getVisibleClanId();
+		_visibleClanCrestId = appearance.getVisibleClanCrestId();
+		_visibleAllyId = appearance.getVisibleAllyId();
+		_visibleAllyCrestId = appearance.getVisibleAllyCrestId();
+		_visibleClanReputation = _visibleClanId > 0 ? player.getClan().getReputationScore() : 0;
+		_hasHeroAura = _isHero || (_isGM && AdminConfig.GM_HERO_AURA);
+	}
+	
+	/**
+	 * Takes only the state written by some UserInfo components, for a partial UserInfo.
+	 * @param player the player
+	 * @param types the components
+	 */
+	public PlayerInfoSnapshot(PlayerInstance player, UserInfoType... types)
+	{
+		super(player);
+		
+		_components = EnumSet.noneOf(UserInfoType.class);
+		_objectId = player.getObjectId();
+		for (UserInfoType type : types)
+		{
+			if (_components.add(type))
+			{
+				take(player, type);
+			}
+		}
+	}
+	
+	/**
+	 * @param type the component
+	 * @return {@code true} if the state of the UserInfo component was taken, {@code false} otherwise
+	 */
+	boolean hasUserInfo(UserInfoType type)
+	{
+		return (_components == null) || _components.contains(type);
+	}
+	
+	private void take(PlayerInstance player, UserInfoType type)
+	{
+		switch (type)
+		{
+			case RELATION:
+			{
+				_relation = calculateRelation(player);
+				break;
+			}
+			case BASIC_INFO:
+			{
+				_name = player.getName();
+				_visibleName = player.getAppearance().getVisibleName();
+				_isGM = player.isGM();
+				_race = player.getRace().ordinal();
+				_sex = player.getAppearance().getSex();
+				_baseClass = player.getBaseClass();
+				_rootClassId = ClassId.getRootClassId(_baseClass).getId();
+				_classId = player.getClassId().getId();
+				_level = player.getLevel();
+				break;
+			}
+			case BASE_STATS:
+			{
+				_str = player.getSTR();
+				_dex = player.getDEX();
+				_con = player.getCON();
+				_int = player.getINT();
+				_wit = player.getWIT();
+				_men = player.getMEN();
+				_luc = player.getLUC();
+				_cha = player.getCHA();
+				break;
+			}
+			case MAX_HPCPMP:
+			{
+				_maxHp = player.getMaxHp();
+				_maxMp = player.getMaxMp();
+				_maxCp = player.getMaxCp();
+				break;
+			}
+			case CURRENT_HPMPCP_EXP_SP:
+			{
+				_currentHp = (int) Math.round(player.getCurrentHp());
+				_currentMp = (int) Math.round(player.getCurrentMp());
+				_currentCp = (int) Math.round(player.getCurrentCp());
+				_sp = player.getSp();
+				_exp = player.getExp();
+				final int level = player.getLevel();
+				final long expForLevel = ExperienceData.getInstance().getExpForLevel(level);
+				_expPercent = (float) (_exp - expForLevel) / (ExperienceData.getInstance().getExpForLevel(level + 1) - expForLevel);
+				break;
+			}
+			case ENCHANTLEVEL:
+			{
+				_enchantLevel = player.getInventory().getWeaponEnchant();
+				_armorEnchant = player.getInventory().getArmorMinEnchant();
+				break;
+			}
+			case APPAREANCE:
+			{
+				_hair = player.getVisualHair();
+				_hairColor = player.getVisualHairColor();
+				_face = player.getVisualFace();
+				_hairAccessoryEnabled = player.isHairAccessoryEnabled();
+				break;
+			}
+			case STATUS:
+			{
+				_mountType = player.getMountType().ordinal();
+				_privateStoreType = player.getPrivateStoreType().getId();
+				_canCrystallize = player.getCrystallizeGrade() != ItemGrade.NONE;
+				_abilityPoints = player.getAbilityPoints();
+				_abilityPointsUsed = player.getAbilityPointsUsed();
+				break;
+			}
+			case STATS:
+			{
+				_hasWeapon = player.getActiveWeaponItem() != null;
+				_pAtk = player.getPAtk();
+				_pAtkSpd = player.getPAtkSpd();
+				_pDef = player.getPDef();
+				_evasionRate = player.getEvasionRate();
+				_accuracy = player.getAccuracy();
+				_criticalHit = player.getCriticalHit();
+				_mAtk = player.getMAtk();
+				_mAtkSpd = player.getMAtkSpd();
+				_magicEvasionRate = player.getMagicEvasionRate();
+				_mDef = player.getMDef();
+				_magicAccuracy = player.getMagicAccuracy();
+				_mCriticalHit = player.getMCriticalHit();
+				break;
+			}
+			case ELEMENTALS:
+			{
+				_defenseElements = new int[DEFENSE_ATTRIBUTES.length];
+				for (int i = 0; i < DEFENSE_ATTRIBUTES.length; i++)
+				{
+					_defenseElements[i] = player.getDefenseElementValue(DEFENSE_ATTRIBUTES[i]);
+				}
+				break;
+			}
+			case POSITION:
+			{
+				_x = (int) player.getX();
+				_y = (int) player.getY();
+				_z = (int) player.getZ();
+				_vehicleId = player.isInVehicle() ? player.getVehicle().getObjectId() : 0;
+				break;
+			}
+			case SPEED:
+			{
+				final double moveMultiplier = player.getMovementSpeedMultiplier();
+				_runSpd = (int) Math.round(player.getRunSpeed() / moveMultiplier);
+				_walkSpd = (int) Math.round(player.getWalkSpeed() / moveMultiplier);
+				_swimRunSpd = (int) Math.round(player.getSwimRunSpeed() / moveMultiplier);
+				_swimWalkSpd = (int) Math.round(player.getSwimWalkSpeed() / moveMultiplier);
+				_flyRunSpd = player.isFlying() ? _runSpd : 0;
+				_flyWalkSpd = player.isFlying() ? _walkSpd : 0;
+				break;
+			}
+			case MULTIPLIER:
+			{
+				_moveMultiplier = player.getMovementSpeedMultiplier();
+				_attackSpeedMultiplier = player.getAttackSpeedMultiplier();
+				break;
+			}
+			case COL_RADIUS_HEIGHT:
+			{
+				_collisionRadius = player.getCollisionRadius();
+				_collisionHeight = player.getCollisionHeight();
+				break;
+			}
+			case ATK_ELEMENTAL:
+			{
+				final AttributeType attackAttribute = player.getAttackElement();
+				_attackElement = attackAttribute.getClientId();
+				_attackElementValue = player.getAttackElementValue(attackAttribute);
+				break;
+			}
+			case CLAN:
+			{
+				_isInvisible = player.isInvisible();
+				_visibleTitle = player.getAppearance().getVisibleTitle();
+				_pledgeType = player.getPledgeType();
+				_clanId = player.getClanId();
+				_clanCrestId = player.getClanCrestId();
+				_clanCrestLargeId = player.getClanCrestLargeId();
+				_clanPrivileges = player.getClanPrivileges().getBitmask();
+				_isClanLeader = player.isClanLeader();
+				_allyId = player.getAllyId();
+				_allyCrestId = player.getAllyCrestId();
+				_isInMatchingRoom = player.isInMatchingRoom();
+				break;
+			}
+			case SOCIAL:
+			{
+				_pvpFlag = player.getPvpFlag();
+				_reputation = player.getReputation();
+				_nobleStatus = player.getNobleStatus().getClientId();
+				_isHero = player.isHero();
+				_pledgeClass = player.getPledgeClass();
+				_pkKills = player.getPkKills();
+				_pvpKills = player.getPvpKills();
+				_recomLeft = player.getRecomLeft();
+				_recomHave = player.getRecomHave();
+				break;
+			}
+			case VITA_FAME:
+			{
+				_vitalityPoints = player.getVitalityPoints();
+				_fame = player.getFame();
+				_raidbossPoints = player.getRaidbossPoints();
+				break;
+			}
+			case SLOTS:
+			{
+				_talismanSlots = player.getInventory().getTalismanSlots();
+				_broochJewelSlots = player.getInventory().getBroochJewelSlots();
+				_team = player.getTeam().getId();
+				break;
+			}
+			case MOVEMENTS:
+			{
+				_waterOrFlying = player.isInsideZone(ZoneId.WATER) ? 1 : player.isFlyingMounted() ? 2 : 0;
+				_isRunning = player.isRunning();
+				break;
+			}
+			case COLOR:
+			{
+				_nameColor = player.getAppearance().getNameColor();
+				_titleColor = player.getAppearance().getTitleColor();
+				break;
+			}
+			case INVENTORY_LIMIT:
+			{
+				_inventoryLimit = player.getInventoryLimit();
+				break;
+			}
+			case UNK_3:
+			{
+				_isTrueHero = player.isTrueHero();
+				break;
+			}
+		}
+	}
+	
+	/**
+	 * @param type the component
+	 * @param other the snapshot to compare with
+	 * @return {@code true} if the component of UserInfo would be written the same from both snapshots, {@code false} otherwise
+	 */
+	boolean isUserInfoEqual(UserInfoType type, PlayerInfoSnapshot other)
+	{
+		switch (type)
+		{
+			case RELATION:
+				return _relation == other._relation;
+			case BASIC_INFO:
+				return _name.equals(other._name) && _visibleName.equals(other._visibleName) && (_isGM == other._isGM) && (_race == other._race) && (_sex == other._sex) && (_rootClassId == other._rootClassId) && (_classId == other._classId) && (_level == other._level);
+			case BASE_STATS:
+				return (_str == other._str) && (_dex == other._dex) && (_con == other._con) && (_int == other._int) && (_wit == other._wit) && (_men == other._men) && (_luc == other._luc) && (_cha == other._cha);
+			case MAX_HPCPMP:
+				return (_maxHp == other._maxHp) && (_maxMp == other._maxMp) && (_maxCp == other._maxCp);
+			case CURRENT_HPMPCP_EXP_SP:
+				return (_currentHp == other._currentHp) && (_currentMp == other._currentMp) && (_currentCp == other._currentCp) && (_sp == other._sp) && (_exp == other._exp) && (_expPercent == other._expPercent);
+			case ENCHANTLEVEL:
+				return (_enchantLevel == other._enchantLevel) && (_armorEnchant == other._armorEnchant);
+			case APPAREANCE:
+				return (_hair == other._hair) && (_hairColor == other._hairColor) && (_face == other._face) && (_hairAccessoryEnabled == other._hairAccessoryEnabled);
+			case STATUS:
+				return (_mountType == other._mountType) && (_privateStoreType == other._privateStoreType) && (_canCrystallize == other._canCrystallize) && ((_abilityPoints - _abilityPointsUsed) == (other._abilityPoints - other._abilityPointsUsed));
+			case STATS:
+				return (_hasWeapon == other._hasWeapon) && (_pAtk == other._pAtk) && (_pAtkSpd == other._pAtkSpd) && (_pDef == other._pDef) && (_evasionRate == other._evasionRate) && (_accuracy == other._accuracy) && (_criticalHit == other._criticalHit) && (_mAtk == other._mAtk) && (_mAtkSpd == other._mAtkSpd) && (_magicEvasionRate == other._magicEvasionRate) && (_mDef == other._mDef) && (_magicAccuracy == other._magicAccuracy) && (_mCriticalHit == other._mCriticalHit);
+			case ELEMENTALS:
+				return Arrays.equals(_defenseElements, other._defenseElements);
+			case POSITION:
+				return (_x == other._x) && (_y == other._y) && (_z == other._z) && (_vehicleId == other._vehicleId);
+			case SPEED:
+				return (_runSpd == other._runSpd) && (_walkSpd == other._walkSpd) && (_swimRunSpd == other._swimRunSpd) && (_swimWalkSpd == other._swimWalkSpd) && (_flyRunSpd == other._flyRunSpd) && (_flyWalkSpd == other._flyWalkSpd);
+			case MULTIPLIER:
+				return (_moveMultiplier == other._moveMultiplier) && (_attackSpeedMultiplier == other._attackSpeedMultiplier);
+			case COL_RADIUS_HEIGHT:
+				return (_collisionRadius == other._collisionRadius) && (_collisionHeight == other._collisionHeight);
+			case ATK_ELEMENTAL:
+				return (_attackElement == other._attackElement) && (_attackElementValue == other._attackElementValue);
+			case CLAN:
+				return (_isInvisible == other._isInvisible) && Objects.equals(_visibleTitle, other._visibleTitle) && (_pledgeType == other._pledgeType) && (_clanId == other._clanId) && (_clanCrestLargeId == other._clanCrestLargeId) && (_clanCrestId == other._clanCrestId) && (_clanPrivileges == other._clanPrivileges) && (_isClanLeader == other._isClanLeader) && (_allyId == other._allyId) && (_allyCrestId == other._allyCrestId) && (_isInMatchingRoom == other._isInMatchingRoom);
+			case SOCIAL:
+				return (_pvpFlag == other._pvpFlag) && (_reputation == other._reputation) && (_nobleStatus == other._nobleStatus) && (_isHero == other._isHero) && (_pledgeClass == other._pledgeClass) && (_pkKills == other._pkKills) && (_pvpKills == other._pvpKills) && (_recomLeft == other._recomLeft) && (_recomHave == other._recomHave);
+			case VITA_FAME:
+				return (_vitalityPoints == other._vitalityPoints) && (_fame == other._fame) && (_raidbossPoints == other._raidbossPoints);
+			case SLOTS:
+				return (_talismanSlots == other._talismanSlots) && (_broochJewelSlots == other._broochJewelSlots) && (_team == other._team);
+			case MOVEMENTS:
+				return (_waterOrFlying == other._waterOrFlying) && (_isRunning == other._isRunning);
+			case COLOR:
+				return (_nameColor == other._nameColor) && (_titleColor == other._titleColor);
+			case INVENTORY_LIMIT:
+				return _inventoryLimit == other._inventoryLimit;
+			case UNK_3:
+				return _isTrueHero == other._isTrueHero;
+			default:
+				return false;
+		}
+	}
+	
+	private static int calculateRelation(PlayerInstance player)
+	{
+		int relation = 0;
+		final Party party = player.getParty();
+		final L2Clan clan = player.getClan();
+		
+		if (party != null)
+		{
+			relation |= 0x08; // Party member
+			if (party.getLeader() == player)
+			{
+				relation |= 0x10; // Party leader
+			}
+		}
+		
+		if (clan != null)
+		{
+			relation |= 0x20; // Clan member
+			if (clan.getLeaderId() == player.getObjectId())
+			{
+				relation |= 0x40; // Clan leader
+			}
+		}
+		
+		if (player.isInSiege())
+		{
+			relation |= 0x80; // In siege
+		}
+		
+		return relation;
+	}
+}
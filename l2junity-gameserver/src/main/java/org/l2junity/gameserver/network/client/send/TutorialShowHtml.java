@@ -64,7 +64,7 @@ public final class TutorialShowHtml extends AbstractHtmlPacket
 		OutgoingPackets.TUTORIAL_SHOW_HTML.writeId(packet);
 		
 		packet.writeD(_type);
-		packet.writeS(getHtml());
+		writeHtml(packet);
 		return true;
 	}
 	
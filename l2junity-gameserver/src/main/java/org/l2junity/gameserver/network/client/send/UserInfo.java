@@ -18,15 +18,8 @@
  */
 package org.l2junity.gameserver.network.client.send;
 
-import org.l2junity.gameserver.data.xml.impl.ExperienceData;
-import org.l2junity.gameserver.enums.AttributeType;
-import org.l2junity.gameserver.enums.ItemGrade;
 import org.l2junity.gameserver.enums.UserInfoType;
-import org.l2junity.gameserver.model.L2Clan;
-import org.l2junity.gameserver.model.Party;
 import org.l2junity.gameserver.model.actor.instance.PlayerInstance;
-import org.l2junity.gameserver.model.base.ClassId;
-import org.l2junity.gameserver.model.zone.ZoneId;
 import org.l2junity.gameserver.network.client.OutgoingPackets;
 import org.l2junity.network.PacketWriter;
 
@@ -35,20 +28,10 @@ import org.l2junity.network.PacketWriter;
  */
 public class UserInfo extends AbstractMaskPacket<UserInfoType>
 {
-	private final PlayerInstance _activeChar;
+	private final PlayerInfoSnapshot _snapshot;
 	
-	private final int _relation;
-	private final int _runSpd;
-	private final int _walkSpd;
-	private final int _swimRunSpd;
-	private final int _swimWalkSpd;
 	private final int _flRunSpd = 0;
 	private final int _flWalkSpd = 0;
-	private final int _flyRunSpd;
-	private final int _flyWalkSpd;
-	private final double _moveMultiplier;
-	private int _enchantLevel = 0;
-	private int _armorEnchant = 0;
 	private final String _title;
 	
 	private final byte[] _masks = new byte[]
@@ -62,24 +45,24 @@ public class UserInfo extends AbstractMaskPacket<UserInfoType>
 	
 	public UserInfo(PlayerInstance cha)
 	{
-		this(cha, true);
+		this(cha.updateInfoSnapshot(), true);
 	}
 	
-	public UserInfo(PlayerInstance cha, boolean addAll)
+	/**
+	 * Creates a partial UserInfo, only the state written by the given components is taken.
+	 * @param cha the player
+	 * @param types the components
+	 */
+	public UserInfo(PlayerInstance cha, UserInfoType... types)
 	{
-		_activeChar = cha;
-		
-		_relation = calculateRelation(cha);
-		_moveMultiplier = cha.getMovementSpeedMultiplier();
-		_runSpd = (int) Math.round(cha.getRunSpeed() / _moveMultiplier);
-		_walkSpd = (int) Math.round(cha.getWalkSpeed() / _moveMultiplier);
-		_swimRunSpd = (int) Math.round(cha.getSwimRunSpeed() / _moveMultiplier);
-		_swimWalkSpd = (int) Math.round(cha.getSwimWalkSpeed() / _moveMultiplier);
-		_flyRunSpd = cha.isFlying() ? _runSpd : 0;
-		_flyWalkSpd = cha.isFlying() ? _walkSpd : 0;
-		_enchantLevel = cha.getInventory().getWeaponEnchant();
-		_armorEnchant = cha.getInventory().getArmorMinEnchant();
-		_title = cha.isInvisible() ? "Invisible" : _activeChar.getAppearance().getVisibleTitle();
+		this(new PlayerInfoSnapshot(cha, types), false);
+		addComponentType(types);
+	}
+	
+	public UserInfo(PlayerInfoSnapshot snapshot, boolean addAll)
+	{
+		_snapshot = snapshot;
+		_title = snapshot._isInvisible ? "Invisible" : snapshot._visibleTitle;
 		
 		if (addAll)
 		{
@@ -87,6 +70,14 @@ public class UserInfo extends AbstractMaskPacket<UserInfoType>
 		}
 	}
 	
+	/**
+	 * @return the state this packet is written from
+	 */
+	PlayerInfoSnapshot getSnapshot()
+	{
+		return _snapshot;
+	}
+	
 	@Override
 	protected byte[] getMasks()
 	{
@@ -96,6 +87,10 @@ public class UserInfo extends AbstractMaskPacket<UserInfoType>
 	@Override
 	protected void onNewMaskAdded(UserInfoType component)
 	{
+		if (!_snapshot.hasUserInfo(component))
+		{
+			throw new IllegalArgumentException("The state of " + component + " was not taken for this UserInfo");
+		}
 		calcBlockSize(component);
 	}
 	
@@ -105,7 +100,7 @@ public class UserInfo extends AbstractMaskPacket<UserInfoType>
 		{
 			case BASIC_INFO:
 			{
-				_initSize += type.getBlockLength() + (_activeChar.getAppearance().getVisibleName().length() * 2);
+				_initSize += type.getBlockLength() + (_snapshot._visibleName.length() * 2);
 				break;
 			}
 			case CLAN:
@@ -126,225 +121,222 @@ public class UserInfo extends AbstractMaskPacket<UserInfoType>
 	{
 		OutgoingPackets.USER_INFO.writeId(packet);
 		
-		packet.writeD(_activeChar.getObjectId());
+		packet.writeD(_snapshot._objectId);
 		packet.writeD(_initSize);
 		packet.writeH(23);
 		packet.writeB(_masks);
 		
 		if (containsMask(UserInfoType.RELATION))
 		{
-			packet.writeD(_relation);
+			packet.writeD(_snapshot._relation);
 		}
 		
 		if (containsMask(UserInfoType.BASIC_INFO))
 		{
-			packet.writeH(16 + (_activeChar.getAppearance().getVisibleName().length() * 2));
-			packet.writeString(_activeChar.getName());
-			packet.writeC(_activeChar.isGM() ? 0x01 : 0x00);
-			packet.writeC(_activeChar.getRace().ordinal());
-			packet.writeC(_activeChar.getAppearance().getSex() ? 0x01 : 0x00);
-			packet.writeD(ClassId.getRootClassId(_activeChar.getBaseClass()).getId());
-			packet.writeD(_activeChar.getClassId().getId());
-			packet.writeC(_activeChar.getLevel());
+			packet.writeH(16 + (_snapshot._visibleName.length() * 2));
+			packet.writeString(_snapshot._name);
+			packet.writeC(_snapshot._isGM ? 0x01 : 0x00);
+			packet.writeC(_snapshot._race);
+			packet.writeC(_snapshot._sex ? 0x01 : 0x00);
+			packet.writeD(_snapshot._rootClassId);
+			packet.writeD(_snapshot._classId);
+			packet.writeC(_snapshot._level);
 		}
 		
 		if (containsMask(UserInfoType.BASE_STATS))
 		{
 			packet.writeH(18);
-			packet.writeH(_activeChar.getSTR());
-			packet.writeH(_activeChar.getDEX());
-			packet.writeH(_activeChar.getCON());
-			packet.writeH(_activeChar.getINT());
-			packet.writeH(_activeChar.getWIT());
-			packet.writeH(_activeChar.getMEN());
-			packet.writeH(_activeChar.getLUC());
-			packet.writeH(_activeChar.getCHA());
+			packet.writeH(_snapshot._str);
+			packet.writeH(_snapshot._dex);
+			packet.writeH(_snapshot._con);
+			packet.writeH(_snapshot._int);
+			packet.writeH(_snapshot._wit);
+			packet.writeH(_snapshot._men);
+			packet.writeH(_snapshot._luc);
+			packet.writeH(_snapshot._cha);
 		}
 		
 		if (containsMask(UserInfoType.MAX_HPCPMP))
 		{
 			packet.writeH(14);
-			packet.writeD(_activeChar.getMaxHp());
-			packet.writeD(_activeChar.getMaxMp());
-			packet.writeD(_activeChar.getMaxCp());
+			packet.writeD(_snapshot._maxHp);
+			packet.writeD(_snapshot._maxMp);
+			packet.writeD(_snapshot._maxCp);
 		}
 		
 		if (containsMask(UserInfoType.CURRENT_HPMPCP_EXP_SP))
 		{
 			packet.writeH(38);
-			packet.writeD((int) Math.round(_activeChar.getCurrentHp()));
-			packet.writeD((int) Math.round(_activeChar.getCurrentMp()));
-			packet.writeD((int) Math.round(_activeChar.getCurrentCp()));
-			packet.writeQ(_activeChar.getSp());
-			packet.writeQ(_activeChar.getExp());
-			packet.writeF((float) (_activeChar.getExp() - ExperienceData.getInstance().getExpForLevel(_activeChar.getLevel())) / (ExperienceData.getInstance().getExpForLevel(_activeChar.getLevel() + 1) - ExperienceData.getInstance().getExpForLevel(_activeChar.getLevel())));
+			packet.writeD(_snapshot._currentHp);
+			packet.writeD(_snapshot._currentMp);
+			packet.writeD(_snapshot._currentCp);
+			packet.writeQ(_snapshot._sp);
+			packet.writeQ(_snapshot._exp);
+			packet.writeF(_snapshot._expPercent);
 		}
 		
 		if (containsMask(UserInfoType.ENCHANTLEVEL))
 		{
 			packet.writeH(4);
-			packet.writeC(_enchantLevel);
-			packet.writeC(_armorEnchant);
+			packet.writeC(_snapshot._enchantLevel);
+			packet.writeC(_snapshot._armorEnchant);
 		}
 		
 		if (containsMask(UserInfoType.APPAREANCE))
 		{
 			packet.writeH(15);
-			packet.writeD(_activeChar.getVisualHair());
-			packet.writeD(_activeChar.getVisualHairColor());
-			packet.writeD(_activeChar.getVisualFace());
-			packet.writeC(_activeChar.isHairAccessoryEnabled() ? 0x01 : 0x00);
+			packet.writeD(_snapshot._hair);
+			packet.writeD(_snapshot._hairColor);
+			packet.writeD(_snapshot._face);
+			packet.writeC(_snapshot._hairAccessoryEnabled ? 0x01 : 0x00);
 		}
 		
 		if (containsMask(UserInfoType.STATUS))
 		{
 			packet.writeH(6);
-			packet.writeC(_activeChar.getMountType().ordinal());
-			packet.writeC(_activeChar.getPrivateStoreType().getId());
-			packet.writeC(_activeChar.getCrystallizeGrade() != ItemGrade.NONE ? 1 : 0);
-			packet.writeC(_activeChar.getAbilityPoints() - _activeChar.getAbilityPointsUsed());
+			packet.writeC(_snapshot._mountType);
+			packet.writeC(_snapshot._privateStoreType);
+			packet.writeC(_snapshot._canCrystallize ? 1 : 0);
+			packet.writeC(_snapshot._abilityPoints - _snapshot._abilityPointsUsed);
 		}
 		
 		if (containsMask(UserInfoType.STATS))
 		{
 			packet.writeH(56);
-			packet.writeH(_activeChar.getActiveWeaponItem() != null ? 40 : 20);
-			packet.writeD(_activeChar.getPAtk());
-			packet.writeD(_activeChar.getPAtkSpd());
-			packet.writeD(_activeChar.getPDef());
-			packet.writeD(_activeChar.getEvasionRate());
-			packet.writeD(_activeChar.getAccuracy());
-			packet.writeD(_activeChar.getCriticalHit());
-			packet.writeD(_activeChar.getMAtk());
-			packet.writeD(_activeChar.getMAtkSpd());
-			packet.writeD(_activeChar.getPAtkSpd()); // Seems like atk speed - 1
-			packet.writeD(_activeChar.getMagicEvasionRate());
-			packet.writeD(_activeChar.getMDef());
-			packet.writeD(_activeChar.getMagicAccuracy());
-			packet.writeD(_activeChar.getMCriticalHit());
+			packet.writeH(_snapshot._hasWeapon ? 40 : 20);
+			packet.writeD(_snapshot._pAtk);
+			packet.writeD(_snapshot._pAtkSpd);
+			packet.writeD(_snapshot._pDef);
+			packet.writeD(_snapshot._evasionRate);
+			packet.writeD(_snapshot._accuracy);
+			packet.writeD(_snapshot._criticalHit);
+			packet.writeD(_snapshot._mAtk);
+			packet.writeD(_snapshot._mAtkSpd);
+			packet.writeD(_snapshot._pAtkSpd); // Seems like atk speed - 1
+			packet.writeD(_snapshot._magicEvasionRate);
+			packet.writeD(_snapshot._mDef);
+			packet.writeD(_snapshot._magicAccuracy);
+			packet.writeD(_snapshot._mCriticalHit);
 		}
 		
 		if (containsMask(UserInfoType.ELEMENTALS))
 		{
 			packet.writeH(14);
-			packet.writeH(_activeChar.getDefenseElementValue(AttributeType.FIRE));
-			packet.writeH(_activeChar.getDefenseElementValue(AttributeType.WATER));
-			packet.writeH(_activeChar.getDefenseElementValue(AttributeType.WIND));
-			packet.writeH(_activeChar.getDefenseElementValue(AttributeType.EARTH));
-			packet.writeH(_activeChar.getDefenseElementValue(AttributeType.HOLY));
-			packet.writeH(_activeChar.getDefenseElementValue(AttributeType.DARK));
+			for (int defenseElement : _snapshot._defenseElements)
+			{
+				packet.writeH(defenseElement);
+			}
 		}
 		
 		if (containsMask(UserInfoType.POSITION))
 		{
 			packet.writeH(18);
-			packet.writeD((int) _activeChar.getX());
-			packet.writeD((int) _activeChar.getY());
-			packet.writeD((int) _activeChar.getZ());
-			packet.writeD(_activeChar.isInVehicle() ? _activeChar.getVehicle().getObjectId() : 0);
+			packet.writeD(_snapshot._x);
+			packet.writeD(_snapshot._y);
+			packet.writeD(_snapshot._z);
+			packet.writeD(_snapshot._vehicleId);
 		}
 		
 		if (containsMask(UserInfoType.SPEED))
 		{
 			packet.writeH(18);
-			packet.writeH(_runSpd);
-			packet.writeH(_walkSpd);
-			packet.writeH(_swimRunSpd);
-			packet.writeH(_swimWalkSpd);
+			packet.writeH(_snapshot._runSpd);
+			packet.writeH(_snapshot._walkSpd);
+			packet.writeH(_snapshot._swimRunSpd);
+			packet.writeH(_snapshot._swimWalkSpd);
 			packet.writeH(_flRunSpd);
 			packet.writeH(_flWalkSpd);
-			packet.writeH(_flyRunSpd);
-			packet.writeH(_flyWalkSpd);
+			packet.writeH(_snapshot._flyRunSpd);
+			packet.writeH(_snapshot._flyWalkSpd);
 		}
 		
 		if (containsMask(UserInfoType.MULTIPLIER))
 		{
 			packet.writeH(18);
-			packet.writeF(_moveMultiplier);
-			packet.writeF(_activeChar.getAttackSpeedMultiplier());
+			packet.writeF(_snapshot._moveMultiplier);
+			packet.writeF(_snapshot._attackSpeedMultiplier);
 		}
 		
 		if (containsMask(UserInfoType.COL_RADIUS_HEIGHT))
 		{
 			packet.writeH(18);
-			packet.writeF(_activeChar.getCollisionRadius());
-			packet.writeF(_activeChar.getCollisionHeight());
+			packet.writeF(_snapshot._collisionRadius);
+			packet.writeF(_snapshot._collisionHeight);
 		}
 		
 		if (containsMask(UserInfoType.ATK_ELEMENTAL))
 		{
 			packet.writeH(5);
-			final AttributeType attackAttribute = _activeChar.getAttackElement();
-			packet.writeC(attackAttribute.getClientId());
-			packet.writeH(_activeChar.getAttackElementValue(attackAttribute));
+			packet.writeC(_snapshot._attackElement);
+			packet.writeH(_snapshot._attackElementValue);
 		}
 		
 		if (containsMask(UserInfoType.CLAN))
 		{
 			packet.writeH(32 + (_title.length() * 2));
 			packet.writeString(_title);
-			packet.writeH(_activeChar.getPledgeType());
-			packet.writeD(_activeChar.getClanId());
-			packet.writeD(_activeChar.getClanCrestLargeId());
-			packet.writeD(_activeChar.getClanCrestId());
-			packet.writeD(_activeChar.getClanPrivileges().getBitmask());
-			packet.writeC(_activeChar.isClanLeader() ? 0x01 : 0x00);
-			packet.writeD(_activeChar.getAllyId());
-			packet.writeD(_activeChar.getAllyCrestId());
-			packet.writeC(_activeChar.isInMatchingRoom() ? 0x01 : 0x00);
+			packet.writeH(_snapshot._pledgeType);
+			packet.writeD(_snapshot._clanId);
+			packet.writeD(_snapshot._clanCrestLargeId);
+			packet.writeD(_snapshot._clanCrestId);
+			packet.writeD(_snapshot._clanPrivileges);
+			packet.writeC(_snapshot._isClanLeader ? 0x01 : 0x00);
+			packet.writeD(_snapshot._allyId);
+			packet.writeD(_snapshot._allyCrestId);
+			packet.writeC(_snapshot._isInMatchingRoom ? 0x01 : 0x00);
 		}
 		
 		if (containsMask(UserInfoType.SOCIAL))
 		{
 			packet.writeH(22);
-			packet.writeC(_activeChar.getPvpFlag());
-			packet.writeD(_activeChar.getReputation()); // Reputation
-			packet.writeC(_activeChar.getNobleStatus().getClientId());
-			packet.writeC(_activeChar.isHero() ? 0x01 : 0x00);
-			packet.writeC(_activeChar.getPledgeClass());
-			packet.writeD(_activeChar.getPkKills());
-			packet.writeD(_activeChar.getPvpKills());
-			packet.writeH(_activeChar.getRecomLeft());
-			packet.writeH(_activeChar.getRecomHave());
+			packet.writeC(_snapshot._pvpFlag);
+			packet.writeD(_snapshot._reputation); // Reputation
+			packet.writeC(_snapshot._nobleStatus);
+			packet.writeC(_snapshot._isHero ? 0x01 : 0x00);
+			packet.writeC(_snapshot._pledgeClass);
+			packet.writeD(_snapshot._pkKills);
+			packet.writeD(_snapshot._pvpKills);
+			packet.writeH(_snapshot._recomLeft);
+			packet.writeH(_snapshot._recomHave);
 		}
 		
 		if (containsMask(UserInfoType.VITA_FAME))
 		{
 			packet.writeH(15);
-			packet.writeD(_activeChar.getVitalityPoints());
+			packet.writeD(_snapshot._vitalityPoints);
 			packet.writeC(0x00); // Vita Bonus
-			packet.writeD(_activeChar.getFame());
-			packet.writeD(_activeChar.getRaidbossPoints());
+			packet.writeD(_snapshot._fame);
+			packet.writeD(_snapshot._raidbossPoints);
 		}
 		
 		if (containsMask(UserInfoType.SLOTS))
 		{
 			packet.writeH(9);
-			packet.writeC(_activeChar.getInventory().getTalismanSlots()); // Confirmed
-			packet.writeC(_activeChar.getInventory().getBroochJewelSlots()); // Confirmed
-			packet.writeC(_activeChar.getTeam().getId()); // Confirmed
+			packet.writeC(_snapshot._talismanSlots); // Confirmed
+			packet.writeC(_snapshot._broochJewelSlots); // Confirmed
+			packet.writeC(_snapshot._team); // Confirmed
 			packet.writeD(0x00); // Some kind of aura mask (1 = Red, 2 = White, 3 = White AND Red, there is higher values: 20, 50, 100 produces different aura) dotted / straight circle ring on the floor
 		}
 		
 		if (containsMask(UserInfoType.MOVEMENTS))
 		{
 			packet.writeH(4);
-			packet.writeC(_activeChar.isInsideZone(ZoneId.WATER) ? 1 : _activeChar.isFlyingMounted() ? 2 : 0);
-			packet.writeC(_activeChar.isRunning() ? 0x01 : 0x00);
+			packet.writeC(_snapshot._waterOrFlying);
+			packet.writeC(_snapshot._isRunning ? 0x01 : 0x00);
 		}
 		
 		if (containsMask(UserInfoType.COLOR))
 		{
 			packet.writeH(10);
-			packet.writeD(_activeChar.getAppearance().getNameColor());
-			packet.writeD(_activeChar.getAppearance().getTitleColor());
+			packet.writeD(_snapshot._nameColor);
+			packet.writeD(_snapshot._titleColor);
 		}
 		
 		if (containsMask(UserInfoType.INVENTORY_LIMIT))
 		{
 			packet.writeH(9);
 			packet.writeD(0x00);
-			packet.writeH(_activeChar.getInventoryLimit());
+			packet.writeH(_snapshot._inventoryLimit);
 			packet.writeC(0x00); // if greater than 1 show the attack cursor when interacting, CoC or Cursed Weapon level ?
 		}
 		
@@ -354,41 +346,9 @@ public class UserInfo extends AbstractMaskPacket<UserInfoType>
 			packet.writeC(0x00);
 			packet.writeD(0x00);
 			packet.writeC(0x00);
-			packet.writeC(_activeChar.isTrueHero() ? 100 : 0x00);
+			packet.writeC(_snapshot._isTrueHero ? 100 : 0x00);
 		}
 		
 		return true;
 	}
-	
-	private int calculateRelation(PlayerInstance activeChar)
-	{
-		int relation = 0;
-		final Party party = activeChar.getParty();
-		final L2Clan clan = activeChar.getClan();
-		
-		if (party != null)
-		{
-			relation |= 0x08; // Party member
-			if (party.getLeader() == _activeChar)
-			{
-				relation |= 0x10; // Party leader
-			}
-		}
-		
-		if (clan != null)
-		{
-			relation |= 0x20; // Clan member
-			if (clan.getLeaderId() == activeChar.getObjectId())
-			{
-				relation |= 0x40; // Clan leader
-			}
-		}
-		
-		if (activeChar.isInSiege())
-		{
-			relation |= 0x80; // In siege
-		}
-		
-		return relation;
-	}
 }
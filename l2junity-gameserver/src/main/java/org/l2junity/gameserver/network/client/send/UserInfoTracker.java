@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2004-2017 L2J Unity
+ * 
+ * This file is part of L2J Unity.
+ * 
+ * L2J Unity is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Unity is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2junity.gameserver.network.client.send;
+
+import org.l2junity.gameserver.enums.UserInfoType;
+
+/**
+ * Keeps, for every component of {@link UserInfo}, the state a player's client was last sent, so an update only carries the components that changed since.<br>
+ * Requests for an update are merged until the update is taken, the owner sends one update per game tick at most.
+ */
+public final class UserInfoTracker
+{
+	private static final UserInfoType[] TYPES = UserInfoType.values();
+	
+	private final int _objectId;
+	/** The state each component was last sent from, by component ordinal, guarded by this */
+	private final PlayerInfoSnapshot[] _sent = new PlayerInfoSnapshot[TYPES.length];
+	/** The components requested to be sent even if they did not change, guarded by this */
+	private int _requestedMask;
+	private boolean _updatePending;
+	
+	/**
+	 * @param objectId the object ID of the player owning the client
+	 */
+	public UserInfoTracker(int objectId)
+	{
+		_objectId = objectId;
+	}
+	
+	/**
+	 * Requests an update.
+	 * @param types the components to send even if they did not change
+	 * @return {@code true} if no update was pending and the caller has to schedule one, {@code false} if the request was merged into the pending update
+	 */
+	public synchronized boolean requestUpdate(UserInfoType... types)
+	{
+		for (UserInfoType type : types)
+		{
+			_requestedMask |= 1 << type.ordinal();
+		}
+		
+		if (_updatePending)
+		{
+			return false;
+		}
+		_updatePending = true;
+		return true;
+	}
+	
+	/**
+	 * Takes the pending update, must be called before taking the state to send, so a change made meanwhile requests an update of its own.
+	 * @return the components requested to be sent even if they did not change
+	 */
+	public synchronized int takeUpdate()
+	{
+		final int requestedMask = _requestedMask;
+		_requestedMask = 0;
+		_updatePending = false;
+		return requestedMask;
+	}
+	
+	/**
+	 * @param snapshot the current state
+	 * @param requestedMask the components to send even if they did not change
+	 * @return the packet carrying the changed and the requested components, {@code null} if there is none
+	 */
+	public synchronized UserInfo createUpdate(PlayerInfoSnapshot snapshot, int requestedMask)
+	{
+		UserInfo userInfo = null;
+		for (UserInfoType type : TYPES)
+		{
+			final PlayerInfoSnapshot sent = _sent[type.ordinal()];
+			if (((requestedMask & (1 << type.ordinal())) != 0) || (sent == null) || !snapshot.isUserInfoEqual(type, sent))
+			{
+				if (userInfo == null)
+				{
+					userInfo = new UserInfo(snapshot, false);
+				}
+				userInfo.addComponentType(type);
+			}
+		}
+		return userInfo;
+	}
+	
+	/**
+	 * Records the components of a packet sent to the client, a packet about another player is ignored.
+	 * @param userInfo the packet
+	 */
+	public synchronized void onSent(UserInfo userInfo)
+	{
+		final PlayerInfoSnapshot snapshot = userInfo.getSnapshot();
+		if (snapshot._objectId != _objectId)
+		{
+			return;
+		}
+		
+		for (UserInfoType type : TYPES)
+		{
+			if (userInfo.containsMask(type))
+			{
+				_sent[type.ordinal()] = snapshot;
+			}
+		}
+	}
+	
+	/**
+	 * Forgets what was sent, for a new client which knows nothing yet.
+	 */
+	public synchronized void reset()
+	{
+		for (int i = 0; i < _sent.length; i++)
+		{
+			_sent[i] = null;
+		}
+	}
+}
@@ -18,21 +18,32 @@
  */
 package org.l2junity.gameserver.taskmanager;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.l2junity.commons.loader.annotations.InstanceGetter;
 import org.l2junity.commons.loader.annotations.Load;
 import org.l2junity.commons.util.concurrent.ThreadPool;
+import org.l2junity.gameserver.config.ThreadPoolConfig;
 import org.l2junity.gameserver.loader.ClientAccessLoadGroup;
+import org.l2junity.gameserver.model.WorldRegion;
 import org.l2junity.gameserver.model.actor.Creature;
+import org.l2junity.gameserver.model.actor.Creature.MoveData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Despite the name the class is not identical to the original l2jfree class, however serves the same purpose.<br>
- * I just could not stand GameTimeManager handling movement process.
+ * I just could not stand GameTimeManager handling movement process.<br>
+ * Every tick runs in fixed phases: moving creatures are split into shards by world region, then the shards update their positions in parallel and unregister the creatures that arrived.<br>
+ * Creatures of the same region always end up in the same shard, so their updates keep being done sequentially by a single thread.
  * @author lord_rex (the copy-paste work as always, MUHAHA)
  * @author Forsaiken (GameTimeController concept)
  * @author NB4L1 (original l2jfree concept)
@@ -41,7 +52,22 @@ public final class MovementController
 {
 	private static final Logger LOGGER = LoggerFactory.getLogger(MovementController.class);
 	
+	private static final long TICK_PERIOD = 100;
+	/** Below this amount of moving creatures a tick is not worth to be split between threads. */
+	private static final int MIN_PARALLEL_MOVING_OBJECTS = 256;
+	
 	private final Set<Creature> _movingObjects = ConcurrentHashMap.newKeySet();
+	private Shard[] _shards;
+	private ExecutorService _workers;
+	
+	// Statistics
+	private volatile long _tickCount;
+	private volatile long _overrunCount;
+	private volatile long _lastTickDuration;
+	private volatile long _longestTickDuration;
+	private volatile long _totalTickDuration;
+	private volatile int _lastMovingCount;
+	private volatile int _largestMovingCount;
 	
 	protected MovementController()
 	{
@@ -50,7 +76,27 @@ public final class MovementController
 	@Load(group = ClientAccessLoadGroup.class)
 	private void load()
 	{
-		ThreadPool.scheduleAtFixedRate(this::run, 100, 100, TimeUnit.MILLISECONDS);
+		final int shardCount = ThreadPoolConfig.MOVEMENT_THREAD_POOL_SIZE > 0 ? ThreadPoolConfig.MOVEMENT_THREAD_POOL_SIZE : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+		_shards = new Shard[shardCount];
+		for (int i = 0; i < shardCount; i++)
+		{
+			_shards[i] = new Shard();
+		}
+		
+		// The ticking thread handles the first shard itself.
+		if (shardCount > 1)
+		{
+			final AtomicInteger threadId = new AtomicInteger();
+			_workers = Executors.newFixedThreadPool(shardCount - 1, r ->
+			{
+				final Thread thread = new Thread(r, "L2JU-MC-" + threadId.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		
+		ThreadPool.scheduleAtFixedRate(this::run, TICK_PERIOD, TICK_PERIOD, TimeUnit.MILLISECONDS);
+		LOGGER.info("Updating moving creatures with {} thread(s).", shardCount);
 	}
 	
 	/**
@@ -66,17 +112,161 @@ public final class MovementController
 		
 		_movingObjects.add(creature);
 	}
-
+	
 	public void run()
 	{
+		final long start = System.nanoTime();
 		try
 		{
-			_movingObjects.removeIf(Creature::updatePosition);
+			final int movingCount = _movingObjects.size();
+			if ((_workers == null) || (movingCount < MIN_PARALLEL_MOVING_OBJECTS))
+			{
+				for (Creature creature : _movingObjects)
+				{
+					final MoveData move = creature.getMove();
+					if (creature.updatePosition())
+					{
+						unregisterArrived(creature, move);
+					}
+				}
+			}
+			else
+			{
+				runSharded();
+			}
+			
+			_lastMovingCount = movingCount;
+			if (movingCount > _largestMovingCount)
+			{
+				_largestMovingCount = movingCount;
+			}
 		}
 		catch (final Throwable e)
 		{
 			LOGGER.warn("", e);
 		}
+		
+		final long duration = System.nanoTime() - start;
+		_tickCount++;
+		_lastTickDuration = duration;
+		_totalTickDuration += duration;
+		if (duration > _longestTickDuration)
+		{
+			_longestTickDuration = duration;
+		}
+		if (duration > TimeUnit.MILLISECONDS.toNanos(TICK_PERIOD))
+		{
+			_overrunCount++;
+		}
+	}
+	
+	private void runSharded() throws InterruptedException
+	{
+		// Phase 1: split the moving creatures by world region.
+		final int shardCount = _shards.length;
+		for (Creature creature : _movingObjects)
+		{
+			final WorldRegion region = creature.getWorldRegion();
+			final int shard = region != null ? (((region.getRegionX() * 31) + region.getRegionY()) % shardCount) : 0;
+			_shards[shard]._creatures.add(creature);
+		}
+		
+		try
+		{
+			// Phase 2: update the positions and unregister the creatures that arrived, one thread per shard.
+			final CountDownLatch latch = new CountDownLatch(shardCount - 1);
+			for (int i = 1; i < shardCount; i++)
+			{
+				final int shard = i;
+				_workers.execute(() ->
+				{
+					try
+					{
+						updatePositions(_shards[shard]._creatures);
+					}
+					finally
+					{
+						latch.countDown();
+					}
+				});
+			}
+			updatePositions(_shards[0]._creatures);
+			latch.await();
+		}
+		finally
+		{
+			for (Shard shard : _shards)
+			{
+				shard._creatures.clear();
+			}
+		}
+	}
+	
+	private void updatePositions(List<Creature> creatures)
+	{
+		for (Creature creature : creatures)
+		{
+			try
+			{
+				final MoveData move = creature.getMove();
+				if (creature.updatePosition())
+				{
+					unregisterArrived(creature, move);
+				}
+			}
+			catch (Throwable e)
+			{
+				LOGGER.warn("Failed updating position of {}", creature, e);
+			}
+		}
+	}
+	
+	/**
+	 * Unregisters a creature which arrived, unless it already started its next move.<br>
+	 * The arrived move stays set until the asynchronous EVT_ARRIVED is handled, so only another move keeps the creature registered.
+	 * @param creature the creature
+	 * @param arrivedMove the move of the creature which arrived
+	 */
+	private void unregisterArrived(Creature creature, MoveData arrivedMove)
+	{
+		_movingObjects.remove(creature);
+		final MoveData move = creature.getMove();
+		if ((move != null) && (move != arrivedMove))
+		{
+			_movingObjects.add(creature);
+		}
+	}
+	
+	/**
+	 * Gets the movement controller stats.
+	 * @return the stats
+	 */
+	public List<String> getStats()
+	{
+		final long tickCount = _tickCount;
+		final List<String> list = new ArrayList<>(12);
+		list.add("");
+		list.add("Movement controller:");
+		list.add("=================================================");
+		list.add("\tgetThreadCount: ...... " + (_shards != null ? _shards.length : 0));
+		list.add("\tgetMovingCount: ...... " + _movingObjects.size());
+		list.add("\tgetLastMovingCount: .. " + _lastMovingCount);
+		list.add("\tgetLargestMovingCount: " + _largestMovingCount);
+		list.add("\tgetTickCount: ........ " + tickCount);
+		list.add("\tgetLastTickTime: ..... " + TimeUnit.NANOSECONDS.toMicros(_lastTickDuration) + " us");
+		list.add("\tgetAverageTickTime: .. " + (tickCount > 0 ? TimeUnit.NANOSECONDS.toMicros(_totalTickDuration / tickCount) : 0) + " us");
+		list.add("\tgetLongestTickTime: .. " + TimeUnit.NANOSECONDS.toMicros(_longestTickDuration) + " us");
+		list.add("\tgetOverrunCount: ..... " + _overrunCount);
+		list.add("");
+		return list;
+	}
+	
+	/**
+	 * The creatures updated by one thread during a tick.
+	 */
+	private static final class Shard
+	{
+		protected final List<Creature> _creatures = new ArrayList<>();
 	}
 	
 	private static final class SingletonHolder
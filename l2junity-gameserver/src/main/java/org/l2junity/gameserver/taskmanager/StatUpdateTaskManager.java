@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2004-2017 L2J Unity
+ * 
+ * This file is part of L2J Unity.
+ * 
+ * L2J Unity is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Unity is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2junity.gameserver.taskmanager;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.l2junity.commons.loader.annotations.InstanceGetter;
+import org.l2junity.commons.loader.annotations.Load;
+import org.l2junity.commons.util.concurrent.ThreadPool;
+import org.l2junity.gameserver.config.GeneralConfig;
+import org.l2junity.gameserver.loader.LoadGroup;
+import org.l2junity.gameserver.model.actor.Creature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Coalesces the broadcasting stat recalculations of creatures.<br>
+ * A creature whose stats changed is only marked, once every {@link GeneralConfig#STAT_UPDATE_DELAY} milliseconds its stats are recalculated and all stats changed since it was marked are broadcast at once.<br>
+ * Reading a stat of a marked creature recalculates its stats right away, so nothing ever reads stale stats, only the broadcast waits for the next tick.
+ */
+public final class StatUpdateTaskManager
+{
+	private static final Logger LOGGER = LoggerFactory.getLogger(StatUpdateTaskManager.class);
+	
+	private final Set<Creature> _pendingCreatures = ConcurrentHashMap.newKeySet();
+	private volatile boolean _enabled;
+	
+	// Statistics
+	private final LongAdder _requests = new LongAdder();
+	private final LongAdder _coalescedRequests = new LongAdder();
+	private final LongAdder _broadcasts = new LongAdder();
+	private volatile long _tickCount;
+	private volatile int _lastTickSize;
+	private volatile int _largestTickSize;
+	private volatile long _longestTickDuration;
+	
+	protected StatUpdateTaskManager()
+	{
+	}
+	
+	@Load(group = LoadGroup.class)
+	private void load()
+	{
+		if (GeneralConfig.STAT_UPDATE_DELAY <= 0)
+		{
+			return;
+		}
+		
+		ThreadPool.scheduleAtFixedRate(this::run, GeneralConfig.STAT_UPDATE_DELAY, GeneralConfig.STAT_UPDATE_DELAY, TimeUnit.MILLISECONDS);
+		_enabled = true;
+		LOGGER.info("Broadcasting stat updates every {} ms.", GeneralConfig.STAT_UPDATE_DELAY);
+	}
+	
+	/**
+	 * @return {@code true} if broadcasting stat recalculations are deferred to the next tick, {@code false} if they run right away
+	 */
+	public boolean isEnabled()
+	{
+		return _enabled;
+	}
+	
+	/**
+	 * Queues the stat broadcast of a creature for the next tick, a creature already queued is only queued once.
+	 * @param creature the creature
+	 */
+	public void add(Creature creature)
+	{
+		_requests.increment();
+		if (!_pendingCreatures.add(creature))
+		{
+			_coalescedRequests.increment();
+		}
+	}
+	
+	private void run()
+	{
+		final long start = System.nanoTime();
+		int size = 0;
+		final Iterator<Creature> iterator = _pendingCreatures.iterator();
+		while (iterator.hasNext())
+		{
+			final Creature creature = iterator.next();
+			iterator.remove();
+			size++;
+			try
+			{
+				creature.getStat().broadcastPendingStats();
+			}
+			catch (Exception e)
+			{
+				LOGGER.warn("Failed to broadcast the stats of {}", creature, e);
+			}
+		}
+		
+		_broadcasts.add(size);
+		_tickCount++;
+		_lastTickSize = size;
+		if (size > _largestTickSize)
+		{
+			_largestTickSize = size;
+		}
+		
+		final long duration = System.nanoTime() - start;
+		if (duration > _longestTickDuration)
+		{
+			_longestTickDuration = duration;
+		}
+	}
+	
+	public List<String> getStats()
+	{
+		final List<String> list = new ArrayList<>();
+		list.add("Stat Updates:");
+		list.add("\tEnabled: ............. " + _enabled);
+		list.add("\tPending: ............. " + _pendingCreatures.size());
+		list.add("\tRequests: ............ " + _requests.sum());
+		list.add("\tCoalesced: ........... " + _coalescedRequests.sum());
+		list.add("\tBroadcasts: .......... " + _broadcasts.sum());
+		list.add("\tTicks: ............... " + _tickCount);
+		list.add("\tLast tick size: ...... " + _lastTickSize);
+		list.add("\tLargest tick size: ... " + _largestTickSize);
+		list.add("\tLongest tick time: ... " + TimeUnit.NANOSECONDS.toMicros(_longestTickDuration) + " us");
+		return list;
+	}
+	
+	private static final class SingletonHolder
+	{
+		protected static final StatUpdateTaskManager INSTANCE = new StatUpdateTaskManager();
+	}
+	
+	@InstanceGetter
+	public static StatUpdateTaskManager getInstance()
+	{
+		return SingletonHolder.INSTANCE;
+	}
+}
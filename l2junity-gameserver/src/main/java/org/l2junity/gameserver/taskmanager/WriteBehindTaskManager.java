@@ -0,0 +1,545 @@
+/*
+ * Copyright (C) 2004-2017 L2J Unity
+ * 
+ * This file is part of L2J Unity.
+ * 
+ * L2J Unity is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Unity is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2junity.gameserver.taskmanager;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.l2junity.commons.lang.management.ShutdownManager;
+import org.l2junity.commons.loader.annotations.InstanceGetter;
+import org.l2junity.commons.loader.annotations.Load;
+import org.l2junity.commons.sql.DatabaseFactory;
+import org.l2junity.gameserver.config.GeneralConfig;
+import org.l2junity.gameserver.loader.LoadGroup;
+import org.l2junity.gameserver.model.actor.instance.PlayerInstance;
+import org.l2junity.gameserver.model.items.instance.ItemInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Delays and coalesces item and character saves, so game threads no longer wait for the database.<br>
+ * Dirty objects are collected per object id and written by a single database thread in JDBC batches every {@link GeneralConfig#WRITE_BEHIND_FLUSH_INTERVAL} milliseconds.<br>
+ * When the database falls behind more than {@link GeneralConfig#WRITE_BEHIND_MAX_LAG} milliseconds, saves are written by the calling thread again until it catches up.<br>
+ * Everything still pending is written when the server shuts down.
+ */
+public final class WriteBehindTaskManager
+{
+	private static final Logger LOGGER = LoggerFactory.getLogger(WriteBehindTaskManager.class);
+	
+	/** Runs after the main shutdown hook, which saves all players. */
+	private static final int SHUTDOWN_HOOK_PRIORITY = 100;
+	
+	private final ReentrantLock _flushLock = new ReentrantLock();
+	private final Object _pendingLock = new Object();
+	private final Map<Integer, PendingItem> _pendingItems = new LinkedHashMap<>();
+	private final Map<Integer, PlayerInstance> _pendingPlayers = new LinkedHashMap<>();
+	/** The object ids of the items written by the running flush, guarded by the pending lock */
+	private Set<Integer> _flushingItemIds = Collections.emptySet();
+	/** The current and stored owners of the items written by the running flush, guarded by the pending lock */
+	private Set<Integer> _flushingOwnerIds = Collections.emptySet();
+	private long _oldestPendingTime;
+	private volatile long _flushingSince;
+	private volatile boolean _lagging;
+	private volatile ScheduledExecutorService _executor;
+	
+	// Statistics
+	private volatile long _flushCount;
+	private volatile long _writtenItems;
+	private volatile long _writtenPlayers;
+	private volatile long _lagCount;
+	private volatile long _lastFlushDuration;
+	private volatile long _longestFlushDuration;
+	
+	protected WriteBehindTaskManager()
+	{
+	}
+	
+	@Load(group = LoadGroup.class)
+	private void load()
+	{
+		if (GeneralConfig.WRITE_BEHIND_FLUSH_INTERVAL <= 0)
+		{
+			return;
+		}
+		
+		_executor = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "L2JU-WriteBehind"));
+		_executor.scheduleWithFixedDelay(this::flush, GeneralConfig.WRITE_BEHIND_FLUSH_INTERVAL, GeneralConfig.WRITE_BEHIND_FLUSH_INTERVAL, TimeUnit.MILLISECONDS);
+		ShutdownManager.addShutdownHook(SHUTDOWN_HOOK_PRIORITY, this::shutdown);
+		LOGGER.info("Flushing item and character saves every {} ms.", GeneralConfig.WRITE_BEHIND_FLUSH_INTERVAL);
+	}
+	
+	/**
+	 * Queues the save of an item.
+	 * @param item the item
+	 * @param force {@code true} if the item is saved even when lazy item updates are enabled
+	 * @return {@code true} if the save was queued, {@code false} if the caller has to save the item itself
+	 */
+	public boolean add(ItemInstance item, boolean force)
+	{
+		if (!canQueue())
+		{
+			return false;
+		}
+		
+		boolean conflict = false;
+		synchronized (_pendingLock)
+		{
+			final PendingItem pendingItem = _pendingItems.get(item.getObjectId());
+			if (pendingItem == null)
+			{
+				markPending();
+				_pendingItems.put(item.getObjectId(), new PendingItem(item, force));
+			}
+			else if (pendingItem._item == item)
+			{
+				pendingItem._force |= force;
+			}
+			else
+			{
+				conflict = true;
+			}
+		}
+		
+		if (conflict)
+		{
+			// The object id was reused while the previous item is still pending, keep the saves in order.
+			flush();
+			return add(item, force);
+		}
+		return true;
+	}
+	
+	/**
+	 * Drops the queued save of an item, because the caller saves it right away.<br>
+	 * When the running flush writes the item, waits for it, so the save of the caller is not overwritten by the older state of the flush.
+	 * @param item the item
+	 */
+	public void remove(ItemInstance item)
+	{
+		final boolean flushing;
+		synchronized (_pendingLock)
+		{
+			final PendingItem pendingItem = _pendingItems.get(item.getObjectId());
+			if ((pendingItem != null) && (pendingItem._item == item))
+			{
+				_pendingItems.remove(item.getObjectId());
+			}
+			flushing = _flushingItemIds.contains(item.getObjectId());
+		}
+		
+		if (flushing)
+		{
+			awaitFlush();
+		}
+	}
+	
+	/**
+	 * Queues the periodic save of a player.
+	 * @param player the player
+	 * @return {@code true} if the save was queued, {@code false} if the caller has to save the player itself
+	 */
+	public boolean add(PlayerInstance player)
+	{
+		if (!canQueue())
+		{
+			return false;
+		}
+		
+		synchronized (_pendingLock)
+		{
+			markPending();
+			_pendingPlayers.put(player.getObjectId(), player);
+		}
+		return true;
+	}
+	
+	/**
+	 * Drops the queued save of a player, because the caller saves it right away.
+	 * @param player the player
+	 */
+	public void remove(PlayerInstance player)
+	{
+		synchronized (_pendingLock)
+		{
+			_pendingPlayers.remove(player.getObjectId(), player);
+		}
+	}
+	
+	/**
+	 * Writes the pending saves of the items owned by an owner, now or in the database, and waits for it.<br>
+	 * Has to be called before reading the items of an owner, the saves of other owners are left pending.
+	 * @param ownerId the object id of the owner
+	 */
+	public void flush(int ownerId)
+	{
+		synchronized (_pendingLock)
+		{
+			if (!_flushingOwnerIds.contains(ownerId) && _pendingItems.values().stream().noneMatch(pendingItem -> isOwnedBy(pendingItem, ownerId)))
+			{
+				return;
+			}
+		}
+		
+		// Written after the running flush, which may hold older saves of the same items.
+		_flushLock.lock();
+		final Set<Integer> previousItemIds;
+		final Set<Integer> previousOwnerIds;
+		final List<PendingItem> items = new ArrayList<>();
+		synchronized (_pendingLock)
+		{
+			previousItemIds = _flushingItemIds;
+			previousOwnerIds = _flushingOwnerIds;
+			
+			final Iterator<PendingItem> iterator = _pendingItems.values().iterator();
+			while (iterator.hasNext())
+			{
+				final PendingItem pendingItem = iterator.next();
+				if (isOwnedBy(pendingItem, ownerId))
+				{
+					items.add(pendingItem);
+					iterator.remove();
+				}
+			}
+			addFlushingItems(items);
+		}
+		
+		try
+		{
+			writeItems(items);
+		}
+		finally
+		{
+			synchronized (_pendingLock)
+			{
+				_flushingItemIds = previousItemIds;
+				_flushingOwnerIds = previousOwnerIds;
+			}
+			_flushLock.unlock();
+		}
+	}
+	
+	/**
+	 * Writes all pending saves to the database and waits for it.<br>
+	 * Has to be called before reading rows that may still have pending saves.
+	 */
+	public void flush()
+	{
+		// A character save of this flush may flush again, the items of the outer flush stay flushing until it is done.
+		_flushLock.lock();
+		final Set<Integer> previousItemIds;
+		final Set<Integer> previousOwnerIds;
+		final long previousFlushingSince = _flushingSince;
+		synchronized (_pendingLock)
+		{
+			previousItemIds = _flushingItemIds;
+			previousOwnerIds = _flushingOwnerIds;
+		}
+		
+		try
+		{
+			final List<PendingItem> items;
+			final List<PlayerInstance> players;
+			synchronized (_pendingLock)
+			{
+				if (_pendingItems.isEmpty() && _pendingPlayers.isEmpty())
+				{
+					return;
+				}
+				
+				items = new ArrayList<>(_pendingItems.values());
+				players = new ArrayList<>(_pendingPlayers.values());
+				_pendingItems.clear();
+				_pendingPlayers.clear();
+				_flushingSince = _oldestPendingTime;
+				_oldestPendingTime = 0;
+				addFlushingItems(items);
+			}
+			
+			final long start = System.nanoTime();
+			if (!players.isEmpty())
+			{
+				// Character saves may queue the items of the players, they are written below.
+				PlayerInstance.storeAutoSave(players);
+				_writtenPlayers += players.size();
+				synchronized (_pendingLock)
+				{
+					final List<PendingItem> playerItems = new ArrayList<>(_pendingItems.values());
+					_pendingItems.clear();
+					addFlushingItems(playerItems);
+					items.addAll(playerItems);
+				}
+			}
+			
+			writeItems(items);
+			
+			final long duration = System.nanoTime() - start;
+			_flushCount++;
+			_lastFlushDuration = duration;
+			if (duration > _longestFlushDuration)
+			{
+				_longestFlushDuration = duration;
+			}
+		}
+		finally
+		{
+			synchronized (_pendingLock)
+			{
+				_flushingItemIds = previousItemIds;
+				_flushingOwnerIds = previousOwnerIds;
+			}
+			_flushingSince = previousFlushingSince;
+			_flushLock.unlock();
+		}
+	}
+	
+	private static boolean isOwnedBy(PendingItem pendingItem, int ownerId)
+	{
+		return (pendingItem._item.getOwnerId() == ownerId) || (pendingItem._item.getStoredOwnerId() == ownerId);
+	}
+	
+	/**
+	 * Has to be called with the pending lock held.<br>
+	 * The flushing sets are replaced, not changed, so an outer flush gets back its own sets when an inner one is done.
+	 * @param items the items written by the running flush
+	 */
+	private void addFlushingItems(List<PendingItem> items)
+	{
+		final Set<Integer> itemIds = new HashSet<>(_flushingItemIds);
+		final Set<Integer> ownerIds = new HashSet<>(_flushingOwnerIds);
+		for (PendingItem pendingItem : items)
+		{
+			itemIds.add(pendingItem._item.getObjectId());
+			ownerIds.add(pendingItem._item.getOwnerId());
+			ownerIds.add(pendingItem._item.getStoredOwnerId());
+		}
+		_flushingItemIds = itemIds;
+		_flushingOwnerIds = ownerIds;
+	}
+	
+	/**
+	 * Waits until the running flush is done.
+	 */
+	private void awaitFlush()
+	{
+		_flushLock.lock();
+		_flushLock.unlock();
+	}
+	
+	/**
+	 * Writes items in one batch.<br>
+	 * When the batch fails, the items are written one by one, so a single bad row does not hold back the others, and the items that still fail are queued again.
+	 * @param items the items
+	 */
+	private void writeItems(List<PendingItem> items)
+	{
+		if (items.isEmpty())
+		{
+			return;
+		}
+		
+		if (writeBatch(items))
+		{
+			return;
+		}
+		
+		LOGGER.warn("Could not write {} pending item(s) to DB in one batch, writing them one by one.", items.size());
+		final List<PendingItem> failedItems = new ArrayList<>();
+		for (PendingItem pendingItem : items)
+		{
+			if (!writeBatch(Collections.singletonList(pendingItem)))
+			{
+				failedItems.add(pendingItem);
+			}
+		}
+		
+		if (!failedItems.isEmpty())
+		{
+			LOGGER.error("Could not write {} pending item(s) to DB, queued them again.", failedItems.size());
+			synchronized (_pendingLock)
+			{
+				for (PendingItem pendingItem : failedItems)
+				{
+					// A newer save of the same object id is written after this one anyway.
+					if (_pendingItems.putIfAbsent(pendingItem._item.getObjectId(), pendingItem) == null)
+					{
+						markPending();
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * @param items the items
+	 * @return {@code true} if the items were written, {@code false} if the batch was rolled back
+	 */
+	private boolean writeBatch(List<PendingItem> items)
+	{
+		try (Connection con = DatabaseFactory.getInstance().getConnection();
+			ItemInstance.DatabaseBatch batch = new ItemInstance.DatabaseBatch(con))
+		{
+			try
+			{
+				for (PendingItem pendingItem : items)
+				{
+					batch.add(pendingItem._item, pendingItem._force);
+				}
+			}
+			catch (Exception e)
+			{
+				batch.revert();
+				throw e;
+			}
+			_writtenItems += batch.execute();
+			return true;
+		}
+		catch (Exception e)
+		{
+			LOGGER.warn("Could not write {} pending item(s) to DB", items.size(), e);
+			return false;
+		}
+	}
+	
+	private void shutdown()
+	{
+		final ScheduledExecutorService executor = _executor;
+		if (executor == null)
+		{
+			return;
+		}
+		
+		// From now on saves are written by their callers again.
+		_executor = null;
+		executor.shutdown();
+		try
+		{
+			executor.awaitTermination(1, TimeUnit.MINUTES);
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		
+		flush();
+		LOGGER.info("Written all pending item and character saves.");
+	}
+	
+	/**
+	 * @return {@code true} if saves are queued, {@code false} if they are written right away
+	 */
+	public boolean isEnabled()
+	{
+		return _executor != null;
+	}
+	
+	private boolean canQueue()
+	{
+		if (_executor == null)
+		{
+			return false;
+		}
+		
+		final long now = System.nanoTime();
+		final long flushingSince = _flushingSince;
+		final long oldestPendingTime;
+		synchronized (_pendingLock)
+		{
+			oldestPendingTime = _oldestPendingTime;
+		}
+		
+		final long maxLag = TimeUnit.MILLISECONDS.toNanos(GeneralConfig.WRITE_BEHIND_MAX_LAG);
+		final boolean lagging = ((flushingSince != 0) && ((now - flushingSince) > maxLag)) || ((oldestPendingTime != 0) && ((now - oldestPendingTime) > maxLag));
+		if (lagging != _lagging)
+		{
+			_lagging = lagging;
+			if (lagging)
+			{
+				_lagCount++;
+				LOGGER.warn("Database is more than {} ms behind, saving on the calling threads until it catches up.", GeneralConfig.WRITE_BEHIND_MAX_LAG);
+			}
+		}
+		return !lagging;
+	}
+	
+	private void markPending()
+	{
+		if (_oldestPendingTime == 0)
+		{
+			_oldestPendingTime = System.nanoTime();
+		}
+	}
+	
+	public List<String> getStats()
+	{
+		final int pendingItems;
+		final int pendingPlayers;
+		synchronized (_pendingLock)
+		{
+			pendingItems = _pendingItems.size();
+			pendingPlayers = _pendingPlayers.size();
+		}
+		
+		final List<String> list = new ArrayList<>();
+		list.add("Write Behind:");
+		list.add("\tEnabled: ............. " + isEnabled());
+		list.add("\tPending items: ....... " + pendingItems);
+		list.add("\tPending players: ..... " + pendingPlayers);
+		list.add("\tFlushes: ............. " + _flushCount);
+		list.add("\tWritten items: ....... " + _writtenItems);
+		list.add("\tWritten players: ..... " + _writtenPlayers);
+		list.add("\tLast flush: .......... " + TimeUnit.NANOSECONDS.toMillis(_lastFlushDuration) + " ms");
+		list.add("\tLongest flush: ....... " + TimeUnit.NANOSECONDS.toMillis(_longestFlushDuration) + " ms");
+		list.add("\tTimes lagging: ....... " + _lagCount);
+		return list;
+	}
+	
+	private static final class PendingItem
+	{
+		protected final ItemInstance _item;
+		protected boolean _force;
+		
+		protected PendingItem(ItemInstance item, boolean force)
+		{
+			_item = item;
+			_force = force;
+		}
+	}
+	
+	private static final class SingletonHolder
+	{
+		protected static final WriteBehindTaskManager INSTANCE = new WriteBehindTaskManager();
+	}
+	
+	@InstanceGetter
+	public static WriteBehindTaskManager getInstance()
+	{
+		return SingletonHolder.INSTANCE;
+	}
+}
@@ -22,6 +22,7 @@ import org.l2junity.gameserver.enums.ChatType;
 import org.l2junity.gameserver.model.World;
 import org.l2junity.gameserver.model.actor.Creature;
 import org.l2junity.gameserver.model.actor.instance.PlayerInstance;
+import org.l2junity.gameserver.network.client.SharedPacketSender;
 import org.l2junity.gameserver.network.client.send.CreatureSay;
 import org.l2junity.gameserver.network.client.send.ExShowScreenMessage;
 import org.l2junity.gameserver.network.client.send.IClientOutgoingPacket;
@@ -47,13 +48,16 @@ public final class Broadcast
 	 */
 	public static void toPlayersTargettingMyself(Creature character, IClientOutgoingPacket mov)
 	{
-		World.getInstance().forEachVisibleObject(character, PlayerInstance.class, player ->
+		try (SharedPacketSender sender = new SharedPacketSender(mov))
 		{
-			if (player.getTarget() == character)
+			World.getInstance().forEachVisibleObject(character, PlayerInstance.class, player ->
 			{
-				player.sendPacket(mov);
-			}
-		});
+				if (player.getTarget() == character)
+				{
+					sender.accept(player);
+				}
+			});
+		}
 		
 	}
 	
@@ -68,17 +72,20 @@ public final class Broadcast
 	 */
 	public static void toKnownPlayers(Creature character, IClientOutgoingPacket mov)
 	{
-		World.getInstance().forEachVisibleObject(character, PlayerInstance.class, player ->
+		try (SharedPacketSender sender = new SharedPacketSender(mov))
 		{
-			try
+			World.getInstance().forEachVisibleObject(character, PlayerInstance.class, player ->
 			{
-				player.sendPacket(mov);
-			}
-			catch (NullPointerException e)
-			{
-				LOGGER.warn(e.getMessage(), e);
-			}
-		});
+				try
+				{
+					sender.accept(player);
+				}
+				catch (NullPointerException e)
+				{
+					LOGGER.warn(e.getMessage(), e);
+				}
+			});
+		}
 	}
 	
 	/**
@@ -98,7 +105,10 @@ public final class Broadcast
 			radius = 1500;
 		}
 		
-		World.getInstance().forEachVisibleObjectInRadius(character, PlayerInstance.class, radius, mov::sendTo);
+		try (SharedPacketSender sender = new SharedPacketSender(mov))
+		{
+			World.getInstance().forEachVisibleObjectInRadius(character, PlayerInstance.class, radius, sender);
+		}
 	}
 	
 	/**
@@ -132,7 +142,10 @@ public final class Broadcast
 			character.sendPacket(mov);
 		}
 		
-		World.getInstance().forEachVisibleObjectInRadius(character, PlayerInstance.class, radius, mov::sendTo);
+		try (SharedPacketSender sender = new SharedPacketSender(mov))
+		{
+			World.getInstance().forEachVisibleObjectInRadius(character, PlayerInstance.class, radius, sender);
+		}
 	}
 	
 	/**
@@ -144,11 +157,14 @@ public final class Broadcast
 	 */
 	public static void toAllOnlinePlayers(IClientOutgoingPacket packet)
 	{
-		for (PlayerInstance player : World.getInstance().getPlayers())
+		try (SharedPacketSender sender = new SharedPacketSender(packet))
 		{
-			if (player.isOnline())
+			for (PlayerInstance player : World.getInstance().getPlayers())
 			{
-				player.sendPacket(packet);
+				if (player.isOnline())
+				{
+					sender.accept(player);
+				}
 			}
 		}
 	}
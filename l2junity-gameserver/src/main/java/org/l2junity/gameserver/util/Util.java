@@ -24,13 +24,16 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.text.NumberFormat;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 import java.util.concurrent.TimeUnit;
 
 import org.l2junity.commons.util.concurrent.ThreadPool;
+import org.l2junity.gameserver.cache.HtmlTemplate;
 import org.l2junity.gameserver.config.GeneralConfig;
 import org.l2junity.gameserver.enums.HtmlActionScope;
 import org.l2junity.gameserver.enums.IllegalActionPunishmentType;
@@ -39,6 +42,7 @@ import org.l2junity.gameserver.model.WorldObject;
 import org.l2junity.gameserver.model.actor.Creature;
 import org.l2junity.gameserver.model.actor.instance.PlayerInstance;
 import org.l2junity.gameserver.model.actor.tasks.player.IllegalPlayerActionTask;
+import org.l2junity.gameserver.model.html.HtmlActionSet;
 import org.l2junity.gameserver.network.client.send.AbstractHtmlPacket;
 import org.l2junity.gameserver.network.client.send.NpcHtmlMessage;
 import org.l2junity.gameserver.network.client.send.ShowBoard;
@@ -52,6 +56,8 @@ public final class Util
 {
 	private static final Logger LOGGER = LoggerFactory.getLogger(Util.class);
 	private static final NumberFormat ADENA_FORMATTER = NumberFormat.getIntegerInstance(Locale.ENGLISH);
+	private static final String HTML_BYPASS_START = "=\"bypass ";
+	private static final String HTML_LINK_START = "=\"link ";
 	
 	private Util()
 	{
@@ -389,83 +395,116 @@ public final class Util
 		return dateFormat.format(date.getTime());
 	}
 	
-	private static void buildHtmlBypassCache(PlayerInstance player, HtmlActionScope scope, String html)
+	/**
+	 * Receives the value ranges of the html actions found by {@link Util#scanHtmlActions(String, HtmlActionVisitor)}.
+	 */
+	@FunctionalInterface
+	public interface HtmlActionVisitor
 	{
-		String htmlLower = html.toLowerCase(Locale.ENGLISH);
-		int bypassEnd = 0;
-		int bypassStart = htmlLower.indexOf("=\"bypass ", bypassEnd);
-		int bypassStartEnd;
-		while (bypassStart != -1)
+		/**
+		 * @param link {@code true} for a link action, {@code false} for a bypass action
+		 * @param start the index of the first character after {@code bypass } or {@code link }
+		 * @param end the index of the closing quote
+		 */
+		void visit(boolean link, int start, int end);
+	}
+	
+	/**
+	 * Finds all {@code ="bypass ...."} and {@code ="link ...."} actions of the html, first all bypasses then all links.
+	 * @param html the html code to parse
+	 * @param visitor the visitor receiving the value range of every action
+	 * @return {@code true} if every action is terminated by a quote, {@code false} if the html ends inside an action
+	 */
+	public static boolean scanHtmlActions(String html, HtmlActionVisitor visitor)
+	{
+		final String htmlLower = html.toLowerCase(Locale.ENGLISH);
+		final boolean bypassesTerminated = scanHtmlActions(htmlLower, HTML_BYPASS_START, false, visitor);
+		final boolean linksTerminated = scanHtmlActions(htmlLower, HTML_LINK_START, true, visitor);
+		return bypassesTerminated && linksTerminated;
+	}
+	
+	private static boolean scanHtmlActions(String htmlLower, String actionStart, boolean link, HtmlActionVisitor visitor)
+	{
+		int start = htmlLower.indexOf(actionStart);
+		while (start != -1)
 		{
-			bypassStartEnd = bypassStart + 9;
-			bypassEnd = htmlLower.indexOf("\"", bypassStartEnd);
-			if (bypassEnd == -1)
-			{
-				break;
-			}
-			
-			int hParamPos = htmlLower.indexOf("-h ", bypassStartEnd);
-			String bypass;
-			if ((hParamPos != -1) && (hParamPos < bypassEnd))
-			{
-				bypass = html.substring(hParamPos + 3, bypassEnd).trim();
-			}
-			else
+			final int valueStart = start + actionStart.length();
+			final int end = htmlLower.indexOf('"', valueStart);
+			if (end == -1)
 			{
-				bypass = html.substring(bypassStartEnd, bypassEnd).trim();
-			}
-			
-			int firstParameterStart = bypass.indexOf(AbstractHtmlPacket.VAR_PARAM_START_CHAR);
-			if (firstParameterStart != -1)
-			{
-				bypass = bypass.substring(0, firstParameterStart + 1);
+				return false;
 			}
 			
-			if (GeneralConfig.HTML_ACTION_CACHE_DEBUG)
-			{
-				LOGGER.info("Cached html bypass(" + scope.toString() + "): '" + bypass + "'");
-			}
-			player.addHtmlAction(scope, bypass);
-			bypassStart = htmlLower.indexOf("=\"bypass ", bypassEnd);
+			visitor.visit(link, valueStart, end);
+			start = htmlLower.indexOf(actionStart, end);
 		}
+		return true;
 	}
 	
-	private static void buildHtmlLinkCache(PlayerInstance player, HtmlActionScope scope, String html)
+	/**
+	 * Converts the value of an action found by {@link #scanHtmlActions(String, HtmlActionVisitor)} into the action the client sends back.
+	 * @param link {@code true} for a link action, {@code false} for a bypass action
+	 * @param value the value between {@code bypass } or {@code link } and the closing quote
+	 * @return the action, {@code null} if the action is invalid
+	 */
+	public static String toHtmlAction(boolean link, String value)
 	{
-		String htmlLower = html.toLowerCase(Locale.ENGLISH);
-		int linkEnd = 0;
-		int linkStart = htmlLower.indexOf("=\"link ", linkEnd);
-		int linkStartEnd;
-		while (linkStart != -1)
+		if (link)
 		{
-			linkStartEnd = linkStart + 7;
-			linkEnd = htmlLower.indexOf("\"", linkStartEnd);
-			if (linkEnd == -1)
-			{
-				break;
-			}
-			
-			String htmlLink = html.substring(linkStartEnd, linkEnd).trim();
+			final String htmlLink = value.trim();
 			if (htmlLink.isEmpty())
 			{
 				LOGGER.warn("Html link path is empty!");
-				continue;
+				return null;
 			}
 			
 			if (htmlLink.contains(".."))
 			{
 				LOGGER.warn("Html link path is invalid: " + htmlLink);
-				continue;
+				return null;
 			}
 			
-			if (GeneralConfig.HTML_ACTION_CACHE_DEBUG)
+			// let's keep an action cache with "link " lowercase literal kept
+			return "link " + htmlLink;
+		}
+		
+		final int hParamPos = value.toLowerCase(Locale.ENGLISH).indexOf("-h ");
+		String bypass = (hParamPos != -1 ? value.substring(hParamPos + 3) : value).trim();
+		final int firstParameterStart = bypass.indexOf(AbstractHtmlPacket.VAR_PARAM_START_CHAR);
+		if (firstParameterStart != -1)
+		{
+			bypass = bypass.substring(0, firstParameterStart + 1);
+		}
+		return bypass;
+	}
+	
+	/**
+	 * Adds all bypass and link actions of the html.
+	 * @param html the html code to parse
+	 * @param actions the collection to add the actions to
+	 * @return {@code true} if every action is terminated by a quote, {@code false} if the html ends inside an action
+	 */
+	public static boolean collectHtmlActions(String html, Collection<String> actions)
+	{
+		return scanHtmlActions(html, (link, start, end) ->
+		{
+			final String action = toHtmlAction(link, html.substring(start, end));
+			if (action != null)
 			{
-				LOGGER.info("Cached html link(" + scope.toString() + "): '" + htmlLink + "'");
+				actions.add(action);
 			}
-			// let's keep an action cache with "link " lowercase literal kept
-			player.addHtmlAction(scope, "link " + htmlLink);
-			linkStart = htmlLower.indexOf("=\"link ", linkEnd);
+		});
+	}
+	
+	private static void setHtmlActions(PlayerInstance player, HtmlActionScope scope, int npcObjId, HtmlActionSet actions)
+	{
+		if (GeneralConfig.HTML_ACTION_CACHE_DEBUG)
+		{
+			LOGGER.info("Set html action npc(" + scope.toString() + "): " + npcObjId);
+			LOGGER.info("Cached html actions(" + scope.toString() + "): " + actions);
 		}
+		player.setHtmlActionOriginObjectId(scope, npcObjId);
+		player.setHtmlActions(scope, actions);
 	}
 	
 	/**
@@ -484,13 +523,36 @@ public final class Util
 			throw new IllegalArgumentException();
 		}
 		
-		if (GeneralConfig.HTML_ACTION_CACHE_DEBUG)
+		final List<String> actions = new ArrayList<>();
+		collectHtmlActions(html, actions);
+		setHtmlActions(player, scope, npcObjId, HtmlActionSet.of(actions));
+	}
+	
+	/**
+	 * Builds the html action cache for the specified scope from the action index of a template, only the values bound to the template are parsed.
+	 * @param player the player to build the html action cache for
+	 * @param scope the scope to build the html action cache for
+	 * @param npcObjId the npc object id the html actions are cached for
+	 * @param template the template of the html
+	 * @param values the values bound to the template
+	 * @see #buildHtmlActionCache(PlayerInstance, HtmlActionScope, int, String)
+	 */
+	public static void buildHtmlActionCache(PlayerInstance player, HtmlActionScope scope, int npcObjId, HtmlTemplate template, String[] values)
+	{
+		if ((player == null) || (scope == null) || (npcObjId < 0) || (template == null))
 		{
-			LOGGER.info("Set html action npc(" + scope.toString() + "): " + npcObjId);
+			throw new IllegalArgumentException();
 		}
-		player.setHtmlActionOriginObjectId(scope, npcObjId);
-		buildHtmlBypassCache(player, scope, html);
-		buildHtmlLinkCache(player, scope, html);
+		
+		HtmlActionSet actions = template.getActions(values);
+		if (actions == null)
+		{
+			// The values change what the page looks like to the parser, parse the rendered page instead
+			final List<String> renderedActions = new ArrayList<>();
+			collectHtmlActions(template.render(values), renderedActions);
+			actions = HtmlActionSet.of(renderedActions);
+		}
+		setHtmlActions(player, scope, npcObjId, actions);
 	}
 	
 	/**
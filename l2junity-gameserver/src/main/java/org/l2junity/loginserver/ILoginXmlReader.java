@@ -57,7 +57,7 @@ public interface ILoginXmlReader extends IXmlReader
 	}
 	
 	/**
-	 * Loads all XML files from {@code path} and calls {@link #parseFile(Path)} for each one of them.
+	 * Loads all XML files from {@code path} and calls {@link #parseFiles(java.util.Collection)} for them.
 	 * @param dir the directory object to scan.
 	 * @param recursive parses all sub folders if there is.
 	 * @return {@code false} if it fails to find the directory, {@code true} otherwise.
@@ -67,17 +67,7 @@ public interface ILoginXmlReader extends IXmlReader
 	default boolean parseDirectory(final Path dir, final boolean recursive) throws IOException
 	{
 		final Map<String, Path> files = BasePathProvider.resolveDatapackFiles(LoginServerConfig.DATAPACK_ROOT, dir, recursive);
-		files.values().forEach(file ->
-		{
-			try
-			{
-				parseFile(file);
-			}
-			catch (final IOException | XmlReaderException e)
-			{
-				LOGGER.warn("Failed to load file: '" + file + "'", e);
-			}
-		});
+		parseFiles(files.values());
 		return true;
 	}
 	
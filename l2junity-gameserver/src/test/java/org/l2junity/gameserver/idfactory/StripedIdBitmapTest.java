@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) 2004-2017 L2J Unity
+ * 
+ * This file is part of L2J Unity.
+ * 
+ * L2J Unity is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Unity is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2junity.gameserver.idfactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public final class StripedIdBitmapTest
+{
+	@Rule
+	public final TemporaryFolder _folder = new TemporaryFolder();
+	
+	@Test
+	public void testConcurrentGetNextIdIsUnique() throws InterruptedException
+	{
+		final int threadCount = 8;
+		final int idsPerThread = 10_000;
+		// Room for the IDs the other threads took but did not hand out yet
+		final StripedIdBitmap bitmap = new StripedIdBitmap(threadCount * (idsPerThread + 64), 4);
+		final Set<Integer> ids = ConcurrentHashMap.newKeySet();
+		final CountDownLatch start = new CountDownLatch(1);
+		final List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < threadCount; i++)
+		{
+			final Thread thread = new Thread(() ->
+			{
+				try
+				{
+					start.await();
+				}
+				catch (InterruptedException e)
+				{
+					return;
+				}
+				for (int j = 0; j < idsPerThread; j++)
+				{
+					ids.add(bitmap.getNextId());
+				}
+			});
+			thread.start();
+			threads.add(thread);
+		}
+		start.countDown();
+		for (Thread thread : threads)
+		{
+			thread.join();
+		}
+		
+		// Every ID was handed out exactly once
+		Assert.assertEquals(threadCount * idsPerThread, ids.size());
+		Assert.assertEquals(threadCount * idsPerThread, bitmap.getUsedCount());
+	}
+	
+	@Test
+	public void testReleasedIdsAreReused()
+	{
+		final StripedIdBitmap bitmap = new StripedIdBitmap(64 * 16, 4);
+		for (int i = 0; i < (64 * 16); i++)
+		{
+			bitmap.getNextId();
+		}
+		Assert.assertEquals(0, bitmap.getFreeCount());
+		
+		// Word 5 and word 10 are in different stripes, the cursors moved past both of them
+		final Set<Integer> released = new HashSet<>();
+		released.add((5 * 64) + 3);
+		released.add((10 * 64) + 63);
+		for (int id : released)
+		{
+			Assert.assertTrue(bitmap.markFree(id));
+			Assert.assertFalse(bitmap.isUsed(id));
+		}
+		Assert.assertFalse(bitmap.markFree((5 * 64) + 3));
+		Assert.assertEquals(2, bitmap.getFreeCount());
+		
+		final Set<Integer> reused = new HashSet<>();
+		reused.add(bitmap.getNextId());
+		reused.add(bitmap.getNextId());
+		Assert.assertEquals(released, reused);
+		Assert.assertEquals(0, bitmap.getFreeCount());
+	}
+	
+	@Test
+	public void testIdsAfterTheLastOneAreNeverHandedOut()
+	{
+		final StripedIdBitmap bitmap = new StripedIdBitmap(100, 2);
+		final Set<Integer> ids = new HashSet<>();
+		for (int i = 0; i < 100; i++)
+		{
+			final int id = bitmap.getNextId();
+			Assert.assertTrue(id < 100);
+			ids.add(id);
+		}
+		Assert.assertEquals(100, ids.size());
+		Assert.assertEquals(0, bitmap.getFreeCount());
+		
+		try
+		{
+			bitmap.getNextId();
+			Assert.fail("An ID after the last one was handed out");
+		}
+		catch (NullPointerException e)
+		{
+			// expected
+		}
+	}
+	
+	@Test
+	public void testDeadThreadBlockIsFreed() throws InterruptedException
+	{
+		final StripedIdBitmap bitmap = new StripedIdBitmap(64 * 4, 2);
+		final Thread thread = new Thread(bitmap::getNextId);
+		thread.start();
+		thread.join();
+		
+		bitmap.freeDeadBlocks();
+		Assert.assertEquals(1, bitmap.getUsedCount());
+		for (int i = 0; i < ((64 * 4) - 1); i++)
+		{
+			bitmap.getNextId();
+		}
+		Assert.assertEquals(0, bitmap.getFreeCount());
+	}
+	
+	@Test
+	public void testSnapshotRoundTrip() throws IOException
+	{
+		final StripedIdBitmap bitmap = new StripedIdBitmap((StripedIdBitmap.SEGMENT_WORDS * 64 * 2) + 10, 4);
+		final int releasedId = bitmap.getNextId();
+		for (int i = 0; i < 5000; i++)
+		{
+			bitmap.getNextId();
+		}
+		Assert.assertTrue(bitmap.markFree(releasedId));
+		bitmap.markUsed((StripedIdBitmap.SEGMENT_WORDS * 64 * 2) + 9);
+		
+		final Path file = _folder.getRoot().toPath().resolve("idfactory.dat");
+		bitmap.store(file);
+		
+		final StripedIdBitmap restored = new StripedIdBitmap((StripedIdBitmap.SEGMENT_WORDS * 64 * 2) + 10, 4);
+		restored.load(file);
+		// The IDs taken by this thread but not handed out are stored as used
+		int usedIds = 0;
+		for (int id = 0; id < ((StripedIdBitmap.SEGMENT_WORDS * 64 * 2) + 10); id++)
+		{
+			Assert.assertEquals("id " + id, bitmap.isUsed(id), restored.isUsed(id));
+			if (restored.isUsed(id))
+			{
+				usedIds++;
+			}
+		}
+		Assert.assertEquals(usedIds, restored.getUsedCount());
+		
+		// A released ID is handed out again after the restore
+		Assert.assertEquals(releasedId, restored.getNextId());
+	}
+	
+	@Test(expected = IOException.class)
+	public void testSnapshotOfAnotherSizeIsRejected() throws IOException
+	{
+		final StripedIdBitmap bitmap = new StripedIdBitmap(64 * 64, 4);
+		bitmap.getNextId();
+		final Path file = _folder.getRoot().toPath().resolve("idfactory.dat");
+		bitmap.store(file);
+		
+		new StripedIdBitmap(64 * 128, 4).load(file);
+	}
+}
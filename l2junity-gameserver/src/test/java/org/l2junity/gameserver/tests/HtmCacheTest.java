@@ -25,9 +25,11 @@ import org.l2junity.commons.util.AppInit;
 import org.l2junity.commons.util.AppInit.ApplicationMode;
 import org.l2junity.gameserver.GameThreadPools;
 import org.l2junity.gameserver.cache.HtmCache;
+import org.l2junity.gameserver.cache.HtmlTemplate;
 import org.l2junity.gameserver.config.GameConfigMarker;
 import org.l2junity.gameserver.config.GeneralConfig;
 import org.l2junity.gameserver.config.L2JModsConfig;
+import org.l2junity.gameserver.model.html.HtmlActionSet;
 
 /**
  * @author lord_rex
@@ -66,4 +68,39 @@ public final class HtmCacheTest
 		Assert.assertNotNull(content);
 		Assert.assertNotEquals(content, "");
 	}
+	
+	@Test
+	public void testTemplate()
+	{
+		final String content = HtmCache.getInstance().getHtm(null, "data/html/servnews.htm");
+		final HtmlTemplate template = HtmCache.getInstance().getTemplate(null, "data/html/servnews.htm");
+		Assert.assertNotNull(template);
+		Assert.assertEquals(content, template.render(template.newValues()));
+		
+		final HtmlTemplate page = HtmlTemplate.parse("<a action=\"bypass -h npc_%objectId%_Chat 1\">%name% 50% %name%</a>");
+		final String[] values = page.newValues();
+		page.bind(values, "%objectId%", "268435456");
+		page.bind(values, "%name%", "$%objectId%");
+		Assert.assertEquals("<a action=\"bypass -h npc_268435456_Chat 1\">$%objectId% 50% $%objectId%</a>", page.render(values));
+	}
+	
+	@Test
+	public void testTemplateActions()
+	{
+		final HtmlTemplate page = HtmlTemplate.parse("<a action=\"bypass -h npc_%objectId%_Chat 1\">%list%</a><a action=\"link help.htm\">Help</a><edit var=\"x\"><a action=\"bypass -h multisell $x\">");
+		final String[] values = page.newValues();
+		page.bind(values, "%objectId%", "268435456");
+		page.bind(values, "%list%", "<button action=\"bypass -h npc_268435456_Buy 2\">");
+		final HtmlActionSet actions = page.getActions(values);
+		Assert.assertNotNull(actions);
+		Assert.assertTrue(actions.contains("npc_268435456_Chat 1"));
+		Assert.assertTrue(actions.contains("npc_268435456_Buy 2"));
+		Assert.assertTrue(actions.contains("link help.htm"));
+		Assert.assertTrue(actions.contains("multisell 10"));
+		Assert.assertFalse(actions.contains("npc_268435457_Chat 1"));
+		
+		// A value that moves the end of an action can only be handled by parsing the rendered page
+		page.bind(values, "%objectId%", "1\" onclick=\"");
+		Assert.assertNull(page.getActions(values));
+	}
 }
@@ -25,6 +25,8 @@ import java.nio.channels.FileChannel.MapMode;
 import java.nio.file.Path;
 import java.util.concurrent.atomic.AtomicReferenceArray;
 
+import org.l2junity.geodriver.regions.LazyRegion;
+import org.l2junity.geodriver.regions.MappedRegion;
 import org.l2junity.geodriver.regions.NullRegion;
 import org.l2junity.geodriver.regions.Region;
 
@@ -114,6 +116,48 @@ public final class GeoDriver
 		}
 	}
 	
+	/**
+	 * Loads a region keeping its blocks in the mapped file, see {@link MappedRegion}.
+	 * @param filePath the geodata file
+	 * @param regionX the region x
+	 * @param regionY the region y
+	 * @param lazy {@code true} to map the file when the region is first used, see {@link LazyRegion}
+	 * @param preload {@code true} to load the whole file into physical memory when it is mapped
+	 * @throws IOException if the file could not be mapped
+	 */
+	public void loadMappedRegion(Path filePath, int regionX, int regionY, boolean lazy, boolean preload) throws IOException
+	{
+		_regions.set((regionX * GEO_REGIONS_Y) + regionY, lazy ? new LazyRegion(filePath, preload) : MappedRegion.map(filePath, preload));
+	}
+	
+	/**
+	 * Maps the region containing the specified cell right away if it is a lazy region that was not used yet.
+	 * @param geoX the geo x
+	 * @param geoY the geo y
+	 * @return {@code true} if the region was mapped by this call
+	 */
+	public boolean mapRegion(int geoX, int geoY)
+	{
+		final IRegion region = getRegion(geoX, geoY);
+		if ((region instanceof LazyRegion) && !((LazyRegion) region).isMapped())
+		{
+			((LazyRegion) region).map();
+			return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * @param geoX the geo x
+	 * @param geoY the geo y
+	 * @return {@code true} if the region containing the specified cell is a lazy region that was not used yet
+	 */
+	public boolean isRegionPending(int geoX, int geoY)
+	{
+		final IRegion region = getRegion(geoX, geoY);
+		return (region instanceof LazyRegion) && !((LazyRegion) region).isMapped();
+	}
+	
 	public void unloadRegion(int regionX, int regionY)
 	{
 		_regions.set((regionX * GEO_REGIONS_Y) + regionY, NullRegion.INSTANCE);
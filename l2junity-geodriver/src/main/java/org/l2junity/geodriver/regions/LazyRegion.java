@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2004-2017 L2J Unity
+ * 
+ * This file is part of L2J Unity.
+ * 
+ * L2J Unity is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Unity is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2junity.geodriver.regions;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+import org.l2junity.geodriver.IRegion;
+
+/**
+ * A region whose geodata file is mapped by the first request reaching it, so regions nobody visits never cost memory or startup time.<br>
+ * If the file cannot be mapped, the first request fails with an exception and the region behaves like a {@link NullRegion} afterwards.
+ */
+public final class LazyRegion implements IRegion
+{
+	private final Path _filePath;
+	private final boolean _preload;
+	private volatile IRegion _region;
+	
+	/**
+	 * Initializes a new region mapping the specified file when it is first used.
+	 * @param filePath the geodata file
+	 * @param preload {@code true} to load the whole file into physical memory when it is mapped
+	 */
+	public LazyRegion(Path filePath, boolean preload)
+	{
+		_filePath = filePath;
+		_preload = preload;
+	}
+	
+	private IRegion getRegion()
+	{
+		IRegion region = _region;
+		if (region == null)
+		{
+			synchronized (this)
+			{
+				region = _region;
+				if (region == null)
+				{
+					try
+					{
+						region = MappedRegion.map(_filePath, _preload);
+						_region = region;
+					}
+					catch (IOException e)
+					{
+						_region = NullRegion.INSTANCE;
+						throw new UncheckedIOException("Failed to map " + _filePath + "!", e);
+					}
+					catch (RuntimeException e)
+					{
+						_region = NullRegion.INSTANCE;
+						throw e;
+					}
+				}
+			}
+		}
+		return region;
+	}
+	
+	/**
+	 * Maps the geodata file unless it was already mapped.
+	 */
+	public void map()
+	{
+		getRegion();
+	}
+	
+	/**
+	 * @return {@code true} if the geodata file was already mapped
+	 */
+	public boolean isMapped()
+	{
+		return _region != null;
+	}
+	
+	@Override
+	public boolean checkNearestNswe(int geoX, int geoY, int worldZ, int nswe)
+	{
+		return getRegion().checkNearestNswe(geoX, geoY, worldZ, nswe);
+	}
+	
+	@Override
+	public int getNearestZ(int geoX, int geoY, int worldZ)
+	{
+		return getRegion().getNearestZ(geoX, geoY, worldZ);
+	}
+	
+	@Override
+	public int getNextLowerZ(int geoX, int geoY, int worldZ)
+	{
+		return getRegion().getNextLowerZ(geoX, geoY, worldZ);
+	}
+	
+	@Override
+	public int getNextHigherZ(int geoX, int geoY, int worldZ)
+	{
+		return getRegion().getNextHigherZ(geoX, geoY, worldZ);
+	}
+	
+	@Override
+	public boolean hasGeo()
+	{
+		final IRegion region = _region;
+		return (region == null) || region.hasGeo();
+	}
+}
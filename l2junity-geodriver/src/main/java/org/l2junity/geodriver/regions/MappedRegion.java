@@ -0,0 +1,266 @@
+/*
+ * Copyright (C) 2004-2017 L2J Unity
+ * 
+ * This file is part of L2J Unity.
+ * 
+ * L2J Unity is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Unity is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2junity.geodriver.regions;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+
+import org.l2junity.geodriver.IBlock;
+import org.l2junity.geodriver.IRegion;
+
+/**
+ * A region reading its cells straight from the buffer of the geodata file instead of creating block objects.<br>
+ * Only the offset of every block is kept on heap, cells are decoded on each request using absolute reads, so the buffer is never modified and can be shared by all threads.
+ */
+public final class MappedRegion implements IRegion
+{
+	private final ByteBuffer _buffer;
+	/** Offset of the type byte of every block in the buffer */
+	private final int[] _blockOffsets = new int[IRegion.REGION_BLOCKS];
+	
+	/**
+	 * Initializes a new region indexing the blocks of the specified buffer.
+	 * @param bb the little endian buffer of the geodata file
+	 */
+	public MappedRegion(ByteBuffer bb)
+	{
+		_buffer = bb;
+		
+		int offset = bb.position();
+		for (int blockOffset = 0; blockOffset < IRegion.REGION_BLOCKS; blockOffset++)
+		{
+			_blockOffsets[blockOffset] = offset;
+			
+			final int blockType = bb.get(offset++);
+			switch (blockType)
+			{
+				case IBlock.TYPE_FLAT:
+					offset += 2;
+					break;
+				case IBlock.TYPE_COMPLEX:
+					offset += IBlock.BLOCK_CELLS * 2;
+					break;
+				case IBlock.TYPE_MULTILAYER:
+					for (int blockCellOffset = 0; blockCellOffset < IBlock.BLOCK_CELLS; blockCellOffset++)
+					{
+						final byte nLayers = bb.get(offset);
+						if ((nLayers <= 0) || (nLayers > 125))
+						{
+							throw new RuntimeException("L2JGeoDriver: Geo file corrupted! Invalid layers count!");
+						}
+						offset += 1 + (nLayers * 2);
+					}
+					break;
+				default:
+					throw new RuntimeException("Invalid block type " + blockType + "!");
+			}
+		}
+	}
+	
+	/**
+	 * Maps the specified geodata file and indexes its blocks.
+	 * @param filePath the geodata file
+	 * @param preload {@code true} to load the whole file into physical memory right away
+	 * @return the region
+	 * @throws IOException if the file could not be mapped
+	 */
+	public static MappedRegion map(Path filePath, boolean preload) throws IOException
+	{
+		try (RandomAccessFile raf = new RandomAccessFile(filePath.toFile(), "r"))
+		{
+			final MappedByteBuffer buffer = raf.getChannel().map(MapMode.READ_ONLY, 0, raf.length());
+			if (preload)
+			{
+				buffer.load();
+			}
+			return new MappedRegion(buffer.order(ByteOrder.LITTLE_ENDIAN));
+		}
+	}
+	
+	private int getBlockOffset(int geoX, int geoY)
+	{
+		return _blockOffsets[(((geoX / IBlock.BLOCK_CELLS_X) % IRegion.REGION_BLOCKS_X) * IRegion.REGION_BLOCKS_Y) + ((geoY / IBlock.BLOCK_CELLS_Y) % IRegion.REGION_BLOCKS_Y)];
+	}
+	
+	private static int getCellLocalOffset(int geoX, int geoY)
+	{
+		return ((geoX % IBlock.BLOCK_CELLS_X) * IBlock.BLOCK_CELLS_Y) + (geoY % IBlock.BLOCK_CELLS_Y);
+	}
+	
+	/**
+	 * Gets the offset of the layer count of a cell inside a multilayer block.
+	 * @param dataOffset the offset of the block data
+	 * @param geoX the geo x
+	 * @param geoY the geo y
+	 * @return the offset of the cell
+	 */
+	private int getMultilayerCellOffset(int dataOffset, int geoX, int geoY)
+	{
+		final int cellLocalOffset = getCellLocalOffset(geoX, geoY);
+		int cellDataOffset = dataOffset;
+		for (int i = 0; i < cellLocalOffset; i++)
+		{
+			cellDataOffset += 1 + (_buffer.get(cellDataOffset) * 2);
+		}
+		return cellDataOffset;
+	}
+	
+	/**
+	 * Gets the layer of a cell nearest to the specified z inside a complex or multilayer block.
+	 * @param blockOffset the offset of the block
+	 * @param geoX the geo x
+	 * @param geoY the geo y
+	 * @param worldZ the world z
+	 * @return the layer data
+	 */
+	private short getNearestLayer(int blockOffset, int geoX, int geoY, int worldZ)
+	{
+		if (_buffer.get(blockOffset) == IBlock.TYPE_COMPLEX)
+		{
+			return _buffer.getShort(blockOffset + 1 + (getCellLocalOffset(geoX, geoY) * 2));
+		}
+		
+		final int startOffset = getMultilayerCellOffset(blockOffset + 1, geoX, geoY);
+		final int endOffset = startOffset + 1 + (_buffer.get(startOffset) * 2);
+		
+		// 1 layer at least was required on loading so this is set at least once on the loop below
+		int nearestDZ = 0;
+		short nearestData = 0;
+		for (int offset = startOffset + 1; offset < endOffset; offset += 2)
+		{
+			final short layerData = _buffer.getShort(offset);
+			final int layerZ = extractLayerHeight(layerData);
+			if (layerZ == worldZ)
+			{
+				// exact z
+				return layerData;
+			}
+			
+			final int layerDZ = Math.abs(layerZ - worldZ);
+			if ((offset == (startOffset + 1)) || (layerDZ < nearestDZ))
+			{
+				nearestDZ = layerDZ;
+				nearestData = layerData;
+			}
+		}
+		return nearestData;
+	}
+	
+	private static int extractLayerHeight(short layer)
+	{
+		return ((short) (layer & 0x0FFF0)) >> 1;
+	}
+	
+	@Override
+	public boolean checkNearestNswe(int geoX, int geoY, int worldZ, int nswe)
+	{
+		final int blockOffset = getBlockOffset(geoX, geoY);
+		if (_buffer.get(blockOffset) == IBlock.TYPE_FLAT)
+		{
+			return true;
+		}
+		return (getNearestLayer(blockOffset, geoX, geoY, worldZ) & nswe) == nswe;
+	}
+	
+	@Override
+	public int getNearestZ(int geoX, int geoY, int worldZ)
+	{
+		final int blockOffset = getBlockOffset(geoX, geoY);
+		if (_buffer.get(blockOffset) == IBlock.TYPE_FLAT)
+		{
+			return _buffer.getShort(blockOffset + 1);
+		}
+		return extractLayerHeight(getNearestLayer(blockOffset, geoX, geoY, worldZ));
+	}
+	
+	@Override
+	public int getNextLowerZ(int geoX, int geoY, int worldZ)
+	{
+		final int blockOffset = getBlockOffset(geoX, geoY);
+		if (_buffer.get(blockOffset) != IBlock.TYPE_MULTILAYER)
+		{
+			final int cellHeight = getNearestZ(geoX, geoY, worldZ);
+			return cellHeight <= worldZ ? cellHeight : worldZ;
+		}
+		
+		final int startOffset = getMultilayerCellOffset(blockOffset + 1, geoX, geoY);
+		final int endOffset = startOffset + 1 + (_buffer.get(startOffset) * 2);
+		
+		int lowerZ = Integer.MIN_VALUE;
+		for (int offset = startOffset + 1; offset < endOffset; offset += 2)
+		{
+			final int layerZ = extractLayerHeight(_buffer.getShort(offset));
+			if (layerZ == worldZ)
+			{
+				// exact z
+				return layerZ;
+			}
+			
+			if ((layerZ < worldZ) && (layerZ > lowerZ))
+			{
+				lowerZ = layerZ;
+			}
+		}
+		
+		return lowerZ == Integer.MIN_VALUE ? worldZ : lowerZ;
+	}
+	
+	@Override
+	public int getNextHigherZ(int geoX, int geoY, int worldZ)
+	{
+		final int blockOffset = getBlockOffset(geoX, geoY);
+		if (_buffer.get(blockOffset) != IBlock.TYPE_MULTILAYER)
+		{
+			final int cellHeight = getNearestZ(geoX, geoY, worldZ);
+			return cellHeight >= worldZ ? cellHeight : worldZ;
+		}
+		
+		final int startOffset = getMultilayerCellOffset(blockOffset + 1, geoX, geoY);
+		final int endOffset = startOffset + 1 + (_buffer.get(startOffset) * 2);
+		
+		int higherZ = Integer.MAX_VALUE;
+		for (int offset = startOffset + 1; offset < endOffset; offset += 2)
+		{
+			final int layerZ = extractLayerHeight(_buffer.getShort(offset));
+			if (layerZ == worldZ)
+			{
+				// exact z
+				return layerZ;
+			}
+			
+			if ((layerZ > worldZ) && (layerZ < higherZ))
+			{
+				higherZ = layerZ;
+			}
+		}
+		
+		return higherZ == Integer.MAX_VALUE ? worldZ : higherZ;
+	}
+	
+	@Override
+	public boolean hasGeo()
+	{
+		return true;
+	}
+}
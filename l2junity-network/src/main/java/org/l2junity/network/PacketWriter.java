@@ -112,6 +112,19 @@ public final class PacketWriter
 		_buf.writeChar(0);
 	}
 	
+	/**
+	 * Writes the characters of a string without the terminator, so a string can be written in parts.<br>
+	 * The last part has to be written by {@link #writeS(String)}, which writes the terminator.
+	 * @param value the characters
+	 */
+	public void writeChars(CharSequence value)
+	{
+		for (int i = 0; i < value.length(); i++)
+		{
+			_buf.writeChar(Character.reverseBytes(value.charAt(i)));
+		}
+	}
+	
 	/**
 	 * Writes a string with fixed length specified as [short length, char[length] data].
 	 * @param value the string
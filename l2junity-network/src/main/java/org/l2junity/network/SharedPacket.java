@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2004-2017 L2J Unity
+ * 
+ * This file is part of L2J Unity.
+ * 
+ * L2J Unity is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Unity is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2junity.network;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.DefaultByteBufHolder;
+
+/**
+ * An already written, reference-counted packet payload that can be sent to many channels.<br>
+ * The packet is serialized exactly once, every channel receives a retained duplicate of the payload and only runs its own encryption step on it.
+ * @author Nos
+ */
+public final class SharedPacket extends DefaultByteBufHolder
+{
+	private static final Logger LOGGER = LoggerFactory.getLogger(SharedPacket.class);
+	
+	private final IOutgoingPacket _packet;
+	
+	private SharedPacket(IOutgoingPacket packet, ByteBuf payload)
+	{
+		super(payload);
+		_packet = packet;
+	}
+	
+	/**
+	 * Writes the packet once into a pooled buffer.
+	 * @param packet the packet to write
+	 * @param allocator the allocator of the payload buffer
+	 * @return the shared packet, or {@code null} if the packet could not be written
+	 */
+	public static SharedPacket write(IOutgoingPacket packet, ByteBufAllocator allocator)
+	{
+		final ByteBuf payload = allocator.buffer();
+		try
+		{
+			if (packet.write(new PacketWriter(payload)))
+			{
+				return new SharedPacket(packet, payload);
+			}
+		}
+		catch (Throwable e)
+		{
+			LOGGER.warn("Failed writing shared Packet({})", packet, e);
+		}
+		
+		payload.release();
+		return null;
+	}
+	
+	/**
+	 * @return the packet this payload was written from
+	 */
+	public IOutgoingPacket getPacket()
+	{
+		return _packet;
+	}
+	
+	@Override
+	public SharedPacket replace(ByteBuf content)
+	{
+		return new SharedPacket(_packet, content);
+	}
+	
+	@Override
+	public SharedPacket retainedDuplicate()
+	{
+		return replace(content().retainedDuplicate());
+	}
+	
+	@Override
+	public SharedPacket retain()
+	{
+		super.retain();
+		return this;
+	}
+	
+	@Override
+	public SharedPacket retain(int increment)
+	{
+		super.retain(increment);
+		return this;
+	}
+	
+	@Override
+	public SharedPacket touch()
+	{
+		super.touch();
+		return this;
+	}
+	
+	@Override
+	public SharedPacket touch(Object hint)
+	{
+		super.touch(hint);
+		return this;
+	}
+	
+	@Override
+	public String toString()
+	{
+		return getClass().getSimpleName() + "(" + _packet + ")";
+	}
+}
@@ -20,6 +20,7 @@ package org.l2junity.network.codecs;
 
 import org.l2junity.network.IOutgoingPacket;
 import org.l2junity.network.PacketWriter;
+import org.l2junity.network.SharedPacket;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -29,10 +30,11 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToByteEncoder;
 
 /**
+ * Writes {@link IOutgoingPacket}s, and copies the already written payload of {@link SharedPacket}s, into the channel's outbound buffer.
  * @author Nos
  */
 @Sharable
-public class PacketEncoder extends MessageToByteEncoder<IOutgoingPacket>
+public class PacketEncoder extends MessageToByteEncoder<Object>
 {
 	private static final Logger LOGGER = LoggerFactory.getLogger(PacketEncoder.class);
 	
@@ -45,8 +47,32 @@ public class PacketEncoder extends MessageToByteEncoder<IOutgoingPacket>
 	}
 	
 	@Override
-	protected void encode(ChannelHandlerContext ctx, IOutgoingPacket packet, ByteBuf out)
+	public boolean acceptOutboundMessage(Object msg)
 	{
+		return (msg instanceof IOutgoingPacket) || (msg instanceof SharedPacket);
+	}
+	
+	@Override
+	protected ByteBuf allocateBuffer(ChannelHandlerContext ctx, Object msg, boolean preferDirect) throws Exception
+	{
+		if (msg instanceof SharedPacket)
+		{
+			final int size = ((SharedPacket) msg).content().readableBytes();
+			return preferDirect ? ctx.alloc().ioBuffer(size) : ctx.alloc().heapBuffer(size);
+		}
+		return super.allocateBuffer(ctx, msg, preferDirect);
+	}
+	
+	@Override
+	protected void encode(ChannelHandlerContext ctx, Object msg, ByteBuf out)
+	{
+		if (msg instanceof SharedPacket)
+		{
+			encodeShared((SharedPacket) msg, out);
+			return;
+		}
+		
+		final IOutgoingPacket packet = (IOutgoingPacket) msg;
 		try
 		{
 			if (packet.write(new PacketWriter(out)))
@@ -69,4 +95,17 @@ public class PacketEncoder extends MessageToByteEncoder<IOutgoingPacket>
 			out.clear();
 		}
 	}
-}
\ No newline at end of file
+	
+	private void encodeShared(SharedPacket sharedPacket, ByteBuf out)
+	{
+		final ByteBuf payload = sharedPacket.content();
+		if (payload.readableBytes() > _maxPacketSize)
+		{
+			LOGGER.warn("Failed sending Packet({})", sharedPacket.getPacket(), new IllegalStateException("Packet (" + sharedPacket.getPacket() + ") size (" + payload.readableBytes() + ") is bigger than the limit (" + _maxPacketSize + ")"));
+			return;
+		}
+		
+		// The payload is shared between channels, the crypt codec must work on a private copy.
+		out.writeBytes(payload, payload.readerIndex(), payload.readableBytes());
+	}
+}